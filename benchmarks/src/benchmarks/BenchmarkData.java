@@ -0,0 +1,62 @@
+// Aaron Knoll
+package benchmarks;
+
+import data.DataSet;
+import java.util.Random;
+
+/**
+ * Reproducible synthetic data shared by the benchmarks: instances scattered
+ * around a few centres, so that clustering has something to find.
+ *
+ * @author aaronknoll
+ */
+final class BenchmarkData {
+
+    private static final int CENTRES = 8;
+
+    private BenchmarkData() {
+        /* static utility class */ }
+
+    /**
+     * @param size number of instances
+     * @param seed seed of the coordinates
+     * @return the instances in <code>.tsd</code> format, one per line
+     */
+    static String tsd(int size, long seed) {
+        Random        random  = new Random(seed);
+        double[]      centres = centres(random);
+        StringBuilder text    = new StringBuilder(size * 32);
+        for (int i = 0; i < size; i++) {
+            int c = random.nextInt(CENTRES);
+            text.append("@i").append(i).append('\t').append("label").append(c).append('\t')
+                .append(centres[2 * c] + random.nextGaussian()).append(',')
+                .append(centres[2 * c + 1] + random.nextGaussian()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * @param size number of instances
+     * @param seed seed of the coordinates
+     * @return the same instances as {@link #tsd(int, long)}
+     */
+    static DataSet dataSet(int size, long seed) {
+        Random   random  = new Random(seed);
+        double[] centres = centres(random);
+        DataSet  dataset = new DataSet(size);
+        for (int i = 0; i < size; i++) {
+            int c = random.nextInt(CENTRES);
+            dataset.addInstance("@i" + i, "label" + c,
+                                centres[2 * c] + random.nextGaussian(), centres[2 * c + 1] + random.nextGaussian());
+        }
+        return dataset;
+    }
+
+    private static double[] centres(Random random) {
+        double[] centres = new double[2 * CENTRES];
+        for (int i = 0; i < centres.length; i++) {
+            centres[i] = random.nextDouble() * 100;
+        }
+        return centres;
+    }
+}
@@ -0,0 +1,75 @@
+// Aaron Knoll
+package benchmarks;
+
+import data.DataSet;
+import dataprocessors.TSDProcessor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading <code>.tsd</code> data: from a file with the parallel parser, and
+ * from the text area with the line-by-line {@link TSDProcessor}.
+ *
+ * @author aaronknoll
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IngestionBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int size;
+
+    private String text;
+    private Path   file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        text = BenchmarkData.tsd(size, 42);
+        file = Files.createTempFile("ingestion", ".tsd");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public DataSet fromTSDFile() throws IOException {
+        return DataSet.fromTSDFile(file);
+    }
+
+    @Benchmark
+    public DataSet processString() throws Exception {
+        // a processor keeps adding to its DataSet, so every invocation needs a new one
+        TSDProcessor processor = new TSDProcessor();
+        processor.processString(text);
+        return processor.getDataSet();
+    }
+
+    @Benchmark
+    public HashSet<String> getErrorLineNumber() throws Exception {
+        return new TSDProcessor().getErrorLineNumber(text);
+    }
+}
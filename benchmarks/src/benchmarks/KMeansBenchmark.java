@@ -0,0 +1,99 @@
+// Aaron Knoll
+package benchmarks;
+
+import algorithms.CentroidSeeder;
+import algorithms.HamerlyKMeansKernel;
+import algorithms.KMeansKernel;
+import data.DataSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The assignment and update steps run by {@link clustering.KMeansClusterer}
+ * (and, for comparison, the bounded assignment of
+ * {@link clustering.AcceleratedKMeansClusterer}). Every invocation starts from
+ * kernels freshly seeded outside the measured time, and runs the first
+ * {@link #PASSES} passes of a run, where most points still change cluster;
+ * measuring passes over an already converged model would mostly show the
+ * bounds skipping every point. {@link #assign()} measures the very first
+ * assignment, which labels every point.
+ *
+ * @author aaronknoll
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class KMeansBenchmark {
+
+    /** passes measured per invocation */
+    private static final int PASSES = 5;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "2", "4", "16" })
+    public int clusters;
+
+    private DataSet             dataset;
+    private int[]               seeds;
+    private KMeansKernel        kernel;
+    private HamerlyKMeansKernel hamerly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = BenchmarkData.dataSet(size, 42);
+        seeds   = new CentroidSeeder(dataset, 42).choose(clusters);
+    }
+
+    @Setup(Level.Invocation)
+    public void seedCentroids() {
+        kernel  = new KMeansKernel(dataset, clusters);
+        hamerly = new HamerlyKMeansKernel(dataset, clusters);
+        for (int c = 0; c < clusters; c++) {
+            int    index = seeds[Math.min(c, seeds.length - 1)];
+            double x     = dataset.getX(index);
+            double y     = dataset.getY(index);
+            kernel.setCentroid(c, x, y);
+            hamerly.setCentroid(c, x, y);
+        }
+    }
+
+    @Benchmark
+    public int assign() {
+        return kernel.assign();
+    }
+
+    @Benchmark
+    public int assignAndUpdate() {
+        int changed = 0;
+        for (int pass = 0; pass < PASSES; pass++) {
+            changed += kernel.assign();
+            kernel.updateCentroids();
+        }
+        return changed;
+    }
+
+    @Benchmark
+    public int acceleratedAssignAndUpdate() {
+        int changed = 0;
+        for (int pass = 0; pass < PASSES; pass++) {
+            changed += hamerly.assign();
+            hamerly.updateCentroids();
+        }
+        return changed;
+    }
+}
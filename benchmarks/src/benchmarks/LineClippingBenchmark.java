@@ -0,0 +1,59 @@
+// Aaron Knoll
+package benchmarks;
+
+import algorithms.LinearModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ui.LineClipper;
+
+/**
+ * Clipping the lines output by a classifier to the chart, which is done once
+ * per update while a classifier runs. Measured over a batch of random lines,
+ * some of which miss the chart.
+ *
+ * @author aaronknoll
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LineClippingBenchmark {
+
+    private static final int LINES = 1024;
+
+    private List<LinearModel> outputs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        outputs = new ArrayList<>(LINES);
+        while (outputs.size() < LINES) {
+            LinearModel output = new LinearModel(random.nextGaussian(), random.nextGaussian(),
+                                                  random.nextGaussian() * 100);
+            outputs.add(output);
+        }
+    }
+
+    @Benchmark
+    public void clip(Blackhole blackhole) {
+        for (LinearModel output : outputs) {
+            blackhole.consume(LineClipper.clip(output, -5, 105, -5, 105));
+        }
+    }
+}
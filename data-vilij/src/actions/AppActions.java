@@ -1,20 +1,20 @@
 // Aaron Knoll
 package actions;
 
-import algorithms.AlgorithmPauser;
+import algorithms.AlgorithmExecutor;
+import algorithms.AlgorithmRegistry;
 import components.AlgConfigDialog;
 import components.AlgorithmConfiguration;
 import dataprocessors.AppData;
-import java.io.File;
-import static java.io.File.separator;
 import java.io.FileWriter;
 import vilij.components.ActionComponent;
 import vilij.templates.ApplicationTemplate;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.application.Platform;
@@ -51,7 +51,7 @@ public final class AppActions implements ActionComponent {
      */
     Path dataFilePath;
     
-    HashMap<String, Class> algorithmClasses;
+    private final AlgorithmRegistry registry;
     
     HashMap<String, AlgorithmConfiguration> classificationAlgConfigs;
     HashMap<String, AlgorithmConfiguration> clusteringAlgConfigs;
@@ -65,9 +65,9 @@ public final class AppActions implements ActionComponent {
     public AppActions(ApplicationTemplate applicationTemplate) {
         this.applicationTemplate    = applicationTemplate;
         firstNewRequest             = true;
-        classificationAlgConfigs    = new HashMap<>();
-        clusteringAlgConfigs        = new HashMap<>();
-        algorithmClasses            = new HashMap<>();
+        classificationAlgConfigs    = new LinkedHashMap<>();
+        clusteringAlgConfigs        = new LinkedHashMap<>();
+        registry                    = AlgorithmRegistry.getDefault();
         clear();
     }
 
@@ -107,8 +107,8 @@ public final class AppActions implements ActionComponent {
         fileChooser.getExtensionFilters().add(extFilter);
 
         try {
-            // only present Save As...Prompt if data has NOT been previously saved to a specified path
-            if (dataFilePath == null) {
+            // only present Save As...Prompt if data has NOT been previously saved to a specified (text) path
+            if (dataFilePath == null || dataFilePath.toString().endsWith(manager.getPropertyValue(BINARY_DATA_FILE_EXT.name()))) {
                 dataFilePath = fileChooser.showSaveDialog(applicationTemplate.getUIComponent().getPrimaryWindow()).toPath();
             }
 
@@ -125,12 +125,15 @@ public final class AppActions implements ActionComponent {
         PropertyManager manager = applicationTemplate.manager;
         FileChooser fileChooser = new FileChooser();
 
-        // create and add FileChooser ExtensionFilter 
-        // for Tab-Separated Data Files (*.tsd)
+        // create and add FileChooser ExtensionFilters 
+        // for Tab-Separated Data Files (*.tsd) and their binary form (*.tsdb)
         FileChooser.ExtensionFilter extFilter = new FileChooser
                 .ExtensionFilter(manager.getPropertyValue(DATA_FILE_EXT_DESC.name()),
                 '*' + manager.getPropertyValue(DATA_FILE_EXT.name()));
-        fileChooser.getExtensionFilters().add(extFilter);
+        FileChooser.ExtensionFilter binaryExtFilter = new FileChooser
+                .ExtensionFilter(manager.getPropertyValue(BINARY_DATA_FILE_EXT_DESC.name()),
+                '*' + manager.getPropertyValue(BINARY_DATA_FILE_EXT.name()));
+        fileChooser.getExtensionFilters().addAll(extFilter, binaryExtFilter);
 
         try {
             // present open file dialog
@@ -143,14 +146,13 @@ public final class AppActions implements ActionComponent {
 
     @Override
     public void handleExitRequest() {
-        Thread t = ((AppUI) (applicationTemplate.getUIComponent())).getAlgThread();
-        AlgorithmPauser p = ((AppUI) (applicationTemplate.getUIComponent())).getPauser();
+        AlgorithmExecutor executor = ((AppUI) (applicationTemplate.getUIComponent())).getAlgorithmExecutor();
 
         if (((AppUI) (applicationTemplate.getUIComponent())).hasUnsavedData()) {
             try {
                 if (promptToSave()) {
-                    if (t != null && t.isAlive()) {
-                        promptToTerminateAlgExec(t, p);
+                    if (executor.hasActiveRuns()) {
+                        promptToTerminateAlgExec(executor);
                     } else {
                         Platform.exit();
                     }
@@ -160,8 +162,8 @@ public final class AppActions implements ActionComponent {
                 applicationTemplate.getDialog(Dialog.DialogType.ERROR)
                         .show(manager.getPropertyValue(DATA_NOT_SAVED_WARNING_TITLE.name()), promptException.getLocalizedMessage());
             }
-        } else if (t != null && t.isAlive()) {
-            promptToTerminateAlgExec(t, p);
+        } else if (executor.hasActiveRuns()) {
+            promptToTerminateAlgExec(executor);
         } else {
             Platform.exit();
         }
@@ -182,7 +184,7 @@ public final class AppActions implements ActionComponent {
         
         PropertyManager manager = applicationTemplate.manager;
         
-        WritableImage wi = ((AppUI) (applicationTemplate.getUIComponent())).getChart().snapshot(new SnapshotParameters(), null);
+        WritableImage wi = ((AppUI) (applicationTemplate.getUIComponent())).getScatterRenderer().getNode().snapshot(new SnapshotParameters(), null);
         
         FileChooser fileChooser = new FileChooser();
         // create and add FileChooser ExtensionFilter for PNG Files (*.png)
@@ -276,7 +278,7 @@ public final class AppActions implements ActionComponent {
         
         if (classificationAlgConfigs.containsKey(algName)) {
             if (classificationAlgConfigs.get(algName) == null) {
-                AlgorithmConfiguration defaultClassificationConfig = new AlgorithmConfiguration(1000, 5, true, false, 4);
+                AlgorithmConfiguration defaultClassificationConfig = getDefaultConfiguration(algName, false);
 
                 if (algConfigDialog.show(defaultClassificationConfig)) {
                     // save potentially modified configuration settings
@@ -294,7 +296,7 @@ public final class AppActions implements ActionComponent {
 
         if (clusteringAlgConfigs.containsKey(algName)) {
             if (clusteringAlgConfigs.get(algName) == null) {
-                AlgorithmConfiguration defaultClusteringConfig = new AlgorithmConfiguration(1000, 5, true, true, 4);
+                AlgorithmConfiguration defaultClusteringConfig = getDefaultConfiguration(algName, true);
 
                 if (algConfigDialog.show(defaultClusteringConfig)) {
                     // save potentially modified configuration settings
@@ -314,15 +316,29 @@ public final class AppActions implements ActionComponent {
     }
     
     /**
-     * Getter for a particular Algorithm Class that was previously loaded 
-     * dynamically using reflection.
+     * Provides the initial configuration settings of an Algorithm.
+     *
+     * @param algName    pretty name of the Algorithm
+     * @param clustering true for clustering Algorithms
+     * @return a new configuration for the Algorithm
+     */
+    private AlgorithmConfiguration getDefaultConfiguration(String algName, boolean clustering) {
+        AlgorithmRegistry.Entry entry = registry.get(algName);
+        if (entry == null) {
+            return new AlgorithmConfiguration(1000, 5, true, clustering, 4);
+        }
+        return entry.getDefaultConfiguration();
+    }
+
+    /**
+     * Getter for a particular registered Algorithm.
      *
      * @param prettyName
-     * @return Class for the specified Algorithm name.
+     * @return the specified Algorithm, or null if there is no such Algorithm
      */
-    public Class getAlgorithm(String prettyName) {
+    public AlgorithmRegistry.Entry getAlgorithm(String prettyName) {
         
-        return algorithmClasses.get(prettyName);
+        return registry.get(prettyName);
     }
 
     /**
@@ -342,79 +358,27 @@ public final class AppActions implements ActionComponent {
     }
     
     /**
-     * Clears and loads HashMaps for tracking dynamically loaded Algorithms 
-     * and their runtime configuration settings. Algorithms to be loaded at 
-     * runtime must be located in appropriate folders (labeled by Algorithm 
-     * type), in order to be read by the application. 
+     * Clears the runtime configuration settings of every Algorithm. The
+     * Algorithms themselves are found once, by the {@link AlgorithmRegistry}.
      */
     public void clear() {
-        algorithmClasses.clear();
         classificationAlgConfigs.clear();
         clusteringAlgConfigs.clear();
-
-        ClassLoader classLoader = AppActions.class.getClassLoader();
-        File[] classifierClasses = (new File(String.join(separator,
-                System.getProperty("user.dir"),
-                "data-vilij",
-                "src",
-                "classification"))).listFiles();
-
-        try {
-            for (File f : classifierClasses) {
-                Class c = classLoader.loadClass("classification."
-                        + f.getName().substring(0, f.getName().lastIndexOf(".java")));
-
-                try {
-                    try {
-                        algorithmClasses.put(c.getMethod("getPrettyName").invoke(null).toString(), c);
-                        classificationAlgConfigs.put(c.getMethod("getPrettyName").invoke(null).toString(), null);
-                    } catch (NoSuchMethodException | SecurityException ex) {
-                        Logger.getLogger(AppActions.class.getName()).log(Level.SEVERE, null, ex);
-                    }
-                } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | SecurityException ex) {
-                    Logger.getLogger(AppActions.class.getName()).log(Level.SEVERE, null, ex);
-                }
-                
-            }
-        } catch (ClassNotFoundException ex) {
-            Logger.getLogger(AppActions.class.getName()).log(Level.SEVERE, null, ex);
-        }
-
-        File[] clustererClasses = (new File(String.join(separator,
-                System.getProperty("user.dir"),
-                "data-vilij",
-                "src",
-                "clustering"))).listFiles();
-
-        try {
-            for (File f : clustererClasses) {
-                Class c = classLoader.loadClass("clustering."
-                        + f.getName().substring(0, f.getName().lastIndexOf(".java")));
-                
-                try {
-                    try {
-                        algorithmClasses.put(c.getMethod("getPrettyName").invoke(null).toString(), c);
-                        clusteringAlgConfigs.put(c.getMethod("getPrettyName").invoke(null).toString(), null);
-                    } catch (NoSuchMethodException | SecurityException ex) {
-                        Logger.getLogger(AppActions.class.getName()).log(Level.SEVERE, null, ex);
-                    }
-                } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException | SecurityException ex) {
-                    Logger.getLogger(AppActions.class.getName()).log(Level.SEVERE, null, ex);
-                }
-
+        for (AlgorithmRegistry.Entry entry : registry.getAlgorithms()) {
+            if (entry.isClustering()) {
+                clusteringAlgConfigs.put(entry.getPrettyName(), null);
+            } else {
+                classificationAlgConfigs.put(entry.getPrettyName(), null);
             }
-        } catch (ClassNotFoundException ex) {
-            Logger.getLogger(AppActions.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
     
     /**
-     * Prompts the user to terminate a running Algorithm.
+     * Prompts the user to terminate the running Algorithms before exiting.
      *
-     * @param t Algorithm thread.
-     * @param p AlgorithmPauser instance.
+     * @param executor executor of the running Algorithms.
      */
-    private void promptToTerminateAlgExec(Thread t, AlgorithmPauser p) {
+    private void promptToTerminateAlgExec(AlgorithmExecutor executor) {
         Alert alert = new Alert(AlertType.WARNING);
         alert.setTitle("Algorithm Execution in Progress");
         alert.setHeaderText("An Algorithm is Running!");
@@ -426,9 +390,12 @@ public final class AppActions implements ActionComponent {
         alert.getButtonTypes().setAll(yesBtn, noBtn);
 
         if (alert.showAndWait().get() == yesBtn) {
-            t.interrupt();
-            p.terminateRunningAlgThread();
-
+            try {
+                // the runs stop at their next pause point; workers are daemons, so exiting does not wait on stragglers
+                executor.shutdown(2, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Logger.getLogger(AppActions.class.getName()).log(Level.SEVERE, null, ex);
+            }
             Platform.exit();
         }
     }
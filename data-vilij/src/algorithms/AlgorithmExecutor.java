@@ -0,0 +1,159 @@
+// Aaron Knoll
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes {@link Algorithm}s on a bounded pool of worker threads and keeps a
+ * registry of the runs, by id.
+ * <p>
+ * At most a fixed number of runs execute at the same time, on different
+ * DataSets or with different configurations; further runs wait in a bounded
+ * queue, and submitting more than it holds is rejected. Workers are daemon
+ * threads, so runs never keep the application alive, and cancelling a run
+ * needs nothing but the run itself (see {@link AlgorithmRun#cancel()}).
+ * Runs that are done (see {@link AlgorithmRun#isDone()}) stay in the registry
+ * until {@link #MAX_FINISHED_RUNS} newer ones are done.
+ *
+ * @author aaronknoll
+ */
+public final class AlgorithmExecutor {
+
+    /** runs that may wait for a free worker */
+    private static final int QUEUE_CAPACITY    = 16;
+    /** finished and cancelled runs kept in the registry */
+    private static final int MAX_FINISHED_RUNS = 32;
+
+    private final ThreadPoolExecutor               workers;
+    private final Map<Long, AlgorithmRun>          runs   = new ConcurrentSkipListMap<>();
+    private final AtomicLong                       nextId = new AtomicLong(1);
+
+    /**
+     * Creates an executor running up to half as many runs at once as there
+     * are processors, but at least two; the algorithms parallelize their own
+     * passes over the data.
+     */
+    public AlgorithmExecutor() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * @param maxConcurrentRuns number of runs that may execute at the same time
+     */
+    public AlgorithmExecutor(int maxConcurrentRuns) {
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(maxConcurrentRuns, maxConcurrentRuns, 0, TimeUnit.MILLISECONDS,
+                                         new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "algorithm-run-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues an algorithm for execution.
+     *
+     * @param name      name of the run, such as the algorithm's pretty name
+     * @param algorithm the algorithm to be run
+     * @param pauser    the AlgorithmPauser the algorithm was created with
+     * @return the registered run
+     * @throws RejectedExecutionException if the queue is full or the executor
+     *                                    was shut down
+     */
+    public AlgorithmRun submit(String name, Algorithm algorithm, AlgorithmPauser pauser) {
+        forgetOldRuns();
+        AlgorithmRun run = new AlgorithmRun(nextId.getAndIncrement(), name, algorithm, pauser);
+        runs.put(run.getId(), run);
+        try {
+            run.setFuture(workers.submit(run::execute));
+        } catch (RejectedExecutionException ex) {
+            runs.remove(run.getId());
+            throw ex;
+        }
+        return run;
+    }
+
+    /**
+     * @param id identifier of a run
+     * @return the run, or null if there is no such run in the registry
+     */
+    public AlgorithmRun getRun(long id) {
+        return runs.get(id);
+    }
+
+    /**
+     * @return every run in the registry, oldest first
+     */
+    public List<AlgorithmRun> getRuns() {
+        return new ArrayList<>(runs.values());
+    }
+
+    /**
+     * @return the queued, running and paused runs, and the cancelled ones whose
+     *         algorithm has not returned yet, oldest first
+     */
+    public List<AlgorithmRun> getActiveRuns() {
+        List<AlgorithmRun> active = new ArrayList<>();
+        for (AlgorithmRun run : runs.values()) {
+            if (!run.isDone()) {
+                active.add(run);
+            }
+        }
+        return active;
+    }
+
+    public boolean hasActiveRuns() {
+        return !getActiveRuns().isEmpty();
+    }
+
+    /**
+     * Cancels every queued, running and paused run.
+     */
+    public void cancelAll() {
+        for (AlgorithmRun run : runs.values()) {
+            run.cancel();
+        }
+    }
+
+    /**
+     * Cancels every run and stops accepting new ones, then waits for the
+     * algorithms to return.
+     *
+     * @param timeout longest time to wait
+     * @param unit    unit of the timeout
+     * @return true if every algorithm returned in time
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        workers.shutdown();
+        cancelAll();
+        return workers.awaitTermination(timeout, unit);
+    }
+
+    private void forgetOldRuns() {
+        int finished = 0;
+        for (AlgorithmRun run : runs.values()) {
+            if (run.isDone()) {
+                finished++;
+            }
+        }
+        for (AlgorithmRun run : runs.values()) {
+            if (finished < MAX_FINISHED_RUNS) {
+                break;
+            }
+            if (run.isDone()) {
+                runs.remove(run.getId());
+                finished--;
+            }
+        }
+    }
+}
@@ -1,54 +1,117 @@
 // Aaron Knoll
 package algorithms;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
 /**
- * Pauses and resumes execution of a thread.
+ * Pauses, resumes and terminates the execution of an Algorithm.
+ * <p>
+ * Pausing takes effect at checkpoints: the algorithm calls
+ * {@link #checkpoint()} (or the older {@link #terminateIfExitBtnClicked()}
+ * and {@link #shouldIPause()}) where its model is consistent, typically at
+ * the start of an iteration, and is parked there with {@link LockSupport}
+ * while paused. The whole state is a single volatile word, so a checkpoint
+ * that neither pauses nor terminates costs one volatile read and no lock.
+ * <p>
+ * A pauser is also the {@link CancellationToken} of its run, for the
+ * parallel tasks of the algorithm to check.
  *
  * @author aaronknoll
  */
-public class AlgorithmPauser {
+public class AlgorithmPauser implements CancellationToken {
+
+    private static final int PAUSED     = 1;
+    private static final int TERMINATED = 2;
+
+    private static final AtomicIntegerFieldUpdater<AlgorithmPauser> STATE
+            = AtomicIntegerFieldUpdater.newUpdater(AlgorithmPauser.class, "state");
 
-    private boolean paused;
-    private boolean terminateASAP;
+    private volatile int state; // PAUSED and TERMINATED bits
+
+    // threads parked at a checkpoint
+    private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<>();
 
     public AlgorithmPauser() {
-        paused          = false;
-        terminateASAP   = false;
+        state = 0;
+    }
+
+    /**
+     * Prepares AlgorithmPauser to pause an Algorithm at its next checkpoint.
+     */
+    public void pause() {
+        STATE.getAndUpdate(this, current -> current | PAUSED);
     }
 
     /**
-     * Prepares AlgorithmPauser to pause an Algorithm.
+     * Waits while the Algorithm is paused, then tells it whether to go on.
+     *
+     * @return true if the Algorithm should go on, false if it should return
+     *         because it was terminated or interrupted
      */
-    public synchronized void pause() {
-        paused = true;
+    public boolean checkpoint() {
+        if (state == 0) {
+            return true;
+        }
+        try {
+            awaitResume();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return (state & TERMINATED) == 0;
     }
 
     /**
-     * Causes the invoking thread to wait for a notification to resume
-     * execution.
+     * Causes the invoking thread to wait until execution is resumed or
+     * terminated.
      *
-     * @throws InterruptedException
+     * @throws InterruptedException if the thread is interrupted while waiting
      */
-    public synchronized void shouldIPause() throws InterruptedException {
-        while (paused) {
-            wait();
+    public void shouldIPause() throws InterruptedException {
+        if (state != 0) {
+            awaitResume();
+        }
+    }
+
+    private void awaitResume() throws InterruptedException {
+        Thread current = Thread.currentThread();
+        waiters.add(current);
+        try {
+            // a resume() after this check unparks the thread, so the wakeup cannot be lost
+            while (state == PAUSED) {
+                LockSupport.park(this);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waiters.remove(current);
         }
     }
 
     /**
-     * Wakeup thread waiting on this monitor and resume its execution.
+     * Wakes up any thread paused at a checkpoint and resumes its execution.
      */
-    public synchronized void resume() {
-        paused = false;
-        notifyAll();
+    public void resume() {
+        STATE.getAndUpdate(this, current -> current & ~PAUSED);
+        unparkWaiters();
     }
 
     /**
      * Getter for boolean value paused.
      * @return true if thread is paused, and false if thread is NOT paused
      */
-    public synchronized boolean isPaused() {
-        return paused;
+    public boolean isPaused() {
+        return (state & PAUSED) != 0;
+    }
+
+    /**
+     * @return true if a thread is parked at a checkpoint right now
+     */
+    public boolean hasWaiters() {
+        return !waiters.isEmpty();
     }
 
     /**
@@ -56,15 +119,28 @@ public class AlgorithmPauser {
      *
      * @return
      */
-    public synchronized boolean terminateIfExitBtnClicked() {
-        return terminateASAP;
+    public boolean terminateIfExitBtnClicked() {
+        return (state & TERMINATED) != 0;
     }
-    
+
     /**
-     * Raises terminateASAP flag, whish in turn can be checked by a running 
+     * Raises terminateASAP flag, whish in turn can be checked by a running
      * thread to determine whether it should terminate as soon as possible.
+     * Threads paused at a checkpoint are woken up to do so.
      */
-    public synchronized void terminateRunningAlgThread(){
-        terminateASAP = true;
+    public void terminateRunningAlgThread(){
+        STATE.getAndUpdate(this, current -> current | TERMINATED);
+        unparkWaiters();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return (state & TERMINATED) != 0;
+    }
+
+    private void unparkWaiters() {
+        for (Thread waiter : waiters) {
+            LockSupport.unpark(waiter);
+        }
     }
 }
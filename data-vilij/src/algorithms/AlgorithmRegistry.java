@@ -0,0 +1,267 @@
+// Aaron Knoll
+package algorithms;
+
+import components.AlgorithmConfiguration;
+import data.DataSet;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The Algorithms available to the application, found once at startup.
+ * <p>
+ * Algorithms are listed in <code>META-INF/services/algorithms.Algorithm</code>
+ * resources, one fully qualified class name per line, in the format of
+ * {@link java.util.ServiceLoader}. The files are read from the classpath and
+ * from every jar in the plugins directory, so new algorithms can be added
+ * without rebuilding the application. Unlike a ServiceLoader, the registry
+ * does not instantiate the listed classes; it looks up their constructor and
+ * static methods once, as {@link MethodHandle}s, and algorithms are created
+ * through those for every run.
+ * <p>
+ * Every Algorithm has to declare a public constructor taking
+ * <code>(DataSet, AlgorithmConfiguration, AlgorithmPauser, ProgressSink)</code>
+ * and a static <code>getPrettyName()</code>, and may declare a static
+ * <code>getDefaultConfiguration()</code>. Listed classes that do not are
+ * logged and left out.
+ *
+ * @author aaronknoll
+ */
+public final class AlgorithmRegistry {
+
+    /** resource listing the Algorithm classes */
+    public static final String SERVICES_RESOURCE = "META-INF/services/" + Algorithm.class.getName();
+    /** directory of plugin jars, relative to the working directory */
+    public static final String PLUGINS_DIRECTORY = "plugins";
+
+    private static final MethodType CONSTRUCTOR_TYPE
+            = MethodType.methodType(void.class, DataSet.class, AlgorithmConfiguration.class,
+                                    AlgorithmPauser.class, ProgressSink.class);
+    private static final MethodType FACTORY_TYPE = CONSTRUCTOR_TYPE.changeReturnType(Algorithm.class);
+
+    /**
+     * An Algorithm class, with the handles needed to use it.
+     */
+    public static final class Entry {
+
+        private final Class<? extends Algorithm> algorithmClass;
+        private final String                     prettyName;
+        private final boolean                    clustering;
+        private final MethodHandle               constructor;          // FACTORY_TYPE
+        private final MethodHandle               defaultConfiguration; // or null
+
+        private Entry(Class<? extends Algorithm> algorithmClass, MethodHandles.Lookup lookup)
+                throws ReflectiveOperationException {
+            this.algorithmClass = algorithmClass;
+            this.clustering     = Clusterer.class.isAssignableFrom(algorithmClass);
+            this.constructor    = lookup.findConstructor(algorithmClass, CONSTRUCTOR_TYPE).asType(FACTORY_TYPE);
+            MethodHandle prettyNameHandle = lookup.findStatic(algorithmClass, "getPrettyName",
+                                                              MethodType.methodType(String.class));
+            MethodHandle configurationHandle;
+            try {
+                configurationHandle = lookup.findStatic(algorithmClass, "getDefaultConfiguration",
+                                                        MethodType.methodType(AlgorithmConfiguration.class));
+            } catch (NoSuchMethodException ex) {
+                configurationHandle = null;
+            }
+            this.defaultConfiguration = configurationHandle;
+            try {
+                this.prettyName = (String) prettyNameHandle.invokeExact();
+            } catch (Throwable ex) {
+                throw new InvocationTargetException(ex);
+            }
+        }
+
+        public Class<? extends Algorithm> getAlgorithmClass() { return algorithmClass; }
+
+        public String getPrettyName() { return prettyName; }
+
+        /**
+         * @return true for clustering Algorithms, false for classification
+         */
+        public boolean isClustering() { return clustering; }
+
+        /**
+         * Provides the initial configuration settings of the Algorithm, from
+         * its <code>getDefaultConfiguration()</code> if it declares one.
+         *
+         * @return a new configuration for the Algorithm
+         */
+        public AlgorithmConfiguration getDefaultConfiguration() {
+            if (defaultConfiguration != null) {
+                try {
+                    return (AlgorithmConfiguration) defaultConfiguration.invokeExact();
+                } catch (Throwable ex) {
+                    Logger.getLogger(AlgorithmRegistry.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+            return new AlgorithmConfiguration(1000, 5, true, clustering, 4);
+        }
+
+        /**
+         * Creates the Algorithm for a run.
+         *
+         * @param dataset the data to run on
+         * @param config  the configuration of the run
+         * @param pauser  pauses and cancels the run
+         * @param sink    receives the progress of the run
+         * @return the new Algorithm
+         * @throws InvocationTargetException if the constructor throws
+         */
+        public Algorithm create(DataSet dataset, AlgorithmConfiguration config, AlgorithmPauser pauser,
+                                ProgressSink sink) throws InvocationTargetException {
+            try {
+                return (Algorithm) constructor.invokeExact(dataset, config, pauser, sink);
+            } catch (Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new InvocationTargetException(ex);
+            }
+        }
+    }
+
+    private static final class DefaultHolder {
+        static final AlgorithmRegistry INSTANCE
+                = load(AlgorithmRegistry.class.getClassLoader(),
+                       Paths.get(System.getProperty("user.dir"), PLUGINS_DIRECTORY));
+    }
+
+    private final Map<String, Entry> entries; // pretty name -> entry, in the order listed
+
+    private AlgorithmRegistry(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @return the registry of the Algorithms on the classpath and in the
+     *         plugins directory of the working directory, loaded on first use
+     */
+    public static AlgorithmRegistry getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Builds a registry from the services resources visible to a class loader
+     * and to the jars of a plugins directory.
+     *
+     * @param parent           class loader of the application
+     * @param pluginsDirectory directory of plugin jars, which need not exist
+     * @return the registry
+     */
+    public static AlgorithmRegistry load(ClassLoader parent, Path pluginsDirectory) {
+        ClassLoader loader = withPlugins(parent, pluginsDirectory);
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (String className : listClassNames(loader)) {
+            try {
+                Class<?> c = Class.forName(className, true, loader);
+                if (!Algorithm.class.isAssignableFrom(c)) {
+                    throw new ClassCastException(className + " is not an Algorithm.");
+                }
+                Entry entry = new Entry(c.asSubclass(Algorithm.class), lookup);
+                if (entries.putIfAbsent(entry.getPrettyName(), entry) != null) {
+                    Logger.getLogger(AlgorithmRegistry.class.getName()).log(Level.WARNING,
+                            "{0} is listed twice, or shares its name with another algorithm.", className);
+                }
+            } catch (ReflectiveOperationException | ClassCastException | LinkageError ex) {
+                Logger.getLogger(AlgorithmRegistry.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+        return new AlgorithmRegistry(Collections.unmodifiableMap(entries));
+    }
+
+    private static ClassLoader withPlugins(ClassLoader parent, Path pluginsDirectory) {
+        if (!Files.isDirectory(pluginsDirectory)) {
+            return parent;
+        }
+        List<URL> jars = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(pluginsDirectory, "*.jar")) {
+            for (Path jar : stream) {
+                jars.add(jar.toUri().toURL());
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(AlgorithmRegistry.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return jars.isEmpty() ? parent : new URLClassLoader(jars.toArray(new URL[jars.size()]), parent);
+    }
+
+    private static Set<String> listClassNames(ClassLoader loader) {
+        Set<String> classNames = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> resources = loader.getResources(SERVICES_RESOURCE);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int comment = line.indexOf('#');
+                        String className = (comment < 0 ? line : line.substring(0, comment)).trim();
+                        if (!className.isEmpty()) {
+                            classNames.add(className);
+                        }
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(AlgorithmRegistry.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return classNames;
+    }
+
+    /**
+     * @return every registered Algorithm, in the order listed
+     */
+    public List<Entry> getAlgorithms() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * @param prettyName the pretty name of an Algorithm
+     * @return the Algorithm, or null if there is no such Algorithm
+     */
+    public Entry get(String prettyName) {
+        return entries.get(prettyName);
+    }
+
+    /**
+     * Looks an Algorithm up by any of its names, for command-line use.
+     *
+     * @param name pretty name, simple class name or fully qualified class name
+     * @return the Algorithm, or null if there is no such Algorithm
+     */
+    public Entry find(String name) {
+        Entry entry = entries.get(name);
+        if (entry != null) {
+            return entry;
+        }
+        for (Entry candidate : entries.values()) {
+            Class<?> c = candidate.getAlgorithmClass();
+            if (c.getName().equals(name) || c.getSimpleName().equals(name)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,163 @@
+// Aaron Knoll
+package algorithms;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A single run of an {@link Algorithm} submitted to an
+ * {@link AlgorithmExecutor}, through which the run can be followed, paused,
+ * resumed and cancelled from any thread.
+ *
+ * @author aaronknoll
+ */
+public final class AlgorithmRun {
+
+    public enum State {
+        /** waiting for a free worker */
+        QUEUED,
+        /** being executed */
+        RUNNING,
+        /** being executed, but waiting on its AlgorithmPauser */
+        PAUSED,
+        /** cancelled before it could complete */
+        CANCELLED,
+        /** completed, normally or by throwing */
+        FINISHED
+    }
+
+    private final long            id;
+    private final String          name;
+    private final Algorithm       algorithm;
+    private final AlgorithmPauser pauser;
+
+    // QUEUED, RUNNING, CANCELLED or FINISHED; PAUSED is derived from the pauser
+    private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+    private final CountDownLatch         done  = new CountDownLatch(1);
+    private volatile Future<?>           future;
+    private volatile Throwable           failure;
+
+    AlgorithmRun(long id, String name, Algorithm algorithm, AlgorithmPauser pauser) {
+        this.id        = id;
+        this.name      = name;
+        this.algorithm = algorithm;
+        this.pauser    = pauser;
+    }
+
+    /**
+     * @return identifier of the run, unique within its AlgorithmExecutor
+     */
+    public long getId() { return id; }
+
+    public String getName() { return name; }
+
+    public Algorithm getAlgorithm() { return algorithm; }
+
+    public AlgorithmPauser getPauser() { return pauser; }
+
+    public State getState() {
+        State current = state.get();
+        return current == State.RUNNING && pauser.isPaused() ? State.PAUSED : current;
+    }
+
+    /**
+     * A run cancelled while it was executing is in the CANCELLED state right
+     * away, but it is only done once its algorithm has returned, and may go on
+     * changing the labels of its DataSet until then.
+     *
+     * @return true once the run finished, or was cancelled and its algorithm
+     *         returned or never started
+     */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * @return whatever the algorithm threw, or null
+     */
+    public Throwable getFailure() { return failure; }
+
+    /**
+     * Asks the algorithm to wait at its next pause point.
+     */
+    public void pause() {
+        State current = state.get();
+        if (current == State.QUEUED || current == State.RUNNING) {
+            pauser.pause();
+        }
+    }
+
+    public void resume() {
+        pauser.resume();
+    }
+
+    /**
+     * Cancels the run. A queued run never starts; a running one is asked to
+     * terminate, woken up if it is paused and interrupted if it is sleeping or
+     * waiting, and then returns from its next pause point.
+     *
+     * @return true if the run was cancelled by this call
+     */
+    public boolean cancel() {
+        State current = state.get();
+        while (current == State.QUEUED || current == State.RUNNING) {
+            if (state.compareAndSet(current, State.CANCELLED)) {
+                pauser.terminateRunningAlgThread();
+                pauser.resume();
+                Future<?> task = future;
+                if (task != null) {
+                    task.cancel(true);
+                }
+                if (current == State.QUEUED) {
+                    // the worker will never pick it up
+                    done.countDown();
+                }
+                return true;
+            }
+            current = state.get();
+        }
+        return false;
+    }
+
+    /**
+     * Waits for the algorithm to return after the run finished or was
+     * cancelled.
+     *
+     * @param timeout longest time to wait
+     * @param unit    unit of the timeout
+     * @return true if the algorithm returned, false if the time ran out
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+        if (state.get() == State.CANCELLED) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Runs the algorithm on the calling worker thread.
+     */
+    void execute() {
+        if (!state.compareAndSet(State.QUEUED, State.RUNNING)) {
+            return;
+        }
+        try {
+            algorithm.run();
+        } catch (RuntimeException | Error ex) {
+            failure = ex;
+            Logger.getLogger(AlgorithmRun.class.getName()).log(Level.SEVERE, null, ex);
+        } finally {
+            state.compareAndSet(State.RUNNING, State.FINISHED);
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+// Aaron Knoll
+package algorithms;
+
+import data.DataSet;
+import java.util.List;
+
+/**
+ * The instances of a DataSet as training data for a linear classifier that
+ * separates two labels. Built once per run: the label column is reduced to
+ * one target per instance, +1 for the first label, -1 for the second and 0 for
+ * instances of any other label or without one, which are left out of
+ * training.
+ * <p>
+ * Classifiers read the coordinates straight from the columns of the DataSet,
+ * shifted by {@link #getMeanX()} and scaled by {@link #getScaleX()} (likewise
+ * for y), which keeps their learning rates independent of the units of the
+ * data. {@link #toModel(double, double, double, LinearModel)} maps a line found
+ * in those standardized coordinates back to the coordinates of the chart.
+ *
+ * @author aaronknoll
+ */
+public final class BinaryTrainingSet {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final byte[]   targets;
+    private final int      size;
+    private final int      trainingSize;
+    private final String   positiveLabel;
+    private final String   negativeLabel;
+    private final double   meanX;
+    private final double   meanY;
+    private final double   scaleX;
+    private final double   scaleY;
+
+    /**
+     * @param dataset the data; its coordinates must not change during the run
+     */
+    public BinaryTrainingSet(DataSet dataset) {
+        this.size    = dataset.size();
+        this.xs      = dataset.getXs();
+        this.ys      = dataset.getYs();
+        this.targets = new byte[size];
+
+        int[]        labelIds   = new int[size];
+        List<String> dictionary = dataset.getLabelDictionary();
+        dataset.copyLabelIds(labelIds);
+        int[] counts = new int[dictionary.size()];
+        for (int i = 0; i < size; i++) {
+            counts[labelIds[i]]++;
+        }
+        int positive = -1;
+        int negative = -1;
+        for (int id = 0; id < counts.length && negative < 0; id++) {
+            if (counts[id] > 0 && !"null".equals(dictionary.get(id))) {
+                if (positive < 0) {
+                    positive = id;
+                } else {
+                    negative = id;
+                }
+            }
+        }
+        this.positiveLabel = positive < 0 ? null : dictionary.get(positive);
+        this.negativeLabel = negative < 0 ? null : dictionary.get(negative);
+
+        int    n    = 0;
+        double sumX = 0;
+        double sumY = 0;
+        for (int i = 0; i < size; i++) {
+            int id = labelIds[i];
+            targets[i] = (byte) (id == positive ? 1 : id == negative ? -1 : 0);
+            if (targets[i] != 0) {
+                n++;
+                sumX += xs[i];
+                sumY += ys[i];
+            }
+        }
+        this.trainingSize = n;
+        this.meanX        = n == 0 ? 0 : sumX / n;
+        this.meanY        = n == 0 ? 0 : sumY / n;
+
+        double squaresX = 0;
+        double squaresY = 0;
+        for (int i = 0; i < size; i++) {
+            if (targets[i] != 0) {
+                squaresX += (xs[i] - meanX) * (xs[i] - meanX);
+                squaresY += (ys[i] - meanY) * (ys[i] - meanY);
+            }
+        }
+        this.scaleX = standardDeviation(squaresX, n);
+        this.scaleY = standardDeviation(squaresY, n);
+    }
+
+    private static double standardDeviation(double squares, int n) {
+        double deviation = n == 0 ? 0 : Math.sqrt(squares / n);
+        return deviation > 0 ? deviation : 1;
+    }
+
+    /**
+     * @return true if the data holds instances of two different labels
+     */
+    public boolean isTrainable() { return negativeLabel != null; }
+
+    /**
+     * @return number of instances, including those left out of training
+     */
+    public int size() { return size; }
+
+    /**
+     * @return number of instances of the two labels
+     */
+    public int getTrainingSize() { return trainingSize; }
+
+    /**
+     * @return the x column of the DataSet, to be treated as read-only
+     */
+    public double[] getXs() { return xs; }
+
+    /**
+     * @return the y column of the DataSet, to be treated as read-only
+     */
+    public double[] getYs() { return ys; }
+
+    /**
+     * @return +1, -1 or 0 per instance, to be treated as read-only
+     */
+    public byte[] getTargets() { return targets; }
+
+    /**
+     * @return the label with target +1, or null if there is none
+     */
+    public String getPositiveLabel() { return positiveLabel; }
+
+    /**
+     * @return the label with target -1, or null if there is none
+     */
+    public String getNegativeLabel() { return negativeLabel; }
+
+    public double getMeanX() { return meanX; }
+
+    public double getMeanY() { return meanY; }
+
+    public double getScaleX() { return scaleX; }
+
+    public double getScaleY() { return scaleY; }
+
+    /**
+     * Converts the line <code>a*x' + b*y' + c = 0</code>, in standardized
+     * coordinates <code>x' = (x - meanX) / scaleX</code> and
+     * <code>y' = (y - meanY) / scaleY</code>, into the coordinates of the data.
+     *
+     * @param a     coefficient of x'
+     * @param b     coefficient of y'
+     * @param c     constant
+     * @param model receives the line, in place
+     */
+    public void toModel(double a, double b, double c, LinearModel model) {
+        double xWeight = a / scaleX;
+        double yWeight = b / scaleY;
+        model.set(xWeight, yWeight, c - xWeight * meanX - yWeight * meanY);
+    }
+}
@@ -0,0 +1,20 @@
+// Aaron Knoll
+package algorithms;
+
+/**
+ * Tells the tasks working on a run whether the run was cancelled, so that
+ * parallel passes can stop early. Checking it must be cheap enough to be done
+ * by every task of a pass.
+ *
+ * @author aaronknoll
+ */
+public interface CancellationToken {
+
+    /** a token that is never cancelled */
+    CancellationToken NONE = () -> false;
+
+    /**
+     * @return true once the run was cancelled
+     */
+    boolean isCancelled();
+}
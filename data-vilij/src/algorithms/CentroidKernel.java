@@ -0,0 +1,38 @@
+// Aaron Knoll
+package algorithms;
+
+/**
+ * The passes of a K-Means variant over a DataSet, as driven by a clusterer:
+ * the centroids are placed once, and then refined until they stop moving.
+ *
+ * @author aaronknoll
+ */
+public interface CentroidKernel {
+
+    /**
+     * Places a centroid, before the first pass.
+     */
+    void setCentroid(int cluster, double x, double y);
+
+    /**
+     * Labels every point of the DataSet with its nearest centroid.
+     *
+     * @return number of points whose cluster changed
+     */
+    int assign();
+
+    /**
+     * Moves every centroid to the mean of the points assigned to it by the
+     * latest {@link #assign()}. Centroids of empty clusters stay where they are.
+     *
+     * @return true if at least one centroid moved
+     */
+    boolean updateCentroids();
+
+    /**
+     * Lets a pass skip its remaining work once the run is cancelled.
+     *
+     * @param token token of the run using this kernel
+     */
+    void setCancellationToken(CancellationToken token);
+}
@@ -0,0 +1,315 @@
+// Aaron Knoll
+package algorithms;
+
+import data.DataSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Chooses initial K-Means centroids among the instances of a {@link DataSet}.
+ * <p>
+ * k-means++ (Arthur and Vassilvitskii) picks every further centroid with a
+ * probability proportional to its squared distance from the centroids chosen
+ * so far. It needs k passes over the data, so for large inputs k-means||
+ * (Bahmani et al.) is used instead: a few passes each sample about 2k
+ * candidates in parallel, and k-means++ then picks the centroids among the
+ * candidates, weighted by how many instances are closest to each of them.
+ * <p>
+ * Every random choice derives from a single seed. The parallel passes cut the
+ * instances into {@link Slices}, and every slice samples from its own
+ * generator, seeded from the seed, the round and the index of the slice, so
+ * the chosen centroids depend only on the seed and the data, and not on the
+ * number of cores.
+ *
+ * @author aaronknoll
+ */
+public final class CentroidSeeder {
+
+    /** instances times clusters above which k-means|| replaces k-means++ */
+    private static final long PARALLEL_THRESHOLD = 1L << 22;
+
+    /** sampling rounds of k-means||; 5 is plenty in practice */
+    private static final int ROUNDS = 5;
+
+    private static final long SEED_MIXER = 0x9E3779B97F4A7C15L;
+
+    private final double[]     xs;
+    private final double[]     ys;
+    private final int          size;
+    private final long         seed;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param dataset the instances to choose from
+     * @param seed    seed of every random choice
+     */
+    public CentroidSeeder(DataSet dataset, long seed) {
+        this(dataset, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param dataset the instances to choose from
+     * @param seed    seed of every random choice
+     * @param pool    pool running the parallel passes
+     */
+    CentroidSeeder(DataSet dataset, long seed, ForkJoinPool pool) {
+        this.xs   = dataset.getXs();
+        this.ys   = dataset.getYs();
+        this.size = dataset.size();
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    /**
+     * Chooses centroids with k-means++ or, for large inputs, k-means||.
+     *
+     * @param k number of centroids wanted
+     * @return indices of distinct instances; fewer than k if the data does not
+     *         have k distinct locations
+     */
+    public int[] choose(int k) {
+        return (long) size * k > PARALLEL_THRESHOLD ? kMeansParallel(k) : kMeansPlusPlus(k);
+    }
+
+    /**
+     * k-means++ over all instances.
+     *
+     * @param k number of centroids wanted
+     * @return indices of distinct instances; fewer than k if the data does not
+     *         have k distinct locations
+     */
+    public int[] kMeansPlusPlus(int k) {
+        if (size == 0 || k <= 0) {
+            return new int[0];
+        }
+        double[] weights = new double[size];
+        Arrays.fill(weights, 1);
+        return weightedKMeansPlusPlus(xs, ys, weights, size, k, new Random(seed));
+    }
+
+    /**
+     * k-means|| over all instances.
+     *
+     * @param k number of centroids wanted
+     * @return indices of distinct instances; fewer than k if the data does not
+     *         have k distinct locations
+     */
+    public int[] kMeansParallel(int k) {
+        if (size == 0 || k <= 0) {
+            return new int[0];
+        }
+        Random random = new Random(seed);
+
+        double[] distances  = new double[size];
+        int[]    nearest    = new int[size];
+        List<Integer> candidates = new ArrayList<>();
+        candidates.add(random.nextInt(size));
+        Arrays.fill(distances, Double.MAX_VALUE);
+
+        Slice[] slices = new Slice[Slices.count(size)];
+        for (int s = 0; s < slices.length; s++) {
+            slices[s] = new Slice(Slices.start(size, slices.length, s), Slices.start(size, slices.length, s + 1),
+                                  distances, nearest);
+        }
+
+        double oversampling = 2.0 * k;
+        int    measured     = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            // fold the candidates added in the previous round into the distances
+            int[] newCandidates = new int[candidates.size() - measured];
+            for (int c = 0; c < newCandidates.length; c++) {
+                newCandidates[c] = candidates.get(measured + c);
+            }
+            double cost = 0;
+            for (Slice slice : slices) {
+                slice.prepareMeasure(newCandidates, measured);
+            }
+            runAll(slices);
+            for (Slice slice : slices) {
+                cost += slice.cost;
+            }
+            measured = candidates.size();
+            if (round == ROUNDS || cost == 0) {
+                break;
+            }
+
+            for (int s = 0; s < slices.length; s++) {
+                long stream = (long) round * slices.length + s + 1;
+                slices[s].prepareSample(new SplittableRandom(mix(seed + stream * SEED_MIXER)), oversampling / cost);
+            }
+            runAll(slices);
+            for (Slice slice : slices) {
+                candidates.addAll(slice.sampled);
+            }
+        }
+
+        // weight every candidate by the number of instances closest to it
+        int      count   = candidates.size();
+        double[] cxs     = new double[count];
+        double[] cys     = new double[count];
+        double[] weights = new double[count];
+        for (int c = 0; c < count; c++) {
+            cxs[c] = xs[candidates.get(c)];
+            cys[c] = ys[candidates.get(c)];
+        }
+        for (int i = 0; i < size; i++) {
+            weights[nearest[i]]++;
+        }
+        int[] chosen = weightedKMeansPlusPlus(cxs, cys, weights, count, k, random);
+        for (int c = 0; c < chosen.length; c++) {
+            chosen[c] = candidates.get(chosen[c]);
+        }
+        return chosen;
+    }
+
+    /**
+     * k-means++ over weighted points: each further point is picked with a
+     * probability proportional to its weight times its squared distance from
+     * the points picked so far.
+     */
+    private static int[] weightedKMeansPlusPlus(double[] xs, double[] ys, double[] weights, int count, int k,
+                                                Random random) {
+        double[] distances = new double[count];
+        double[] scores    = new double[count];
+        int[]    chosen    = new int[Math.min(k, count)];
+        int      first     = pick(weights, count, random);
+        if (first < 0) {
+            return new int[0];
+        }
+        chosen[0] = first;
+        Arrays.fill(distances, Double.MAX_VALUE);
+
+        int picked = 1;
+        while (picked < chosen.length) {
+            double cx = xs[chosen[picked - 1]];
+            double cy = ys[chosen[picked - 1]];
+            for (int i = 0; i < count; i++) {
+                double dx = xs[i] - cx;
+                double dy = ys[i] - cy;
+                distances[i] = Math.min(distances[i], dx * dx + dy * dy);
+                scores[i]    = weights[i] * distances[i];
+            }
+            int next = pick(scores, count, random);
+            if (next < 0) {
+                // every remaining point sits on a chosen centroid
+                break;
+            }
+            chosen[picked++] = next;
+        }
+        return picked == chosen.length ? chosen : Arrays.copyOf(chosen, picked);
+    }
+
+    /**
+     * @return an index picked with probability proportional to its score, or
+     *         -1 if every score is 0
+     */
+    private static int pick(double[] scores, int count, Random random) {
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += scores[i];
+        }
+        if (total <= 0) {
+            return -1;
+        }
+        double target = random.nextDouble() * total;
+        int    last   = -1;
+        for (int i = 0; i < count; i++) {
+            if (scores[i] > 0) {
+                last    = i;
+                target -= scores[i];
+                if (target < 0) {
+                    return i;
+                }
+            }
+        }
+        return last;
+    }
+
+    /** SplitMix64 finalizer, so that neighbouring streams are unrelated */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void runAll(Slice[] slices) {
+        Slices.run(pool, slices.length, CancellationToken.NONE, s -> slices[s].run());
+    }
+
+    /**
+     * A contiguous range of instances, which either folds new candidates into
+     * the distances of its instances or samples new candidates from them.
+     */
+    private final class Slice {
+
+        private final int      from;
+        private final int      to;
+        private final double[] distances;
+        private final int[]    nearest;
+
+        private int[]            newCandidates;
+        private int              firstCandidate;
+        private double           cost;
+
+        private SplittableRandom random;
+        private double           factor;
+        private final List<Integer> sampled = new ArrayList<>();
+
+        Slice(int from, int to, double[] distances, int[] nearest) {
+            this.from      = from;
+            this.to        = to;
+            this.distances = distances;
+            this.nearest   = nearest;
+        }
+
+        void prepareMeasure(int[] newCandidates, int firstCandidate) {
+            this.newCandidates  = newCandidates;
+            this.firstCandidate = firstCandidate;
+            this.random         = null;
+        }
+
+        void prepareSample(SplittableRandom random, double factor) {
+            this.random = random;
+            this.factor = factor;
+            sampled.clear();
+        }
+
+        void run() {
+            if (random == null) {
+                measure();
+            } else {
+                sample();
+            }
+        }
+
+        private void measure() {
+            cost = 0;
+            for (int i = from; i < to; i++) {
+                double x = xs[i];
+                double y = ys[i];
+                for (int c = 0; c < newCandidates.length; c++) {
+                    double dx       = x - xs[newCandidates[c]];
+                    double dy       = y - ys[newCandidates[c]];
+                    double distance = dx * dx + dy * dy;
+                    if (distance < distances[i]) {
+                        distances[i] = distance;
+                        nearest[i]   = firstCandidate + c;
+                    }
+                }
+                cost += distances[i];
+            }
+        }
+
+        private void sample() {
+            for (int i = from; i < to; i++) {
+                if (distances[i] > 0 && random.nextDouble() < distances[i] * factor) {
+                    sampled.add(i);
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,5 @@
 package algorithms;
 
-import java.util.List;
-
-
 /**
  * An abstract class for classification algorithms. The output
  * for these algorithms is a straight line, as described in
@@ -15,17 +12,27 @@ import java.util.List;
 public abstract class Classifier implements Algorithm {
 
     /**
-     * See Appendix C of the SRS. Defining the output as a
-     * list instead of a triple allows for future extension
-     * into polynomial curves instead of just straight lines.
-     * See 3.4.4 of the SRS.
+     * See Appendix C of the SRS. The output is a linear model
+     * with any number of weights, which allows for future
+     * extension beyond straight lines (see 3.4.4 of the SRS).
+     * Classifiers update it in place as they train; it is null
+     * until the first update.
      */
-    protected List<Integer> output;
+    protected LinearModel output;
 
-    public List<Integer> getOutput() {
+    public LinearModel getOutput() {
         return output;
     }
 
+    /**
+     * @return true if the result of this classifier is the labels it gives
+     *         to the unlabelled instances of the data, rather than its
+     *         {@link #output}
+     */
+    public boolean isLabelling() {
+        return false;
+    }
+
     public static String getPrettyName() {
         return "UNINTIALIZED";
     }
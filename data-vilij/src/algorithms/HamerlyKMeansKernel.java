@@ -0,0 +1,294 @@
+// Aaron Knoll
+package algorithms;
+
+import data.DataSet;
+import java.util.Arrays;
+
+/**
+ * A drop-in alternative to {@link KMeansKernel} that uses Hamerly's
+ * triangle-inequality bounds to avoid most distance computations once the
+ * clusters have settled.
+ * <p>
+ * For every point it keeps an upper bound on the distance to its assigned
+ * centroid and a lower bound on the distance to every other centroid. After
+ * the centroids move, the bounds are loosened by how far the centroids
+ * drifted. A point whose upper bound is below both its lower bound and half
+ * the distance from its centroid to the nearest other centroid cannot change
+ * cluster, so its distances are not computed at all.
+ * <p>
+ * Every point is still added to the sums of its cluster in the same slice
+ * order as the plain kernel, so the centroids (and therefore the clustering)
+ * are exactly those of Lloyd's algorithm started from the same seeds.
+ *
+ * @author aaronknoll
+ */
+public final class HamerlyKMeansKernel implements CentroidKernel {
+
+    /** relative slack that keeps rounding errors from making a bound too tight */
+    private static final double BOUND_SLACK = 1e-12;
+
+    private final DataSet  dataset;
+    private final double[] xs;
+    private final double[] ys;
+    private final int      size;
+    private final int      k;
+
+    private final int[]    clusterLabelIds; // cluster -> DataSet label id
+    private final int[]    assignments;     // point -> cluster, -1 before the first pass
+    private final double[] upperBounds;     // point -> bound on distance to its centroid
+    private final double[] lowerBounds;     // point -> bound on distance to any other centroid
+
+    private final double[] centroidXs;
+    private final double[] centroidYs;
+    private final double[] drifts;          // distance moved by each centroid in the last update
+    private final double[] halfSeparations; // half the distance to the nearest other centroid
+    private int            maxDriftCluster;
+    private double         maxDrift;
+    private double         secondMaxDrift;
+
+    private final double[] sumXs;
+    private final double[] sumYs;
+    private final long[]   counts;
+
+    private long           distanceCount;
+    private long           skippedCount;
+
+    private final Slice[]  slices;
+
+    private CancellationToken token = CancellationToken.NONE;
+
+    /**
+     * Prepares a kernel over a DataSet. The cluster labels ("0", "1", ...) are
+     * added to the label dictionary here, so that the passes themselves never
+     * modify it.
+     *
+     * @param dataset          the data to be clustered
+     * @param numberOfClusters number of centroids
+     */
+    public HamerlyKMeansKernel(DataSet dataset, int numberOfClusters) {
+        this.dataset = dataset;
+        this.xs      = dataset.getXs();
+        this.ys      = dataset.getYs();
+        this.size    = dataset.size();
+        this.k       = numberOfClusters;
+
+        clusterLabelIds = new int[k];
+        for (int c = 0; c < k; c++) {
+            clusterLabelIds[c] = dataset.labelIdOf(Integer.toString(c));
+        }
+        assignments = new int[size];
+        Arrays.fill(assignments, -1);
+        upperBounds = new double[size];
+        lowerBounds = new double[size];
+
+        centroidXs      = new double[k];
+        centroidYs      = new double[k];
+        drifts          = new double[k];
+        halfSeparations = new double[k];
+        sumXs           = new double[k];
+        sumYs           = new double[k];
+        counts          = new long[k];
+
+        int sliceCount = Slices.count(size);
+        slices = new Slice[sliceCount];
+        for (int s = 0; s < sliceCount; s++) {
+            slices[s] = new Slice(Slices.start(size, sliceCount, s), Slices.start(size, sliceCount, s + 1));
+        }
+    }
+
+    public int getNumberOfClusters() { return k; }
+
+    public double getCentroidX(int cluster) { return centroidXs[cluster]; }
+
+    public double getCentroidY(int cluster) { return centroidYs[cluster]; }
+
+    /**
+     * Places a centroid. This is meant for seeding, before the first pass;
+     * the bounds of the points do not account for centroids moved this way.
+     */
+    @Override
+    public void setCentroid(int cluster, double x, double y) {
+        centroidXs[cluster] = x;
+        centroidYs[cluster] = y;
+    }
+
+    /**
+     * Lets a pass skip its remaining slices once the run is cancelled, which
+     * leaves the assignments and sums of that pass incomplete.
+     *
+     * @param token token of the run using this kernel
+     */
+    @Override
+    public void setCancellationToken(CancellationToken token) {
+        this.token = token;
+    }
+
+    public int getAssignment(int index) { return assignments[index]; }
+
+    public long getClusterSize(int cluster) { return counts[cluster]; }
+
+    /**
+     * @return point-to-centroid distances a plain pass would have computed so far
+     */
+    public long getDistanceCount() { return distanceCount; }
+
+    /**
+     * @return how many of those distances were skipped thanks to the bounds
+     */
+    public long getSkippedDistanceCount() { return skippedCount; }
+
+    /**
+     * Assigns every point to its nearest centroid and accumulates the cluster
+     * sums used by {@link #updateCentroids()}.
+     *
+     * @return number of points whose cluster changed
+     */
+    @Override
+    public int assign() {
+        computeHalfSeparations();
+        Slices.run(slices.length, token, s -> slices[s].run());
+        Arrays.fill(sumXs, 0);
+        Arrays.fill(sumYs, 0);
+        Arrays.fill(counts, 0);
+        int changed = 0;
+        for (Slice slice : slices) {
+            for (int c = 0; c < k; c++) {
+                sumXs[c]  += slice.sumXs[c];
+                sumYs[c]  += slice.sumYs[c];
+                counts[c] += slice.counts[c];
+            }
+            changed += slice.changed;
+            skippedCount += slice.skipped;
+        }
+        distanceCount += (long) size * k;
+        // the drifts have been folded into the bounds by this pass
+        Arrays.fill(drifts, 0);
+        maxDrift = secondMaxDrift = 0;
+        return changed;
+    }
+
+    /**
+     * Moves every centroid to the mean of the points assigned to it by the
+     * latest {@link #assign()}, recording how far each one moved. Centroids of
+     * empty clusters stay where they are.
+     *
+     * @return true if at least one centroid moved
+     */
+    @Override
+    public boolean updateCentroids() {
+        boolean moved = false;
+        maxDrift = secondMaxDrift = 0;
+        maxDriftCluster = -1;
+        for (int c = 0; c < k; c++) {
+            drifts[c] = 0;
+            if (counts[c] > 0) {
+                double x = sumXs[c] / counts[c];
+                double y = sumYs[c] / counts[c];
+                if (x != centroidXs[c] || y != centroidYs[c]) {
+                    drifts[c] = Math.hypot(x - centroidXs[c], y - centroidYs[c]) * (1 + BOUND_SLACK);
+                    centroidXs[c] = x;
+                    centroidYs[c] = y;
+                    moved = true;
+                }
+            }
+            if (drifts[c] > maxDrift) {
+                secondMaxDrift  = maxDrift;
+                maxDrift        = drifts[c];
+                maxDriftCluster = c;
+            } else if (drifts[c] > secondMaxDrift) {
+                secondMaxDrift = drifts[c];
+            }
+        }
+        return moved;
+    }
+
+    private void computeHalfSeparations() {
+        for (int c = 0; c < k; c++) {
+            double nearest = Double.POSITIVE_INFINITY;
+            for (int other = 0; other < k; other++) {
+                if (other != c) {
+                    nearest = Math.min(nearest, Math.hypot(centroidXs[c] - centroidXs[other], centroidYs[c] - centroidYs[other]));
+                }
+            }
+            halfSeparations[c] = nearest / 2 * (1 - BOUND_SLACK);
+        }
+    }
+
+    private final class Slice {
+
+        private final int      from;
+        private final int      to;
+        private final double[] sumXs  = new double[k];
+        private final double[] sumYs  = new double[k];
+        private final long[]   counts = new long[k];
+        private int            changed;
+        private long           skipped;
+
+        Slice(int from, int to) {
+            this.from = from;
+            this.to   = to;
+        }
+
+        void run() {
+            Arrays.fill(sumXs, 0);
+            Arrays.fill(sumYs, 0);
+            Arrays.fill(counts, 0);
+            changed = 0;
+            skipped = 0;
+            for (int i = from; i < to; i++) {
+                double x        = xs[i];
+                double y        = ys[i];
+                int    assigned = assignments[i];
+
+                if (assigned >= 0) {
+                    upperBounds[i] += drifts[assigned];
+                    lowerBounds[i] -= assigned == maxDriftCluster ? secondMaxDrift : maxDrift;
+                    double bound = Math.max(halfSeparations[assigned], lowerBounds[i]);
+                    if (upperBounds[i] < bound) {
+                        skipped += k;
+                        accumulate(assigned, x, y);
+                        continue;
+                    }
+                    double dx = x - centroidXs[assigned];
+                    double dy = y - centroidYs[assigned];
+                    upperBounds[i] = Math.sqrt(dx * dx + dy * dy) * (1 + BOUND_SLACK);
+                    if (upperBounds[i] < bound) {
+                        skipped += k - 1;
+                        accumulate(assigned, x, y);
+                        continue;
+                    }
+                }
+
+                int    nearest    = 0;
+                double best       = Double.MAX_VALUE;
+                double secondBest = Double.MAX_VALUE;
+                for (int c = 0; c < k; c++) {
+                    double dx       = x - centroidXs[c];
+                    double dy       = y - centroidYs[c];
+                    double distance = dx * dx + dy * dy;
+                    if (distance < best) {
+                        secondBest = best;
+                        best       = distance;
+                        nearest    = c;
+                    } else if (distance < secondBest) {
+                        secondBest = distance;
+                    }
+                }
+                upperBounds[i] = Math.sqrt(best) * (1 + BOUND_SLACK);
+                lowerBounds[i] = Math.sqrt(secondBest) * (1 - BOUND_SLACK);
+                accumulate(nearest, x, y);
+                if (assigned != nearest) {
+                    assignments[i] = nearest;
+                    dataset.setLabelId(i, clusterLabelIds[nearest]);
+                    changed++;
+                }
+            }
+        }
+
+        private void accumulate(int cluster, double x, double y) {
+            sumXs[cluster] += x;
+            sumYs[cluster] += y;
+            counts[cluster]++;
+        }
+    }
+}
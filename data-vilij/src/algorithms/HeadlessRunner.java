@@ -0,0 +1,185 @@
+// Aaron Knoll
+package algorithms;
+
+import components.AlgorithmConfiguration;
+import data.DataSet;
+import data.ParallelTSDParser;
+import data.TSDBinaryFormat;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs an Algorithm on a data file from the command line, without a display
+ * and without starting the JavaFX toolkit. The Algorithm is looked up in the
+ * {@link AlgorithmRegistry} by pretty name or class name.
+ * <p>
+ * The run is continuous and unpaced, and progress messages go to standard
+ * error. A clusterer's result is the labelled data, written in the format
+ * given by the extension of the destination (<code>.tsd</code> or
+ * <code>.tsdb</code>), and so is that of a classifier that labels the
+ * unlabelled instances; any other classifier's result is the line it found,
+ * written as its tab-separated weights and bias.
+ *
+ * @author aaronknoll
+ */
+public final class HeadlessRunner {
+
+    private static final String USAGE = "Usage: HeadlessRunner <algorithm> <source.tsd|source.tsdb> <destination>"
+                                       + " [iterations=N] [interval=N] [clusters=N] [batch=N] [seed=N]"
+                                       + " [rate=X] [decay=X] [tolerance=X] [neighbours=N]";
+
+    private HeadlessRunner() {
+        /* static utility class */ }
+
+    /**
+     * Reports progress messages to standard error.
+     */
+    private static final class ConsoleProgressSink implements ProgressSink {
+
+        private final String name;
+
+        ConsoleProgressSink(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void message(String text) {
+            if (!text.isEmpty()) {
+                System.err.println(name + ": " + text);
+            }
+        }
+    }
+
+    /**
+     * Creates an Algorithm and runs it to completion on the calling thread.
+     *
+     * @param entry   the registered Algorithm
+     * @param dataset the data, which a clusterer labels in place
+     * @param config  the configuration of the run
+     * @param sink    receives the progress of the run
+     * @return the Algorithm, after its run
+     * @throws InvocationTargetException if the Algorithm cannot be created
+     */
+    public static Algorithm run(AlgorithmRegistry.Entry entry, DataSet dataset, AlgorithmConfiguration config,
+                                ProgressSink sink) throws InvocationTargetException {
+        AlgorithmConfiguration headless = new AlgorithmConfiguration(config);
+        headless.continuousRun = true;
+        headless.pacingMillis  = 0;
+        Algorithm algorithm = entry.create(dataset, headless, new AlgorithmPauser(), sink);
+        algorithm.run();
+        return algorithm;
+    }
+
+    private static DataSet read(Path source) throws IOException {
+        if (source.toString().endsWith(TSDBinaryFormat.EXTENSION)) {
+            return TSDBinaryFormat.read(source);
+        }
+        ParallelTSDParser.Result result = ParallelTSDParser.parse(source);
+        if (!result.getErrors().isEmpty()) {
+            System.err.println("Skipped " + result.getErrors().size() + " malformed lines of " + source + ".");
+        }
+        return result.getDataSet();
+    }
+
+    private static void write(Algorithm algorithm, DataSet dataset, Path destination) throws IOException {
+        if (algorithm instanceof Classifier && !((Classifier) algorithm).isLabelling()) {
+            LinearModel output = ((Classifier) algorithm).getOutput();
+            String      line   = output == null ? "" : output.toString();
+            Files.write(destination, (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        } else if (destination.toString().endsWith(TSDBinaryFormat.EXTENSION)) {
+            TSDBinaryFormat.write(dataset, destination);
+        } else {
+            try (BufferedWriter writer = Files.newBufferedWriter(destination, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < dataset.size(); i++) {
+                    writer.write(TSDBinaryFormat.toTSDLine(dataset, i));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    private static void configure(AlgorithmConfiguration config, String option) {
+        int separator = option.indexOf('=');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Expected name=value instead of " + option + ".");
+        }
+        String name  = option.substring(0, separator);
+        String value = option.substring(separator + 1);
+        switch (name) {
+            case "iterations":
+                config.maxIterations = Integer.parseInt(value);
+                break;
+            case "interval":
+                config.updateInterval = Integer.parseInt(value);
+                break;
+            case "clusters":
+                config.numOfClusteringLabels = Integer.parseInt(value);
+                break;
+            case "batch":
+                config.batchSize = Integer.parseInt(value);
+                break;
+            case "seed":
+                config.seed = Long.parseLong(value);
+                break;
+            case "rate":
+                config.learningRate = Double.parseDouble(value);
+                break;
+            case "decay":
+                config.learningRateDecay = Double.parseDouble(value);
+                break;
+            case "tolerance":
+                config.tolerance = Double.parseDouble(value);
+                break;
+            case "neighbours":
+                config.neighbours = Integer.parseInt(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option " + name + ".");
+        }
+        if (config.maxIterations < 1 || config.updateInterval < 1) {
+            throw new IllegalArgumentException("iterations and interval must be positive.");
+        }
+    }
+
+    /**
+     * Command-line entry point.
+     *
+     * @param args algorithm, source file, destination file and options
+     * @throws Exception if the files cannot be accessed or the algorithm fails
+     */
+    public static void main(String... args) throws Exception {
+        if (args.length < 3) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        AlgorithmRegistry.Entry entry = AlgorithmRegistry.getDefault().find(args[0]);
+        AlgorithmConfiguration  config;
+        try {
+            if (entry == null) {
+                throw new IllegalArgumentException("No algorithm named " + args[0] + ".");
+            }
+            config = entry.getDefaultConfiguration();
+            for (int i = 3; i < args.length; i++) {
+                configure(config, args[i]);
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        DataSet   dataset   = read(Paths.get(args[1]));
+        long      start     = System.nanoTime();
+        String    name      = entry.getAlgorithmClass().getSimpleName();
+        Algorithm algorithm = run(entry, dataset, config, new ConsoleProgressSink(name));
+        System.err.printf("%s: %,d instances in %.1f ms%n", name, dataset.size(),
+                          (System.nanoTime() - start) / 1e6);
+        write(algorithm, dataset, Paths.get(args[2]));
+    }
+}
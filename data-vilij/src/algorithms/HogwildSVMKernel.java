@@ -0,0 +1,187 @@
+// Aaron Knoll
+package algorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Epochs of stochastic gradient descent on the regularized hinge loss (a
+ * linear SVM) over a {@link BinaryTrainingSet}, run Hogwild-style: the
+ * instances are split into shards, cut like {@link Slices}, that are trained
+ * on the common {@link ForkJoinPool} at the same time, all against one shared
+ * line, without locks.
+ * <p>
+ * Every shard trains a private copy of the line and adds what it learned to
+ * the shared line after every {@link #PUBLISH_INTERVAL} instances, then picks
+ * up what the other shards published in the meantime. The shared coefficients
+ * are read and written as plain values, not compare-and-set, so an update can
+ * occasionally overwrite one made by another shard at the same moment; like
+ * Hogwild, the training relies on such collisions being rare and harmless.
+ * Publishing in small batches keeps the shards from fighting over the cache
+ * line holding the three coefficients on every instance. With a single shard
+ * this is plain SGD.
+ * <p>
+ * The line is <code>a*x' + b*y' + c = 0</code>, in the standardized
+ * coordinates of the training set.
+ *
+ * @author aaronknoll
+ */
+public final class HogwildSVMKernel {
+
+    /** instances a shard trains on between two publications of its progress */
+    public static final int PUBLISH_INTERVAL = 64;
+    /** instances between two checks for cancellation */
+    private static final int CANCEL_INTERVAL = 1 << 12;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final byte[]   targets;
+    private final double   meanX;
+    private final double   meanY;
+    private final double   inverseScaleX;
+    private final double   inverseScaleY;
+    private final double   regularization;
+
+    private final Shard[]  shards;
+
+    // a, b and c as raw long bits
+    private final AtomicLongArray line = new AtomicLongArray(3);
+
+    private CancellationToken token = CancellationToken.NONE;
+
+    // settings of the current epoch
+    private double rate;
+    private int    offset;
+
+    /**
+     * @param training       the instances to train on
+     * @param regularization weight of the squared norm of (a, b) in the loss
+     */
+    public HogwildSVMKernel(BinaryTrainingSet training, double regularization) {
+        this.xs             = training.getXs();
+        this.ys             = training.getYs();
+        this.targets        = training.getTargets();
+        this.meanX          = training.getMeanX();
+        this.meanY          = training.getMeanY();
+        this.inverseScaleX  = 1 / training.getScaleX();
+        this.inverseScaleY  = 1 / training.getScaleY();
+        this.regularization = regularization;
+
+        int size       = training.size();
+        int shardCount = Slices.count(size);
+        shards = new Shard[shardCount];
+        for (int s = 0; s < shardCount; s++) {
+            shards[s] = new Shard(Slices.start(size, shardCount, s), Slices.start(size, shardCount, s + 1));
+        }
+    }
+
+    public double getA() { return get(0); }
+
+    public double getB() { return get(1); }
+
+    public double getC() { return get(2); }
+
+    /**
+     * @return number of shards the instances are split into
+     */
+    public int getShardCount() { return shards.length; }
+
+    /**
+     * @return number of shards trained at the same time, at most
+     */
+    public int getThreadCount() { return Math.min(shards.length, ForkJoinPool.getCommonPoolParallelism()); }
+
+    /**
+     * Lets the shards stop part way through an epoch once the run is
+     * cancelled, and the shards that have not started skip it.
+     *
+     * @param token token of the run using this kernel
+     */
+    public void setCancellationToken(CancellationToken token) {
+        this.token = token;
+    }
+
+    private double get(int coefficient) {
+        return Double.longBitsToDouble(line.get(coefficient));
+    }
+
+    private void add(int coefficient, double delta) {
+        // deliberately not a compare-and-set loop: concurrent additions may be lost
+        line.lazySet(coefficient, Double.doubleToRawLongBits(get(coefficient) + delta));
+    }
+
+    /**
+     * Trains every shard once over its instances, as many at the same time as
+     * the pool allows.
+     *
+     * @param rate   step size of the epoch
+     * @param offset where every shard starts in its range, which varies the
+     *               order of the instances from one epoch to the next
+     * @return number of instances trained on
+     */
+    public long epoch(double rate, int offset) {
+        this.rate   = rate;
+        this.offset = Math.max(0, offset);
+        Slices.run(shards.length, token, s -> shards[s].run());
+        long updates = 0;
+        for (Shard shard : shards) {
+            updates += shard.updates;
+            // a shard skipped by a cancelled epoch counts nothing
+            shard.updates = 0;
+        }
+        return updates;
+    }
+
+    private final class Shard {
+
+        private final int from;
+        private final int to;
+        private long      updates;
+
+        Shard(int from, int to) {
+            this.from = from;
+            this.to   = to;
+        }
+
+        void run() {
+            double rate   = HogwildSVMKernel.this.rate;
+            double shrink = 1 - rate * regularization;
+            double a = get(0), b = get(1), c = get(2);
+            double startA = a, startB = b, startC = c;
+            long   n      = 0;
+            int    length = to - from;
+            int    start  = length == 0 ? 0 : offset % length;
+            for (int p = 0; p < length; p++) {
+                int i = from + (start + p < length ? start + p : start + p - length);
+                int target = targets[i];
+                if (target == 0) {
+                    continue;
+                }
+                double x = (xs[i] - meanX) * inverseScaleX;
+                double y = (ys[i] - meanY) * inverseScaleY;
+                a *= shrink;
+                b *= shrink;
+                if (target * (a * x + b * y + c) < 1) {
+                    a += rate * target * x;
+                    b += rate * target * y;
+                    c += rate * target;
+                }
+                if (++n % PUBLISH_INTERVAL == 0) {
+                    add(0, a - startA);
+                    add(1, b - startB);
+                    add(2, c - startC);
+                    a = startA = get(0);
+                    b = startB = get(1);
+                    c = startC = get(2);
+                    if (n % CANCEL_INTERVAL == 0 && token.isCancelled()) {
+                        break;
+                    }
+                }
+            }
+            add(0, a - startA);
+            add(1, b - startB);
+            add(2, c - startC);
+            updates = n;
+        }
+    }
+}
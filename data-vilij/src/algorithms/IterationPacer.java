@@ -0,0 +1,54 @@
+// Aaron Knoll
+package algorithms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optionally slows an Algorithm down to a minimum time per iteration, so
+ * that its progress can be followed on screen (for demos). Time spent
+ * computing counts towards the interval: an iteration that takes longer than
+ * the interval is not delayed at all.
+ *
+ * @author aaronknoll
+ */
+public final class IterationPacer {
+
+    private final long intervalNanos;
+    private long       deadline;
+    private boolean    started;
+
+    /**
+     * @param intervalMillis minimum time between the starts of two
+     *                       iterations, or 0 for no pacing
+     */
+    public IterationPacer(long intervalMillis) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervalMillis));
+    }
+
+    /**
+     * Waits until the previous iteration started at least the interval ago.
+     * To be called at the start of every iteration.
+     *
+     * @param token token of the run, which stops the wait once cancelled
+     * @return false if the run was cancelled or the thread was interrupted
+     *         while waiting
+     */
+    public boolean pace(CancellationToken token) {
+        if (intervalNanos == 0) {
+            return true;
+        }
+        if (started) {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.currentThread().isInterrupted() || token.isCancelled()) {
+                    return false;
+                }
+            }
+        }
+        started  = true;
+        deadline = System.nanoTime() + intervalNanos;
+        return true;
+    }
+}
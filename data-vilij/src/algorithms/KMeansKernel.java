@@ -0,0 +1,206 @@
+// Aaron Knoll
+package algorithms;
+
+import data.DataSet;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The assignment and update steps of Lloyd's K-Means algorithm, fused into a
+ * single pass over the primitive coordinate columns of a {@link DataSet}.
+ * <p>
+ * Each pass assigns every point to its nearest centroid (by squared distance)
+ * and, in the same loop, adds the point to the running sums of that cluster.
+ * The points are split into a fixed set of {@link Slices} that are processed
+ * on the common {@link ForkJoinPool}; every slice owns its partial sums, which
+ * are merged in slice order once the pass is over. All buffers are allocated up front, so a pass
+ * does not allocate anything per point.
+ * <p>
+ * Cluster labels are written into the DataSet as the points are assigned,
+ * but only for points whose cluster actually changed.
+ *
+ * @author aaronknoll
+ */
+public final class KMeansKernel implements CentroidKernel {
+
+    private final DataSet  dataset;
+    private final double[] xs;
+    private final double[] ys;
+    private final int      size;
+    private final int      k;
+
+    private final int[]    clusterLabelIds; // cluster -> DataSet label id
+    private final int[]    assignments;     // point -> cluster, -1 before the first pass
+
+    private final double[] centroidXs;
+    private final double[] centroidYs;
+    private final double[] sumXs;
+    private final double[] sumYs;
+    private final long[]   counts;
+
+    private final Slice[]  slices;
+
+    private CancellationToken token = CancellationToken.NONE;
+
+    /**
+     * Prepares a kernel over a DataSet. The cluster labels ("0", "1", ...) are
+     * added to the label dictionary here, so that the passes themselves never
+     * modify it.
+     *
+     * @param dataset          the data to be clustered
+     * @param numberOfClusters number of centroids
+     */
+    public KMeansKernel(DataSet dataset, int numberOfClusters) {
+        this.dataset = dataset;
+        this.xs      = dataset.getXs();
+        this.ys      = dataset.getYs();
+        this.size    = dataset.size();
+        this.k       = numberOfClusters;
+
+        clusterLabelIds = new int[k];
+        for (int c = 0; c < k; c++) {
+            clusterLabelIds[c] = dataset.labelIdOf(Integer.toString(c));
+        }
+        assignments = new int[size];
+        Arrays.fill(assignments, -1);
+
+        centroidXs = new double[k];
+        centroidYs = new double[k];
+        sumXs      = new double[k];
+        sumYs      = new double[k];
+        counts     = new long[k];
+
+        int sliceCount = Slices.count(size);
+        slices = new Slice[sliceCount];
+        for (int s = 0; s < sliceCount; s++) {
+            slices[s] = new Slice(Slices.start(size, sliceCount, s), Slices.start(size, sliceCount, s + 1));
+        }
+    }
+
+    public int getNumberOfClusters() { return k; }
+
+    public double getCentroidX(int cluster) { return centroidXs[cluster]; }
+
+    public double getCentroidY(int cluster) { return centroidYs[cluster]; }
+
+    @Override
+    public void setCentroid(int cluster, double x, double y) {
+        centroidXs[cluster] = x;
+        centroidYs[cluster] = y;
+    }
+
+    /**
+     * Lets a pass skip its remaining slices once the run is cancelled, which
+     * leaves the assignments and sums of that pass incomplete.
+     *
+     * @param token token of the run using this kernel
+     */
+    @Override
+    public void setCancellationToken(CancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * @param index position of a point in the DataSet
+     * @return cluster of the point after the latest pass, or -1 before the first one
+     */
+    public int getAssignment(int index) { return assignments[index]; }
+
+    /**
+     * @param cluster a cluster
+     * @return number of points assigned to the cluster by the latest pass
+     */
+    public long getClusterSize(int cluster) { return counts[cluster]; }
+
+    /**
+     * Assigns every point to its nearest centroid and accumulates the cluster
+     * sums used by {@link #updateCentroids()}.
+     *
+     * @return number of points whose cluster changed
+     */
+    @Override
+    public int assign() {
+        Slices.run(slices.length, token, s -> slices[s].run());
+        Arrays.fill(sumXs, 0);
+        Arrays.fill(sumYs, 0);
+        Arrays.fill(counts, 0);
+        int changed = 0;
+        for (Slice slice : slices) {
+            for (int c = 0; c < k; c++) {
+                sumXs[c]  += slice.sumXs[c];
+                sumYs[c]  += slice.sumYs[c];
+                counts[c] += slice.counts[c];
+            }
+            changed += slice.changed;
+        }
+        return changed;
+    }
+
+    /**
+     * Moves every centroid to the mean of the points assigned to it by the
+     * latest {@link #assign()}. Centroids of empty clusters stay where they are.
+     *
+     * @return true if at least one centroid moved
+     */
+    @Override
+    public boolean updateCentroids() {
+        boolean moved = false;
+        for (int c = 0; c < k; c++) {
+            if (counts[c] > 0) {
+                double x = sumXs[c] / counts[c];
+                double y = sumYs[c] / counts[c];
+                if (x != centroidXs[c] || y != centroidYs[c]) {
+                    centroidXs[c] = x;
+                    centroidYs[c] = y;
+                    moved = true;
+                }
+            }
+        }
+        return moved;
+    }
+
+    private final class Slice {
+
+        private final int      from;
+        private final int      to;
+        private final double[] sumXs  = new double[k];
+        private final double[] sumYs  = new double[k];
+        private final long[]   counts = new long[k];
+        private int            changed;
+
+        Slice(int from, int to) {
+            this.from = from;
+            this.to   = to;
+        }
+
+        void run() {
+            Arrays.fill(sumXs, 0);
+            Arrays.fill(sumYs, 0);
+            Arrays.fill(counts, 0);
+            changed = 0;
+            for (int i = from; i < to; i++) {
+                double x       = xs[i];
+                double y       = ys[i];
+                int    nearest = 0;
+                double best    = Double.MAX_VALUE;
+                for (int c = 0; c < k; c++) {
+                    double dx       = x - centroidXs[c];
+                    double dy       = y - centroidYs[c];
+                    double distance = dx * dx + dy * dy;
+                    if (distance < best) {
+                        best    = distance;
+                        nearest = c;
+                    }
+                }
+                sumXs[nearest] += x;
+                sumYs[nearest] += y;
+                counts[nearest]++;
+                if (assignments[i] != nearest) {
+                    assignments[i] = nearest;
+                    dataset.setLabelId(i, clusterLabelIds[nearest]);
+                    changed++;
+                }
+            }
+        }
+    }
+}
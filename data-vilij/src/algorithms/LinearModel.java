@@ -0,0 +1,137 @@
+// Aaron Knoll
+package algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A linear decision function <code>w[0]*x + w[1]*y + ... + bias</code>, whose
+ * zero set is the line (or hyperplane) drawn for a {@link Classifier}. The
+ * weights are kept in a primitive array and updated in place, so a classifier
+ * can keep one model for its whole run.
+ * <p>
+ * A LinearModel is not thread-safe. A classifier hands its model to the
+ * {@link ProgressSink} on the training thread; a receiver that keeps it beyond
+ * that call, or reads it on another thread, keeps a {@link #snapshot()}
+ * instead.
+ *
+ * @author aaronknoll
+ */
+public final class LinearModel {
+
+    private final double[] weights;
+    private double         bias;
+
+    /**
+     * Creates a model with all weights and the bias at 0.
+     *
+     * @param dimension number of weights, 2 for the x and y of a DataSet
+     */
+    public LinearModel(int dimension) {
+        this.weights = new double[dimension];
+    }
+
+    /**
+     * Creates the model of the line <code>a*x + b*y + c = 0</code>.
+     *
+     * @param a weight of x
+     * @param b weight of y
+     * @param c bias
+     */
+    public LinearModel(double a, double b, double c) {
+        this(2);
+        set(a, b, c);
+    }
+
+    public int getDimension() { return weights.length; }
+
+    public double getWeight(int index) { return weights[index]; }
+
+    public double getBias() { return bias; }
+
+    public void setWeight(int index, double weight) {
+        weights[index] = weight;
+    }
+
+    public void setBias(double bias) {
+        this.bias = bias;
+    }
+
+    /**
+     * Sets a two-dimensional model to the line <code>a*x + b*y + c = 0</code>.
+     *
+     * @param a weight of x
+     * @param b weight of y
+     * @param c bias
+     */
+    public void set(double a, double b, double c) {
+        weights[0] = a;
+        weights[1] = b;
+        bias       = c;
+    }
+
+    /**
+     * @param x first coordinate
+     * @param y second coordinate
+     * @return value of a two-dimensional model at (x, y); positive on one side
+     *         of the line, negative on the other
+     */
+    public double evaluate(double x, double y) {
+        return weights[0] * x + weights[1] * y + bias;
+    }
+
+    /**
+     * @return true if every weight is 0 (or not a number), so that the model
+     *         does not describe a line
+     */
+    public boolean isDegenerate() {
+        for (double weight : weights) {
+            if (weight != 0 && !Double.isNaN(weight)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies this model into another one of the same dimension, without
+     * allocating.
+     *
+     * @param target receives the weights and bias of this model
+     */
+    public void copyTo(LinearModel target) {
+        System.arraycopy(weights, 0, target.weights, 0, weights.length);
+        target.bias = bias;
+    }
+
+    /**
+     * @return a copy of this model, unaffected by later updates
+     */
+    public LinearModel snapshot() {
+        LinearModel copy = new LinearModel(weights.length);
+        copyTo(copy);
+        return copy;
+    }
+
+    /**
+     * @return the weights followed by the bias, separated by tabs
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (double weight : weights) {
+            text.append(weight).append('\t');
+        }
+        return text.append(bias).toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof LinearModel && Arrays.equals(weights, ((LinearModel) other).weights)
+               && Double.compare(bias, ((LinearModel) other).bias) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(weights) + Double.hashCode(bias);
+    }
+}
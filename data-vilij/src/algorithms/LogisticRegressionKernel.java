@@ -0,0 +1,191 @@
+// Aaron Knoll
+package algorithms;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Gradient descent steps of logistic regression over a
+ * {@link BinaryTrainingSet}, on the line <code>a*x' + b*y' + c = 0</code> in
+ * its standardized coordinates.
+ * <p>
+ * A step either covers every instance of the two labels (full batch) or a
+ * fixed number of instances sampled with replacement (mini-batch). Either way
+ * the work is split into a fixed set of {@link Slices} that are processed on
+ * the common {@link ForkJoinPool}: every slice reduces its share to a partial
+ * gradient, and the partial gradients are summed once per step before the
+ * line moves. Sampled slices draw their instances from their own generator,
+ * seeded from the seed of the step and the index of the slice, so a run
+ * depends only on its seed and not on the number of cores or the scheduling
+ * of the slices. All buffers are allocated up front.
+ *
+ * @author aaronknoll
+ */
+public final class LogisticRegressionKernel {
+
+    private static final long SEED_MIXER = 0x9E3779B97F4A7C15L;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final byte[]   targets;
+    private final int[]    trainingIndices; // instances of the two labels, or null if that is all of them
+    private final int      trainingSize;
+    private final boolean  sampled;
+    private final double   meanX;
+    private final double   meanY;
+    private final double   inverseScaleX;
+    private final double   inverseScaleY;
+
+    private final Slice[]  slices;
+
+    private CancellationToken token = CancellationToken.NONE;
+
+    // the line, and the seed of the samples of the current step
+    private double a, b, c;
+    private long   seed;
+
+    /**
+     * @param training  the instances to train on
+     * @param batchSize instances sampled per step, or 0 (or at least the
+     *                  number of training instances) for full-batch steps
+     */
+    public LogisticRegressionKernel(BinaryTrainingSet training, int batchSize) {
+        this.xs            = training.getXs();
+        this.ys            = training.getYs();
+        this.targets       = training.getTargets();
+        this.trainingSize  = training.getTrainingSize();
+        this.sampled       = batchSize > 0 && batchSize < trainingSize;
+        this.meanX         = training.getMeanX();
+        this.meanY         = training.getMeanY();
+        this.inverseScaleX = 1 / training.getScaleX();
+        this.inverseScaleY = 1 / training.getScaleY();
+
+        if (sampled && trainingSize < training.size()) {
+            trainingIndices = new int[trainingSize];
+            for (int i = 0, n = 0; i < training.size(); i++) {
+                if (targets[i] != 0) {
+                    trainingIndices[n++] = i;
+                }
+            }
+        } else {
+            trainingIndices = null;
+        }
+
+        int work       = sampled ? batchSize : training.size();
+        int sliceCount = Slices.count(work);
+        slices = new Slice[sliceCount];
+        for (int s = 0; s < sliceCount; s++) {
+            slices[s] = new Slice(s, Slices.start(work, sliceCount, s), Slices.start(work, sliceCount, s + 1));
+        }
+    }
+
+    public double getA() { return a; }
+
+    public double getB() { return b; }
+
+    public double getC() { return c; }
+
+    /**
+     * Lets a step skip its remaining slices once the run is cancelled. The
+     * line is left as it was when that happens.
+     *
+     * @param token token of the run using this kernel
+     */
+    public void setCancellationToken(CancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * Computes the mean gradient of the logistic loss over a batch and moves
+     * the line against it.
+     *
+     * @param stepSeed seed of the instances sampled by this step; ignored for
+     *                 full-batch steps
+     * @param rate     step size
+     * @return norm of the gradient, or 0 if there is nothing to train on
+     */
+    public double step(long stepSeed, double rate) {
+        if (trainingSize == 0) {
+            return 0;
+        }
+        this.seed = stepSeed;
+        Slices.run(slices.length, token, s -> slices[s].run());
+        if (token.isCancelled()) {
+            return 0;
+        }
+        double sumA = 0, sumB = 0, sumC = 0;
+        long   count = 0;
+        for (Slice slice : slices) {
+            sumA  += slice.gradientA;
+            sumB  += slice.gradientB;
+            sumC  += slice.gradientC;
+            count += slice.count;
+        }
+        double gradientA = sumA / count;
+        double gradientB = sumB / count;
+        double gradientC = sumC / count;
+        a -= rate * gradientA;
+        b -= rate * gradientB;
+        c -= rate * gradientC;
+        return Math.sqrt(gradientA * gradientA + gradientB * gradientB + gradientC * gradientC);
+    }
+
+    private final class Slice {
+
+        private final int index;
+        private final int from;
+        private final int to;
+        private double    gradientA, gradientB, gradientC;
+        private long      count;
+
+        Slice(int index, int from, int to) {
+            this.index = index;
+            this.from  = from;
+            this.to    = to;
+        }
+
+        void run() {
+            double a = LogisticRegressionKernel.this.a;
+            double b = LogisticRegressionKernel.this.b;
+            double c = LogisticRegressionKernel.this.c;
+            double sumA = 0, sumB = 0, sumC = 0;
+            long   n     = 0;
+            long   state = mix(seed + (index + 1) * SEED_MIXER);
+            for (int p = from; p < to; p++) {
+                int i;
+                if (sampled) {
+                    state += SEED_MIXER;
+                    long bits = mix(state) >>> 32;
+                    int  pick = (int) ((bits * trainingSize) >>> 32);
+                    i = trainingIndices == null ? pick : trainingIndices[pick];
+                } else {
+                    i = p;
+                    if (targets[i] == 0) {
+                        continue;
+                    }
+                }
+                int    target = targets[i];
+                double x      = (xs[i] - meanX) * inverseScaleX;
+                double y      = (ys[i] - meanY) * inverseScaleY;
+                double margin = target * (a * x + b * y + c);
+                // d/dz log(1 + e^(-t*z)) = -t / (1 + e^(t*z))
+                double e      = Math.exp(-Math.abs(margin));
+                double slope  = -target * (margin >= 0 ? e / (1 + e) : 1 / (1 + e));
+                sumA += slope * x;
+                sumB += slope * y;
+                sumC += slope;
+                n++;
+            }
+            gradientA = sumA;
+            gradientB = sumB;
+            gradientC = sumC;
+            count     = n;
+        }
+    }
+
+    /** SplitMix64 finalizer */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
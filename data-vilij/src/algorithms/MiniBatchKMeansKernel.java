@@ -0,0 +1,161 @@
+// Aaron Knoll
+package algorithms;
+
+import data.DataSet;
+import java.util.Random;
+
+/**
+ * Mini-batch K-Means (Sculley, "Web-Scale K-Means Clustering"). Every step
+ * samples a fixed number of points, assigns each of them to its nearest
+ * centroid and then pulls that centroid towards the point with a per-centroid
+ * learning rate of 1 / (points seen by the centroid so far). The cost of a
+ * step depends only on the batch size and the number of clusters, never on
+ * the size of the DataSet.
+ * <p>
+ * Labelling the whole DataSet is a separate, full pass ({@link #assign()}),
+ * meant to be run only when the clusters are displayed.
+ *
+ * @author aaronknoll
+ */
+public final class MiniBatchKMeansKernel implements CentroidKernel {
+
+    private final double[]     xs;
+    private final double[]     ys;
+    private final int          size;
+    private final int          k;
+
+    private final double[]     centroidXs;
+    private final double[]     centroidYs;
+    private final long[]       seen;     // cluster -> points that have updated it so far
+    private final double[]     startXs;  // centroids at the start of the current step
+    private final double[]     startYs;
+
+    private final int[]        batch;    // sampled point indices of the current step
+    private final int[]        nearest;  // sampled point -> nearest centroid
+
+    private final KMeansKernel labeller;
+
+    /**
+     * @param dataset          the data to be clustered
+     * @param numberOfClusters number of centroids
+     * @param batchSize        points sampled per step
+     */
+    public MiniBatchKMeansKernel(DataSet dataset, int numberOfClusters, int batchSize) {
+        this.xs      = dataset.getXs();
+        this.ys      = dataset.getYs();
+        this.size    = dataset.size();
+        this.k       = numberOfClusters;
+
+        centroidXs = new double[k];
+        centroidYs = new double[k];
+        seen       = new long[k];
+        startXs    = new double[k];
+        startYs    = new double[k];
+        batch      = new int[batchSize];
+        nearest    = new int[batchSize];
+        labeller   = new KMeansKernel(dataset, k);
+    }
+
+    public int getNumberOfClusters() { return k; }
+
+    public int getBatchSize() { return batch.length; }
+
+    public double getCentroidX(int cluster) { return centroidXs[cluster]; }
+
+    public double getCentroidY(int cluster) { return centroidYs[cluster]; }
+
+    @Override
+    public void setCentroid(int cluster, double x, double y) {
+        centroidXs[cluster] = x;
+        centroidYs[cluster] = y;
+    }
+
+    /**
+     * Lets the labelling pass skip its remaining slices once the run is
+     * cancelled.
+     *
+     * @param token token of the run using this kernel
+     */
+    @Override
+    public void setCancellationToken(CancellationToken token) {
+        labeller.setCancellationToken(token);
+    }
+
+    /**
+     * Samples a batch (with replacement) and moves the centroids towards it.
+     *
+     * @param random source of the sample
+     * @return largest squared distance moved by a centroid during the step
+     */
+    public double step(Random random) {
+        if (size == 0) {
+            return 0;
+        }
+        // assign the whole batch against the centroids as they were at the start of the step
+        for (int b = 0; b < batch.length; b++) {
+            int    i       = random.nextInt(size);
+            double x       = xs[i];
+            double y       = ys[i];
+            int    closest = 0;
+            double best    = Double.MAX_VALUE;
+            for (int c = 0; c < k; c++) {
+                double dx       = x - centroidXs[c];
+                double dy       = y - centroidYs[c];
+                double distance = dx * dx + dy * dy;
+                if (distance < best) {
+                    best    = distance;
+                    closest = c;
+                }
+            }
+            batch[b]   = i;
+            nearest[b] = closest;
+        }
+
+        System.arraycopy(centroidXs, 0, startXs, 0, k);
+        System.arraycopy(centroidYs, 0, startYs, 0, k);
+        for (int b = 0; b < batch.length; b++) {
+            int    c    = nearest[b];
+            double rate = 1.0 / ++seen[c];
+            centroidXs[c] += rate * (xs[batch[b]] - centroidXs[c]);
+            centroidYs[c] += rate * (ys[batch[b]] - centroidYs[c]);
+        }
+
+        double shift = 0;
+        for (int c = 0; c < k; c++) {
+            double dx = centroidXs[c] - startXs[c];
+            double dy = centroidYs[c] - startYs[c];
+            shift = Math.max(shift, dx * dx + dy * dy);
+        }
+        return shift;
+    }
+
+    /**
+     * Labels every point of the DataSet with its nearest centroid.
+     *
+     * @return number of points whose cluster changed
+     */
+    @Override
+    public int assign() {
+        for (int c = 0; c < k; c++) {
+            labeller.setCentroid(c, centroidXs[c], centroidYs[c]);
+        }
+        return labeller.assign();
+    }
+
+    /**
+     * Moves every centroid to the mean of the points assigned to it by the
+     * latest {@link #assign()}: a full Lloyd step, which refines the centroids
+     * found by the mini-batches.
+     *
+     * @return true if at least one centroid moved
+     */
+    @Override
+    public boolean updateCentroids() {
+        boolean moved = labeller.updateCentroids();
+        for (int c = 0; c < k; c++) {
+            centroidXs[c] = labeller.getCentroidX(c);
+            centroidYs[c] = labeller.getCentroidY(c);
+        }
+        return moved;
+    }
+}
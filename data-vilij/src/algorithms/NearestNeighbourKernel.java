@@ -0,0 +1,258 @@
+// Aaron Knoll
+package algorithms;
+
+import data.DataSet;
+import data.KDTree;
+import data.LabelGrid;
+import data.Neighbours;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+
+/**
+ * Batch queries of a k-nearest-neighbour classifier over a {@link DataSet}.
+ * <p>
+ * The labelled instances are indexed once, in a {@link KDTree} of their own,
+ * so a query only ever visits training instances. Their labels are copied
+ * into a primitive array at the same time, which also keeps the votes
+ * independent of the labels written while the queries run. A batch of queries
+ * (unlabelled instances, or the cells of a {@link LabelGrid}) is split into
+ * {@link Slices} that are answered on the common {@link ForkJoinPool}; every slice
+ * reuses one {@link Neighbours} buffer and one tally of votes for all its
+ * queries, so answering a query allocates nothing.
+ * <p>
+ * A query takes the label with the most votes among its k nearest labelled
+ * instances. Ties go to the label of the closest of the tied neighbours, and
+ * then to the lower label id, so the answer depends only on the data.
+ *
+ * @author aaronknoll
+ */
+public final class NearestNeighbourKernel {
+
+    /** the label of the instances to be classified */
+    public static final String UNLABELLED = "null";
+
+    /** a query costs far more than a point of a K-Means pass, so slices are smaller */
+    private static final int MIN_SLICE_SIZE = 1 << 10;
+
+    private static final IntPredicate ANY = index -> true;
+
+    private final DataSet  dataset;
+    private final double[] xs;
+    private final double[] ys;
+    private final int      k;
+
+    private final int[]    labelIds;   // instance -> label id when the kernel was created
+    private final int      labelCount;
+    private final KDTree   tree;       // the labelled instances
+    private final int[]    queries;    // the unlabelled instances
+
+    private CancellationToken token = CancellationToken.NONE;
+
+    /**
+     * Indexes the labelled instances of a DataSet. Instances labelled later,
+     * including by this kernel, are not used as neighbours.
+     *
+     * @param dataset the data; its coordinates must not change during the run
+     * @param k       number of neighbours voting on a label
+     */
+    public NearestNeighbourKernel(DataSet dataset, int k) {
+        this.dataset = dataset;
+        this.xs      = dataset.getXs();
+        this.ys      = dataset.getYs();
+        this.k       = Math.max(1, k);
+
+        List<String> dictionary = dataset.getLabelDictionary();
+        int          unlabelled = dictionary.indexOf(UNLABELLED);
+        labelIds   = new int[dataset.size()];
+        labelCount = dictionary.size();
+        dataset.copyLabelIds(labelIds);
+
+        tree = new KDTree(dataset, i -> labelIds[i] != unlabelled);
+        int count = 0;
+        for (int i = 0; i < labelIds.length; i++) {
+            count += labelIds[i] == unlabelled ? 1 : 0;
+        }
+        queries = new int[count];
+        if (count > 0) {
+            sortQueries(unlabelled);
+        }
+    }
+
+    /**
+     * Orders the unlabelled instances along a Z-order curve over their
+     * bounding box, so that consecutive queries are close together and
+     * mostly visit parts of the tree that are already in the cache. The
+     * instances of a DataSet come in no particular spatial order, and a
+     * query for a random location misses the cache on nearly every node.
+     */
+    private void sortQueries(int unlabelled) {
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < labelIds.length; i++) {
+            if (labelIds[i] == unlabelled) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+        }
+        double scaleX = maxX > minX ? 0xffff / (maxX - minX) : 0;
+        double scaleY = maxY > minY ? 0xffff / (maxY - minY) : 0;
+        // the position of the curve in the high half, the instance in the low half
+        long[] keys = new long[queries.length];
+        for (int i = 0, q = 0; i < labelIds.length; i++) {
+            if (labelIds[i] == unlabelled) {
+                long code = interleave((int) ((xs[i] - minX) * scaleX)) | interleave((int) ((ys[i] - minY) * scaleY)) << 1;
+                keys[q++] = code << 32 | i;
+            }
+        }
+        Arrays.parallelSort(keys);
+        for (int q = 0; q < keys.length; q++) {
+            queries[q] = (int) keys[q];
+        }
+    }
+
+    /**
+     * @return the 16 low bits of a value, spread out to the even bits
+     */
+    private static long interleave(int bits) {
+        long spread = bits & 0xffff;
+        spread = (spread | spread << 8) & 0x00ff00ffL;
+        spread = (spread | spread << 4) & 0x0f0f0f0fL;
+        spread = (spread | spread << 2) & 0x33333333L;
+        spread = (spread | spread << 1) & 0x55555555L;
+        return spread;
+    }
+
+    public int getK() { return k; }
+
+    /**
+     * @return number of labelled instances, which the queries are answered from
+     */
+    public int getTrainingSize() { return tree.size(); }
+
+    /**
+     * @return number of unlabelled instances to be classified
+     */
+    public int getQueryCount() { return queries.length; }
+
+    /**
+     * Lets a batch skip its remaining slices once the run is cancelled, which
+     * leaves some of its queries unanswered.
+     *
+     * @param token token of the run using this kernel
+     */
+    public void setCancellationToken(CancellationToken token) {
+        this.token = token;
+    }
+
+    /**
+     * Labels a range of the unlabelled instances with the label of their
+     * nearest neighbours. Does nothing if there are no labelled instances.
+     *
+     * @param from number of the first unlabelled instance to be classified
+     * @param to   number just past the last one, at most
+     *             {@link #getQueryCount()}
+     */
+    public void classify(int from, int to) {
+        if (from < 0 || to > queries.length || from > to)
+            throw new IndexOutOfBoundsException("Range " + from + ".." + to + " of " + queries.length);
+        run(null, from, to);
+    }
+
+    /**
+     * Labels every cell of a grid with the label of the nearest neighbours of
+     * its centre, or leaves it at -1 if there are no labelled instances.
+     *
+     * @param grid the cells to be classified
+     */
+    public void classify(LabelGrid grid) {
+        run(grid, 0, grid.size());
+    }
+
+    /**
+     * @param x first coordinate of a location
+     * @param y second coordinate of a location
+     * @return id of the label voted for by the nearest neighbours of the
+     *         location, or -1 if there are no labelled instances
+     */
+    public int predict(double x, double y) {
+        return new Searcher().predict(x, y);
+    }
+
+    /**
+     * @param grid cells to be classified, or null for the unlabelled instances
+     */
+    private void run(LabelGrid grid, int from, int to) {
+        if (tree.size() == 0) {
+            return;
+        }
+        int size       = to - from;
+        int sliceCount = Slices.count(size, MIN_SLICE_SIZE);
+        Slices.run(sliceCount, token, s -> {
+            int start = from + Slices.start(size, sliceCount, s);
+            int end   = from + Slices.start(size, sliceCount, s + 1);
+            if (grid == null) {
+                new Searcher().classify(start, end);
+            } else {
+                new Searcher().classify(grid, start, end);
+            }
+        });
+    }
+
+    /**
+     * The buffers of one slice, reused for every query of the slice.
+     */
+    private final class Searcher {
+
+        private final Neighbours found   = new Neighbours(k);
+        private final int[]      votes   = new int[labelCount];
+        private final double[]   closest = new double[labelCount]; // squared distance of the closest voter
+
+        Searcher() {
+            Arrays.fill(closest, Double.POSITIVE_INFINITY);
+        }
+
+        int predict(double x, double y) {
+            tree.nearest(x, y, found, ANY);
+            int best = -1;
+            for (int n = 0; n < found.size(); n++) {
+                int label = labelIds[found.getIndex(n)];
+                votes[label]++;
+                closest[label] = Math.min(closest[label], found.getDistance(n));
+            }
+            for (int n = 0; n < found.size(); n++) {
+                int label = labelIds[found.getIndex(n)];
+                if (best < 0 || votes[label] > votes[best]
+                    || (votes[label] == votes[best]
+                        && (closest[label] < closest[best] || (closest[label] == closest[best] && label < best)))) {
+                    best = label;
+                }
+            }
+            for (int n = 0; n < found.size(); n++) {
+                int label = labelIds[found.getIndex(n)];
+                votes[label]   = 0;
+                closest[label] = Double.POSITIVE_INFINITY;
+            }
+            return best;
+        }
+
+        void classify(int from, int to) {
+            for (int q = from; q < to; q++) {
+                int i     = queries[q];
+                int label = predict(xs[i], ys[i]);
+                if (label >= 0) {
+                    dataset.setLabelId(i, label);
+                }
+            }
+        }
+
+        void classify(LabelGrid grid, int from, int to) {
+            for (int cell = from; cell < to; cell++) {
+                grid.setLabelId(cell, predict(grid.getCellX(cell), grid.getCellY(cell)));
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+// Aaron Knoll
+package algorithms;
+
+import data.DataSet;
+import data.LabelGrid;
+
+/**
+ * Receives the progress of a running {@link Algorithm}, so that algorithms
+ * need not know whether, or how, they are displayed. The application window
+ * is one implementation (see <code>ui.FXProgressSink</code>); a batch run
+ * without a display is another (see {@link HeadlessRunner}).
+ * <p>
+ * Every method is called on the thread running the algorithm, which waits
+ * for it to return. Implementations that display the progress on another
+ * thread have to copy what they need before returning. Every method does
+ * nothing by default.
+ *
+ * @author aaronknoll
+ */
+public interface ProgressSink {
+
+    /** a sink ignoring all progress */
+    ProgressSink NONE = new ProgressSink() { };
+
+    /**
+     * Reports a status message, such as the seed of a run.
+     *
+     * @param text the message
+     */
+    default void message(String text) { }
+
+    /**
+     * Reports that the labels of the DataSet changed. They are not modified
+     * until this method returns.
+     *
+     * @param dataset the DataSet being labelled
+     */
+    default void labelsUpdated(DataSet dataset) { }
+
+    /**
+     * Reports the current output of a classifier. The model is updated in
+     * place once this method returns; keep a {@link LinearModel#snapshot()} to
+     * hold on to it.
+     *
+     * @param output the decision line, see {@link Classifier#getOutput()}
+     */
+    default void outputUpdated(LinearModel output) { }
+
+    /**
+     * Reports the label a classifier gives to every cell of a grid over the
+     * data, such as the regions of a nearest-neighbour classifier. The grid is
+     * not modified afterwards, so it may be kept.
+     *
+     * @param grid the classified cells
+     */
+    default void gridUpdated(LabelGrid grid) { }
+
+    /**
+     * Reports that the algorithm paused itself after an update, to be resumed
+     * through its {@link AlgorithmPauser}.
+     */
+    default void paused() { }
+
+    /**
+     * Reports that the algorithm ran to completion. Cancelled runs end without
+     * calling this.
+     */
+    default void finished() { }
+}
@@ -0,0 +1,115 @@
+// Aaron Knoll
+package algorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Cuts the work of a parallel pass into contiguous slices and runs them on a
+ * {@link ForkJoinPool}.
+ * <p>
+ * The number of slices depends only on the amount of work, never on the
+ * number of cores. Whatever a slice derives from its index, such as the seed
+ * of its samples or the order in which its partial sums are merged, is
+ * therefore the same on every machine.
+ *
+ * @author aaronknoll
+ */
+final class Slices {
+
+    /** units of work per slice below which a pass is not worth splitting further */
+    static final int MIN_SLICE_SIZE = 1 << 13;
+
+    /** most slices a pass is cut into, which bounds the buffers kept per slice */
+    static final int MAX_SLICE_COUNT = 1 << 8;
+
+    private Slices() {
+    }
+
+    /**
+     * @param size units of work in a pass
+     * @return number of slices to cut the pass into, at least 1
+     */
+    static int count(int size) {
+        return count(size, MIN_SLICE_SIZE);
+    }
+
+    /**
+     * @param size         units of work in a pass
+     * @param minSliceSize units of work per slice below which the pass is not
+     *                     split further
+     * @return number of slices to cut the pass into, at least 1
+     */
+    static int count(int size, int minSliceSize) {
+        return Math.max(1, Math.min(MAX_SLICE_COUNT, size / minSliceSize));
+    }
+
+    /**
+     * @param size  units of work in a pass
+     * @param count number of slices of the pass
+     * @param slice index of a slice, or count for the end of the last one
+     * @return first unit of work of the slice
+     */
+    static int start(int size, int count, int slice) {
+        return (int) ((long) size * slice / count);
+    }
+
+    /**
+     * Runs every slice of a pass on the common pool.
+     *
+     * @see #run(ForkJoinPool, int, CancellationToken, IntConsumer)
+     */
+    static void run(int count, CancellationToken token, IntConsumer slice) {
+        run(ForkJoinPool.commonPool(), count, token, slice);
+    }
+
+    /**
+     * Runs every slice of a pass, and returns once all of them are done. A
+     * single slice is run on the calling thread. Slices that have not started
+     * by the time the run is cancelled are skipped.
+     *
+     * @param pool  pool running the slices
+     * @param count number of slices
+     * @param token token of the run the pass belongs to
+     * @param slice runs the slice with the given index
+     */
+    static void run(ForkJoinPool pool, int count, CancellationToken token, IntConsumer slice) {
+        if (count == 1) {
+            if (!token.isCancelled()) {
+                slice.accept(0);
+            }
+        } else {
+            pool.invoke(new PassTask(token, slice, 0, count));
+        }
+    }
+
+    private static final class PassTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CancellationToken token;
+        private final IntConsumer       slice;
+        private final int               from;
+        private final int               to;
+
+        PassTask(CancellationToken token, IntConsumer slice, int from, int to) {
+            this.token = token;
+            this.slice = slice;
+            this.from  = from;
+            this.to    = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                if (!token.isCancelled()) {
+                    slice.accept(from);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PassTask(token, slice, from, mid), new PassTask(token, slice, mid, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package classification;
+
+import algorithms.AlgorithmPauser;
+import algorithms.BinaryTrainingSet;
+import algorithms.Classifier;
+import algorithms.HogwildSVMKernel;
+import algorithms.IterationPacer;
+import algorithms.LinearModel;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Separates the two labels of a data set with a linear SVM, trained by
+ * lock-free parallel stochastic gradient descent (see {@link HogwildSVMKernel}).
+ * Every iteration is one epoch over the data, with a step size of
+ * <code>learningRate / (1 + learningRateDecay * t)</code>; the run ends once an
+ * epoch moves the line by less than the tolerance, relative to its length.
+ * The training rate, in instances per second, is reported with every update.
+ * <p>
+ * The shards of an epoch race against each other, so unlike the other
+ * classifiers two runs with the same seed need not give exactly the same line.
+ *
+ * @author aaronknoll
+ */
+public class HogwildSVMClassifier extends Classifier {
+
+    public static final double DEFAULT_LEARNING_RATE = 0.01;
+    public static final double DEFAULT_DECAY         = 0.1;
+    public static final double DEFAULT_TOLERANCE     = 1e-4;
+
+    private static final double REGULARIZATION = 1e-4;
+
+    private final BinaryTrainingSet training;
+    private final HogwildSVMKernel  kernel;
+
+    private final int           maxIterations;
+    private final int           updateInterval;
+    private final AtomicBoolean tocontinue;
+
+    private final AlgorithmPauser pauser;
+    private final ProgressSink    sink;
+    private final IterationPacer  pacer;
+
+    // seed reported to the user; the order of the instances in every epoch derives from it
+    private final long   seed;
+    private final Random random;
+
+    private final double learningRate;
+    private final double learningRateDecay;
+    private final double tolerance;
+
+    private final LinearModel model = new LinearModel(2);
+
+    // TRUE if in continuous run mode, otherwise FALSE
+    // currently, this value does not change after instantiation
+    private final boolean continuousRun;
+
+    // training rate since the previous update
+    private long updates;
+    private long trainingNanos;
+
+    public HogwildSVMClassifier(DataSet dataset,
+                                AlgorithmConfiguration config,
+                                AlgorithmPauser pauser,
+                                ProgressSink sink) {
+
+        this.training          = new BinaryTrainingSet(dataset);
+        this.kernel            = new HogwildSVMKernel(training, REGULARIZATION);
+        this.maxIterations     = config.maxIterations;
+        this.updateInterval    = config.updateInterval;
+        this.tocontinue        = new AtomicBoolean(false);
+        this.seed              = config.resolveSeed();
+        this.random            = new Random(seed);
+        this.learningRate      = config.usesLearningRate() ? config.learningRate : DEFAULT_LEARNING_RATE;
+        this.learningRateDecay = Math.max(0, config.learningRateDecay);
+        this.tolerance         = Math.max(0, config.tolerance);
+
+        this.pauser            = pauser;
+        this.sink              = sink;
+        this.pacer             = new IterationPacer(config.pacingMillis);
+        this.kernel.setCancellationToken(pauser);
+        this.continuousRun     = config.continuousRun;
+    }
+
+    /**
+     * @return configuration shown the first time this algorithm is configured
+     */
+    public static AlgorithmConfiguration getDefaultConfiguration() {
+        AlgorithmConfiguration config = new AlgorithmConfiguration(100, 1, true, false, 0);
+        config.learningRate      = DEFAULT_LEARNING_RATE;
+        config.learningRateDecay = DEFAULT_DECAY;
+        config.tolerance         = DEFAULT_TOLERANCE;
+        return config;
+    }
+
+    @Override
+    public int getMaxIterations() { return maxIterations; }
+
+    @Override
+    public int getUpdateInterval() { return updateInterval; }
+
+    @Override
+    public boolean tocontinue() { return tocontinue.get(); }
+
+    @Override
+    public void run() {
+        if (!training.isTrainable()) {
+            sink.message("Classification needs instances of two labels.");
+            sink.finished();
+            return;
+        }
+        tocontinue.set(true);
+        boolean displayed = true;
+        int iteration = 0;
+        while (iteration++ < maxIterations & tocontinue.get()) {
+            if (!pauser.checkpoint()) {
+                return;
+            }
+            if (!pacer.pace(pauser)) {
+                return;
+            }
+
+            double a     = kernel.getA();
+            double b     = kernel.getB();
+            double c     = kernel.getC();
+            double rate  = learningRate / (1 + learningRateDecay * (iteration - 1));
+            long   start = System.nanoTime();
+            updates       += kernel.epoch(rate, random.nextInt(Integer.MAX_VALUE));
+            trainingNanos += System.nanoTime() - start;
+            if (pauser.isCancelled()) {
+                return;
+            }
+            double da     = kernel.getA() - a;
+            double db     = kernel.getB() - b;
+            double dc     = kernel.getC() - c;
+            double length = Math.sqrt(a * a + b * b + c * c);
+            tocontinue.set(!(Math.sqrt(da * da + db * db + dc * dc) < tolerance * length));
+            displayed = false;
+            if (iteration % updateInterval == 0 || !tocontinue.get()) {
+                flush();
+                displayed = true;
+                if (!continuousRun && tocontinue.get()) {
+                    pauser.pause();
+                    sink.paused();
+                }
+            }
+        }
+
+        if (!displayed) {
+            flush();
+        }
+        sink.finished();
+    }
+
+    /**
+     * Reports the current line, and the training rate since the previous
+     * report, to the progress sink.
+     */
+    private void flush() {
+        training.toModel(kernel.getA(), kernel.getB(), kernel.getC(), model);
+        output = model;
+        sink.outputUpdated(model);
+        if (trainingNanos > 0) {
+            int threads = kernel.getThreadCount();
+            sink.message(String.format("%,.0f updates/s on %d thread%s (seed %d)", updates * 1e9 / trainingNanos,
+                                       threads, threads == 1 ? "" : "s", seed));
+        }
+        updates       = 0;
+        trainingNanos = 0;
+    }
+
+    public static String getPrettyName() {
+        return "Hogwild SVM Classification";
+    }
+}
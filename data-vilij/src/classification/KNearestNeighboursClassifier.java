@@ -0,0 +1,191 @@
+package classification;
+
+import algorithms.AlgorithmPauser;
+import algorithms.Classifier;
+import algorithms.IterationPacer;
+import algorithms.NearestNeighbourKernel;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+import data.LabelGrid;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Labels the unlabelled instances of a data set (those labelled
+ * <code>null</code>) by a vote of their k nearest labelled instances, found in
+ * a kd-tree (see {@link NearestNeighbourKernel}). Every iteration classifies
+ * the next {@link #BATCH_SIZE} unlabelled instances in parallel, and the run
+ * ends once all of them are labelled.
+ * <p>
+ * Before the first iteration, a {@link #GRID_SIZE} by {@link #GRID_SIZE} grid
+ * over the data is classified the same way and reported to the progress sink,
+ * which shows the region of every label. There is no decision line, so
+ * {@link #getOutput()} stays null.
+ *
+ * @author aaronknoll
+ */
+public class KNearestNeighboursClassifier extends Classifier {
+
+    public static final int DEFAULT_NEIGHBOURS = 5;
+    /** unlabelled instances classified per iteration */
+    public static final int BATCH_SIZE         = 1 << 16;
+    /** cells along either side of the grid */
+    public static final int GRID_SIZE          = 256;
+
+    private final DataSet                dataset;
+    private final NearestNeighbourKernel kernel;
+
+    private final int           maxIterations;
+    private final int           updateInterval;
+    private final AtomicBoolean tocontinue;
+
+    private final AlgorithmPauser pauser;
+    private final ProgressSink    sink;
+    private final IterationPacer  pacer;
+
+    // TRUE if in continuous run mode, otherwise FALSE
+    // currently, this value does not change after instantiation
+    private final boolean continuousRun;
+
+    private LabelGrid grid;
+
+    // unlabelled instances classified so far, and the query rate since the previous update
+    private int  classified;
+    private long queries;
+    private long queryNanos;
+
+    public KNearestNeighboursClassifier(DataSet dataset,
+                                        AlgorithmConfiguration config,
+                                        AlgorithmPauser pauser,
+                                        ProgressSink sink) {
+
+        this.dataset        = dataset;
+        this.kernel         = new NearestNeighbourKernel(dataset, config.usesNeighbours() ? config.neighbours
+                                                                                          : DEFAULT_NEIGHBOURS);
+        this.maxIterations  = config.maxIterations;
+        this.updateInterval = config.updateInterval;
+        this.tocontinue     = new AtomicBoolean(false);
+
+        this.pauser         = pauser;
+        this.sink           = sink;
+        this.pacer          = new IterationPacer(config.pacingMillis);
+        this.kernel.setCancellationToken(pauser);
+        this.continuousRun  = config.continuousRun;
+    }
+
+    /**
+     * @return configuration shown the first time this algorithm is configured
+     */
+    public static AlgorithmConfiguration getDefaultConfiguration() {
+        AlgorithmConfiguration config = new AlgorithmConfiguration(1000, 1, true, false, 0);
+        config.neighbours = DEFAULT_NEIGHBOURS;
+        return config;
+    }
+
+    @Override
+    public int getMaxIterations() { return maxIterations; }
+
+    @Override
+    public int getUpdateInterval() { return updateInterval; }
+
+    @Override
+    public boolean tocontinue() { return tocontinue.get(); }
+
+    @Override
+    public boolean isLabelling() { return true; }
+
+    /**
+     * @return the label of every cell of a grid over the data, or null before
+     *         the run classified it
+     */
+    public LabelGrid getGrid() { return grid; }
+
+    @Override
+    public void run() {
+        if (kernel.getTrainingSize() == 0) {
+            sink.message("Classification needs labelled instances.");
+            sink.finished();
+            return;
+        }
+        classifyGrid();
+        if (pauser.isCancelled()) {
+            return;
+        }
+        tocontinue.set(true);
+        int     queryCount = kernel.getQueryCount();
+        boolean displayed  = true;
+        int iteration = 0;
+        while (iteration++ < maxIterations & tocontinue.get()) {
+            if (!pauser.checkpoint()) {
+                return;
+            }
+            if (!pacer.pace(pauser)) {
+                return;
+            }
+
+            int  to    = (int) Math.min(queryCount, (long) classified + BATCH_SIZE);
+            long start = System.nanoTime();
+            kernel.classify(classified, to);
+            if (pauser.isCancelled()) {
+                return;
+            }
+            queryNanos += System.nanoTime() - start;
+            queries    += to - classified;
+            classified  = to;
+            tocontinue.set(classified < queryCount);
+            displayed = false;
+            if (iteration % updateInterval == 0 || !tocontinue.get()) {
+                flush();
+                displayed = true;
+                if (!continuousRun && tocontinue.get()) {
+                    pauser.pause();
+                    sink.paused();
+                }
+            }
+        }
+
+        if (!displayed) {
+            flush();
+        }
+        sink.finished();
+    }
+
+    /**
+     * Classifies a grid over the bounds of the data, with a margin of 5% on
+     * every side, and reports it to the progress sink.
+     */
+    private void classifyGrid() {
+        double xMin   = dataset.getBounds("xMin");
+        double xMax   = dataset.getBounds("xMax");
+        double yMin   = dataset.getBounds("yMin");
+        double yMax   = dataset.getBounds("yMax");
+        double xSpace = Math.max(xMax - xMin, 1) * .05;
+        double ySpace = Math.max(yMax - yMin, 1) * .05;
+        LabelGrid cells = new LabelGrid(xMin - xSpace, yMin - ySpace, xMax + xSpace, yMax + ySpace,
+                                        GRID_SIZE, GRID_SIZE);
+        kernel.classify(cells);
+        if (!pauser.isCancelled()) {
+            grid = cells;
+            sink.gridUpdated(cells);
+        }
+    }
+
+    /**
+     * Reports the labels, and the query rate since the previous report, to
+     * the progress sink.
+     */
+    private void flush() {
+        sink.labelsUpdated(dataset);
+        if (queryNanos > 0) {
+            sink.message(String.format("%,.0f queries/s (%,d of %,d classified, k = %d)", queries * 1e9 / queryNanos,
+                                       classified, kernel.getQueryCount(), kernel.getK()));
+        }
+        queries    = 0;
+        queryNanos = 0;
+    }
+
+    public static String getPrettyName() {
+        return "K-Nearest Neighbours Classification";
+    }
+}
@@ -0,0 +1,162 @@
+package classification;
+
+import algorithms.AlgorithmPauser;
+import algorithms.BinaryTrainingSet;
+import algorithms.Classifier;
+import algorithms.IterationPacer;
+import algorithms.LinearModel;
+import algorithms.LogisticRegressionKernel;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Separates the two labels of a data set by logistic regression, trained
+ * with mini-batch gradient descent (see {@link LogisticRegressionKernel}).
+ * Every iteration is one step on a batch of instances sampled from the data,
+ * or on all of it if the batch size is 0 or covers the data. The step size
+ * decays as <code>learningRate / (1 + learningRateDecay * t)</code>, and the
+ * run ends once the smoothed norm of the gradient falls below the tolerance.
+ *
+ * @author aaronknoll
+ */
+public class LogisticRegressionClassifier extends Classifier {
+
+    public static final int    DEFAULT_BATCH_SIZE    = 4096;
+    public static final double DEFAULT_LEARNING_RATE = 1;
+    public static final double DEFAULT_DECAY         = 0.01;
+    public static final double DEFAULT_TOLERANCE     = 1e-3;
+
+    private static final double SMOOTHING = 0.1;
+
+    private final BinaryTrainingSet        training;
+    private final LogisticRegressionKernel kernel;
+
+    private final int           maxIterations;
+    private final int           updateInterval;
+    private final AtomicBoolean tocontinue;
+
+    private final AlgorithmPauser pauser;
+    private final ProgressSink    sink;
+    private final IterationPacer  pacer;
+
+    // seed reported to the user; the batches derive from it
+    private final long   seed;
+    private final Random random;
+
+    private final double learningRate;
+    private final double learningRateDecay;
+    private final double tolerance;
+
+    private final LinearModel model = new LinearModel(2);
+
+    // TRUE if in continuous run mode, otherwise FALSE
+    // currently, this value does not change after instantiation
+    private final boolean continuousRun;
+
+    public LogisticRegressionClassifier(DataSet dataset,
+                                        AlgorithmConfiguration config,
+                                        AlgorithmPauser pauser,
+                                        ProgressSink sink) {
+
+        this.training          = new BinaryTrainingSet(dataset);
+        this.kernel            = new LogisticRegressionKernel(training, Math.max(0, config.batchSize));
+        this.maxIterations     = config.maxIterations;
+        this.updateInterval    = config.updateInterval;
+        this.tocontinue        = new AtomicBoolean(false);
+        this.seed              = config.resolveSeed();
+        this.random            = new Random(seed);
+        this.learningRate      = config.usesLearningRate() ? config.learningRate : DEFAULT_LEARNING_RATE;
+        this.learningRateDecay = Math.max(0, config.learningRateDecay);
+        this.tolerance         = Math.max(0, config.tolerance);
+
+        this.pauser            = pauser;
+        this.sink              = sink;
+        this.pacer             = new IterationPacer(config.pacingMillis);
+        this.kernel.setCancellationToken(pauser);
+        this.continuousRun     = config.continuousRun;
+    }
+
+    /**
+     * @return configuration shown the first time this algorithm is configured
+     */
+    public static AlgorithmConfiguration getDefaultConfiguration() {
+        AlgorithmConfiguration config = new AlgorithmConfiguration(1000, 5, true, false, 0);
+        config.batchSize         = DEFAULT_BATCH_SIZE;
+        config.learningRate      = DEFAULT_LEARNING_RATE;
+        config.learningRateDecay = DEFAULT_DECAY;
+        config.tolerance         = DEFAULT_TOLERANCE;
+        return config;
+    }
+
+    @Override
+    public int getMaxIterations() { return maxIterations; }
+
+    @Override
+    public int getUpdateInterval() { return updateInterval; }
+
+    @Override
+    public boolean tocontinue() { return tocontinue.get(); }
+
+    @Override
+    public void run() {
+        if (!training.isTrainable()) {
+            sink.message("Classification needs instances of two labels.");
+            sink.finished();
+            return;
+        }
+        sink.message("Seed: " + seed + " (" + training.getPositiveLabel() + " vs. "
+                     + training.getNegativeLabel() + ")");
+        tocontinue.set(true);
+        double  smoothedNorm = -1;
+        boolean displayed    = true;
+        int iteration = 0;
+        while (iteration++ < maxIterations & tocontinue.get()) {
+            if (!pauser.checkpoint()) {
+                return;
+            }
+            if (!pacer.pace(pauser)) {
+                return;
+            }
+
+            double rate = learningRate / (1 + learningRateDecay * (iteration - 1));
+            double norm = kernel.step(random.nextLong(), rate);
+            if (pauser.isCancelled()) {
+                // the step stopped part way; its gradient is incomplete
+                return;
+            }
+            smoothedNorm = smoothedNorm < 0 ? norm : smoothedNorm + SMOOTHING * (norm - smoothedNorm);
+            tocontinue.set(smoothedNorm >= tolerance);
+            displayed = false;
+            if (iteration % updateInterval == 0 || !tocontinue.get()) {
+                flush();
+                displayed = true;
+                if (!continuousRun && tocontinue.get()) {
+                    pauser.pause();
+                    sink.paused();
+                }
+            }
+        }
+
+        if (!displayed) {
+            flush();
+        }
+        sink.finished();
+    }
+
+    /**
+     * Reports the current decision line to the progress sink.
+     */
+    private void flush() {
+        training.toModel(kernel.getA(), kernel.getB(), kernel.getC(), model);
+        output = model;
+        sink.outputUpdated(model);
+    }
+
+    public static String getPrettyName() {
+        return "Logistic Regression Classification";
+    }
+}
@@ -0,0 +1,165 @@
+package classification;
+
+import algorithms.AlgorithmPauser;
+import algorithms.BinaryTrainingSet;
+import algorithms.Classifier;
+import algorithms.IterationPacer;
+import algorithms.LinearModel;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Separates the two labels of a data set with the averaged perceptron. Every
+ * iteration is one pass over the instances, in order, that moves the line
+ * towards each instance it puts on the wrong side; the line output is the
+ * average of the line over all steps so far, which settles down even when the
+ * labels cannot be separated exactly. The run ends early once a pass makes no
+ * mistakes.
+ * <p>
+ * Passes read the coordinate columns of the DataSet directly and keep the line
+ * in local variables, so they allocate nothing.
+ *
+ * @author aaronknoll
+ */
+public class PerceptronClassifier extends Classifier {
+
+    private final BinaryTrainingSet training;
+
+    private final int           maxIterations;
+    private final int           updateInterval;
+    private final AtomicBoolean tocontinue;
+
+    private final AlgorithmPauser pauser;
+    private final ProgressSink    sink;
+    private final IterationPacer  pacer;
+
+    private final LinearModel model = new LinearModel(2);
+
+    // TRUE if in continuous run mode, otherwise FALSE
+    // currently, this value does not change after instantiation
+    private final boolean continuousRun;
+
+    // the line a*x' + b*y' + c = 0 in standardized coordinates, the weighted
+    // sums of its updates (for the average) and the number of steps taken
+    private double a, b, c;
+    private double sumA, sumB, sumC;
+    private long   steps = 1;
+
+    public PerceptronClassifier(DataSet dataset,
+                                AlgorithmConfiguration config,
+                                AlgorithmPauser pauser,
+                                ProgressSink sink) {
+
+        this.training       = new BinaryTrainingSet(dataset);
+        this.maxIterations  = config.maxIterations;
+        this.updateInterval = config.updateInterval;
+        this.tocontinue     = new AtomicBoolean(false);
+        this.pauser         = pauser;
+        this.sink           = sink;
+        this.pacer          = new IterationPacer(config.pacingMillis);
+        this.continuousRun  = config.continuousRun;
+    }
+
+    @Override
+    public int getMaxIterations() { return maxIterations; }
+
+    @Override
+    public int getUpdateInterval() { return updateInterval; }
+
+    @Override
+    public boolean tocontinue() { return tocontinue.get(); }
+
+    @Override
+    public void run() {
+        if (!training.isTrainable()) {
+            sink.message("Classification needs instances of two labels.");
+            sink.finished();
+            return;
+        }
+        sink.message(training.getPositiveLabel() + " vs. " + training.getNegativeLabel());
+        tocontinue.set(true);
+        int iteration = 0;
+        while (iteration++ < maxIterations & tocontinue.get()) {
+            if (!pauser.checkpoint()) {
+                return;
+            }
+            if (!pacer.pace(pauser)) {
+                return;
+            }
+
+            tocontinue.set(pass() > 0);
+            if (iteration % updateInterval == 0 || !tocontinue.get()) {
+                flush();
+                if (!continuousRun && tocontinue.get()) {
+                    pauser.pause();
+                    sink.paused();
+                }
+            }
+        }
+
+        sink.finished();
+    }
+
+    /**
+     * One pass of the perceptron over the instances of the two labels.
+     *
+     * @return number of instances that were on the wrong side of the line
+     */
+    private int pass() {
+        double[] xs            = training.getXs();
+        double[] ys            = training.getYs();
+        byte[]   targets       = training.getTargets();
+        int      size          = training.size();
+        double   meanX         = training.getMeanX();
+        double   meanY         = training.getMeanY();
+        double   inverseScaleX = 1 / training.getScaleX();
+        double   inverseScaleY = 1 / training.getScaleY();
+
+        double a = this.a, b = this.b, c = this.c;
+        double sumA = this.sumA, sumB = this.sumB, sumC = this.sumC;
+        long   steps    = this.steps;
+        int    mistakes = 0;
+        for (int i = 0; i < size; i++) {
+            int target = targets[i];
+            if (target == 0) {
+                continue;
+            }
+            double x = (xs[i] - meanX) * inverseScaleX;
+            double y = (ys[i] - meanY) * inverseScaleY;
+            if (target * (a * x + b * y + c) <= 0) {
+                a    += target * x;
+                b    += target * y;
+                c    += target;
+                sumA += steps * target * x;
+                sumB += steps * target * y;
+                sumC += steps * target;
+                mistakes++;
+            }
+            steps++;
+        }
+        this.a     = a;
+        this.b     = b;
+        this.c     = c;
+        this.sumA  = sumA;
+        this.sumB  = sumB;
+        this.sumC  = sumC;
+        this.steps = steps;
+        return mistakes;
+    }
+
+    /**
+     * Reports the averaged line to the progress sink.
+     */
+    private void flush() {
+        training.toModel(a - sumA / steps, b - sumB / steps, c - sumC / steps, model);
+        output = model;
+        sink.outputUpdated(model);
+    }
+
+    public static String getPrettyName() {
+        return "Perceptron Classification";
+    }
+}
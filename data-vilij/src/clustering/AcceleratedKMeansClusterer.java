@@ -0,0 +1,38 @@
+package clustering;
+
+import algorithms.AlgorithmPauser;
+import algorithms.HamerlyKMeansKernel;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+
+/**
+ * K-Means clustering that skips distance computations which cannot change an
+ * assignment, using Hamerly's bounds (see {@link HamerlyKMeansKernel}). The
+ * clusters are the same as those of {@link KMeansClusterer}; the number of
+ * distance evaluations that were skipped is reported as progress.
+ *
+ * @author aaronknoll
+ */
+public class AcceleratedKMeansClusterer extends CentroidClusterer<HamerlyKMeansKernel> {
+
+    public AcceleratedKMeansClusterer(DataSet dataset,
+                                       AlgorithmConfiguration config,
+                                       AlgorithmPauser pauser,
+                                       ProgressSink sink) {
+
+        super(dataset, config, pauser, sink, k -> new HamerlyKMeansKernel(dataset, k));
+    }
+
+    @Override
+    protected String statusMessage() {
+        long total   = kernel.getDistanceCount();
+        long skipped = kernel.getSkippedDistanceCount();
+        return String.format("Seed: %d. Skipped %,d of %,d distance evaluations (%.1f%%).",
+                             seed, skipped, total, total == 0 ? 0.0 : 100.0 * skipped / total);
+    }
+
+    public static String getPrettyName() {
+        return "Accelerated K-Means Clustering";
+    }
+}
@@ -0,0 +1,181 @@
+package clustering;
+
+import algorithms.AlgorithmPauser;
+import algorithms.CentroidKernel;
+import algorithms.CentroidSeeder;
+import algorithms.Clusterer;
+import algorithms.IterationPacer;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * The run shared by the K-Means clusterers. The centroids are seeded with
+ * k-means++ / k-means|| from a single seed, and then refined one iteration at
+ * a time by a {@link CentroidKernel}, with a checkpoint before every
+ * iteration. The labels are published every <code>updateInterval</code>
+ * iterations, and once more when the centroids stop moving.
+ * <p>
+ * By default an iteration is one Lloyd step: assign every point, then move
+ * every centroid to the mean of its points.
+ *
+ * @param <K> kernel running the passes
+ * @author aaronknoll
+ */
+public abstract class CentroidClusterer<K extends CentroidKernel> extends Clusterer {
+
+    protected final DataSet         dataset;
+    protected final K               kernel;
+
+    private final int               maxIterations;
+    private final int               updateInterval;
+    private final AtomicBoolean     tocontinue;
+
+    protected final AlgorithmPauser pauser;
+    private final ProgressSink      sink;
+    private final IterationPacer    pacer;
+
+    // seed of the run, reported to the user
+    protected final long            seed;
+
+    // TRUE if in continuous run mode, otherwise FALSE
+    // currently, this value does not change after instantiation
+    private final boolean           continuousRun;
+
+    /**
+     * @param kernelFactory creates the kernel for the (clamped) number of clusters
+     */
+    protected CentroidClusterer(DataSet dataset,
+                                AlgorithmConfiguration config,
+                                AlgorithmPauser pauser,
+                                ProgressSink sink,
+                                IntFunction<K> kernelFactory) {
+
+        super(config.numOfClusteringLabels);
+        this.dataset        = dataset;
+        this.kernel         = kernelFactory.apply(this.numberOfClusters);
+        this.maxIterations  = config.maxIterations;
+        this.updateInterval = config.updateInterval;
+        this.tocontinue     = new AtomicBoolean(false);
+        this.seed           = config.resolveSeed();
+
+        this.pauser         = pauser;
+        this.sink           = sink;
+        this.pacer          = new IterationPacer(config.pacingMillis);
+        this.kernel.setCancellationToken(pauser);
+        this.continuousRun  = config.continuousRun;
+    }
+
+    @Override
+    public int getMaxIterations() { return maxIterations; }
+
+    @Override
+    public int getUpdateInterval() { return updateInterval; }
+
+    @Override
+    public boolean tocontinue() { return tocontinue.get(); }
+
+    @Override
+    public void run() {
+
+        initializeCentroids();
+        sink.message(statusMessage());
+        boolean displayed = true;
+        int iteration = 0;
+        while (iteration++ < maxIterations & tocontinue.get()) {
+            if (!pauser.checkpoint()) {
+                return;
+            }
+            if (!pacer.pace(pauser)) {
+                return;
+            }
+
+            boolean moving = iterate();
+            if (pauser.isCancelled()) {
+                // the iteration stopped part way; its results are incomplete
+                return;
+            }
+            tocontinue.set(moving);
+            displayed = false;
+            if (iteration % updateInterval == 0 || !tocontinue.get()) {
+                if (!flush()) {
+                    return;
+                }
+                displayed = true;
+                if (!continuousRun && tocontinue.get()) {
+                    pauser.pause();
+                    sink.paused();
+                }
+            }
+        }
+
+        if (!displayed && !flush()) {
+            return;
+        }
+        sink.finished();
+    }
+
+    /**
+     * Runs one iteration, which is a Lloyd step unless overridden.
+     *
+     * @return true if the centroids are still moving
+     */
+    protected boolean iterate() {
+        kernel.assign();
+        // a cancelled pass leaves its sums incomplete
+        return !pauser.isCancelled() && kernel.updateCentroids();
+    }
+
+    /**
+     * Brings the labels of the DataSet up to date before they are published.
+     * The Lloyd step labels the points as it goes, so there is nothing to do
+     * unless overridden.
+     */
+    protected void prepareLabels() {
+    }
+
+    /**
+     * @return status reported when the run starts and whenever the labels
+     *         are published
+     */
+    protected String statusMessage() {
+        return "Seed: " + seed;
+    }
+
+    /**
+     * @return seed of the initial centroids
+     */
+    protected long centroidSeed() {
+        return seed;
+    }
+
+    private void initializeCentroids() {
+        // spread the initial centroids over the data (k-means++ / k-means||)
+        int[] chosen  = new CentroidSeeder(dataset, centroidSeed()).choose(numberOfClusters);
+        int   cluster = 0;
+        for (int index : chosen) {
+            kernel.setCentroid(cluster++, dataset.getX(index), dataset.getY(index));
+        }
+        // clusters that could not be seeded (fewer distinct instances than clusters) stay empty
+        while (cluster < numberOfClusters) {
+            kernel.setCentroid(cluster++, Double.MAX_VALUE, Double.MAX_VALUE);
+        }
+        tocontinue.set(true);
+    }
+
+    /**
+     * @return false if the run was cancelled while the labels were prepared
+     */
+    private boolean flush() {
+        prepareLabels();
+        if (pauser.isCancelled()) {
+            return false;
+        }
+        sink.labelsUpdated(dataset);
+        sink.message(statusMessage());
+        return true;
+    }
+}
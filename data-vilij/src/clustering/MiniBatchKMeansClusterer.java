@@ -0,0 +1,81 @@
+package clustering;
+
+import algorithms.AlgorithmPauser;
+import algorithms.MiniBatchKMeansKernel;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+
+import java.util.Random;
+
+/**
+ * K-Means clustering over random batches of instances (see
+ * {@link MiniBatchKMeansKernel}), for data sets too large for a full pass per
+ * iteration. The whole data set is only labelled when the clusters are
+ * displayed.
+ *
+ * @author aaronknoll
+ */
+public class MiniBatchKMeansClusterer extends CentroidClusterer<MiniBatchKMeansKernel> {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * the run ends once the smoothed squared centroid shift per iteration falls
+     * below this fraction of the squared diagonal of the data
+     */
+    private static final double TOLERANCE = 1e-10;
+    private static final double SMOOTHING = 0.1;
+
+    // the initial centroids and the batches derive from the seed of the run
+    private final Random        random;
+    private final long          seedingSeed;
+
+    private final double        threshold;
+    private double              smoothedShift = -1;
+
+    public MiniBatchKMeansClusterer(DataSet dataset,
+                                    AlgorithmConfiguration config,
+                                    AlgorithmPauser pauser,
+                                    ProgressSink sink) {
+
+        super(dataset, config, pauser, sink,
+              k -> new MiniBatchKMeansKernel(dataset, k, Math.max(1, config.batchSize)));
+        this.random      = new Random(seed);
+        this.seedingSeed = random.nextLong();
+
+        double width     = dataset.size() == 0 ? 0 : dataset.getBounds("xMax") - dataset.getBounds("xMin");
+        double height    = dataset.size() == 0 ? 0 : dataset.getBounds("yMax") - dataset.getBounds("yMin");
+        this.threshold   = TOLERANCE * (width * width + height * height);
+    }
+
+    /**
+     * @return configuration shown the first time this algorithm is configured
+     */
+    public static AlgorithmConfiguration getDefaultConfiguration() {
+        AlgorithmConfiguration config = new AlgorithmConfiguration(1000, 5, true, true, 4);
+        config.batchSize = DEFAULT_BATCH_SIZE;
+        return config;
+    }
+
+    @Override
+    protected boolean iterate() {
+        double shift = kernel.step(random);
+        smoothedShift = smoothedShift < 0 ? shift : smoothedShift + SMOOTHING * (shift - smoothedShift);
+        return smoothedShift > threshold;
+    }
+
+    @Override
+    protected void prepareLabels() {
+        kernel.assign();
+    }
+
+    @Override
+    protected long centroidSeed() {
+        return seedingSeed;
+    }
+
+    public static String getPrettyName(){
+        return "Mini-Batch K-Means Clustering";
+    }
+}
@@ -3,20 +3,15 @@ package clustering;
 
 import algorithms.AlgorithmPauser;
 import algorithms.Clusterer;
+import algorithms.IterationPacer;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
 import data.DataSet;
-import java.util.HashSet;
 import java.util.Random;
-import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
-import javafx.application.Platform;
-import javafx.geometry.Point2D;
-import javafx.scene.chart.LineChart;
-import javafx.scene.chart.XYChart;
-import javafx.scene.control.Alert;
-import ui.AlgResourcePreparer;
 
 /**
- * Modifies and displays DataSet with the number of clustering labels being 
+ * Modifies DataSet with the number of clustering labels being 
  * passed in as a constructor parameter. The distribution of labels is random, 
  * without regard for data point locations or relationships (distance between 
  * data points, etc).
@@ -35,28 +30,25 @@ public class RandomClusterer extends Clusterer {
     // currently, this value does not change after instantiation
     private final AtomicBoolean tocontinue;
     
-    private final AlgResourcePreparer   arp;
     private final AlgorithmPauser       pauser;
-    
-    private final LineChart<Number, Number> chart;
+    private final ProgressSink          sink;
+    private final IterationPacer        pacer;
 
     
     public RandomClusterer(DataSet dataset,
-                            int maxIterations,
-                            int updateInterval,
-                            int numberOfClusters,
-                            boolean continuousRun,
-                            AlgResourcePreparer arp) {
+                            AlgorithmConfiguration config,
+                            AlgorithmPauser pauser,
+                            ProgressSink sink) {
         
-        super(numberOfClusters);
+        super(config.numOfClusteringLabels);
         this.dataset        = dataset;
-        this.maxIterations  = maxIterations;
-        this.updateInterval = updateInterval;
-        this.tocontinue     = new AtomicBoolean(continuousRun);
+        this.maxIterations  = config.maxIterations;
+        this.updateInterval = config.updateInterval;
+        this.tocontinue     = new AtomicBoolean(config.continuousRun);
         
-        this.arp            = arp;
-        this.chart          = arp.getChart();
-        this.pauser         = arp.getPauser();
+        this.pauser         = pauser;
+        this.sink           = sink;
+        this.pacer          = new IterationPacer(config.pacingMillis);
     }
 
     @Override
@@ -73,12 +65,10 @@ public class RandomClusterer extends Clusterer {
         
         int iteration = 0;
         while (iteration++ < maxIterations) {
-            if(pauser.terminateIfExitBtnClicked()){
+            if (!pauser.checkpoint()) {
                 return;
             }
-            try {
-                pauser.shouldIPause();
-            } catch (InterruptedException ex) {
+            if (!pacer.pace(pauser)) {
                 return;
             }
             
@@ -87,33 +77,15 @@ public class RandomClusterer extends Clusterer {
                 flush();
                 if (!tocontinue()) {
                     pauser.pause();
-                    Platform.runLater(() -> {
-                        arp.alternateRunPause();
-                    });
+                    sink.paused();
                 }
             }
             if (iteration > maxIterations * .6 && RAND.nextDouble() < 0.05) {
                 break;
             }
-            if (tocontinue()) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException ex) {
-                    return;
-                }
-            }
         }
         
-        Platform.runLater(() -> {
-            if (!pauser.isPaused()) {
-                arp.alternateRunPause();
-            }
-            Alert alert = new Alert(Alert.AlertType.WARNING);
-            alert.setTitle("ALERT");
-            alert.setHeaderText("");
-            alert.setContentText("Algorithm Run Complete!");
-            alert.showAndWait();
-        });
+        sink.finished();
     }
 
     private void randomlyAssignLabels() {
@@ -123,23 +95,10 @@ public class RandomClusterer extends Clusterer {
     }
     
     /**
-     * Flushes Algorithm output data to chart for plotting. 
+     * Reports the current labels to the progress sink.
      */
     private void flush() {
-        Platform.runLater(() -> {
-            chart.getData().clear();
-            Set<String> labels = new HashSet<>(dataset.getLabels().values());
-            for (String label : labels) {
-                XYChart.Series<Number, Number> series = new XYChart.Series<>();
-                series.setName(label);
-                dataset.getLabels().entrySet().stream().filter(entry -> entry.getValue().equals(label)).forEach(entry -> {
-                    Point2D point = dataset.getLocations().get(entry.getKey());
-                    series.getData().add(new XYChart.Data<>(point.getX(), point.getY()));
-                });
-                chart.getData().add(series);
-                series.getNode().lookup(".chart-series-line").setStyle("-fx-stroke: transparent");
-            }
-        });
+        sink.labelsUpdated(dataset);
     }
     
     public static String getPrettyName(){
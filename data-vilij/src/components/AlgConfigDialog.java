@@ -44,6 +44,19 @@ public class AlgConfigDialog extends Stage {
     private TextField updateInterval;
     private final Label clusterLabel = new Label("# of Clusters:");
     private TextField numOfClusteringLabels;
+    private final Label batchSizeLabel = new Label("Batch Size:");
+    private TextField batchSizeField;
+    private final Label seedLabel = new Label("Seed (0 = random):");
+    private TextField seedField;
+    private final Label learningRateLabel = new Label("Learning Rate:");
+    private TextField learningRateField;
+    private final Label decayLabel = new Label("Learning Rate Decay:");
+    private TextField decayField;
+    private final Label toleranceLabel = new Label("Tolerance (0 = off):");
+    private TextField toleranceField;
+    private final Label neighboursLabel = new Label("Neighbours (k):");
+    private TextField neighboursField;
+    private TextField pacingField;
     private CheckBox continuousRun;
 
     private AlgConfigDialog() {
@@ -82,6 +95,13 @@ public class AlgConfigDialog extends Stage {
         maxIterationsField = new TextField();
         updateInterval = new TextField();
         numOfClusteringLabels = new TextField();
+        batchSizeField = new TextField();
+        seedField = new TextField();
+        learningRateField = new TextField();
+        decayField = new TextField();
+        toleranceField = new TextField();
+        neighboursField = new TextField();
+        pacingField = new TextField();
         continuousRun = new CheckBox("Continuous Run");
 
         continuousRun.setIndeterminate(false);
@@ -92,7 +112,21 @@ public class AlgConfigDialog extends Stage {
         grid.add(updateInterval, 1, 1);
         grid.add(clusterLabel, 0, 2);
         grid.add(numOfClusteringLabels, 1, 2);
-        grid.add(continuousRun, 1, 3);
+        grid.add(batchSizeLabel, 0, 3);
+        grid.add(batchSizeField, 1, 3);
+        grid.add(seedLabel, 0, 4);
+        grid.add(seedField, 1, 4);
+        grid.add(learningRateLabel, 0, 5);
+        grid.add(learningRateField, 1, 5);
+        grid.add(decayLabel, 0, 6);
+        grid.add(decayField, 1, 6);
+        grid.add(toleranceLabel, 0, 7);
+        grid.add(toleranceField, 1, 7);
+        grid.add(neighboursLabel, 0, 8);
+        grid.add(neighboursField, 1, 8);
+        grid.add(new Label("Pacing (ms/iteration, 0 = off):"), 0, 9);
+        grid.add(pacingField, 1, 9);
+        grid.add(continuousRun, 1, 10);
 
         HBox buttonBox = new HBox(5);
         buttonBox.getChildren().addAll(buttons);
@@ -123,9 +157,32 @@ public class AlgConfigDialog extends Stage {
         this.numOfClusteringLabels.setVisible(algConfig.isClustering());
         this.numOfClusteringLabels.setText(Integer.toString(algConfig.numOfClusteringLabels));
 
-        newAlgConfig = new AlgorithmConfiguration(algConfig.maxIterations,
-                algConfig.updateInterval, algConfig.continuousRun,
-                algConfig.isClustering(), algConfig.numOfClusteringLabels);
+        batchSizeLabel.setVisible(algConfig.usesBatchSize());
+        this.batchSizeField.setVisible(algConfig.usesBatchSize());
+        this.batchSizeField.setText(Integer.toString(algConfig.batchSize));
+
+        boolean seeded = algConfig.isClustering() || algConfig.usesBatchSize();
+        seedLabel.setVisible(seeded);
+        this.seedField.setVisible(seeded);
+        this.seedField.setText(Long.toString(algConfig.seed));
+
+        learningRateLabel.setVisible(algConfig.usesLearningRate());
+        this.learningRateField.setVisible(algConfig.usesLearningRate());
+        this.learningRateField.setText(Double.toString(algConfig.learningRate));
+        decayLabel.setVisible(algConfig.usesLearningRate());
+        this.decayField.setVisible(algConfig.usesLearningRate());
+        this.decayField.setText(Double.toString(algConfig.learningRateDecay));
+        toleranceLabel.setVisible(algConfig.usesLearningRate());
+        this.toleranceField.setVisible(algConfig.usesLearningRate());
+        this.toleranceField.setText(Double.toString(algConfig.tolerance));
+
+        neighboursLabel.setVisible(algConfig.usesNeighbours());
+        this.neighboursField.setVisible(algConfig.usesNeighbours());
+        this.neighboursField.setText(Integer.toString(algConfig.neighbours));
+
+        this.pacingField.setText(Integer.toString(algConfig.pacingMillis));
+
+        newAlgConfig = new AlgorithmConfiguration(algConfig);
 
         this.maxIterationsField.setOnKeyPressed(key -> {
             if (key.getCode() == KeyCode.TAB || key.getCode() == KeyCode.ENTER) {
@@ -144,6 +201,48 @@ public class AlgConfigDialog extends Stage {
                 validateNumOfClusteringLabels();
             }
         });
+
+        this.batchSizeField.setOnKeyPressed(key -> {
+            if (key.getCode() == KeyCode.TAB || key.getCode() == KeyCode.ENTER) {
+                validateBatchSize();
+            }
+        });
+
+        this.seedField.setOnKeyPressed(key -> {
+            if (key.getCode() == KeyCode.TAB || key.getCode() == KeyCode.ENTER) {
+                validateSeed();
+            }
+        });
+
+        this.learningRateField.setOnKeyPressed(key -> {
+            if (key.getCode() == KeyCode.TAB || key.getCode() == KeyCode.ENTER) {
+                validateLearningRate();
+            }
+        });
+
+        this.decayField.setOnKeyPressed(key -> {
+            if (key.getCode() == KeyCode.TAB || key.getCode() == KeyCode.ENTER) {
+                validateDecay();
+            }
+        });
+
+        this.toleranceField.setOnKeyPressed(key -> {
+            if (key.getCode() == KeyCode.TAB || key.getCode() == KeyCode.ENTER) {
+                validateTolerance();
+            }
+        });
+
+        this.neighboursField.setOnKeyPressed(key -> {
+            if (key.getCode() == KeyCode.TAB || key.getCode() == KeyCode.ENTER) {
+                validateNeighbours();
+            }
+        });
+
+        this.pacingField.setOnKeyPressed(key -> {
+            if (key.getCode() == KeyCode.TAB || key.getCode() == KeyCode.ENTER) {
+                validatePacing();
+            }
+        });
         // open the dialog and wait for the user to click the close button
         showAndWait();
 
@@ -153,12 +252,34 @@ public class AlgConfigDialog extends Stage {
             validateUpdateInterval();
             algConfig.updateInterval = newAlgConfig.updateInterval;
             algConfig.continuousRun = continuousRun.isSelected();
+            validatePacing();
+            algConfig.pacingMillis = newAlgConfig.pacingMillis;
             
             if (algConfig.isClustering()) {
 
                 validateNumOfClusteringLabels();
                 algConfig.numOfClusteringLabels = newAlgConfig.numOfClusteringLabels;
             }
+            if (seeded) {
+                validateSeed();
+                algConfig.seed = newAlgConfig.seed;
+            }
+            if (algConfig.usesBatchSize()) {
+                validateBatchSize();
+                algConfig.batchSize = newAlgConfig.batchSize;
+            }
+            if (algConfig.usesLearningRate()) {
+                validateLearningRate();
+                algConfig.learningRate = newAlgConfig.learningRate;
+                validateDecay();
+                algConfig.learningRateDecay = newAlgConfig.learningRateDecay;
+                validateTolerance();
+                algConfig.tolerance = newAlgConfig.tolerance;
+            }
+            if (algConfig.usesNeighbours()) {
+                validateNeighbours();
+                algConfig.neighbours = newAlgConfig.neighbours;
+            }
 
             return true;
         } else {
@@ -201,4 +322,84 @@ public class AlgConfigDialog extends Stage {
             this.numOfClusteringLabels.setText(Integer.toString(newAlgConfig.numOfClusteringLabels));
         }
     }
+
+    private void validateBatchSize() {
+        try {
+            newAlgConfig.batchSize = Integer.valueOf(this.batchSizeField.getText());
+            if (newAlgConfig.batchSize < 1) {
+                newAlgConfig.batchSize = 1;
+                this.batchSizeField.setText(Integer.toString(newAlgConfig.batchSize));
+            }
+        } catch (NumberFormatException ex) {
+            this.batchSizeField.setText(Integer.toString(newAlgConfig.batchSize));
+        }
+    }
+
+    private void validateSeed() {
+        try {
+            newAlgConfig.seed = Long.valueOf(this.seedField.getText().trim());
+        } catch (NumberFormatException ex) {
+            this.seedField.setText(Long.toString(newAlgConfig.seed));
+        }
+    }
+
+    private void validateLearningRate() {
+        try {
+            double learningRate = Double.valueOf(this.learningRateField.getText().trim());
+            if (learningRate > 0 && !Double.isInfinite(learningRate)) {
+                newAlgConfig.learningRate = learningRate;
+            }
+        } catch (NumberFormatException ex) {
+            // keep the previous value
+        }
+        this.learningRateField.setText(Double.toString(newAlgConfig.learningRate));
+    }
+
+    private void validateDecay() {
+        try {
+            double decay = Double.valueOf(this.decayField.getText().trim());
+            if (decay >= 0 && !Double.isInfinite(decay)) {
+                newAlgConfig.learningRateDecay = decay;
+            }
+        } catch (NumberFormatException ex) {
+            // keep the previous value
+        }
+        this.decayField.setText(Double.toString(newAlgConfig.learningRateDecay));
+    }
+
+    private void validateTolerance() {
+        try {
+            double tolerance = Double.valueOf(this.toleranceField.getText().trim());
+            if (tolerance >= 0 && !Double.isInfinite(tolerance)) {
+                newAlgConfig.tolerance = tolerance;
+            }
+        } catch (NumberFormatException ex) {
+            // keep the previous value
+        }
+        this.toleranceField.setText(Double.toString(newAlgConfig.tolerance));
+    }
+
+    private void validateNeighbours() {
+        try {
+            newAlgConfig.neighbours = Integer.valueOf(this.neighboursField.getText().trim());
+            if (newAlgConfig.neighbours < 1) {
+                newAlgConfig.neighbours = 1;
+                this.neighboursField.setText(Integer.toString(newAlgConfig.neighbours));
+            }
+        } catch (NumberFormatException ex) {
+            this.neighboursField.setText(Integer.toString(newAlgConfig.neighbours));
+        }
+    }
+
+    private void validatePacing() {
+        try {
+            newAlgConfig.pacingMillis = Integer.valueOf(this.pacingField.getText().trim());
+            if (newAlgConfig.pacingMillis < 0) {
+                newAlgConfig.pacingMillis = 0;
+                this.pacingField.setText(Integer.toString(newAlgConfig.pacingMillis));
+            }
+        } catch (NumberFormatException ex) {
+            this.pacingField.setText(Integer.toString(newAlgConfig.pacingMillis));
+        }
+    }
 }
@@ -1,6 +1,8 @@
 // Aaron Knoll
 package components;
 
+import java.util.Random;
+
 /**
  * Used for storing specific algorithm configuration data.
  *
@@ -13,6 +15,20 @@ public class AlgorithmConfiguration {
     public boolean continuousRun;
     private boolean clustering;
     public int numOfClusteringLabels;
+    // number of instances sampled per iteration, or 0 if the algorithm does not sample
+    public int batchSize;
+    // seed of the random choices of a run, or 0 for a different one every run
+    public long seed;
+    // minimum milliseconds per iteration, to slow a run down for display, or 0 for full speed
+    public int pacingMillis;
+    // initial step size of gradient descent, or 0 if the algorithm does not use gradient descent
+    public double learningRate;
+    // the step size of iteration t is learningRate / (1 + learningRateDecay * t)
+    public double learningRateDecay;
+    // the run ends once the (smoothed) gradient norm falls below this, or 0 to run every iteration
+    public double tolerance;
+    // number of neighbours voting on a label, or 0 if the algorithm does not use neighbours
+    public int neighbours;
 
     public AlgorithmConfiguration(int maxIterations, int updateInterval, boolean continuousRun, boolean clustering, int numOfClusteringLabels) {
         this.maxIterations = maxIterations;
@@ -22,7 +38,58 @@ public class AlgorithmConfiguration {
         this.numOfClusteringLabels = numOfClusteringLabels;
     }
 
+    /**
+     * Copies another configuration.
+     *
+     * @param other configuration to be copied
+     */
+    public AlgorithmConfiguration(AlgorithmConfiguration other) {
+        this(other.maxIterations, other.updateInterval, other.continuousRun, other.clustering, other.numOfClusteringLabels);
+        this.batchSize = other.batchSize;
+        this.seed = other.seed;
+        this.pacingMillis = other.pacingMillis;
+        this.learningRate = other.learningRate;
+        this.learningRateDecay = other.learningRateDecay;
+        this.tolerance = other.tolerance;
+        this.neighbours = other.neighbours;
+    }
+
     public boolean isClustering() {
         return clustering;
     }
+
+    /**
+     * Turns the seed of this configuration into the seed actually used by a
+     * run.
+     *
+     * @return the configured seed, or a random non-zero one if it is 0
+     */
+    public long resolveSeed() {
+        long resolved = seed;
+        while (resolved == 0) {
+            resolved = new Random().nextLong();
+        }
+        return resolved;
+    }
+
+    /**
+     * @return true if the algorithm samples a batch of instances per iteration
+     */
+    public boolean usesBatchSize() {
+        return batchSize > 0;
+    }
+
+    /**
+     * @return true if the algorithm trains by gradient descent
+     */
+    public boolean usesLearningRate() {
+        return learningRate > 0;
+    }
+
+    /**
+     * @return true if the algorithm classifies by the nearest neighbours of an instance
+     */
+    public boolean usesNeighbours() {
+        return neighbours > 0;
+    }
 }
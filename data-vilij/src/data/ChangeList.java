@@ -0,0 +1,78 @@
+// Aaron Knoll
+package data;
+
+import java.util.Arrays;
+
+/**
+ * A list of instance positions that grows up to a limit, past which it only
+ * remembers that it overflowed. Once that many labels changed, going over
+ * the whole label column is about as cheap as visiting the listed ones.
+ * Positions may be listed more than once.
+ *
+ * @author aaronknoll
+ */
+final class ChangeList {
+
+    private final int limit;
+    private int[]     indices = new int[16];
+    private int       count;
+    private boolean   overflowed;
+
+    /**
+     * @param limit most positions listed before the list overflows
+     */
+    ChangeList(int limit) {
+        this.limit = limit;
+    }
+
+    int size() { return count; }
+
+    int get(int n) { return indices[n]; }
+
+    /**
+     * @return true if more positions were added than the limit, in which case
+     *         none of them are listed
+     */
+    boolean isOverflowed() { return overflowed; }
+
+    void add(int index) {
+        if (overflowed) {
+            return;
+        }
+        if (count == limit) {
+            overflow();
+            return;
+        }
+        if (count == indices.length) {
+            indices = Arrays.copyOf(indices, Math.min(limit, count * 2));
+        }
+        indices[count++] = index;
+    }
+
+    void addAll(ChangeList other) {
+        if (other.overflowed) {
+            overflow();
+        }
+        for (int n = 0; n < other.count && !overflowed; n++) {
+            add(other.indices[n]);
+        }
+    }
+
+    /**
+     * Replaces the positions of this list with those of another one.
+     */
+    void copyFrom(ChangeList other) {
+        clear();
+        addAll(other);
+    }
+
+    void overflow() {
+        overflowed = true;
+        count      = 0;
+    }
+
+    void clear() {
+        overflowed = false;
+        count      = 0;
+    }
+}
@@ -2,12 +2,23 @@ package data;
 import javafx.geometry.Point2D;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
 import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
 
 /**
  * This class specifies how an algorithm will expect the dataset to be. It is
@@ -16,8 +27,24 @@ import java.util.NoSuchElementException;
  * completely write your own class to represent a set of data instances as long
  * as the algorithm can read from and write into two {@link java.util.Map}
  * objects representing the name-to-label map and the name-to-location (i.e.,
- * the x,y values) map. These two are the {@link DataSet#labels} and
- * {@link DataSet#locations} maps in this class.
+ * the x,y values) map. These two are the {@link DataSet#getLabels()} and
+ * {@link DataSet#getLocations()} maps in this class.
+ * <p>
+ * Instances are stored column-wise: the x and y coordinates live in two
+ * primitive arrays, labels are dictionary-encoded into an <code>int</code>
+ * column, and instance names are indexed by position. The two maps are lazy
+ * views over these columns, so algorithms that need speed should use the
+ * index-based accessors ({@link #size()}, {@link #getX(int)},
+ * {@link #getLabelId(int)}, ...) instead.
+ * <p>
+ * A DataSet opened from a binary <code>.tsdb</code> file (see
+ * {@link TSDBinaryFormat}) reads its columns straight from the mapped file and
+ * only copies a column onto the heap once it is modified.
+ * <p>
+ * Label changes are tracked per instance, so that a running algorithm can
+ * publish its labels with {@link #drainLabelChanges(IntConsumer)} (see
+ * {@link LabelSnapshotBuffer}) in time proportional to the number of changed
+ * instances rather than to the size of the DataSet.
  *
  * @author Ritwik Banerjee
  */
@@ -32,6 +59,8 @@ public class DataSet {
         }
     }
 
+    private static final int INITIAL_CAPACITY = 16;
+
     private static String nameFormatCheck(String name) throws InvalidDataNameException {
         if (!name.startsWith("@"))
             throw new InvalidDataNameException(name);
@@ -43,19 +72,86 @@ public class DataSet {
         return new Point2D(Double.parseDouble(coordinateStrings[0]), Double.parseDouble(coordinateStrings[1]));
     }
 
-    private Map<String, String>  labels;
-    private Map<String, Point2D> locations;
-    private Map<String, Double> bounds;     // stores 2D DataSet boundaries
+    private int               size;
+    // volatile because a column may be read on one thread (the renderer, say)
+    // while another is copying it from a mapped file onto the heap, and labels
+    // may be set from several threads at once
+    private volatile double[] xs;
+    private volatile double[] ys;
+    private volatile int[]    labelIds;
+    private volatile String[] names;
+
+    private final List<String>         labelDictionary; // label id -> label
+    private final Map<String, Integer> labelIndex;      // label -> label id
+    private NameIndex                  nameIndex;       // instance name -> position
+
+    // columns that are still backed by a memory-mapped .tsdb file; each one is
+    // copied onto the heap the first time it has to be modified
+    private volatile DoubleBuffer              mappedXs;
+    private volatile DoubleBuffer              mappedYs;
+    private volatile IntBuffer                 mappedLabelIds;
+    private volatile TSDBinaryFormat.NameTable mappedNames;
+    private final int                          mappedLabelCount; // labels in the dictionary of the file
+
+    // stores 2D DataSet boundaries
+    private double xMin, xMax, yMin, yMax;
+
+    private ChangeTracker labelChanges;       // instances whose label changed since the last drain
+    private volatile long locationVersion;    // bumped whenever an instance is added or moved
+    private volatile long moveVersion;        // bumped whenever an existing instance is moved
+
+    private final Map<String, String>  labels;
+    private final Map<String, Point2D> locations;
 
     /** Creates an empty dataset. */
     public DataSet() {
-        labels = new HashMap<>();
-        locations = new HashMap<>();
-        bounds = new HashMap<>();
-        bounds.put("xMin", null);
-        bounds.put("xMax", null);
-        bounds.put("yMin", null);
-        bounds.put("yMax", null);
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty dataset that can hold the given number of instances
+     * before its columns have to grow.
+     *
+     * @param expectedSize expected number of instances
+     */
+    public DataSet(int expectedSize) {
+        int capacity    = Math.max(expectedSize, INITIAL_CAPACITY);
+        xs              = new double[capacity];
+        ys              = new double[capacity];
+        labelIds        = new int[capacity];
+        names           = new String[capacity];
+        labelDictionary = new ArrayList<>();
+        labelIndex      = new HashMap<>();
+        nameIndex       = new NameIndex(capacity);
+        labelChanges    = new ChangeTracker(capacity);
+        labels          = new LabelView();
+        locations       = new LocationView();
+        mappedLabelCount = 0;
+    }
+
+    /**
+     * Creates a DataSet over the columns of a memory-mapped <code>.tsdb</code>
+     * file. Nothing is copied until a column is modified, and the name index
+     * is only built once an instance is first looked up by name.
+     */
+    DataSet(int size, DoubleBuffer xs, DoubleBuffer ys, IntBuffer labelIds, List<String> labels,
+            TSDBinaryFormat.NameTable names, double xMin, double xMax, double yMin, double yMax) {
+        this.size       = size;
+        mappedXs        = xs;
+        mappedYs        = ys;
+        mappedLabelIds  = labelIds;
+        mappedNames     = names;
+        labelDictionary = new ArrayList<>();
+        labelIndex      = new HashMap<>();
+        labels.forEach(this::labelIdOf);
+        mappedLabelCount = labels.size();
+        this.xMin       = xMin;
+        this.xMax       = xMax;
+        this.yMin       = yMin;
+        this.yMax       = yMax;
+        labelChanges    = new ChangeTracker(size);
+        this.labels     = new LabelView();
+        this.locations  = new LocationView();
     }
 
     public Map<String, String> getLabels()     { return labels; }
@@ -63,32 +159,248 @@ public class DataSet {
     public Map<String, Point2D> getLocations() { return locations; }
 
     public void updateLabel(String instanceName, String newlabel) {
-        if (labels.get(instanceName) == null)
+        int index = indexOf(instanceName);
+        if (index < 0)
             throw new NoSuchElementException();
-        labels.put(instanceName, newlabel);
+        setLabel(index, newlabel);
+    }
+
+    /**
+     * @return number of instances in this DataSet
+     */
+    public int size() { return size; }
+
+    public double getX(int index) { return x(checkIndex(index)); }
+
+    public double getY(int index) { return y(checkIndex(index)); }
+
+    /**
+     * Direct access to the x column. Only the first {@link #size()} entries are
+     * meaningful, and the array must be treated as read-only. For a DataSet
+     * opened from a <code>.tsdb</code> file this copies the mapped column onto
+     * the heap the first time it is called.
+     *
+     * @return backing array of x coordinates
+     */
+    public double[] getXs() {
+        materializeCoordinates();
+        return xs;
+    }
+
+    /**
+     * Direct access to the y column. Only the first {@link #size()} entries are
+     * meaningful, and the array must be treated as read-only. For a DataSet
+     * opened from a <code>.tsdb</code> file this copies the mapped column onto
+     * the heap the first time it is called.
+     *
+     * @return backing array of y coordinates
+     */
+    public double[] getYs() {
+        materializeCoordinates();
+        return ys;
+    }
+
+    public String getName(int index) { return name(checkIndex(index)); }
+
+    public int getLabelId(int index) { return labelId(checkIndex(index)); }
+
+    public String getLabel(int index) { return labelDictionary.get(labelId(checkIndex(index))); }
+
+    /**
+     * Assigns an already dictionary-encoded label to an instance.
+     *
+     * @param index   position of the instance
+     * @param labelId id obtained from {@link #labelIdOf(String)}
+     */
+    public void setLabelId(int index, int labelId) {
+        if (labelId < 0 || labelId >= labelDictionary.size())
+            throw new IllegalArgumentException("Unknown label id " + labelId);
+        int[] ids = materializeLabels();
+        if (ids[checkIndex(index)] != labelId) {
+            ids[index] = labelId;
+            labelChanges.mark(index);
+        }
+    }
+
+    public void setLabel(int index, String label) {
+        setLabelId(index, labelIdOf(label));
+    }
+
+    public void setLocation(int index, double x, double y) {
+        materializeCoordinates();
+        xs[checkIndex(index)] = x;
+        ys[index] = y;
+        updateBounds(x, y);
+        moveVersion++;
+        locationVersion++;
+    }
+
+    /**
+     * @param instanceName name of an instance
+     * @return position of the instance, or -1 if there is no such instance
+     */
+    public int indexOf(String instanceName) {
+        return lookup(instanceName);
+    }
+
+    private int lookup(Object instanceName) {
+        materializeNames();
+        return nameIndex.get(instanceName);
+    }
+
+    /**
+     * Returns the dictionary id of a label, adding the label to the dictionary
+     * if it has not been seen before.
+     *
+     * @param label label text
+     * @return id of the label
+     */
+    public int labelIdOf(String label) {
+        Integer id = labelIndex.get(label);
+        if (id == null) {
+            id = labelDictionary.size();
+            labelDictionary.add(label);
+            labelIndex.put(label, id);
+        }
+        return id;
+    }
+
+    /**
+     * Copies the label id column into an array, such as the back buffer of a
+     * {@link LabelSnapshotBuffer}.
+     *
+     * @param target receives the label id of every instance, up to its length
+     * @return number of label ids copied
+     */
+    public int copyLabelIds(int[] target) {
+        int count = Math.min(size, target.length);
+        int[] ids = labelIds;
+        if (ids == null) {
+            IntBuffer mapped = mappedLabelIds;
+            if (mapped != null) {
+                ((IntBuffer) mapped.duplicate().rewind()).get(target, 0, count);
+                checkMappedLabelIds(target, count);
+                return count;
+            }
+            ids = labelIds;
+        }
+        System.arraycopy(ids, 0, target, 0, count);
+        return count;
+    }
+
+    /**
+     * @return every label known to this DataSet, indexed by label id
+     */
+    public List<String> getLabelDictionary() {
+        return Collections.unmodifiableList(labelDictionary);
+    }
+
+    /**
+     * Reports every instance whose label changed since the previous call, and
+     * forgets about them. Labels may keep changing on other threads while this
+     * runs; such changes are reported by this call or the next one. The new
+     * labels themselves are only visible to the caller once it has joined the
+     * threads that set them, or set them itself.
+     *
+     * @param action receives the position of every changed instance
+     * @return number of instances reported
+     */
+    public int drainLabelChanges(IntConsumer action) {
+        return labelChanges.drain(action);
+    }
+
+    /**
+     * @return a number that changes whenever an instance is added or moved
+     */
+    public long getLocationVersion() {
+        return locationVersion;
+    }
+
+    /**
+     * @return a number that changes whenever an existing instance is moved,
+     *         but not when instances are only added
+     */
+    public long getMoveVersion() {
+        return moveVersion;
+    }
+
+    /**
+     * Adds a new instance, or overwrites the label and location of an existing
+     * instance with the same name.
+     *
+     * @param name  instance name
+     * @param label instance label
+     * @param x     x coordinate
+     * @param y     y coordinate
+     * @return position of the instance
+     */
+    public int addInstance(String name, String label, double x, double y) {
+        materialize();
+        int labelId = labelIdOf(label);
+        int index   = nameIndex.get(name);
+        if (index < 0) {
+            ensureCapacity(size + 1);
+            index = size++;
+            names[index] = name;
+            nameIndex.put(name, index);
+        } else {
+            if (labelIds[index] != labelId) {
+                labelChanges.mark(index);
+            }
+            if (xs[index] != x || ys[index] != y) {
+                moveVersion++;
+            }
+        }
+        xs[index]       = x;
+        ys[index]       = y;
+        labelIds[index] = labelId;
+        updateBounds(x, y);
+        locationVersion++;
+        return index;
+    }
+
+    /**
+     * Appends a new instance without overwriting an existing one.
+     *
+     * @return position of the new instance, or -1 if the name is already taken
+     */
+    int append(String name, int labelId, double x, double y) {
+        materialize();
+        if (nameIndex.get(name) >= 0)
+            return -1;
+        ensureCapacity(size + 1);
+        int index = size++;
+        names[index]    = name;
+        xs[index]       = x;
+        ys[index]       = y;
+        labelIds[index] = labelId;
+        nameIndex.put(name, index);
+        updateBounds(x, y);
+        locationVersion++;
+        return index;
     }
 
     private void addInstance(String tsdLine) throws InvalidDataNameException {
         String[] arr = tsdLine.split("\t");
-        labels.put(nameFormatCheck(arr[0]), arr[1]);
-        locations.put(arr[0], locationOf(arr[2]));
-        updateBounds(locationOf(arr[2]));
+        Point2D location = locationOf(arr[2]);
+        addInstance(nameFormatCheck(arr[0]), arr[1], location.getX(), location.getY());
     }
 
+    /**
+     * Loads a <code>.tsd</code> file, skipping any malformed lines. Use
+     * {@link ParallelTSDParser#parse(Path)} directly to find out which lines
+     * were skipped.
+     *
+     * @param tsdFilePath path of the file to be loaded
+     * @return DataSet holding every valid line of the file
+     * @throws IOException if the file cannot be read
+     */
     public static DataSet fromTSDFile(Path tsdFilePath) throws IOException {
-        DataSet dataset = new DataSet();
-        Files.lines(tsdFilePath).forEach(line -> {
-            try {
-                dataset.addInstance(line);
-            } catch (InvalidDataNameException e) {
-                e.printStackTrace();
-            }
-        });
-        return dataset;
+        return ParallelTSDParser.parse(tsdFilePath).getDataSet();
     }
- 
+
     public static DataSet fromInputtedData(ArrayList<String> strList) {
-        DataSet dataset = new DataSet();
+        DataSet dataset = new DataSet(strList.size());
         strList.forEach(line -> {
             try {
                 dataset.addInstance(line);
@@ -98,32 +410,177 @@ public class DataSet {
         });
         return dataset;
     }
-    
-    /**
-     * Updates the boundary records for the DataSet 
-     * (notably as instances are added to the locations Map).
-     * If no boundaries have been initialized yet, all boundaries will be 
-     * initialized to the coordinate value of the first instance added to the 
-     * locations Map.
-     * @param testPt 
-     */
-    private void updateBounds(Point2D testPt) {
-        if (bounds.get("xMin") == null) {
-            bounds.put("xMin", testPt.getX());
-            bounds.put("xMax", testPt.getX());
-            bounds.put("yMin", testPt.getY());
-            bounds.put("yMax", testPt.getY());
-        } else {
-            if (testPt.getX() < bounds.get("xMin")) {
-                bounds.put("xMin", testPt.getX());
-            } else if (testPt.getX() > bounds.get("xMax")) {
-                bounds.put("xMax", testPt.getX());
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > xs.length) {
+            int newCapacity = Math.max(minCapacity, xs.length + (xs.length >> 1));
+            xs       = Arrays.copyOf(xs, newCapacity);
+            ys       = Arrays.copyOf(ys, newCapacity);
+            labelIds = Arrays.copyOf(labelIds, newCapacity);
+            names    = Arrays.copyOf(names, newCapacity);
+            labelChanges = labelChanges.grow(newCapacity);
+        }
+    }
+
+    private double x(int index) {
+        double[] column = xs;
+        if (column == null) {
+            DoubleBuffer mapped = mappedXs;
+            if (mapped != null) {
+                return mapped.get(index);
             }
-            if (testPt.getY() < bounds.get("yMin")) {
-                bounds.put("yMin", testPt.getY());
-            } else if (testPt.getY() > bounds.get("yMax")) {
-                bounds.put("yMax", testPt.getY());
+            // copied onto the heap since xs was read
+            column = xs;
+        }
+        return column[index];
+    }
+
+    private double y(int index) {
+        double[] column = ys;
+        if (column == null) {
+            DoubleBuffer mapped = mappedYs;
+            if (mapped != null) {
+                return mapped.get(index);
+            }
+            column = ys;
+        }
+        return column[index];
+    }
+
+    private int labelId(int index) {
+        int[] ids = labelIds;
+        if (ids == null) {
+            IntBuffer mapped = mappedLabelIds;
+            if (mapped != null) {
+                return checkMappedLabelId(index, mapped.get(index));
             }
+            // copied onto the heap since labelIds was read
+            ids = labelIds;
+        }
+        return ids[index];
+    }
+
+    private String name(int index) {
+        String[] column = names;
+        if (column == null) {
+            TSDBinaryFormat.NameTable mapped = mappedNames;
+            if (mapped != null) {
+                return mapped.get(index);
+            }
+            column = names;
+        }
+        return column[index];
+    }
+
+    private void materialize() {
+        materializeCoordinates();
+        materializeLabels();
+        materializeNames();
+    }
+
+    private void materializeCoordinates() {
+        if (xs == null) {
+            synchronized (this) {
+                if (xs == null) {
+                    int      capacity = Math.max(size, INITIAL_CAPACITY);
+                    double[] x        = new double[capacity];
+                    double[] y        = new double[capacity];
+                    ((DoubleBuffer) mappedXs.duplicate().rewind()).get(x, 0, size);
+                    ((DoubleBuffer) mappedYs.duplicate().rewind()).get(y, 0, size);
+                    // ys before xs, since a non-null xs means both are there,
+                    // and both before the mapped columns are dropped
+                    ys       = y;
+                    xs       = x;
+                    mappedXs = null;
+                    mappedYs = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the label id column, copied onto the heap if it was still mapped
+     */
+    private int[] materializeLabels() {
+        int[] ids = labelIds;
+        if (ids == null) {
+            // labels may be set from several threads at once (see algorithms.KMeansKernel)
+            synchronized (this) {
+                ids = labelIds;
+                if (ids == null) {
+                    ids = new int[Math.max(size, INITIAL_CAPACITY)];
+                    ((IntBuffer) mappedLabelIds.duplicate().rewind()).get(ids, 0, size);
+                    checkMappedLabelIds(ids, size);
+                    // published before the mapped column is dropped, so that a
+                    // reader finding neither is impossible
+                    labelIds       = ids;
+                    mappedLabelIds = null;
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Label ids come straight from the mapped file, which is only checked as
+     * far as its header and dictionary when it is opened.
+     *
+     * @throws IllegalStateException if the id is not in the dictionary of the file
+     */
+    private int checkMappedLabelId(int index, int labelId) {
+        if (labelId < 0 || labelId >= mappedLabelCount)
+            throw new IllegalStateException("Binary data file is corrupt: instance " + index
+                                            + " has unknown label id " + labelId + ".");
+        return labelId;
+    }
+
+    private void checkMappedLabelIds(int[] ids, int count) {
+        for (int i = 0; i < count; i++)
+            checkMappedLabelId(i, ids[i]);
+    }
+
+    private void materializeNames() {
+        if (names == null) {
+            synchronized (this) {
+                if (names == null) {
+                    String[]  column = new String[Math.max(size, INITIAL_CAPACITY)];
+                    NameIndex index  = new NameIndex(size);
+                    for (int i = 0; i < size; i++) {
+                        column[i] = mappedNames.get(i);
+                        index.put(column[i], i);
+                    }
+                    // the index before the names, which are what readers check
+                    nameIndex   = index;
+                    names       = column;
+                    mappedNames = null;
+                }
+            }
+        }
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return index;
+    }
+
+    /**
+     * Updates the boundary records for the DataSet
+     * (notably as instances are added or moved).
+     * If no boundaries have been initialized yet, all boundaries will be
+     * initialized to the coordinate value of the first instance added.
+     * @param x
+     * @param y
+     */
+    private void updateBounds(double x, double y) {
+        if (size == 1) {
+            xMin = xMax = x;
+            yMin = yMax = y;
+        } else {
+            xMin = Math.min(xMin, x);
+            xMax = Math.max(xMax, x);
+            yMin = Math.min(yMin, y);
+            yMax = Math.max(yMax, y);
         }
     }
 
@@ -131,12 +588,279 @@ public class DataSet {
      * Used to ascertain the boundaries of the DataSet.
      * @param boundName
      * @return single boundary parameter of dataset
-     * @throws NullPointerException 
+     * @throws NullPointerException
      */
     public double getBounds(String boundName) throws NullPointerException {
-        if (bounds.get(boundName) == null) {
-            throw new NullPointerException("Bound Not Found!");
+        if (size > 0) {
+            switch (boundName) {
+                case "xMin":
+                    return xMin;
+                case "xMax":
+                    return xMax;
+                case "yMin":
+                    return yMin;
+                case "yMax":
+                    return yMax;
+                default:
+                    break;
+            }
+        }
+        throw new NullPointerException("Bound Not Found!");
+    }
+
+    /**
+     * Open-addressing hash index from instance names to their positions. It
+     * only stores <code>int</code> positions, so it costs one array slot per
+     * instance rather than a map entry and a boxed integer.
+     */
+    private final class NameIndex {
+
+        private int[] slots; // position + 1, or 0 for an empty slot
+        private int   mask;
+
+        NameIndex(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+            slots = new int[capacity];
+            mask  = capacity - 1;
+        }
+
+        int get(Object name) {
+            if (name == null)
+                return -1;
+            for (int slot = mix(name.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                if (names[slots[slot] - 1].equals(name))
+                    return slots[slot] - 1;
+            }
+            return -1;
+        }
+
+        void put(String name, int index) {
+            if ((size << 1) > slots.length)
+                rehash(slots.length << 1);
+            insert(name, index);
+        }
+
+        private void insert(String name, int index) {
+            int slot = mix(name.hashCode()) & mask;
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = index + 1;
+        }
+
+        private void rehash(int capacity) {
+            slots = new int[capacity];
+            mask  = capacity - 1;
+            for (int i = 0; i < size; i++)
+                if (names[i] != null)
+                    insert(names[i], i);
+        }
+
+        private int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * A concurrent bit set of changed instances with a second, coarser level
+     * of bits marking the words that have any bit set, so that draining it
+     * only visits words that actually hold changes.
+     */
+    private static final class ChangeTracker {
+
+        private final AtomicLongArray words;   // one bit per instance
+        private final AtomicLongArray summary; // one bit per word of words
+
+        ChangeTracker(int capacity) {
+            int wordCount = Math.max(1, (capacity + 63) >>> 6);
+            words   = new AtomicLongArray(wordCount);
+            summary = new AtomicLongArray((wordCount + 63) >>> 6);
+        }
+
+        /**
+         * Not safe to call while instances are being marked.
+         */
+        ChangeTracker grow(int capacity) {
+            ChangeTracker grown = new ChangeTracker(capacity);
+            for (int w = 0; w < words.length(); w++) {
+                long word = words.get(w);
+                if (word != 0) {
+                    grown.words.set(w, word);
+                    grown.summary.accumulateAndGet(w >>> 6, 1L << w, (a, b) -> a | b);
+                }
+            }
+            return grown;
+        }
+
+        void mark(int index) {
+            int  w   = index >>> 6;
+            long bit = 1L << index;
+            // a bit still set from an earlier change needs no atomic write: the
+            // drain that clears it reports this change as well, so an instance
+            // relabelled on every pass costs a read until the next drain
+            if ((words.get(w) & bit) != 0) {
+                return;
+            }
+            words.accumulateAndGet(w, bit, (a, b) -> a | b);
+            // the summary bit is set after the word bit, and cleared before it
+            // by drain(), so a change is never lost between the two
+            long summaryBit = 1L << w;
+            if ((summary.get(w >>> 6) & summaryBit) == 0) {
+                summary.accumulateAndGet(w >>> 6, summaryBit, (a, b) -> a | b);
+            }
+        }
+
+        int drain(IntConsumer action) {
+            int count = 0;
+            for (int s = 0; s < summary.length(); s++) {
+                if (summary.get(s) == 0) {
+                    continue;
+                }
+                long flagged = summary.getAndSet(s, 0);
+                while (flagged != 0) {
+                    int  w    = (s << 6) + Long.numberOfTrailingZeros(flagged);
+                    long word = words.getAndSet(w, 0);
+                    flagged &= flagged - 1;
+                    while (word != 0) {
+                        action.accept((w << 6) + Long.numberOfTrailingZeros(word));
+                        word &= word - 1;
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Live name-to-label view over the label column.
+     */
+    private final class LabelView extends AbstractMap<String, String> {
+
+        @Override
+        public int size() { return size; }
+
+        @Override
+        public boolean containsKey(Object key) { return lookup(key) >= 0; }
+
+        @Override
+        public String get(Object key) {
+            int index = lookup(key);
+            return index < 0 ? null : getLabel(index);
+        }
+
+        @Override
+        public String put(String key, String value) {
+            int index = lookup(key);
+            if (index < 0)
+                throw new NoSuchElementException(key);
+            String previous = getLabel(index);
+            setLabel(index, value);
+            return previous;
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super String, ? super String> action) {
+            for (int i = 0; i < size; i++)
+                action.accept(name(i), labelDictionary.get(labelId(i)));
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return new AbstractSet<Map.Entry<String, String>>() {
+                @Override
+                public int size() { return size; }
+
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return new ColumnIterator<Map.Entry<String, String>>() {
+                        @Override
+                        Map.Entry<String, String> entryAt(int index) {
+                            return new SimpleEntry<String, String>(name(index), getLabel(index)) {
+                                @Override
+                                public String setValue(String value) {
+                                    setLabel(index, value);
+                                    return super.setValue(value);
+                                }
+                            };
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /**
+     * Live name-to-location view over the x and y columns.
+     */
+    private final class LocationView extends AbstractMap<String, Point2D> {
+
+        @Override
+        public int size() { return size; }
+
+        @Override
+        public boolean containsKey(Object key) { return lookup(key) >= 0; }
+
+        @Override
+        public Point2D get(Object key) {
+            int index = lookup(key);
+            return index < 0 ? null : new Point2D(x(index), y(index));
+        }
+
+        @Override
+        public Point2D put(String key, Point2D value) {
+            int index = lookup(key);
+            if (index < 0)
+                throw new NoSuchElementException(key);
+            Point2D previous = new Point2D(x(index), y(index));
+            setLocation(index, value.getX(), value.getY());
+            return previous;
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super String, ? super Point2D> action) {
+            for (int i = 0; i < size; i++)
+                action.accept(name(i), new Point2D(x(i), y(i)));
+        }
+
+        @Override
+        public Set<Map.Entry<String, Point2D>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Point2D>>() {
+                @Override
+                public int size() { return size; }
+
+                @Override
+                public Iterator<Map.Entry<String, Point2D>> iterator() {
+                    return new ColumnIterator<Map.Entry<String, Point2D>>() {
+                        @Override
+                        Map.Entry<String, Point2D> entryAt(int index) {
+                            return new SimpleEntry<String, Point2D>(name(index), new Point2D(x(index), y(index))) {
+                                @Override
+                                public Point2D setValue(Point2D value) {
+                                    setLocation(index, value.getX(), value.getY());
+                                    return super.setValue(value);
+                                }
+                            };
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    private abstract class ColumnIterator<E> implements Iterator<E> {
+
+        private int next = 0;
+
+        abstract E entryAt(int index);
+
+        @Override
+        public boolean hasNext() { return next < size; }
+
+        @Override
+        public E next() {
+            if (next >= size)
+                throw new NoSuchElementException();
+            return entryAt(next++);
         }
-        return bounds.get(boundName);
     }
-}
\ No newline at end of file
+}
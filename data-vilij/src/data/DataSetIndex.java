@@ -0,0 +1,138 @@
+// Aaron Knoll
+package data;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * A {@link SpatialIndex} that follows a {@link DataSet} as it changes.
+ * <p>
+ * The instances present at the last full build are held in a {@link KDTree};
+ * instances added since then are kept in a tail that every query scans. Once
+ * the tail outgrows a fraction of the tree, the tree is rebuilt over all
+ * instances, so adding instances one by one costs amortized O(log n) each.
+ * Moving an existing instance rebuilds the tree on the next update. Labels
+ * are not part of the index: a filter reading them from the DataSet sees the
+ * current ones, so editing labels needs no rebuild at all.
+ * <p>
+ * {@link #update()} must not run concurrently with queries.
+ *
+ * @author aaronknoll
+ */
+public final class DataSetIndex implements SpatialIndex {
+
+    /** the tail may always hold this many instances before the tree is rebuilt */
+    private static final int MIN_TAIL_SIZE = 1 << 10;
+    /** otherwise the tail may hold up to this fraction of the instances in the tree */
+    private static final int TAIL_FRACTION = 8;
+
+    private final DataSet dataset;
+
+    private KDTree   tree;
+    private long     moveVersion;
+    private int      size;
+    private double[] tailXs = new double[0]; // position - tree size -> x of an added instance
+    private double[] tailYs = new double[0];
+
+    /**
+     * Builds the index over the current locations of the instances.
+     *
+     * @param dataset the instances to be indexed
+     */
+    public DataSetIndex(DataSet dataset) {
+        this.dataset = dataset;
+        rebuild();
+    }
+
+    public DataSet getDataSet() {
+        return dataset;
+    }
+
+    /**
+     * Catches up with the instances added or moved since the last update.
+     *
+     * @return true if the index changed
+     */
+    public boolean update() {
+        int current = dataset.size();
+        if (dataset.getMoveVersion() != moveVersion || current < size) {
+            rebuild();
+            return true;
+        }
+        if (current == size) {
+            return false;
+        }
+        int treeSize = tree.size();
+        if (current - treeSize > Math.max(MIN_TAIL_SIZE, treeSize / TAIL_FRACTION)) {
+            rebuild();
+            return true;
+        }
+        if (current - treeSize > tailXs.length) {
+            int capacity = Math.max(current - treeSize, 2 * tailXs.length);
+            tailXs = Arrays.copyOf(tailXs, capacity);
+            tailYs = Arrays.copyOf(tailYs, capacity);
+        }
+        for (int i = size; i < current; i++) {
+            tailXs[i - treeSize] = dataset.getX(i);
+            tailYs[i - treeSize] = dataset.getY(i);
+        }
+        size = current;
+        return true;
+    }
+
+    private void rebuild() {
+        // read before building, so that a move during the build is caught by the next update
+        moveVersion = dataset.getMoveVersion();
+        size        = dataset.size();
+        tree        = new KDTree(dataset, 0, size);
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public int[] nearest(double x, double y, int k, IntPredicate filter) {
+        Neighbours found = new Neighbours(Math.min(k, size));
+        tree.collectNearest(x, y, found, filter);
+        int treeSize = tree.size();
+        for (int i = treeSize; i < size; i++) {
+            double dx       = tailXs[i - treeSize] - x;
+            double dy       = tailYs[i - treeSize] - y;
+            double distance = dx * dx + dy * dy;
+            if (distance <= found.bound() && filter.test(i)) {
+                found.offer(i, distance);
+            }
+        }
+        return found.toArray();
+    }
+
+    @Override
+    public void forEachWithin(double x, double y, double radius, IntConsumer action) {
+        if (!(radius >= 0)) {
+            return;
+        }
+        tree.forEachWithin(x, y, radius, action);
+        int treeSize = tree.size();
+        for (int i = treeSize; i < size; i++) {
+            double dx = tailXs[i - treeSize] - x;
+            double dy = tailYs[i - treeSize] - y;
+            if (dx * dx + dy * dy <= radius * radius) {
+                action.accept(i);
+            }
+        }
+    }
+
+    @Override
+    public void forEachInRect(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+        tree.forEachInRect(minX, minY, maxX, maxY, action);
+        int treeSize = tree.size();
+        for (int i = treeSize; i < size; i++) {
+            double x = tailXs[i - treeSize];
+            double y = tailYs[i - treeSize];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                action.accept(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+// Aaron Knoll
+package data;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * A 2-d tree over the instances of a {@link DataSet}.
+ * <p>
+ * The tree is implicit: the coordinates are copied and reordered so that
+ * every subtree is a contiguous range, with the median of the range (along
+ * its wider side) in the middle, the instances below it before and the ones
+ * above it after. Ranges of at most {@link #LEAF_SIZE} instances are leaves
+ * and are scanned. Large subtrees are built in parallel on the common
+ * {@link ForkJoinPool}. The tree reflects the DataSet as it was when the tree
+ * was built.
+ *
+ * @author aaronknoll
+ */
+public final class KDTree implements SpatialIndex {
+
+    /** ranges of at most this many instances are scanned rather than split */
+    private static final int LEAF_SIZE          = 8;
+    /** subtrees of more instances than this are built in parallel */
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private final int       size;
+    private final int[]     indices;   // position -> instance index
+    private final double[]  xs;        // position -> x of the instance
+    private final double[]  ys;        // position -> y of the instance
+    private final boolean[] splitsOnX; // median position of a range -> whether the range was split along x
+
+    /**
+     * Builds the tree over the current locations of all instances.
+     *
+     * @param dataset the instances to be indexed
+     */
+    public KDTree(DataSet dataset) {
+        this(dataset, 0, dataset.size());
+    }
+
+    /**
+     * Builds the tree over the current locations of a range of instances.
+     *
+     * @param dataset the instances to be indexed
+     * @param from    position of the first instance to be indexed
+     * @param to      position just past the last instance to be indexed
+     */
+    public KDTree(DataSet dataset, int from, int to) {
+        this(dataset, range(dataset, from, to));
+    }
+
+    /**
+     * Builds the tree over the current locations of the instances accepted by
+     * a predicate, such as the labelled instances a classifier learns from.
+     * Searches then never visit the other instances, rather than filtering
+     * them out on every query.
+     *
+     * @param dataset the instances to be indexed
+     * @param include accepts the positions of the instances to be indexed
+     */
+    public KDTree(DataSet dataset, IntPredicate include) {
+        this(dataset, select(dataset, include));
+    }
+
+    private KDTree(DataSet dataset, int[] indices) {
+        this.size      = indices.length;
+        this.indices   = indices;
+        this.xs        = new double[size];
+        this.ys        = new double[size];
+        this.splitsOnX = new boolean[size];
+        double[] sourceXs = dataset.getXs();
+        double[] sourceYs = dataset.getYs();
+        for (int p = 0; p < size; p++) {
+            xs[p] = sourceXs[indices[p]];
+            ys[p] = sourceYs[indices[p]];
+        }
+        if (size > PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new BuildTask(0, size));
+        } else {
+            build(0, size);
+        }
+    }
+
+    private static int[] range(DataSet dataset, int from, int to) {
+        if (from < 0 || to > dataset.size() || from > to)
+            throw new IndexOutOfBoundsException("Range " + from + ".." + to + " of " + dataset.size());
+        int[] indices = new int[to - from];
+        for (int p = 0; p < indices.length; p++) {
+            indices[p] = from + p;
+        }
+        return indices;
+    }
+
+    private static int[] select(DataSet dataset, IntPredicate include) {
+        int[] indices = new int[dataset.size()];
+        int   count   = 0;
+        for (int i = 0; i < indices.length; i++) {
+            if (include.test(i)) {
+                indices[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public int[] nearest(double x, double y, int k, IntPredicate filter) {
+        Neighbours found = new Neighbours(Math.min(k, size));
+        collectNearest(x, y, found, filter);
+        return found.toArray();
+    }
+
+    /**
+     * Finds the accepted instances closest to a location, like
+     * {@link #nearest(double, double, int, IntPredicate)}, but into a buffer
+     * supplied by the caller, so that a batch of searches allocates nothing.
+     * One buffer must not be used by two searches at the same time; searches
+     * with buffers of their own may run in parallel.
+     *
+     * @param x      first coordinate of the location
+     * @param y      second coordinate of the location
+     * @param found  cleared, then filled with up to {@link Neighbours#getK()}
+     *               instances
+     * @param filter accepts the positions of the instances that may be found
+     */
+    public void nearest(double x, double y, Neighbours found, IntPredicate filter) {
+        found.clear();
+        collectNearest(x, y, found, filter);
+    }
+
+    /**
+     * Offers every accepted instance that may be among the closest to a
+     * location to a search in progress.
+     */
+    void collectNearest(double x, double y, Neighbours found, IntPredicate filter) {
+        nearest(0, size, x, y, found, filter);
+    }
+
+    @Override
+    public void forEachWithin(double x, double y, double radius, IntConsumer action) {
+        if (radius >= 0) {
+            within(0, size, x, y, radius, action);
+        }
+    }
+
+    @Override
+    public void forEachInRect(double minX, double minY, double maxX, double maxY, IntConsumer action) {
+        if (minX <= maxX && minY <= maxY) {
+            inRect(0, size, minX, minY, maxX, maxY, action);
+        }
+    }
+
+    private void nearest(int from, int to, double x, double y, Neighbours found, IntPredicate filter) {
+        if (to - from <= LEAF_SIZE) {
+            for (int p = from; p < to; p++) {
+                offer(p, x, y, found, filter);
+            }
+            return;
+        }
+        int    mid  = (from + to) >>> 1;
+        double diff = splitsOnX[mid] ? x - xs[mid] : y - ys[mid];
+        if (diff < 0) {
+            nearest(from, mid, x, y, found, filter);
+            offer(mid, x, y, found, filter);
+            if (diff * diff <= found.bound()) {
+                nearest(mid + 1, to, x, y, found, filter);
+            }
+        } else {
+            nearest(mid + 1, to, x, y, found, filter);
+            offer(mid, x, y, found, filter);
+            if (diff * diff <= found.bound()) {
+                nearest(from, mid, x, y, found, filter);
+            }
+        }
+    }
+
+    private void offer(int p, double x, double y, Neighbours found, IntPredicate filter) {
+        double dx       = xs[p] - x;
+        double dy       = ys[p] - y;
+        double distance = dx * dx + dy * dy;
+        if (distance <= found.bound() && filter.test(indices[p])) {
+            found.offer(indices[p], distance);
+        }
+    }
+
+    private void within(int from, int to, double x, double y, double radius, IntConsumer action) {
+        if (to - from <= LEAF_SIZE) {
+            for (int p = from; p < to; p++) {
+                acceptWithin(p, x, y, radius, action);
+            }
+            return;
+        }
+        int    mid  = (from + to) >>> 1;
+        double diff = splitsOnX[mid] ? x - xs[mid] : y - ys[mid];
+        if (diff <= radius) {
+            within(from, mid, x, y, radius, action);
+        }
+        acceptWithin(mid, x, y, radius, action);
+        if (diff >= -radius) {
+            within(mid + 1, to, x, y, radius, action);
+        }
+    }
+
+    private void acceptWithin(int p, double x, double y, double radius, IntConsumer action) {
+        double dx = xs[p] - x;
+        double dy = ys[p] - y;
+        if (dx * dx + dy * dy <= radius * radius) {
+            action.accept(indices[p]);
+        }
+    }
+
+    private void inRect(int from, int to, double minX, double minY, double maxX, double maxY, IntConsumer action) {
+        if (to - from <= LEAF_SIZE) {
+            for (int p = from; p < to; p++) {
+                if (xs[p] >= minX && xs[p] <= maxX && ys[p] >= minY && ys[p] <= maxY) {
+                    action.accept(indices[p]);
+                }
+            }
+            return;
+        }
+        int    mid   = (from + to) >>> 1;
+        double split = splitsOnX[mid] ? xs[mid] : ys[mid];
+        double min   = splitsOnX[mid] ? minX : minY;
+        double max   = splitsOnX[mid] ? maxX : maxY;
+        if (min <= split) {
+            inRect(from, mid, minX, minY, maxX, maxY, action);
+        }
+        if (xs[mid] >= minX && xs[mid] <= maxX && ys[mid] >= minY && ys[mid] <= maxY) {
+            action.accept(indices[mid]);
+        }
+        if (max >= split) {
+            inRect(mid + 1, to, minX, minY, maxX, maxY, action);
+        }
+    }
+
+    private void build(int from, int to) {
+        if (to - from > LEAF_SIZE) {
+            int mid = split(from, to);
+            build(from, mid);
+            build(mid + 1, to);
+        }
+    }
+
+    /**
+     * Moves the median of a range, along its wider side, to the middle of the
+     * range, with smaller instances before it and larger ones after it.
+     *
+     * @return the middle of the range
+     */
+    private int split(int from, int to) {
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int p = from; p < to; p++) {
+            minX = Math.min(minX, xs[p]);
+            maxX = Math.max(maxX, xs[p]);
+            minY = Math.min(minY, ys[p]);
+            maxY = Math.max(maxY, ys[p]);
+        }
+        boolean  onX  = maxX - minX >= maxY - minY;
+        double[] keys = onX ? xs : ys;
+        int      mid  = (from + to) >>> 1;
+
+        // quickselect with Hoare partitioning around a median of three
+        int low  = from;
+        int high = to - 1;
+        while (low < high) {
+            double a     = keys[low];
+            double b     = keys[(low + high) >>> 1];
+            double c     = keys[high];
+            double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+            int    i     = low;
+            int    j     = high;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (mid <= j) {
+                high = j;
+            } else if (mid >= i) {
+                low = i;
+            } else {
+                break;
+            }
+        }
+        splitsOnX[mid] = onX;
+        return mid;
+    }
+
+    private void swap(int p, int q) {
+        int    index = indices[p];
+        double x     = xs[p];
+        double y     = ys[p];
+        indices[p] = indices[q];
+        xs[p]      = xs[q];
+        ys[p]      = ys[q];
+        indices[q] = index;
+        xs[q]      = x;
+        ys[q]      = y;
+    }
+
+    private final class BuildTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        BuildTask(int from, int to) {
+            this.from = from;
+            this.to   = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                build(from, to);
+            } else {
+                int mid = split(from, to);
+                invokeAll(new BuildTask(from, mid), new BuildTask(mid + 1, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+// Aaron Knoll
+package data;
+
+import java.util.Arrays;
+
+/**
+ * The label a classifier gives to every cell of a regular grid over a
+ * rectangle of the plane, such as the regions a nearest-neighbour classifier
+ * assigns to each label. The labels are ids in the label dictionary of the
+ * {@link DataSet} the classifier ran on.
+ * <p>
+ * Cells are numbered row by row, starting from the corner at
+ * (<code>minX</code>, <code>minY</code>); every cell is classified by its
+ * centre. A grid is filled by its classifier before it is published, and is
+ * not modified afterwards.
+ *
+ * @author aaronknoll
+ */
+public final class LabelGrid {
+
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final int    columns;
+    private final int    rows;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final int[]  labelIds;
+
+    /**
+     * Creates a grid with every cell unlabelled (-1).
+     *
+     * @param minX    left edge of the grid
+     * @param minY    bottom edge of the grid
+     * @param maxX    right edge of the grid
+     * @param maxY    top edge of the grid
+     * @param columns number of cells along x
+     * @param rows    number of cells along y
+     */
+    public LabelGrid(double minX, double minY, double maxX, double maxY, int columns, int rows) {
+        if (columns < 1 || rows < 1)
+            throw new IllegalArgumentException("Grid of " + columns + " by " + rows + " cells");
+        if (!(minX <= maxX && minY <= maxY))
+            throw new IllegalArgumentException("Empty rectangle " + minX + ".." + maxX + " by " + minY + ".." + maxY);
+        this.minX       = minX;
+        this.minY       = minY;
+        this.maxX       = maxX;
+        this.maxY       = maxY;
+        this.columns    = columns;
+        this.rows       = rows;
+        this.cellWidth  = (maxX - minX) / columns;
+        this.cellHeight = (maxY - minY) / rows;
+        this.labelIds   = new int[columns * rows];
+        Arrays.fill(labelIds, -1);
+    }
+
+    public double getMinX() { return minX; }
+
+    public double getMinY() { return minY; }
+
+    public double getMaxX() { return maxX; }
+
+    public double getMaxY() { return maxY; }
+
+    public int getColumns() { return columns; }
+
+    public int getRows() { return rows; }
+
+    /**
+     * @return number of cells
+     */
+    public int size() { return labelIds.length; }
+
+    /**
+     * @param cell number of a cell
+     * @return x of the centre of the cell
+     */
+    public double getCellX(int cell) {
+        return minX + (cell % columns + 0.5) * cellWidth;
+    }
+
+    /**
+     * @param cell number of a cell
+     * @return y of the centre of the cell
+     */
+    public double getCellY(int cell) {
+        return minY + (cell / columns + 0.5) * cellHeight;
+    }
+
+    /**
+     * @param cell number of a cell
+     * @return id of the label of the cell, or -1 if it has none
+     */
+    public int getLabelId(int cell) { return labelIds[cell]; }
+
+    public void setLabelId(int cell, int labelId) {
+        labelIds[cell] = labelId;
+    }
+
+    /**
+     * @param x first coordinate of a location
+     * @param y second coordinate of a location
+     * @return id of the label of the cell containing the location, or -1 if
+     *         it is outside the grid or the cell has no label
+     */
+    public int labelAt(double x, double y) {
+        int column = columnOf(x);
+        int row    = rowOf(y);
+        return column < 0 || row < 0 ? -1 : labelIds[row * columns + column];
+    }
+
+    /**
+     * @param x first coordinate of a location
+     * @return column containing the location, or -1 if it is outside the grid
+     */
+    public int columnOf(double x) {
+        if (!(x >= minX && x <= maxX)) {
+            return -1;
+        }
+        return cellWidth > 0 ? Math.min(columns - 1, (int) ((x - minX) / cellWidth)) : 0;
+    }
+
+    /**
+     * @param y second coordinate of a location
+     * @return row containing the location, or -1 if it is outside the grid
+     */
+    public int rowOf(double y) {
+        if (!(y >= minY && y <= maxY)) {
+            return -1;
+        }
+        return cellHeight > 0 ? Math.min(rows - 1, (int) ((y - minY) / cellHeight)) : 0;
+    }
+}
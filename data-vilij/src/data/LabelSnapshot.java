@@ -0,0 +1,86 @@
+// Aaron Knoll
+package data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The labels of every instance of a {@link DataSet} at one point of an
+ * algorithm's run, as published through a {@link LabelSnapshotBuffer}.
+ * <p>
+ * A snapshot does not change while it is held by the reader. It is handed
+ * back to the writer, and refilled, once the reader acquires a newer one, so
+ * it must not be kept past the next {@link LabelSnapshotBuffer#acquire()}.
+ * <p>
+ * Besides the labels, a snapshot lists the instances whose label may have
+ * changed since the snapshot the reader acquired before it, so that a display
+ * can catch up in time proportional to the number of changes.
+ *
+ * @author aaronknoll
+ */
+public final class LabelSnapshot {
+
+    final int[]          labelIds;
+    List<String>         labelDictionary = Collections.emptyList();
+    volatile long        sequence;        // 0 until first published
+
+    final LabelSnapshotBuffer buffer;
+    final ChangeList          changes;    // since the reader's previous snapshot; read by the reader
+    final ChangeList          stale;      // labels changed since this snapshot was filled; writer only
+
+    LabelSnapshot(int size, LabelSnapshotBuffer buffer) {
+        int limit = Math.max(64, size >>> 4);
+        this.labelIds = new int[size];
+        this.buffer   = buffer;
+        this.changes  = new ChangeList(limit);
+        this.stale    = new ChangeList(limit);
+        stale.overflow();
+    }
+
+    /**
+     * @return number of instances in the snapshot
+     */
+    public int size() { return labelIds.length; }
+
+    /**
+     * @param index position of an instance in the DataSet
+     * @return id of the instance's label, in {@link #getLabelDictionary()}
+     */
+    public int getLabelId(int index) { return labelIds[index]; }
+
+    /**
+     * @return every label known to the DataSet when the snapshot was taken,
+     *         indexed by label id
+     */
+    public List<String> getLabelDictionary() { return labelDictionary; }
+
+    /**
+     * @return number of snapshots published by the buffer up to this one
+     */
+    public long getSequence() { return sequence; }
+
+    /**
+     * Tells whether {@link #getChange(int)} lists every instance whose label
+     * differs from another snapshot. That is the case for the snapshot
+     * acquired from the same buffer just before this one, unless too many
+     * labels changed in between.
+     *
+     * @param previous the snapshot acquired before this one, or null
+     * @return true if comparing the listed instances is enough
+     */
+    public boolean listsChangesSince(LabelSnapshot previous) {
+        return previous != null && previous != this && previous.buffer == buffer && !changes.isOverflowed();
+    }
+
+    /**
+     * @return number of instances listed as changed, some of them possibly
+     *         more than once
+     */
+    public int getChangeCount() { return changes.size(); }
+
+    /**
+     * @param n a number below {@link #getChangeCount()}
+     * @return position of the n-th instance listed as changed
+     */
+    public int getChange(int n) { return changes.get(n); }
+}
@@ -0,0 +1,127 @@
+// Aaron Knoll
+package data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * Hands the labels of a {@link DataSet} from the thread of a running
+ * algorithm to the thread displaying them, without either one ever seeing
+ * the other modify them.
+ * <p>
+ * There are three {@link LabelSnapshot}s, each owned by one side at any time:
+ * the writer fills its back buffer from the DataSet, then swaps it with the
+ * published one in a single atomic exchange; the reader swaps its front
+ * buffer with the published one whenever that is newer. No lock is taken. The
+ * reader skips snapshots published faster than it acquires them, and the
+ * writer never waits for the reader.
+ * <p>
+ * A publication costs time proportional to the number of labels changed, not
+ * to the size of the DataSet. The writer drains the changed instances from
+ * the DataSet (see {@link DataSet#drainLabelChanges(java.util.function.IntConsumer)})
+ * and remembers, for every snapshot, which labels changed since it was last
+ * filled, so only those are copied into the back buffer. It also lists in the
+ * published snapshot the instances changed since the last snapshot the reader
+ * is known to have acquired, which covers every change since the reader's
+ * current one. Only when too many labels changed is a whole column copied or
+ * compared.
+ * <p>
+ * {@link #publish()} must only be called by one thread at a time (the
+ * algorithm), and {@link #acquire()} by one thread at a time (the display).
+ * A DataSet must not be published through two buffers at once, as each drains
+ * the changes the other needs.
+ *
+ * @author aaronknoll
+ */
+public final class LabelSnapshotBuffer {
+
+    private final DataSet                        dataset;
+    private final AtomicReference<LabelSnapshot> published;
+
+    // writer side
+    private final LabelSnapshot[] snapshots; // all three, to record which of their labels are stale
+    private final ChangeList      fresh;     // changes drained by the current publication
+    private final ChangeList      unseen;    // changes since the last snapshot known to be acquired
+    private final IntConsumer     collect;
+    private LabelSnapshot back;
+    private List<String>  dictionary = Collections.emptyList();
+    private long          sequence;
+
+    // reader side
+    private LabelSnapshot front;
+
+    /**
+     * @param dataset the DataSet whose labels are published; its size must
+     *                not change while the buffer is used
+     */
+    public LabelSnapshotBuffer(DataSet dataset) {
+        int size = dataset.size();
+        this.dataset   = dataset;
+        this.snapshots = new LabelSnapshot[] {
+            new LabelSnapshot(size, this), new LabelSnapshot(size, this), new LabelSnapshot(size, this)
+        };
+        this.back      = snapshots[0];
+        this.published = new AtomicReference<>(snapshots[1]);
+        this.front     = snapshots[2];
+        this.fresh     = new ChangeList(Math.max(64, size >>> 4));
+        this.unseen    = new ChangeList(Math.max(64, size >>> 4));
+        this.collect   = fresh::add;
+        // every snapshot is filled completely the first time, so earlier changes do not matter
+        dataset.drainLabelChanges(index -> { });
+    }
+
+    /**
+     * Brings the back buffer up to date with the labels of the DataSet and
+     * publishes it. To be called by the thread that modifies the labels, or
+     * once the threads modifying them are done.
+     */
+    public void publish() {
+        fresh.clear();
+        dataset.drainLabelChanges(collect);
+        for (LabelSnapshot snapshot : snapshots) {
+            snapshot.stale.addAll(fresh);
+        }
+        if (back.stale.isOverflowed()) {
+            dataset.copyLabelIds(back.labelIds);
+        } else {
+            for (int n = 0; n < back.stale.size(); n++) {
+                int index = back.stale.get(n);
+                back.labelIds[index] = dataset.getLabelId(index);
+            }
+        }
+        back.stale.clear();
+        unseen.addAll(fresh);
+        back.changes.copyFrom(unseen);
+
+        List<String> labels = dataset.getLabelDictionary();
+        if (labels.size() != dictionary.size()) {
+            // labels are only ever added to the dictionary
+            dictionary = Collections.unmodifiableList(new ArrayList<>(labels));
+        }
+        back.labelDictionary = dictionary;
+        back.sequence        = ++sequence;
+        LabelSnapshot previous = published.getAndSet(back);
+        if (previous.sequence != sequence - 1) {
+            // the reader took the snapshot published before this one, and left its older one
+            unseen.copyFrom(fresh);
+        }
+        back = previous;
+    }
+
+    /**
+     * Takes over the latest published snapshot, if it is newer than the one
+     * acquired before, and hands the older one back to the writer.
+     *
+     * @return the latest published snapshot, or null if none was published yet
+     */
+    public LabelSnapshot acquire() {
+        if (published.get().sequence > front.sequence) {
+            // only the writer replaces the published snapshot meanwhile, and only with a newer one
+            front = published.getAndSet(front);
+        }
+        return front.sequence == 0 ? null : front;
+    }
+}
@@ -0,0 +1,138 @@
+// Aaron Knoll
+package data;
+
+import java.util.Arrays;
+
+/**
+ * The k closest instances found so far by a nearest-neighbour search, kept in
+ * a max-heap on their distance so the farthest one can be replaced cheaply.
+ * Of instances at the same distance, higher positions count as closer.
+ * <p>
+ * A search over a {@link KDTree} can be given the same Neighbours again and
+ * again (see {@link KDTree#nearest(double, double, Neighbours,
+ * java.util.function.IntPredicate)}), so that running many searches allocates
+ * nothing.
+ *
+ * @author aaronknoll
+ */
+public final class Neighbours {
+
+    private final int[]    indices;
+    private final double[] distances; // squared
+    private int            count;
+
+    /**
+     * @param k number of instances wanted
+     */
+    public Neighbours(int k) {
+        indices   = new int[Math.max(0, k)];
+        distances = new double[indices.length];
+    }
+
+    /**
+     * @return number of instances wanted
+     */
+    public int getK() { return indices.length; }
+
+    /**
+     * @return number of instances found, at most k
+     */
+    public int size() { return count; }
+
+    /**
+     * @param n a number below {@link #size()}
+     * @return position of the n-th instance found; the instances are in no
+     *         particular order
+     */
+    public int getIndex(int n) { return indices[n]; }
+
+    /**
+     * @param n a number below {@link #size()}
+     * @return squared distance of the n-th instance found
+     */
+    public double getDistance(int n) { return distances[n]; }
+
+    /**
+     * Forgets the instances found, to start another search.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * @return squared distance an instance must not exceed to be offered
+     *         usefully; infinite until k instances were found
+     */
+    double bound() {
+        return count < indices.length ? Double.POSITIVE_INFINITY : distances[0];
+    }
+
+    /**
+     * @param index    position of an instance
+     * @param distance squared distance of the instance from the location
+     */
+    void offer(int index, double distance) {
+        if (count < indices.length) {
+            int child = count++;
+            while (child > 0) {
+                int parent = (child - 1) >>> 1;
+                if (!farther(distance, index, distances[parent], indices[parent])) {
+                    break;
+                }
+                indices[child]   = indices[parent];
+                distances[child] = distances[parent];
+                child            = parent;
+            }
+            indices[child]   = index;
+            distances[child] = distance;
+        } else if (count > 0 && farther(distances[0], indices[0], distance, index)) {
+            siftDown(indices, distances, count, index, distance);
+        }
+    }
+
+    /**
+     * @return positions of the instances found, closest first
+     */
+    public int[] toArray() {
+        int[]    heapIndices   = Arrays.copyOf(indices, count);
+        double[] heapDistances = Arrays.copyOf(distances, count);
+        // heapsort: move the farthest instance to the back until the heap is empty
+        for (int last = count - 1; last > 0; last--) {
+            int    index    = heapIndices[last];
+            double distance = heapDistances[last];
+            heapIndices[last]   = heapIndices[0];
+            heapDistances[last] = heapDistances[0];
+            siftDown(heapIndices, heapDistances, last, index, distance);
+        }
+        return heapIndices;
+    }
+
+    /**
+     * Replaces the root of a heap and restores the heap order.
+     */
+    private static void siftDown(int[] indices, double[] distances, int count, int index, double distance) {
+        int parent = 0;
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= count) {
+                break;
+            }
+            if (child + 1 < count && farther(distances[child + 1], indices[child + 1],
+                                             distances[child], indices[child])) {
+                child++;
+            }
+            if (!farther(distances[child], indices[child], distance, index)) {
+                break;
+            }
+            indices[parent]   = indices[child];
+            distances[parent] = distances[child];
+            parent            = child;
+        }
+        indices[parent]   = index;
+        distances[parent] = distance;
+    }
+
+    private static boolean farther(double distance, int index, double otherDistance, int otherIndex) {
+        return distance > otherDistance || (distance == otherDistance && index < otherIndex);
+    }
+}
@@ -0,0 +1,571 @@
+// Aaron Knoll
+package data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses <code>.tsd</code> files into a {@link DataSet} in parallel. The file
+ * is memory-mapped and split into newline-aligned byte ranges, each of which
+ * is parsed on the common {@link ForkJoinPool} directly from bytes: labels are
+ * dictionary-encoded and coordinates are decoded without going through
+ * intermediate strings. The per-range results are then merged, in file order,
+ * into a single DataSet, which is also where duplicate instance names are
+ * detected across ranges.
+ * <p>
+ * Malformed lines are skipped and reported as {@link ParseError}s carrying
+ * their (1-based) line number.
+ *
+ * @author aaronknoll
+ */
+public final class ParallelTSDParser {
+
+    /** nominal number of bytes parsed by a single task */
+    private static final int CHUNK_SIZE = 8 << 20;
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Describes a line that could not be added to the DataSet.
+     */
+    public static final class ParseError {
+
+        public enum Kind {
+            /** the instance name does not start with the @ character */
+            INVALID_NAME,
+            /** the instance name was already used on an earlier line */
+            DUPLICATE_NAME,
+            /** the line does not follow the tab-separated format */
+            MALFORMED_LINE
+        }
+
+        private final long   lineNumber;
+        private final Kind   kind;
+        private final String detail;
+
+        ParseError(long lineNumber, Kind kind, String detail) {
+            this.lineNumber = lineNumber;
+            this.kind       = kind;
+            this.detail     = detail;
+        }
+
+        public long getLineNumber() { return lineNumber; }
+
+        public Kind getKind() { return kind; }
+
+        /**
+         * @return the offending instance name for name errors, or a description
+         *         of the problem for malformed lines
+         */
+        public String getDetail() { return detail; }
+    }
+
+    /**
+     * Outcome of parsing a file: the DataSet holding every valid line, the
+     * errors found on the remaining lines, and the total number of lines.
+     */
+    public static final class Result {
+
+        private final DataSet          dataset;
+        private final List<ParseError> errors;
+        private final long             lineCount;
+
+        Result(DataSet dataset, List<ParseError> errors, long lineCount) {
+            this.dataset   = dataset;
+            this.errors    = Collections.unmodifiableList(errors);
+            this.lineCount = lineCount;
+        }
+
+        public DataSet getDataSet() { return dataset; }
+
+        public List<ParseError> getErrors() { return errors; }
+
+        public long getLineCount() { return lineCount; }
+    }
+
+    private ParallelTSDParser() {
+        /* static utility class */ }
+
+    /**
+     * Parses a <code>.tsd</code> file.
+     *
+     * @param tsdFilePath path of the file to be parsed
+     * @return the parsed DataSet along with any errors found
+     * @throws IOException if the file cannot be read
+     */
+    public static Result parse(Path tsdFilePath) throws IOException {
+        return parse(tsdFilePath, CHUNK_SIZE);
+    }
+
+    /**
+     * Parses a <code>.tsd</code> file in chunks of a given size, which lets
+     * small files be split into several chunks.
+     *
+     * @param tsdFilePath path of the file to be parsed
+     * @param chunkSize   nominal number of bytes parsed by a single task
+     * @return the parsed DataSet along with any errors found
+     * @throws IOException if the file cannot be read
+     */
+    static Result parse(Path tsdFilePath, int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(tsdFilePath, StandardOpenOption.READ)) {
+            long[]  bounds = chunkBoundaries(channel, chunkSize);
+            Chunk[] chunks = new Chunk[bounds.length - 1];
+            ForkJoinPool.commonPool().invoke(new ParseTask(channel, bounds, chunks, 0, chunks.length));
+            for (Chunk chunk : chunks) {
+                if (chunk.failure != null) {
+                    throw chunk.failure;
+                }
+            }
+            return merge(chunks);
+        }
+    }
+
+    /**
+     * Splits the file into byte ranges of roughly the chunk size, moving every
+     * split point forward to just past the next newline so that no line
+     * straddles two ranges.
+     */
+    private static long[] chunkBoundaries(FileChannel channel, int chunkSize) throws IOException {
+        long size = channel.size();
+        if (size <= chunkSize) {
+            return new long[]{0, size};
+        }
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long nominal = chunkSize;
+        while (nominal < size) {
+            long split = nextLineStart(channel, nominal, probe);
+            if (split >= size) {
+                break;
+            }
+            bounds.add(split);
+            nominal = split + chunkSize;
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        long size = channel.size();
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static Result merge(Chunk[] chunks) {
+        int total = 0;
+        for (Chunk chunk : chunks) {
+            total += chunk.count;
+        }
+        DataSet          dataset   = new DataSet(total);
+        List<ParseError> errors    = new ArrayList<>();
+        long             firstLine = 1;
+        for (Chunk chunk : chunks) {
+            // labels are added on first use, so that a label found only on rejected lines is left out
+            int[] labelIds = new int[chunk.labels.size()];
+            Arrays.fill(labelIds, -1);
+            // errors and records are both in line order, so they can be interleaved on the fly
+            int nextError = 0;
+            for (int i = 0; i < chunk.count; i++) {
+                long lineNumber = firstLine + chunk.lineNumbers[i];
+                while (nextError < chunk.errors.size() && chunk.errors.get(nextError).lineNumber < chunk.lineNumbers[i]) {
+                    errors.add(chunk.errors.get(nextError++).offsetBy(firstLine));
+                }
+                int chunkLabel = chunk.labelIds[i];
+                if (labelIds[chunkLabel] < 0) {
+                    if (dataset.indexOf(chunk.names[i]) >= 0) {
+                        errors.add(new ParseError(lineNumber, ParseError.Kind.DUPLICATE_NAME, chunk.names[i]));
+                        continue;
+                    }
+                    labelIds[chunkLabel] = dataset.labelIdOf(chunk.labels.get(chunkLabel));
+                }
+                if (dataset.append(chunk.names[i], labelIds[chunkLabel], chunk.xs[i], chunk.ys[i]) < 0) {
+                    errors.add(new ParseError(lineNumber, ParseError.Kind.DUPLICATE_NAME, chunk.names[i]));
+                }
+            }
+            while (nextError < chunk.errors.size()) {
+                errors.add(chunk.errors.get(nextError++).offsetBy(firstLine));
+            }
+            firstLine += chunk.lineCount;
+        }
+        return new Result(dataset, errors, firstLine - 1);
+    }
+
+    private static final class ParseTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[]      bounds;
+        private final Chunk[]     chunks;
+        private final int         from;
+        private final int         to;
+
+        ParseTask(FileChannel channel, long[] bounds, Chunk[] chunks, int from, int to) {
+            this.channel = channel;
+            this.bounds  = bounds;
+            this.chunks  = chunks;
+            this.from    = from;
+            this.to      = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ParseTask(channel, bounds, chunks, from, mid),
+                          new ParseTask(channel, bounds, chunks, mid, to));
+                return;
+            }
+            Chunk chunk = new Chunk();
+            try {
+                long start = bounds[from];
+                long end   = bounds[from + 1];
+                if (end > start) {
+                    chunk.parse(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                }
+            } catch (IOException e) {
+                chunk.failure = e;
+            }
+            chunks[from] = chunk;
+        }
+    }
+
+    /**
+     * Per-range parse result. Line numbers are relative to the first line of
+     * the range (which is line 0) until the chunk is merged.
+     */
+    private static final class Chunk {
+
+        private int      count;
+        private double[] xs          = new double[1024];
+        private double[] ys          = new double[1024];
+        private int[]    labelIds    = new int[1024];
+        private int[]    lineNumbers = new int[1024];
+        private String[] names       = new String[1024];
+        private int      lineCount;
+
+        private final List<String>        labels = new ArrayList<>();
+        private final ByteDictionary      labelDictionary = new ByteDictionary();
+        private final List<ChunkError>    errors = new ArrayList<>();
+        private IOException               failure;
+
+        private byte[] scratch = new byte[64];
+
+        void parse(MappedByteBuffer buffer) {
+            int limit     = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd;
+                if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                    contentEnd--;
+                }
+                parseLine(buffer, lineStart, contentEnd);
+                lineCount++;
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        private void parseLine(ByteBuffer buffer, int start, int end) {
+            int nameEnd  = indexOf(buffer, (byte) '\t', start, end);
+            int labelEnd = nameEnd < 0 ? -1 : indexOf(buffer, (byte) '\t', nameEnd + 1, end);
+            if (labelEnd < 0) {
+                malformed("Expected three tab-separated fields.");
+                return;
+            }
+            int locationEnd = indexOf(buffer, (byte) '\t', labelEnd + 1, end);
+            if (locationEnd < 0) {
+                locationEnd = end;
+            }
+            int comma = indexOf(buffer, (byte) ',', labelEnd + 1, locationEnd);
+            if (comma < 0) {
+                malformed("Expected a comma-separated X,Y location.");
+                return;
+            }
+            int yEnd = indexOf(buffer, (byte) ',', comma + 1, locationEnd);
+            if (yEnd < 0) {
+                yEnd = locationEnd;
+            }
+
+            if (nameEnd == start || buffer.get(start) != '@') {
+                errors.add(new ChunkError(lineCount, ParseError.Kind.INVALID_NAME, decode(buffer, start, nameEnd)));
+                return;
+            }
+            double x = parseDouble(buffer, labelEnd + 1, comma);
+            double y = parseDouble(buffer, comma + 1, yEnd);
+            if (Double.isNaN(x) && !isLiteralNaN(buffer, labelEnd + 1, comma)
+                    || Double.isNaN(y) && !isLiteralNaN(buffer, comma + 1, yEnd)) {
+                malformed("Invalid coordinate '" + decode(buffer, labelEnd + 1, locationEnd) + "'.");
+                return;
+            }
+
+            ensureCapacity();
+            int labelId = labelDictionary.find(buffer, nameEnd + 1, labelEnd);
+            if (labelId < 0) {
+                String label = decode(buffer, nameEnd + 1, labelEnd);
+                labelId = labels.size();
+                labels.add(label);
+                labelDictionary.add(label.getBytes(StandardCharsets.UTF_8), labelId);
+            }
+            names[count]       = decode(buffer, start, nameEnd);
+            labelIds[count]    = labelId;
+            xs[count]          = x;
+            ys[count]          = y;
+            lineNumbers[count] = lineCount;
+            count++;
+        }
+
+        private void malformed(String detail) {
+            errors.add(new ChunkError(lineCount, ParseError.Kind.MALFORMED_LINE, detail));
+        }
+
+        private void ensureCapacity() {
+            if (count == xs.length) {
+                int capacity = count + (count >> 1);
+                xs          = Arrays.copyOf(xs, capacity);
+                ys          = Arrays.copyOf(ys, capacity);
+                labelIds    = Arrays.copyOf(labelIds, capacity);
+                lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+                names       = Arrays.copyOf(names, capacity);
+            }
+        }
+
+        private String decode(ByteBuffer buffer, int start, int end) {
+            int length = end - start;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length << 1)];
+            }
+            for (int i = 0; i < length; i++) {
+                scratch[i] = buffer.get(start + i);
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Decodes a decimal number of at most 15 significant digits exactly,
+         * which covers the coordinates found in practice. Anything else (long
+         * mantissas, large exponents, hexadecimal or special values) is handed
+         * to {@link Double#parseDouble(String)} so the accepted syntax stays
+         * the same as everywhere else in the application.
+         *
+         * @return the parsed value, or NaN if the text is not a number
+         */
+        private double parseDouble(ByteBuffer buffer, int start, int end) {
+            int from = start;
+            int to   = end;
+            while (from < to && (buffer.get(from) & 0xff) <= ' ') {
+                from++;
+            }
+            while (to > from && (buffer.get(to - 1) & 0xff) <= ' ') {
+                to--;
+            }
+            int     i        = from;
+            boolean negative = false;
+            if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negative = buffer.get(i) == '-';
+                i++;
+            }
+            long mantissa = 0;
+            int  digits   = 0;
+            int  scale    = 0;
+            boolean seenDigit = false;
+            boolean seenPoint = false;
+            for (; i < to; i++) {
+                byte b = buffer.get(i);
+                if (b >= '0' && b <= '9') {
+                    seenDigit = true;
+                    if (mantissa == 0 && b == '0') {
+                        if (seenPoint) {
+                            scale++;
+                        }
+                        continue;
+                    }
+                    if (++digits > 15) {
+                        return slowParse(buffer, from, to);
+                    }
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (seenPoint) {
+                        scale++;
+                    }
+                } else if (b == '.' && !seenPoint) {
+                    seenPoint = true;
+                } else {
+                    break;
+                }
+            }
+            if (!seenDigit) {
+                return slowParse(buffer, from, to);
+            }
+            if (i < to && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+                int     exponent    = 0;
+                boolean negativeExp = false;
+                i++;
+                if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                    negativeExp = buffer.get(i) == '-';
+                    i++;
+                }
+                int expStart = i;
+                for (; i < to && buffer.get(i) >= '0' && buffer.get(i) <= '9' && exponent < 1000; i++) {
+                    exponent = exponent * 10 + (buffer.get(i) - '0');
+                }
+                if (i == expStart) {
+                    return Double.NaN;
+                }
+                scale -= negativeExp ? -exponent : exponent;
+            }
+            if (i != to) {
+                return slowParse(buffer, from, to);
+            }
+            double value;
+            if (mantissa == 0) {
+                value = 0;
+            } else if (scale >= 0 && scale < POWERS_OF_TEN.length) {
+                value = mantissa / POWERS_OF_TEN[scale];
+            } else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+                value = mantissa * POWERS_OF_TEN[-scale];
+            } else {
+                return slowParse(buffer, from, to);
+            }
+            return negative ? -value : value;
+        }
+
+        private double slowParse(ByteBuffer buffer, int start, int end) {
+            try {
+                return Double.parseDouble(decode(buffer, start, end));
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        private boolean isLiteralNaN(ByteBuffer buffer, int start, int end) {
+            return decode(buffer, start, end).trim().matches("[+-]?NaN");
+        }
+
+        private static int indexOf(ByteBuffer buffer, byte target, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (buffer.get(i) == target) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class ChunkError {
+
+        private final int              lineNumber;
+        private final ParseError.Kind  kind;
+        private final String           detail;
+
+        ChunkError(int lineNumber, ParseError.Kind kind, String detail) {
+            this.lineNumber = lineNumber;
+            this.kind       = kind;
+            this.detail     = detail;
+        }
+
+        ParseError offsetBy(long firstLine) {
+            return new ParseError(firstLine + lineNumber, kind, detail);
+        }
+    }
+
+    /**
+     * Tiny open-addressing map from label bytes to label ids, so that a label
+     * only becomes a String the first time it is seen in a chunk.
+     */
+    private static final class ByteDictionary {
+
+        private byte[][] keys   = new byte[16][];
+        private int[]    values = new int[16];
+        private int      size;
+
+        int find(ByteBuffer buffer, int start, int end) {
+            int mask = keys.length - 1;
+            for (int slot = hash(buffer, start, end) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                if (matches(keys[slot], buffer, start, end)) {
+                    return values[slot];
+                }
+            }
+            return -1;
+        }
+
+        void add(byte[] key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                byte[][] oldKeys   = keys;
+                int[]    oldValues = values;
+                keys   = new byte[oldKeys.length * 2][];
+                values = new int[oldKeys.length * 2];
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != null) {
+                        insert(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+            insert(key, value);
+            size++;
+        }
+
+        private void insert(byte[] key, int value) {
+            int mask = keys.length - 1;
+            int slot = hash(ByteBuffer.wrap(key), 0, key.length) & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot]   = key;
+            values[slot] = value;
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buffer, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int hash(ByteBuffer buffer, int start, int end) {
+            int h = 1;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + buffer.get(i);
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
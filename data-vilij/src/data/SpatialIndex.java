@@ -0,0 +1,86 @@
+// Aaron Knoll
+package data;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Finds the instances of a {@link DataSet} by location. Instances are
+ * identified by their position in the DataSet, and distances are Euclidean.
+ * <p>
+ * Implementations answer queries against the locations they were built (or
+ * last updated) with; labels are never cached, so a filter reading labels
+ * from the DataSet always sees the current ones. Queries may run
+ * concurrently with each other, but not with an update.
+ *
+ * @author aaronknoll
+ * @see KDTree
+ * @see DataSetIndex
+ */
+public interface SpatialIndex {
+
+    /**
+     * @return number of indexed instances
+     */
+    int size();
+
+    /**
+     * Finds the instance closest to a location. Of instances at the same
+     * distance, the one with the highest position is chosen.
+     *
+     * @param x x coordinate of the location
+     * @param y y coordinate of the location
+     * @return position of the closest instance, or -1 if the index is empty
+     */
+    default int nearest(double x, double y) {
+        int[] nearest = nearest(x, y, 1, index -> true);
+        return nearest.length == 0 ? -1 : nearest[0];
+    }
+
+    /**
+     * Finds the k instances closest to a location.
+     *
+     * @param x x coordinate of the location
+     * @param y y coordinate of the location
+     * @param k number of instances wanted
+     * @return positions of the closest instances, closest first; fewer than k
+     *         if the index holds fewer instances
+     */
+    default int[] nearest(double x, double y, int k) {
+        return nearest(x, y, k, index -> true);
+    }
+
+    /**
+     * Finds the k instances closest to a location among those accepted by a
+     * filter, such as the instances carrying a label.
+     *
+     * @param x      x coordinate of the location
+     * @param y      y coordinate of the location
+     * @param k      number of instances wanted
+     * @param filter accepts the positions of the instances to be considered
+     * @return positions of the closest accepted instances, closest first;
+     *         fewer than k if fewer instances are accepted
+     */
+    int[] nearest(double x, double y, int k, IntPredicate filter);
+
+    /**
+     * Visits every instance within a distance of a location (inclusive).
+     *
+     * @param x      x coordinate of the location
+     * @param y      y coordinate of the location
+     * @param radius largest distance from the location
+     * @param action receives the position of every instance within the radius
+     */
+    void forEachWithin(double x, double y, double radius, IntConsumer action);
+
+    /**
+     * Visits every instance inside a rectangle (borders included).
+     *
+     * @param minX   left border
+     * @param minY   bottom border
+     * @param maxX   right border
+     * @param maxY   top border
+     * @param action receives the position of every instance inside
+     */
+    void forEachInRect(double minX, double minY, double maxX, double maxY, IntConsumer action);
+}
@@ -0,0 +1,307 @@
+// Aaron Knoll
+package data;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Reads and writes the binary columnar companion of the <code>.tsd</code>
+ * format. A <code>.tsdb</code> file is laid out as follows (all values little
+ * endian):
+ * <pre>
+ *  header       magic "TSDB", version, instance count, label count,
+ *               xMin, xMax, yMin, yMax, name table size (64 bytes in total)
+ *  x column     count doubles
+ *  y column     count doubles
+ *  label column count ints (ids into the label dictionary)
+ *  labels       for each label: byte length (int) followed by UTF-8 bytes
+ *  name offsets count + 1 ints into the name bytes
+ *  name bytes   UTF-8 bytes of every instance name, back to back
+ * </pre>
+ * Files are opened with {@link FileChannel#map}, so opening one only costs
+ * reading the header and the label dictionary; the {@link DataSet} reads
+ * coordinates, labels and names straight from the mapped file.
+ *
+ * @author aaronknoll
+ */
+public final class TSDBinaryFormat {
+
+    public static final String EXTENSION = ".tsdb";
+
+    private static final int MAGIC       = 0x42445354; // "TSDB" read as a little-endian int
+    private static final int VERSION     = 1;
+    private static final int HEADER_SIZE = 64;
+
+    /** a single mapping cannot exceed 2 GB, which bounds the size of each column */
+    private static final int MAX_INSTANCES = Integer.MAX_VALUE / Double.BYTES;
+
+    private TSDBinaryFormat() {
+        /* static utility class */ }
+
+    /**
+     * Lazily decodes instance names from the mapped name section of a file.
+     */
+    static final class NameTable {
+
+        private final ByteBuffer offsets;
+        private final ByteBuffer bytes;
+
+        NameTable(ByteBuffer offsets, ByteBuffer bytes) {
+            this.offsets = offsets;
+            this.bytes   = bytes;
+        }
+
+        String get(int index) {
+            int    start  = offsets.getInt(index * Integer.BYTES);
+            int    end    = offsets.getInt((index + 1) * Integer.BYTES);
+            byte[] buffer = new byte[end - start];
+            ByteBuffer view = bytes.duplicate();
+            view.position(start);
+            view.get(buffer);
+            return new String(buffer, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Opens a <code>.tsdb</code> file as a DataSet backed by the mapped file.
+     *
+     * @param tsdbFilePath path of the binary file
+     * @return DataSet reading its columns from the file
+     * @throws IOException if the file cannot be read or is not a valid
+     *                     <code>.tsdb</code> file
+     */
+    public static DataSet read(Path tsdbFilePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(tsdbFilePath, StandardOpenOption.READ)) {
+            ByteBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(tsdbFilePath + " is not a binary data file.");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported binary data file version " + header.getInt(4) + ".");
+            }
+            int    count      = header.getInt(8);
+            int    labelCount = header.getInt(12);
+            double xMin       = header.getDouble(16);
+            double xMax       = header.getDouble(24);
+            double yMin       = header.getDouble(32);
+            double yMax       = header.getDouble(40);
+            long   nameBytes  = header.getLong(48);
+            // each label takes at least its length, so labelCount is bounded by the file size
+            if (count < 0 || count > MAX_INSTANCES || labelCount < 0
+                || labelCount > channel.size() / Integer.BYTES || nameBytes < 0) {
+                throw corrupt();
+            }
+
+            long position = HEADER_SIZE;
+            ByteBuffer xs = map(channel, position, (long) count * Double.BYTES);
+            position += (long) count * Double.BYTES;
+            ByteBuffer ys = map(channel, position, (long) count * Double.BYTES);
+            position += (long) count * Double.BYTES;
+            ByteBuffer labelIds = map(channel, position, (long) count * Integer.BYTES);
+            position += (long) count * Integer.BYTES;
+
+            List<String> labels    = new ArrayList<>(labelCount);
+            ByteBuffer   lengthBuf = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < labelCount; i++) {
+                lengthBuf.clear();
+                readFully(channel, lengthBuf, position);
+                int length = lengthBuf.getInt(0);
+                if (length < 0 || position + Integer.BYTES + length > channel.size()) {
+                    throw corrupt();
+                }
+                ByteBuffer label = ByteBuffer.allocate(length);
+                readFully(channel, label, position + Integer.BYTES);
+                labels.add(new String(label.array(), StandardCharsets.UTF_8));
+                position += Integer.BYTES + length;
+            }
+            if (new HashSet<>(labels).size() < labels.size()) {
+                // the ids of the labels after a duplicate would be off
+                throw corrupt();
+            }
+
+            ByteBuffer offsets = map(channel, position, ((long) count + 1) * Integer.BYTES);
+            position += ((long) count + 1) * Integer.BYTES;
+            ByteBuffer names = map(channel, position, nameBytes);
+
+            return new DataSet(count, xs.asDoubleBuffer(), ys.asDoubleBuffer(), labelIds.asIntBuffer(), labels,
+                               new NameTable(offsets, names), xMin, xMax, yMin, yMax);
+        }
+    }
+
+    /**
+     * Writes a DataSet in the <code>.tsdb</code> format.
+     *
+     * @param dataset      the data to be written
+     * @param tsdbFilePath destination file, which is replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(DataSet dataset, Path tsdbFilePath) throws IOException {
+        int count = dataset.size();
+        if (count > MAX_INSTANCES) {
+            throw new IOException("Binary data files are limited to " + MAX_INSTANCES + " instances.");
+        }
+        List<String> labels = dataset.getLabelDictionary();
+        try (FileChannel channel = FileChannel.open(tsdbFilePath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+            long nameBytes = 0;
+            for (int i = 0; i < count; i++) {
+                nameBytes += dataset.getName(i).getBytes(StandardCharsets.UTF_8).length;
+            }
+            if (nameBytes > Integer.MAX_VALUE) {
+                throw new IOException("Instance names of binary data files are limited to 2 GB in total.");
+            }
+
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(labels.size());
+            if (count > 0) {
+                buffer.putDouble(dataset.getBounds("xMin")).putDouble(dataset.getBounds("xMax"))
+                      .putDouble(dataset.getBounds("yMin")).putDouble(dataset.getBounds("yMax"));
+            } else {
+                buffer.putDouble(0).putDouble(0).putDouble(0).putDouble(0);
+            }
+            buffer.putLong(nameBytes);
+            while (buffer.position() < HEADER_SIZE) {
+                buffer.put((byte) 0);
+            }
+
+            for (int i = 0; i < count; i++) {
+                buffer = reserve(channel, buffer, Double.BYTES).putDouble(dataset.getX(i));
+            }
+            for (int i = 0; i < count; i++) {
+                buffer = reserve(channel, buffer, Double.BYTES).putDouble(dataset.getY(i));
+            }
+            for (int i = 0; i < count; i++) {
+                buffer = reserve(channel, buffer, Integer.BYTES).putInt(dataset.getLabelId(i));
+            }
+            for (String label : labels) {
+                byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+                buffer = reserve(channel, buffer, Integer.BYTES + bytes.length);
+                buffer.putInt(bytes.length).put(bytes);
+            }
+            int offset = 0;
+            buffer = reserve(channel, buffer, Integer.BYTES).putInt(offset);
+            for (int i = 0; i < count; i++) {
+                offset += dataset.getName(i).getBytes(StandardCharsets.UTF_8).length;
+                buffer = reserve(channel, buffer, Integer.BYTES).putInt(offset);
+            }
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = dataset.getName(i).getBytes(StandardCharsets.UTF_8);
+                buffer = reserve(channel, buffer, bytes.length).put(bytes);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Formats a single instance as a line of a <code>.tsd</code> file.
+     *
+     * @param dataset the data
+     * @param index   position of the instance
+     * @return the instance in tab-separated format, without a line terminator
+     */
+    public static String toTSDLine(DataSet dataset, int index) {
+        return dataset.getName(index) + '\t' + dataset.getLabel(index) + '\t'
+                + dataset.getX(index) + ',' + dataset.getY(index);
+    }
+
+    /**
+     * Converts a <code>.tsd</code> file into a <code>.tsdb</code> file.
+     * Malformed lines are left out, just as they are when loading the file.
+     *
+     * @param tsdFilePath  source text file
+     * @param tsdbFilePath destination binary file
+     * @throws IOException if either file cannot be accessed
+     */
+    public static void convertToBinary(Path tsdFilePath, Path tsdbFilePath) throws IOException {
+        write(DataSet.fromTSDFile(tsdFilePath), tsdbFilePath);
+    }
+
+    /**
+     * Converts a <code>.tsdb</code> file back into a <code>.tsd</code> file.
+     *
+     * @param tsdbFilePath source binary file
+     * @param tsdFilePath  destination text file
+     * @throws IOException if either file cannot be accessed
+     */
+    public static void convertToText(Path tsdbFilePath, Path tsdFilePath) throws IOException {
+        DataSet dataset = read(tsdbFilePath);
+        try (BufferedWriter writer = Files.newBufferedWriter(tsdFilePath, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < dataset.size(); i++) {
+                writer.write(toTSDLine(dataset, i));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Command-line converter: the direction follows from the extension of the
+     * source file.
+     *
+     * @param args source file followed by destination file
+     * @throws IOException if either file cannot be accessed
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TSDBinaryFormat <source.tsd|source.tsdb> <destination>");
+            System.exit(1);
+        }
+        Path source      = Paths.get(args[0]);
+        Path destination = Paths.get(args[1]);
+        if (source.toString().endsWith(EXTENSION)) {
+            convertToText(source, destination);
+        } else {
+            convertToBinary(source, destination);
+        }
+    }
+
+    private static IOException corrupt() {
+        return new IOException("Binary data file is truncated or corrupt.");
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE || position + size > channel.size()) {
+            throw corrupt();
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw corrupt();
+            }
+        }
+    }
+
+    private static ByteBuffer reserve(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+            if (buffer.capacity() < bytes) {
+                return ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,353 @@
+// Aaron Knoll
+package data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Writes synthetic <code>.tsd</code> files of any size, for benchmarks and
+ * soak tests.
+ * <p>
+ * Rows are generated in blocks on the common {@link ForkJoinPool}, a bounded
+ * number of blocks ahead of the writer, and the blocks are written in order
+ * through a single {@link FileChannel}. Every block draws from its own
+ * generator, seeded from the seed of the file and the index of the block, so
+ * a file depends only on its settings and not on the number of threads.
+ * Instances are named <code>@i0</code>, <code>@i1</code>, ... by row, and
+ * coordinates are written with four decimals.
+ * <p>
+ * A configurable fraction of the rows is deliberately malformed, as a name
+ * without the @ character, a repeated name, a missing coordinate or a
+ * coordinate that is not a number.
+ *
+ * @author aaronknoll
+ */
+public final class TSDGenerator {
+
+    /**
+     * How instances are spread over the plane.
+     */
+    public enum Distribution {
+        /** Gaussian blobs of equal size, one per label */
+        BLOBS,
+        /** uniform over the plane, with labels drawn uniformly */
+        UNIFORM,
+        /** Gaussian blobs whose sizes and widths fall off with the label index */
+        SKEWED
+    }
+
+    private static final String USAGE = "Usage: TSDGenerator <destination.tsd> <rows>"
+                                       + " [distribution=blobs|uniform|skewed] [labels=N] [noise=X] [errors=X] [seed=N]";
+
+    /** rows generated by a single task */
+    private static final int    BLOCK_ROWS = 1 << 16;
+    /** side of the square the centres, and uniform instances, are placed in */
+    private static final double EXTENT     = 100;
+    /** scale of the fixed-point coordinates */
+    private static final int    DECIMALS   = 10000;
+    private static final long   SEED_MIXER = 0x9E3779B97F4A7C15L;
+
+    private final Distribution distribution;
+    private final int          labels;
+    private final double       errorRate;
+    private final long         seed;
+    private final double[]     centreXs;
+    private final double[]     centreYs;
+    private final double[]     widths;
+    private final double[]     cumulativeWeights; // of the labels, ending at 1
+
+    /**
+     * @param distribution how instances are spread over the plane
+     * @param labels       number of labels, and of blobs
+     * @param noise        standard deviation of the blobs; ignored for uniform data
+     * @param errorRate    fraction of rows that are malformed, from 0 to 1
+     * @param seed         seed of the generated data
+     */
+    public TSDGenerator(Distribution distribution, int labels, double noise, double errorRate, long seed) {
+        if (labels < 1) {
+            throw new IllegalArgumentException("labels must be positive.");
+        }
+        if (!(noise >= 0)) {
+            throw new IllegalArgumentException("noise must not be negative.");
+        }
+        if (!(errorRate >= 0 && errorRate <= 1)) {
+            throw new IllegalArgumentException("errors must be between 0 and 1.");
+        }
+        this.distribution      = distribution;
+        this.labels            = labels;
+        this.errorRate         = errorRate;
+        this.seed              = seed;
+        this.centreXs          = new double[labels];
+        this.centreYs          = new double[labels];
+        this.widths            = new double[labels];
+        this.cumulativeWeights = new double[labels];
+
+        Random  random = new Random(seed);
+        boolean skewed = distribution == Distribution.SKEWED;
+        double  total  = 0;
+        for (int c = 0; c < labels; c++) {
+            centreXs[c]          = random.nextDouble() * EXTENT;
+            centreYs[c]          = random.nextDouble() * EXTENT;
+            widths[c]            = skewed ? noise * (0.25 + 1.75 * random.nextDouble()) : noise;
+            total               += skewed ? 1.0 / (c + 1) : 1;
+            cumulativeWeights[c] = total;
+        }
+        for (int c = 0; c < labels; c++) {
+            cumulativeWeights[c] /= total;
+        }
+        cumulativeWeights[labels - 1] = 1;
+    }
+
+    /**
+     * Writes a file, replacing any existing file.
+     *
+     * @param destination path of the <code>.tsd</code> file
+     * @param rows        number of lines to write
+     * @return number of bytes written
+     * @throws IOException if the file cannot be written
+     */
+    public long write(Path destination, long rows) throws IOException {
+        if (rows < 0) {
+            throw new IllegalArgumentException("rows must not be negative.");
+        }
+        long   blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        int    ahead  = 2 * ForkJoinPool.commonPool().getParallelism();
+        long   bytes  = 0;
+        Queue<CompletableFuture<ByteBuffer>> pending = new ArrayDeque<>();
+        try (FileChannel channel = FileChannel.open(destination, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            long next = 0;
+            while (next < blocks || !pending.isEmpty()) {
+                while (next < blocks && pending.size() < ahead) {
+                    long from = next * BLOCK_ROWS;
+                    long to   = Math.min(rows, from + BLOCK_ROWS);
+                    long b    = next++;
+                    pending.add(CompletableFuture.supplyAsync(() -> generate(b, from, to)));
+                }
+                ByteBuffer block;
+                try {
+                    block = pending.remove().join();
+                } catch (CompletionException ex) {
+                    for (CompletableFuture<ByteBuffer> future : pending) {
+                        future.cancel(false);
+                    }
+                    throw ex;
+                }
+                bytes += block.remaining();
+                while (block.hasRemaining()) {
+                    channel.write(block);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Generates the lines of rows <code>from</code> (inclusive) to
+     * <code>to</code> (exclusive).
+     */
+    private ByteBuffer generate(long block, long from, long to) {
+        Random random = new Random(seed + (block + 1) * SEED_MIXER);
+        Text   text   = new Text((int) (to - from) * 40);
+        long   valid  = -1; // last row written correctly
+        for (long row = from; row < to; row++) {
+            int    c = label(random);
+            double x, y;
+            if (distribution == Distribution.UNIFORM) {
+                x = random.nextDouble() * EXTENT;
+                y = random.nextDouble() * EXTENT;
+            } else {
+                x = centreXs[c] + random.nextGaussian() * widths[c];
+                y = centreYs[c] + random.nextGaussian() * widths[c];
+            }
+            if (errorRate > 0 && random.nextDouble() < errorRate) {
+                appendError(text, random, row, valid, c, x, y);
+            } else {
+                valid = row;
+                text.append('@').append('i').append(row).append('\t')
+                    .append("label").append(c).append('\t')
+                    .appendFixed(x).append(',').appendFixed(y).append('\n');
+            }
+        }
+        return text.toBuffer();
+    }
+
+    private int label(Random random) {
+        if (distribution != Distribution.SKEWED) {
+            return random.nextInt(labels);
+        }
+        int c = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        return c < 0 ? -c - 1 : c;
+    }
+
+    private static void appendError(Text text, Random random, long row, long valid, int c, double x, double y) {
+        int kind = random.nextInt(4);
+        if (kind == 1 && valid < 0) {
+            kind = 0;
+        }
+        switch (kind) {
+            case 0: // name without @
+                text.append('i').append(row).append('\t').append("label").append(c).append('\t')
+                    .appendFixed(x).append(',').appendFixed(y).append('\n');
+                break;
+            case 1: // name of an earlier row
+                text.append('@').append('i').append(valid).append('\t')
+                    .append("label").append(c).append('\t')
+                    .appendFixed(x).append(',').appendFixed(y).append('\n');
+                break;
+            case 2: // missing coordinate
+                text.append('@').append('i').append(row).append('\t').append("label").append(c).append('\t')
+                    .appendFixed(x).append('\n');
+                break;
+            default: // coordinate that is not a number
+                text.append('@').append('i').append(row).append('\t').append("label").append(c).append('\t')
+                    .appendFixed(x).append(',').append("y?").append('\n');
+                break;
+        }
+    }
+
+    /**
+     * Growable ASCII buffer, formatting numbers without intermediate strings.
+     */
+    private static final class Text {
+
+        private final byte[] digits = new byte[20];
+        private byte[]       bytes;
+        private int          size;
+
+        Text(int capacity) {
+            this.bytes = new byte[Math.max(capacity, 64)];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        Text append(char ch) {
+            ensure(1);
+            bytes[size++] = (byte) ch;
+            return this;
+        }
+
+        Text append(String text) {
+            ensure(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                bytes[size++] = (byte) text.charAt(i);
+            }
+            return this;
+        }
+
+        /** appends a non-negative number */
+        Text append(long value) {
+            int n = 0;
+            do {
+                digits[n++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            ensure(n);
+            while (n > 0) {
+                bytes[size++] = digits[--n];
+            }
+            return this;
+        }
+
+        /** appends a coordinate with four decimals */
+        Text appendFixed(double value) {
+            long scaled = Math.round(Math.abs(value) * DECIMALS);
+            if (value < 0 && scaled != 0) {
+                append('-');
+            }
+            append(scaled / DECIMALS).append('.');
+            long fraction = scaled % DECIMALS;
+            for (int unit = DECIMALS / 10; unit > 0; unit /= 10) {
+                append((char) ('0' + fraction / unit % 10));
+            }
+            return this;
+        }
+
+        ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+    }
+
+    private static TSDGenerator configure(String[] args) {
+        Distribution distribution = Distribution.BLOBS;
+        int          labels       = 4;
+        double       noise        = 5;
+        double       errorRate    = 0;
+        long         seed         = 0;
+        for (int i = 2; i < args.length; i++) {
+            int separator = args[i].indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value instead of " + args[i] + ".");
+            }
+            String name  = args[i].substring(0, separator);
+            String value = args[i].substring(separator + 1);
+            switch (name) {
+                case "distribution":
+                    distribution = Distribution.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                case "labels":
+                    labels = Integer.parseInt(value);
+                    break;
+                case "noise":
+                    noise = Double.parseDouble(value);
+                    break;
+                case "errors":
+                    errorRate = Double.parseDouble(value);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + name + ".");
+            }
+        }
+        return new TSDGenerator(distribution, labels, noise, errorRate, seed);
+    }
+
+    /**
+     * Command-line entry point.
+     *
+     * @param args destination file, number of rows and options
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        TSDGenerator generator;
+        long         rows;
+        try {
+            rows      = Long.parseLong(args[1]);
+            generator = configure(args);
+            if (rows < 0) {
+                throw new IllegalArgumentException("rows must not be negative.");
+            }
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        long start = System.nanoTime();
+        long bytes = generator.write(Paths.get(args[0]), rows);
+        System.err.printf("%,d rows, %,d bytes in %.1f s%n", rows, bytes, (System.nanoTime() - start) / 1e9);
+    }
+}
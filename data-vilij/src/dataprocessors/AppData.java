@@ -1,6 +1,8 @@
 // Aaron Knoll
 package dataprocessors;
 
+import data.DataSet;
+import data.TSDBinaryFormat;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.FileWriter;
@@ -39,34 +41,44 @@ public class AppData implements DataComponent {
         // clear data from data processor
         clear();
         try{
-            // load data from file if file is NOT null
-            FileReader fileReader = new FileReader(dataFilePath.toFile());
-            try (BufferedReader bufferedReader = new BufferedReader(fileReader)) {
-                // read contents of loaded file line by line and store them in an ArrayList
-                String singleLineInput, strToBeProcessed = "";
-                ArrayList<String> dataByLine = new ArrayList<>();
-
-                while ((singleLineInput = bufferedReader.readLine()) != null) {
-                    dataByLine.add(singleLineInput);
-                    strToBeProcessed += singleLineInput + "\n";
+            ArrayList<String> firstLines = new ArrayList<>();
+            if (dataFilePath.toString().endsWith(manager.getPropertyValue(BINARY_DATA_FILE_EXT.name()))) {
+                // binary files are mapped rather than parsed, so their leading
+                // instances are shown in the text area in tab-separated form
+                processor.processBinaryFile(dataFilePath);
+                DataSet dataset = processor.getDataSet();
+                for (int i = 0; i < Math.min(10, dataset.size()); i++) {
+                    firstLines.add(TSDBinaryFormat.toTSDLine(dataset, i));
                 }
-
-                ((AppUI) applicationTemplate.getUIComponent()).prepareUIForFileLoadedInput(dataByLine, processor.getErrorLineNumber(strToBeProcessed), dataFilePath);
-                // TODO: replace hard-coded strings
-                if (dataByLine.size() > 10) {
-                    applicationTemplate.getDialog(Dialog.DialogType.ERROR)
-                            .show("Data Loaded Successfully",
-                                    "Loaded data consists of "
-                                    + dataByLine.size()
-                                    + " line(s). Showing the first 10 in the text area.");
-                } else {
-                    applicationTemplate.getDialog(Dialog.DialogType.ERROR)
-                            .show("Data Loaded Successfully",
-                                    "Loaded data consists of "
-                                    + dataByLine.size()
-                                    + " line(s).");
+            } else {
+                // parse and validate the whole file in parallel
+                processor.processFile(dataFilePath);
+                // only the lines that are to be shown in the text area are read as text
+                FileReader fileReader = new FileReader(dataFilePath.toFile());
+                try (BufferedReader bufferedReader = new BufferedReader(fileReader)) {
+                    String singleLineInput;
+                    while (firstLines.size() < 10 && (singleLineInput = bufferedReader.readLine()) != null) {
+                        firstLines.add(singleLineInput);
+                    }
                 }
+                processor.checkForErrors();
+            }
 
+            int lineCount = processor.getLineCount();
+            ((AppUI) applicationTemplate.getUIComponent()).prepareUIForFileLoadedInput(firstLines, processor.getDataSet(), processor.getUniqueLabels(), dataFilePath);
+            // TODO: replace hard-coded strings
+            if (lineCount > 10) {
+                applicationTemplate.getDialog(Dialog.DialogType.ERROR)
+                        .show("Data Loaded Successfully",
+                                "Loaded data consists of "
+                                + lineCount
+                                + " line(s). Showing the first 10 in the text area.");
+            } else {
+                applicationTemplate.getDialog(Dialog.DialogType.ERROR)
+                        .show("Data Loaded Successfully",
+                                "Loaded data consists of "
+                                + lineCount
+                                + " line(s).");
             }
         } catch (Exception ex) {
             applicationTemplate.getDialog(Dialog.DialogType.ERROR)
@@ -122,8 +134,17 @@ public class AppData implements DataComponent {
         processor.clear();
     }
 
+    /**
+     * Getter for the DataSet built by the most recent load. The same instance
+     * is shared by the user interface and the algorithms.
+     *
+     * @return the currently loaded DataSet
+     */
+    public DataSet getDataSet() {
+        return processor.getDataSet();
+    }
+
     public void displayData() {
-        processor.toChartData(((AppUI) applicationTemplate.getUIComponent()).getChart());
-        processor.displayInstanceNamesWhenHovering(((AppUI) applicationTemplate.getUIComponent()).getChart());
+        ((AppUI) applicationTemplate.getUIComponent()).getScatterRenderer().setDataSet(processor.getDataSet());
     }
 }
@@ -1,29 +1,24 @@
 // Aaron Knoll
 package dataprocessors;
 
+import data.DataSet;
+import data.ParallelTSDParser;
+import data.TSDBinaryFormat;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.ListIterator;
-import java.util.Map;
-import java.util.Set;
-import javafx.geometry.Point2D;
-import javafx.scene.chart.XYChart;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Stream;
-import javafx.scene.control.Tooltip;
+import java.util.List;
 
 /**
  * The data files used by this data visualization applications follow a tab-separated format, where each data point is
  * named, labeled, and has a specific location in the 2-dimensional X-Y plane. This class handles the parsing and
- * processing of such data. It also handles exporting the data to a 2-D plot.
+ * processing of such data.
  * <p>
  * A sample file in this format has been provided in the application's <code>resources/data</code> folder.
  *
  * @author Ritwik Banerjee
- * @see XYChart
  */
 public final class TSDProcessor {
 
@@ -45,102 +40,190 @@ public final class TSDProcessor {
         }
     }
 
-    private Map<String, String>  dataLabels;
-    private Map<String, Point2D> dataPoints;
+    private static final String TSD_FORMAT_MSG = "Data must conform to the Tab-Separated Format. For example:\n"
+            + "@InstanceName[TAB Press]Label[TAB Press]X-Coord,Y-Coord";
+
+    /**
+     * upper bound on the number of offending lines spelled out in an error
+     * message; {@link #getErrorLineNumbers()} still has all of them
+     */
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private DataSet       dataset;
+    private int           lineCounter;
+    private List<Long>    errorLines;
+    private StringBuilder errorMessage;
 
     public TSDProcessor() {
-        dataLabels = new HashMap<>();
-        dataPoints = new HashMap<>();
+        clear();
     }
 
     /**
-     * Processes the data and populated two {@link Map} objects with the data.
+     * Processes the data and populates the {@link DataSet} with it. Every line
+     * is parsed exactly once; lines that do not follow the <code>.tsd</code>
+     * format are skipped and reported together once the whole input has been
+     * read.
      *
      * @param tsdString the input data provided as a single {@link String}
      * @throws Exception if the input string does not follow the <code>.tsd</code> data format
      */
     public void processString(String tsdString) throws Exception {
-        AtomicBoolean hadAnError = new AtomicBoolean(false);
-        StringBuilder errorMessage = new StringBuilder();
-        Stream.of(tsdString.split("\n"))
-                .map(line -> Arrays.asList(line.split("\t")))
-                .forEach(list -> {
-                    try {
-                        String name = checkedname(list.get(0));
-                        String label = list.get(1);
-                        String[] pair = list.get(2).split(",");
-                        Point2D point = new Point2D(Double.parseDouble(pair[0]), Double.parseDouble(pair[1]));
-                        if (dataLabels.containsKey(name)) {
-                            throw new DuplicateInstanceNameException(name);
-                        }
-                        dataLabels.put(name, label);
-                        dataPoints.put(name, point);
-                    } catch (Exception e) {
-                        errorMessage.setLength(0);
-                        errorMessage.append(e.getClass().getSimpleName()).append(": ").append(e.getMessage());
-                        hadAnError.set(true);
-                    }
-                });
-        if (errorMessage.length() > 0) {
-            throw new Exception(errorMessage.toString());
+        int lineStart = 0;
+        int length    = tsdString.length();
+        while (lineStart < length) {
+            int lineEnd = tsdString.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            processLine(tsdString.substring(lineStart, lineEnd));
+            lineStart = lineEnd + 1;
         }
+        checkForErrors();
     }
 
     /**
-     * Exports the data to the specified 2-D chart.
+     * Parses a single line of <code>.tsd</code> data into the {@link DataSet}.
+     * Lines are numbered in the order in which they are passed in. Formatting
+     * errors are recorded rather than thrown, so that a whole file can be
+     * validated in the same pass that loads it.
      *
-     * @param chart the specified chart
+     * @param line one line of tab-separated data
+     * @return true if the line was added to the DataSet, false otherwise
      */
-    void toChartData(XYChart<Number, Number> chart) {
-        Set<String> labels = new HashSet<>(dataLabels.values());
-        for (String label : labels) {
-            XYChart.Series<Number, Number> series = new XYChart.Series<>();
-            series.setName(label);
-            dataLabels.entrySet().stream().filter(entry -> entry.getValue().equals(label)).forEach(entry -> {
-                Point2D point = dataPoints.get(entry.getKey());
-                series.getData().add(new XYChart.Data<>(point.getX(), point.getY()));
-            });
-            chart.getData().add(series);
-            series.getNode().lookup(".chart-series-line").setStyle("-fx-stroke: transparent");
+    public boolean processLine(String line) {
+        lineCounter++;
+        try {
+            int nameEnd  = line.indexOf('\t');
+            int labelEnd = nameEnd < 0 ? -1 : line.indexOf('\t', nameEnd + 1);
+            if (labelEnd < 0) {
+                throw new IllegalArgumentException("Expected three tab-separated fields.");
+            }
+            int locationEnd = line.indexOf('\t', labelEnd + 1);
+            if (locationEnd < 0) {
+                locationEnd = line.length();
+            }
+            int comma = line.indexOf(',', labelEnd + 1);
+            if (comma < 0 || comma > locationEnd) {
+                throw new IllegalArgumentException("Expected a comma-separated X,Y location.");
+            }
+            int yEnd = line.indexOf(',', comma + 1);
+            if (yEnd < 0 || yEnd > locationEnd) {
+                yEnd = locationEnd;
+            }
+
+            String name = checkedname(line.substring(0, nameEnd));
+            String label = line.substring(nameEnd + 1, labelEnd);
+            double x = Double.parseDouble(line.substring(labelEnd + 1, comma));
+            double y = Double.parseDouble(line.substring(comma + 1, yEnd));
+            if (dataset.indexOf(name) >= 0) {
+                throw new DuplicateInstanceNameException(name);
+            }
+            dataset.addInstance(name, label, x, y);
+            return true;
+        } catch (Exception e) {
+            recordError(e);
+            return false;
         }
-        
     }
-    
-        /**
-     * Exports the data to the specified 2-D chart.
+
+    /**
+     * Loads a whole <code>.tsd</code> file into a fresh {@link DataSet} using
+     * the {@link ParallelTSDParser}, recording the errors it finds in the same
+     * way as {@link #processLine(String)} does.
      *
-     * @param chart the specified chart
+     * @param tsdFilePath path of the file to be loaded
+     * @throws IOException if the file cannot be read
+     */
+    public void processFile(Path tsdFilePath) throws IOException {
+        clear();
+        ParallelTSDParser.Result result = ParallelTSDParser.parse(tsdFilePath);
+        dataset = result.getDataSet();
+        lineCounter = (int) Math.min(Integer.MAX_VALUE, result.getLineCount());
+        for (ParallelTSDParser.ParseError error : result.getErrors()) {
+            switch (error.getKind()) {
+                case INVALID_NAME:
+                    recordError(error.getLineNumber(), new InvalidDataNameException(error.getDetail()));
+                    break;
+                case DUPLICATE_NAME:
+                    recordError(error.getLineNumber(), new DuplicateInstanceNameException(error.getDetail()));
+                    break;
+                default:
+                    recordError(error.getLineNumber(), new IllegalArgumentException(error.getDetail()));
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Opens a binary <code>.tsdb</code> file as the {@link DataSet}. Binary
+     * files are written from already validated data, so there is nothing to
+     * check line by line.
+     *
+     * @param tsdbFilePath path of the binary file
+     * @throws IOException if the file cannot be read or is not a binary data file
+     */
+    public void processBinaryFile(Path tsdbFilePath) throws IOException {
+        clear();
+        dataset = TSDBinaryFormat.read(tsdbFilePath);
+        lineCounter = dataset.size();
+    }
+
+    private void recordError(Exception e) {
+        recordError(lineCounter, e);
+    }
+
+    private void recordError(long lineNumber, Exception e) {
+        errorLines.add(lineNumber);
+        if (errorLines.size() <= MAX_REPORTED_ERRORS) {
+            errorMessage.append("Error on line #").append(lineNumber).append(": ")
+                    .append(e.getClass().getSimpleName()).append(": ").append(e.getMessage()).append('\n');
+        }
+    }
+
+    /**
+     * @throws Exception describing the offending lines processed since the
+     *                   last {@link #clear()}, if there were any; past the
+     *                   first few, the lines are only counted
      */
-    void displayInstanceNamesWhenHovering(XYChart<Number, Number> chart) {
-        for (XYChart.Series<Number, Number> series : chart.getData()) {
-            for (XYChart.Data<Number, Number> pts : series.getData()) {
-                Iterator itr = dataPoints.entrySet().iterator();
-                while (itr.hasNext()) {
-                    Map.Entry pair = (Map.Entry) itr.next();
-                    Tooltip.install(pts.getNode(), new Tooltip(pair.getKey().toString()));
-                    if (((Point2D) pair.getValue()).getX() == pts.getXValue().doubleValue()
-                            && ((Point2D) pair.getValue()).getY() == pts.getYValue().doubleValue()) {
-                        Tooltip toolTip = new Tooltip(pair.getKey().toString());
-//                        toolTip.getScene().setCursor(Cursor.WAIT);
-                        pts.getNode().setOnMouseEntered(e->{
-//                            toolTip.getScene().setCursor(Cursor.WAIT);
-//                            chart.getScene().setCursor(Cursor.WAIT);
-//                            System.out.println("in node");
-                            });
-                        
-                        Tooltip.install(pts.getNode(), toolTip);
-                        break;
-                    }
-                }
-                
+    public void checkForErrors() throws Exception {
+        int errorCount = errorLines.size();
+        if (errorCount > 0) {
+            StringBuilder message = new StringBuilder(errorMessage);
+            if (errorCount > MAX_REPORTED_ERRORS) {
+                message.append("... and ").append(errorCount - MAX_REPORTED_ERRORS).append(" more line(s) with errors.\n");
             }
-//            System.out.println(series);
+            throw new Exception(message.append(TSD_FORMAT_MSG).toString());
         }
     }
 
+    /**
+     * @return the DataSet built from all of the valid lines processed since the
+     *         last {@link #clear()}
+     */
+    public DataSet getDataSet() {
+        return dataset;
+    }
+
+    /**
+     * @return line number of every line with an error processed since the last
+     *         {@link #clear()}, in the order in which they were found
+     */
+    public List<Long> getErrorLineNumbers() {
+        return Collections.unmodifiableList(errorLines);
+    }
+
+    /**
+     * @return number of lines processed since the last {@link #clear()}
+     */
+    public int getLineCount() {
+        return lineCounter;
+    }
+
     void clear() {
-        dataPoints.clear();
-        dataLabels.clear();
+        dataset      = new DataSet();
+        lineCounter  = 0;
+        errorLines   = new ArrayList<>();
+        errorMessage = new StringBuilder();
     }
 
     private String checkedname(String name) throws InvalidDataNameException {
@@ -150,41 +233,26 @@ public final class TSDProcessor {
     }
     
     /**
-     * Checks data for improper formatting/errors.
+     * Checks data for improper formatting/errors, loading it into the
+     * {@link DataSet} along the way.
      * 
      * @param str   data to be analyzed
      * @return      unique data labels
-     * @throws      java.lang.Exception if data is improper w/ the line number
+     * @throws      java.lang.Exception if data is improper w/ the line numbers
      *              corresponding to the improper data/format
      */
     public HashSet<String> getErrorLineNumber(String str) throws Exception {
-        ArrayList<String> dataToBeCheckedForErrors = new ArrayList<>(Arrays.asList(str.split("\n")));
-        ListIterator<String> itr = dataToBeCheckedForErrors.listIterator();
+        processString(str);
+        return getUniqueLabels();
+    }
 
-        int lineCounter = 1;
-        try {
-            while (itr.hasNext()) {
-                processString(itr.next());
-                lineCounter++;
-            }
-        } catch (Exception ex) {
-            if (ex.getMessage().contains("DuplicateInstanceNameException")) {
-                throw new Exception(ex.getMessage().split(": ", 2)[1]);
-            } else {
-                throw new Exception("Error on line #" + lineCounter + ".\nData must conform to the Tab-Separated Format. For example:\n@InstanceName[TAB Press]Label[TAB Press]X-Coord,Y-Coord");
-            }
-        }
-        
-        HashSet<String> uniqueDataLabels = new HashSet<>();
-        Iterator<String> labelItr = dataLabels.values().iterator();
-      
-        while (labelItr.hasNext()) {
-            String currentLabel = labelItr.next();
-            if (currentLabel.compareTo("null") != 0) {
-                uniqueDataLabels.add(currentLabel);
-            }
-        }
-        
+    /**
+     * @return unique labels of the loaded data, excluding the <code>null</code>
+     *         label of unlabelled instances
+     */
+    public HashSet<String> getUniqueLabels() {
+        HashSet<String> uniqueDataLabels = new HashSet<>(dataset.getLabelDictionary());
+        uniqueDataLabels.remove("null");
         return uniqueDataLabels;
     }
 }
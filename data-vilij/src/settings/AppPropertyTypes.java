@@ -41,8 +41,11 @@ public enum AppPropertyTypes {
     /* application-specific parameters */
     DATA_FILE_EXT,
     DATA_FILE_EXT_DESC,
+    BINARY_DATA_FILE_EXT,
+    BINARY_DATA_FILE_EXT_DESC,
     IMAGE_FILE_EXT,
     IMAGE_FILE_EXT_DESC,
     TEXT_AREA,
-    SPECIFIED_FILE
+    SPECIFIED_FILE,
+    DISPLAY_FRAME_RATE
 }
@@ -15,6 +15,10 @@ public interface AlgResourcePreparer {
     
     LineChart<Number, Number> getChart();
     
+    ScatterRenderer getScatterRenderer();
+    
+    DisplaySampler getDisplaySampler();
+    
     AlgorithmPauser getPauser();
     
     Label getAlgNotificationLabel();
@@ -3,7 +3,10 @@ package ui;
 
 import actions.AppActions;
 import algorithms.Algorithm;
+import algorithms.AlgorithmExecutor;
 import algorithms.AlgorithmPauser;
+import algorithms.AlgorithmRegistry;
+import algorithms.AlgorithmRun;
 //import classification.*;
 //import clustering.*;
 import components.AlgorithmConfiguration;
@@ -14,10 +17,11 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.collections.FXCollections;
@@ -59,6 +63,8 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
     @SuppressWarnings("FieldCanBeLocal")
     private Button scrnshotButton;                  // toolbar button to take a screenshot of the data
     private LineChart<Number, Number> chart;        // the chart where data will be displayed (LineChart version of original chart)
+    private ScatterRenderer scatterRenderer;        // draws the data points over the plot area of the chart
+    private DisplaySampler displaySampler;          // applies the display updates of running algorithms once per frame
 
     private Button runPauseBtn;                     // workspace button to display data on the chart
     private TextArea textArea;                      // text area for new data input
@@ -83,14 +89,25 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
     private Label algNotificationLabel;
     
     private DataSet dataset;
-    private final AlgorithmPauser pauser = new AlgorithmPauser();
-    private Thread algThread;
+    private final AlgorithmExecutor executor = new AlgorithmExecutor();
+    private AlgorithmPauser pauser = new AlgorithmPauser();  // pauser of the current run
+    private AlgorithmRun currentRun;                         // run controlled by runPauseBtn
     
     @Override
     public LineChart<Number, Number> getChart() {
         return chart;
     }
 
+    @Override
+    public ScatterRenderer getScatterRenderer() {
+        return scatterRenderer;
+    }
+
+    @Override
+    public DisplaySampler getDisplaySampler() {
+        return displaySampler;
+    }
+
     @Override
     public AlgorithmPauser getPauser() {
         return pauser;
@@ -161,6 +178,7 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
         inputDataDetails.setText("");
         // clear contents of scatter chart
         chart.getData().clear();
+        scatterRenderer.clear();
         algNotificationLabel.setText("");
         // DO NOT allow the user to take a screenshot of an empty chart
         scrnshotButton.setDisable(true);
@@ -169,7 +187,13 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
         disableSaveButton();
         // no new data to be displayed as there is NO DATA in textArea
         hasNewText = false;
-        algThread = null;
+        // the run belongs to the data being cleared
+        if (currentRun != null) {
+            currentRun.cancel();
+            currentRun = null;
+        }
+        runPauseBtn.setText("Run");
+        displaySampler.clear();
         // clear data contained in the ArrayLists
         firstTenLines = null;
         restOfTheLines = null;
@@ -241,13 +265,20 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
         // initialize new scatter chart with unspecified axis ranges/tick values for automatic scaling
         chart = new LineChart<>(new NumberAxis(), new NumberAxis());
         chart.setAnimated(false);
+        scatterRenderer = new ScatterRenderer(chart);
+        displaySampler = new DisplaySampler();
+        try {
+            displaySampler.setFramesPerSecond(manager.getPropertyValueAsInt(DISPLAY_FRAME_RATE.name()));
+        } catch (NullPointerException | NumberFormatException ex) {
+            // keep the default frame rate
+        }
         algNotificationLabel = new Label();
 
         // create second column
         VBox rightColumn = new VBox();
         rightColumn.setPrefWidth(windowWidth * .65);
         // add elements to second column
-        rightColumn.getChildren().addAll(dataVisLabel, chart, algNotificationLabel);
+        rightColumn.getChildren().addAll(dataVisLabel, scatterRenderer.getNode(), algNotificationLabel);
         // align and space UI objects within the column
         rightColumn.setAlignment(Pos.TOP_CENTER);
         rightColumn.setPadding(new Insets(10, 20, 0, 0));
@@ -334,7 +365,7 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
                 }
                 // load data into the data processor...
                 if (((AppData) applicationTemplate.getDataComponent()).loadData(strToBeProcessed)) {
-                    dataset = DataSet.fromInputtedData(new ArrayList<>(Arrays.asList(strToBeProcessed.split("\n"))));
+                    dataset = ((AppData) applicationTemplate.getDataComponent()).getDataSet();
                     textArea.setDisable(true);
                     editToggle.setText("Edit");
                 }
@@ -345,72 +376,24 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
         });
 
         runPauseBtn.setOnAction(e -> {
-         
-            switch (runPauseBtn.getText()) {
-                case "Run":
-                    pauser.resume();
-                    break;
-                case "Pause":
-                    pauser.pause();
-                    break;
-                default:
-                    break;
-            }
-            alternateRunPause();
 
-            if (algThread == null || !algThread.isAlive()) {
+            if (currentRun == null || currentRun.isDone()) {
                 // clear scatter chart immediately before plotting new data
                 chart.getData().clear();
 
-                try {
-                    if (dataFilePath != null) {
-                        dataset = DataSet.fromTSDFile(this.dataFilePath);
-                    }
-                    configureChartSettings();
-                    // START PLOTTING ORIGINAL DATASET
-                    ((AppData) applicationTemplate.getDataComponent()).displayData();
-                    // END PLOTTING ORIGINAL DATASET
-                    if(currentAlgConfig.isClustering()) {
-                        try {
-                            try {
-                                algThread = new Thread((Algorithm)
-                                ((AppActions) applicationTemplate.getActionComponent())
-                                        .getAlgorithm(currentAlgPrettyName).getConstructor(DataSet.class,
-                                                int.class,
-                                                int.class,
-                                                int.class,
-                                                boolean.class,
-                                                AlgResourcePreparer.class).newInstance(dataset, currentAlgConfig.maxIterations, currentAlgConfig.updateInterval, currentAlgConfig.numOfClusteringLabels, currentAlgConfig.continuousRun, this)
-                                );
-                            } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-                                Logger.getLogger(AppUI.class.getName()).log(Level.SEVERE, null, ex);
-                            }
-                        } catch (NoSuchMethodException | SecurityException ex) {
-                            Logger.getLogger(AppUI.class.getName()).log(Level.SEVERE, null, ex);
-                        }
-
-                    } else {
-                        try {
-                            try {
-                                algThread = new Thread((Algorithm) ((AppActions) applicationTemplate.getActionComponent())
-                                        .getAlgorithm(currentAlgPrettyName).getConstructor(DataSet.class,
-                                                int.class,
-                                                int.class,
-                                                boolean.class,
-                                                AlgResourcePreparer.class).newInstance(dataset, currentAlgConfig.maxIterations, currentAlgConfig.updateInterval, currentAlgConfig.continuousRun, this)
-                                );
-                            } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-                                Logger.getLogger(AppUI.class.getName()).log(Level.SEVERE, null, ex);
-                            }
-                        } catch (NoSuchMethodException | SecurityException ex) {
-                            Logger.getLogger(AppUI.class.getName()).log(Level.SEVERE, null, ex);
-                        }
-                    }
-                    algThread.start();
-                } catch (IOException ex) {
-                    System.out.println(ex);
+                configureChartSettings();
+                // START PLOTTING ORIGINAL DATASET
+                ((AppData) applicationTemplate.getDataComponent()).displayData();
+                // END PLOTTING ORIGINAL DATASET
+                if (!startRun()) {
+                    return;
                 }
+            } else if (runPauseBtn.getText().equals("Run")) {
+                currentRun.resume();
+            } else {
+                currentRun.pause();
             }
+            alternateRunPause();
         });
 
         textArea.setOnKeyReleased(e -> {
@@ -472,33 +455,22 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
     /**
      * Prepares and populates the UI for new input loaded from a file.
      * 
-     * @param dataLoadedFromFile    data from loaded file
+     * @param firstLines            leading lines of the loaded file, to be shown in the text area
+     * @param loadedDataSet         data parsed from the loaded file
      * @param uniqueDataLabels      different labels that exist in the input dataset
      * @param dataFilePath          file path for input file
      */
-    public void prepareUIForFileLoadedInput(ArrayList<String> dataLoadedFromFile, HashSet<String> uniqueDataLabels, Path dataFilePath){
+    public void prepareUIForFileLoadedInput(List<String> firstLines, DataSet loadedDataSet, HashSet<String> uniqueDataLabels, Path dataFilePath){
         clear();
         editTogglePane.setVisible(false);
         leftColumn.setVisible(true);
         textArea.setDisable(true);
         this.dataFilePath = dataFilePath;
+        this.dataset = loadedDataSet;
         
-        firstTenLines = new ArrayList<>();
+        firstTenLines = new ArrayList<>(firstLines.subList(0, Math.min(10, firstLines.size())));
         restOfTheLines = new ArrayList<>();
 
-        ListIterator<String> fileDataItr = dataLoadedFromFile.listIterator();
-        if (dataLoadedFromFile.size() > 10) {
-            for (int i = 0; i < 10; i++) {
-                firstTenLines.add(fileDataItr.next());
-            }
-            while (fileDataItr.hasNext()) {
-                restOfTheLines.add(fileDataItr.next());
-            }
-        } else {
-            while (fileDataItr.hasNext()) {
-                firstTenLines.add(fileDataItr.next());
-            }
-        }
         textArea.clear();
         ListIterator<String> itr = firstTenLines.listIterator();
         int i = 0;
@@ -515,7 +487,7 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
         }
         disableSaveButton();
         
-        String detailsStr = dataLoadedFromFile.size() + " instances with "
+        String detailsStr = loadedDataSet.size() + " instances with "
                 + uniqueDataLabels.size() + " labels loaded from "
                 + dataFilePath + " . The labels are:";
 
@@ -603,6 +575,46 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
         });
     }
     
+    /**
+     * Creates the selected Algorithm, with a pauser of its own, and submits it
+     * to the executor as the current run.
+     *
+     * @return true if the run was submitted
+     */
+    private boolean startRun() {
+        pauser = new AlgorithmPauser();
+        Algorithm algorithm = createAlgorithm();
+        if (algorithm == null) {
+            return false;
+        }
+        try {
+            currentRun = executor.submit(currentAlgPrettyName, algorithm, pauser);
+            return true;
+        } catch (RejectedExecutionException ex) {
+            Logger.getLogger(AppUI.class.getName()).log(Level.SEVERE, null, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Instantiates the selected Algorithm, reporting its progress to this
+     * window through an {@link FXProgressSink}.
+     *
+     * @return the Algorithm to be run, or null if it could not be created
+     */
+    private Algorithm createAlgorithm() {
+        AlgorithmRegistry.Entry entry = ((AppActions) applicationTemplate.getActionComponent()).getAlgorithm(currentAlgPrettyName);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return entry.create(dataset, currentAlgConfig, pauser, new FXProgressSink(currentAlgPrettyName, dataset, this));
+        } catch (InvocationTargetException ex) {
+            Logger.getLogger(AppUI.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return null;
+    }
+
     /**
      * Overrides chart auto-scaling and appropriately prepares the chart for the
      * display of data and subsequent iterations of algorithms that are to 
@@ -659,12 +671,12 @@ public final class AppUI extends UITemplate implements AlgResourcePreparer {
     }
     
     /**
-     * Getter for a ref to the Algorithm Thread.
+     * Getter for the executor running every Algorithm started from this UI.
      *
      * @return
      */
-    public Thread getAlgThread(){
-        return algThread;
+    public AlgorithmExecutor getAlgorithmExecutor(){
+        return executor;
     }
     
     /**
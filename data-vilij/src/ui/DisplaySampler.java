@@ -0,0 +1,90 @@
+// Aaron Knoll
+package ui;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+
+/**
+ * Applies the display updates of running algorithms at a fixed frame rate,
+ * so that algorithms can compute at full speed without flooding the JavaFX
+ * Application Thread.
+ * <p>
+ * An algorithm posts an update under a key, such as the node it changes,
+ * from any thread, as often as it likes. Only the latest update per key is
+ * kept, and an {@link AnimationTimer} applies the pending updates at most
+ * {@link #framesPerSecondProperty() framesPerSecond} times per second. One-off
+ * events, such as showing an alert, still belong in
+ * {@link javafx.application.Platform#runLater(Runnable)}.
+ *
+ * @author aaronknoll
+ */
+public final class DisplaySampler {
+
+    public static final int DEFAULT_FRAMES_PER_SECOND = 30;
+
+    private final IntegerProperty       framesPerSecond = new SimpleIntegerProperty(this, "framesPerSecond",
+                                                                                    DEFAULT_FRAMES_PER_SECOND);
+    private final Map<Object, Runnable> pending         = new ConcurrentHashMap<>();
+    private final AnimationTimer        timer;
+    private long                        lastFrame;
+
+    /**
+     * Creates a sampler and starts its timer. Must be called on the JavaFX
+     * Application Thread.
+     */
+    public DisplaySampler() {
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (pending.isEmpty() || now - lastFrame < 1_000_000_000L / Math.max(1, framesPerSecond.get())) {
+                    return;
+                }
+                lastFrame = now;
+                for (Object key : pending.keySet()) {
+                    Runnable update = pending.remove(key);
+                    if (update != null) {
+                        update.run();
+                    }
+                }
+            }
+        };
+        timer.start();
+    }
+
+    /**
+     * Schedules an update for the next frame, replacing any update still
+     * pending under the same key. May be called from any thread.
+     *
+     * @param key    what the update changes
+     * @param update the update, run on the JavaFX Application Thread
+     */
+    public void post(Object key, Runnable update) {
+        pending.put(key, update);
+    }
+
+    /**
+     * Drops every pending update, such as those of a run whose data is being
+     * cleared.
+     */
+    public void clear() {
+        pending.clear();
+    }
+
+    /**
+     * @return the largest number of frames applied per second
+     */
+    public IntegerProperty framesPerSecondProperty() {
+        return framesPerSecond;
+    }
+
+    public int getFramesPerSecond() {
+        return framesPerSecond.get();
+    }
+
+    public void setFramesPerSecond(int framesPerSecond) {
+        this.framesPerSecond.set(framesPerSecond);
+    }
+}
@@ -0,0 +1,156 @@
+// Aaron Knoll
+package ui;
+
+import algorithms.AlgorithmPauser;
+import algorithms.LinearModel;
+import algorithms.ProgressSink;
+import data.DataSet;
+import data.LabelGrid;
+import data.LabelSnapshotBuffer;
+import javafx.application.Platform;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+
+/**
+ * Shows the progress of an Algorithm in the application window. Labels are
+ * handed to the {@link ScatterRenderer} as {@link LabelSnapshotBuffer
+ * snapshots}, a classifier's output is drawn as a line on the chart and its
+ * grid as shaded regions behind the instances, and all are applied at the
+ * frame rate of the {@link DisplaySampler}.
+ *
+ * @author aaronknoll
+ */
+public final class FXProgressSink implements ProgressSink {
+
+    private final AlgResourcePreparer       arp;
+    private final AlgorithmPauser           pauser;
+    private final DataSet                   dataset;
+    private final ScatterRenderer           renderer;
+    private final DisplaySampler            sampler;
+    private final Label                     algNotificationLabel;
+    private final LineChart<Number, Number> chart;
+    private final XYChart.Series<Number, Number> series = new XYChart.Series<>();
+    private final Object                    gridUpdates = new Object(); // sampler key of the grid
+
+    // only used on the algorithm thread
+    private LabelSnapshotBuffer snapshots;
+
+    /**
+     * Must be called on the JavaFX Application Thread.
+     *
+     * @param name    name of the algorithm, shown in the legend of a classifier's line
+     * @param dataset the DataSet the algorithm runs on
+     * @param arp     the application window
+     */
+    public FXProgressSink(String name, DataSet dataset, AlgResourcePreparer arp) {
+        this.arp                  = arp;
+        this.pauser               = arp.getPauser();
+        this.dataset              = dataset;
+        this.renderer             = arp.getScatterRenderer();
+        this.sampler              = arp.getDisplaySampler();
+        this.algNotificationLabel = arp.getAlgNotificationLabel();
+        this.chart                = arp.getChart();
+        series.setName(name);
+        // regions shown for a previous run do not belong to this one
+        renderer.setLabelGrid(null);
+    }
+
+    @Override
+    public void message(String text) {
+        sampler.post(algNotificationLabel, () -> {
+            algNotificationLabel.setText(text);
+        });
+    }
+
+    @Override
+    public void labelsUpdated(DataSet dataset) {
+        if (snapshots == null) {
+            snapshots = new LabelSnapshotBuffer(dataset);
+        }
+        LabelSnapshotBuffer published = snapshots;
+        published.publish();
+        sampler.post(renderer, () -> renderer.update(published.acquire()));
+    }
+
+    @Override
+    public void outputUpdated(LinearModel output) {
+        double xMin = dataset.getBounds("xMin");
+        double xMax = dataset.getBounds("xMax");
+        double yMin = dataset.getBounds("yMin");
+        double yMax = dataset.getBounds("yMax");
+
+        double domainSize = xMax - xMin;
+        if (domainSize < 1) {
+            domainSize = 1;
+        }
+
+        double rangeSize = yMax - yMin;
+        if (rangeSize < 1) {
+            rangeSize = 1;
+        }
+
+        xMin -= (domainSize * .05);
+        xMax += (domainSize * .05);
+        yMin -= (rangeSize * .05);
+        yMax += (rangeSize * .05);
+
+        message("");
+
+        if (output.isDegenerate()) {
+            message("Degenerate line produced by classification algorithm.");
+            return;
+        }
+
+        double[] line = LineClipper.clip(output, xMin, xMax, yMin, yMax);
+        if (line == null) {
+            message("Line Out of Range.");
+            return;
+        }
+        drawLine(line[0], line[1], line[2], line[3]);
+    }
+
+    @Override
+    public void gridUpdated(LabelGrid grid) {
+        sampler.post(gridUpdates, () -> renderer.setLabelGrid(grid));
+    }
+
+    private void drawLine(double pt1x, double pt1y, double pt2x, double pt2y) {
+        sampler.post(series, () -> {
+            if (!chart.getData().contains(series)) {
+                chart.getData().add(series);
+            }
+            series.getData().clear();
+            //populating the series with data
+            series.getData().add(new XYChart.Data<>(pt1x, pt1y));
+            series.getData().add(new XYChart.Data<>(pt2x, pt2y));
+            for (XYChart.Data<Number, Number> dataPt : series.getData()) {
+                StackPane stackPane = (StackPane) dataPt.getNode();
+                stackPane.setVisible(false);
+            }
+        });
+    }
+
+    @Override
+    public void paused() {
+        Platform.runLater(() -> {
+            arp.alternateRunPause();
+        });
+    }
+
+    @Override
+    public void finished() {
+        Platform.runLater(() -> {
+            if (!pauser.isPaused()) {
+                arp.alternateRunPause();
+            }
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("ALERT");
+            alert.setHeaderText("");
+            alert.setContentText("Algorithm Run Complete!");
+            alert.showAndWait();
+        });
+    }
+}
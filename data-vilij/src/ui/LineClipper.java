@@ -0,0 +1,78 @@
+// Aaron Knoll
+package ui;
+
+import algorithms.LinearModel;
+
+/**
+ * Clips the line output by a classifier to the visible part of the chart.
+ * Independent of the JavaFX toolkit, so that it can be used and measured
+ * without a display.
+ *
+ * @author aaronknoll
+ */
+public final class LineClipper {
+
+    private LineClipper() {
+        /* static utility class */ }
+
+    /**
+     * Clips the line <code>a*x + b*y + c = 0</code> to a rectangle.
+     *
+     * @param output a two-dimensional model, which is not degenerate (see
+     *               {@link algorithms.Classifier#getOutput()})
+     * @param xMin   left side of the rectangle
+     * @param xMax   right side of the rectangle
+     * @param yMin   bottom side of the rectangle
+     * @param yMax   top side of the rectangle
+     * @return the end points {x1, y1, x2, y2} of the visible segment, which
+     *         are the same point if the line only touches a corner, or null
+     *         if the line misses the rectangle
+     */
+    public static double[] clip(LinearModel output, double xMin, double xMax, double yMin, double yMax) {
+        double a = output.getWeight(0);
+        double b = output.getWeight(1);
+        double c = output.getBias();
+
+        // where the line crosses each side; a side parallel to the line gives
+        // an infinite or NaN coordinate, which is out of range
+        double[] xs    = new double[4];
+        double[] ys    = new double[4];
+        int      count = 0;
+        for (double x : new double[] { xMin, xMax }) {
+            double y = (-a * x - c) / b;
+            if (y >= yMin && y <= yMax) {
+                xs[count]   = x;
+                ys[count++] = y;
+            }
+        }
+        for (double y : new double[] { yMin, yMax }) {
+            double x = (-b * y - c) / a;
+            if (x >= xMin && x <= xMax) {
+                xs[count]   = x;
+                ys[count++] = y;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+
+        // a corner is found on both of its sides, possibly a rounding error
+        // apart, so keep the two points farthest from each other
+        int    first   = 0;
+        int    second  = 0;
+        double longest = -1;
+        for (int p = 0; p < count; p++) {
+            for (int q = p + 1; q < count; q++) {
+                double dx     = xs[q] - xs[p];
+                double dy     = ys[q] - ys[p];
+                double length = dx * dx + dy * dy;
+                if (length > longest) {
+                    first   = p;
+                    second  = q;
+                    longest = length;
+                }
+            }
+        }
+        return new double[] { xs[first], ys[first], xs[second], ys[second] };
+    }
+}
@@ -0,0 +1,547 @@
+// Aaron Knoll
+package ui;
+
+import data.DataSet;
+import data.DataSetIndex;
+import data.LabelGrid;
+import data.LabelSnapshot;
+import data.LabelSnapshotBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Tooltip;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.StackPane;
+
+/**
+ * Draws the instances of a {@link DataSet} as a scatter plot straight into a
+ * {@link WritableImage} laid over the plot area of a {@link LineChart}, instead
+ * of adding a chart node per instance.
+ * <p>
+ * The chart keeps drawing the axes, the legend and anything else added to it
+ * (such as a classifier's line). For every label in use an empty series is
+ * added to the chart, so the legend looks as before, and instances are drawn
+ * in the colour the chart gave that series.
+ * <p>
+ * A classifier's {@link LabelGrid} can be shown behind the instances, every
+ * cell shaded in a faint version of the colour of its label.
+ * <p>
+ * Hovering over an instance shows its name. A single mouse handler looks the
+ * instance under the cursor up in a {@link DataSetIndex}, which catches up
+ * with added or moved instances on the next hover, and a single tooltip shows
+ * its name.
+ * <p>
+ * While an algorithm is running, it keeps modifying the labels of the
+ * DataSet on its own thread. The labels are then only read from the
+ * {@link LabelSnapshot}s it publishes through a {@link LabelSnapshotBuffer},
+ * never from the DataSet itself.
+ * <p>
+ * All methods must be called on the JavaFX Application Thread.
+ *
+ * @author aaronknoll
+ */
+public final class ScatterRenderer {
+
+    /** the default series colours of the modena stylesheet, by default-color index */
+    private static final int[] PALETTE = {
+        0xfff3622d, 0xfffba71b, 0xff57b757, 0xff41a9c9, 0xff4258c9, 0xff9a42c8, 0xffc84164, 0xff888888
+    };
+
+    /** an instance is drawn as a disc of this radius in pixels */
+    private static final int SYMBOL_RADIUS = 2;
+    /** opacity of the regions of a LabelGrid, out of 255 */
+    private static final int REGION_ALPHA  = 0x40;
+
+    private final LineChart<Number, Number> chart;
+    private final NumberAxis                xAxis;
+    private final NumberAxis                yAxis;
+    private final StackPane                 pane;
+    private final ImageView                 view;
+    private final Node                      plotBackground;
+
+    private WritableImage image;
+    private int[]         pixels  = new int[0]; // ARGB colour per pixel
+    private int[]         owners  = new int[0]; // padded pixel -> highest instance rasterized there, or -1
+    private int           stride;               // row length of the padded owners
+    private int[]         wide    = new int[0]; // owners grown by the full radius horizontally
+    private int[]         narrow  = new int[0]; // owners grown by one pixel less horizontally
+    private int[]         visible = new int[0]; // pixel -> instance whose symbol shows there, or -1
+    private int           width;
+    private int           height;
+
+    private DataSet       dataset;
+    private int[]         colours     = new int[0]; // label id -> ARGB colour
+    private long[]        counts      = new long[0]; // label id -> instances drawn with it
+    private int[]         drawnLabels = new int[0];  // instance -> label it was drawn with
+    private int           drawnSize;
+    private long          drawnLocationVersion;
+    private LabelSnapshot snapshot;                  // labels published by a running algorithm, or null
+    private LabelGrid     grid;                      // regions shaded behind the instances, or null
+
+    // mapping from data to pixel coordinates used by the latest redraw
+    private double        xLower;
+    private double        yUpper;
+    private double        xScale;
+    private double        yScale;
+
+    // state of the update in progress
+    private boolean       legendChanged;
+    private int           dirtyMinX, dirtyMinY, dirtyMaxX, dirtyMaxY;
+    private final List<XYChart.Series<Number, Number>> legend = new ArrayList<>();
+
+    // instance lookup for the hover tooltip
+    private final Tooltip tooltip = new Tooltip();
+    private DataSetIndex  index;
+    private int           hovered = -1;
+
+    /**
+     * @param chart chart whose axes and plot area the instances are drawn in
+     */
+    public ScatterRenderer(LineChart<Number, Number> chart) {
+        this.chart = chart;
+        this.xAxis = (NumberAxis) chart.getXAxis();
+        this.yAxis = (NumberAxis) chart.getYAxis();
+        this.view  = new ImageView();
+        this.pane  = new StackPane(chart, view);
+
+        view.setManaged(false);
+        view.setMouseTransparent(true);
+
+        // follow the plot area whenever the chart lays it out again
+        plotBackground = chart.lookup(".chart-plot-background");
+        plotBackground.layoutBoundsProperty().addListener(observable -> fitToPlotArea());
+        plotBackground.localToSceneTransformProperty().addListener(observable -> fitToPlotArea());
+        xAxis.lowerBoundProperty().addListener(observable -> redraw());
+        xAxis.upperBoundProperty().addListener(observable -> redraw());
+        yAxis.lowerBoundProperty().addListener(observable -> redraw());
+        yAxis.upperBoundProperty().addListener(observable -> redraw());
+
+        pane.addEventHandler(MouseEvent.MOUSE_MOVED, event -> hover(event.getX(), event.getY(),
+                                                                      event.getScreenX(), event.getScreenY()));
+        pane.addEventHandler(MouseEvent.MOUSE_EXITED, event -> hideTooltip());
+    }
+
+    /**
+     * @return the node holding both the chart and the drawn instances, which
+     *         takes the place of the chart in the layout
+     */
+    public StackPane getNode() {
+        return pane;
+    }
+
+    public DataSet getDataSet() {
+        return dataset;
+    }
+
+    /**
+     * Displays a DataSet, replacing whatever was displayed before.
+     *
+     * @param dataset the instances to be drawn
+     */
+    public void setDataSet(DataSet dataset) {
+        this.dataset  = dataset;
+        this.snapshot = null;
+        this.grid     = null;
+        refresh();
+    }
+
+    /**
+     * Shades the regions a classifier gives to each label behind the
+     * instances, or removes them.
+     *
+     * @param grid labels of the displayed DataSet over a grid, or null
+     */
+    public void setLabelGrid(LabelGrid grid) {
+        if (grid != this.grid) {
+            this.grid = grid;
+            redraw();
+        }
+    }
+
+    /**
+     * Updates the legend to the labels currently in use and redraws every
+     * instance.
+     */
+    public void refresh() {
+        chart.getData().removeAll(legend);
+        legend.clear();
+        hideTooltip();
+        if (dataset == null) {
+            colours     = new int[0];
+            drawnLabels = new int[0];
+            redraw();
+            return;
+        }
+
+        if (snapshot != null && snapshot.size() != dataset.size()) {
+            // published before instances were added
+            snapshot = null;
+        }
+        drawnSize            = dataset.size();
+        drawnLocationVersion = dataset.getLocationVersion();
+
+        List<String> labels = new ArrayList<>(snapshot != null ? snapshot.getLabelDictionary()
+                                                               : dataset.getLabelDictionary());
+        counts      = new long[labels.size()];
+        drawnLabels = new int[drawnSize];
+        for (int i = 0; i < drawnSize; i++) {
+            int label = labelOf(i);
+            drawnLabels[i] = label;
+            if (label < counts.length) {
+                counts[label]++;
+            }
+        }
+        colours = new int[labels.size()];
+        for (int label = 0; label < labels.size(); label++) {
+            if (counts[label] > 0) {
+                XYChart.Series<Number, Number> series = new XYChart.Series<>();
+                series.setName(labels.get(label));
+                chart.getData().add(series);
+                legend.add(series);
+                colours[label] = colourOf(series, chart.getData().size() - 1);
+            }
+        }
+        redraw();
+    }
+
+    /**
+     * Brings the plot up to date with the labels published by an algorithm
+     * running on another thread, without reading the labels of the DataSet.
+     * Only the symbols of changed instances are repainted, and only the region
+     * they cover is copied into the image. When the snapshot does not list
+     * its changes since the previous one (it is the first of a run, or too
+     * many labels changed), every instance is compared instead. Falls back to
+     * {@link #refresh()} when instances were added or moved, or when the set
+     * of labels in use changed (which changes the legend).
+     *
+     * @param published the latest snapshot acquired from a
+     *                  {@link LabelSnapshotBuffer} of the displayed DataSet,
+     *                  or null if none was published yet
+     */
+    public void update(LabelSnapshot published) {
+        if (dataset == null || published == null || published.size() != dataset.size()) {
+            return;
+        }
+        LabelSnapshot previous = snapshot;
+        snapshot = published;
+        if (dataset.size() != drawnSize || dataset.getLocationVersion() != drawnLocationVersion) {
+            refresh();
+            return;
+        }
+        if (published == previous) {
+            return;
+        }
+        beginRepaint();
+        if (published.listsChangesSince(previous)) {
+            for (int n = 0; n < published.getChangeCount(); n++) {
+                repaint(published.getChange(n));
+            }
+        } else {
+            for (int i = 0; i < drawnSize; i++) {
+                if (published.getLabelId(i) != drawnLabels[i]) {
+                    repaint(i);
+                }
+            }
+        }
+        endRepaint();
+    }
+
+    private void beginRepaint() {
+        dirtyMinX = dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = dirtyMaxY = -1;
+        legendChanged = false;
+    }
+
+    private void endRepaint() {
+        if (legendChanged) {
+            refresh();
+        } else if (image != null && dirtyMaxX >= 0) {
+            int dirtyWidth = dirtyMaxX - dirtyMinX + 1;
+            image.getPixelWriter().setPixels(dirtyMinX, dirtyMinY, dirtyWidth, dirtyMaxY - dirtyMinY + 1,
+                                             PixelFormat.getIntArgbPreInstance(), pixels,
+                                             dirtyMinY * width + dirtyMinX, width);
+        }
+    }
+
+    /**
+     * Repaints the pixels where the symbol of an instance shows, if its label
+     * changed since it was drawn.
+     */
+    private void repaint(int index) {
+        int label    = labelOf(index);
+        int previous = drawnLabels[index];
+        if (label == previous || legendChanged) {
+            return;
+        }
+        if (label >= counts.length || counts[label]++ == 0 || (previous < counts.length && --counts[previous] == 0)) {
+            // a label appeared or disappeared: the legend and colours have to be rebuilt
+            legendChanged = true;
+            return;
+        }
+        drawnLabels[index] = label;
+        if (image == null) {
+            return;
+        }
+        double px = Math.floor((dataset.getX(index) - xLower) * xScale);
+        double py = Math.floor((yUpper - dataset.getY(index)) * yScale);
+        if (!(px >= 0 && px < width && py >= 0 && py < height)) {
+            return;
+        }
+        int x0 = (int) px;
+        int y0 = (int) py;
+        for (int y = Math.max(0, y0 - SYMBOL_RADIUS); y <= Math.min(height - 1, y0 + SYMBOL_RADIUS); y++) {
+            for (int x = Math.max(0, x0 - SYMBOL_RADIUS); x <= Math.min(width - 1, x0 + SYMBOL_RADIUS); x++) {
+                int p = y * width + x;
+                if (visible[p] == index) {
+                    pixels[p] = colours[label];
+                    dirtyMinX = Math.min(dirtyMinX, x);
+                    dirtyMaxX = Math.max(dirtyMaxX, x);
+                    dirtyMinY = Math.min(dirtyMinY, y);
+                    dirtyMaxY = Math.max(dirtyMaxY, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return label id of an instance, from the latest snapshot if there is one
+     */
+    private int labelOf(int index) {
+        return snapshot != null ? snapshot.getLabelId(index) : dataset.getLabelId(index);
+    }
+
+    /**
+     * Removes the displayed instances and their legend.
+     */
+    public void clear() {
+        dataset  = null;
+        snapshot = null;
+        grid     = null;
+        refresh();
+    }
+
+    /**
+     * Shows the name of the instance under the mouse, or hides the tooltip if
+     * there is none.
+     *
+     * @param x       mouse location in the node
+     * @param y       mouse location in the node
+     * @param screenX mouse location on the screen
+     * @param screenY mouse location on the screen
+     */
+    private void hover(double x, double y, double screenX, double screenY) {
+        int instance = instanceAt((int) Math.floor(x - view.getLayoutX()), (int) Math.floor(y - view.getLayoutY()));
+        if (instance < 0) {
+            hideTooltip();
+        } else if (instance != hovered || !tooltip.isShowing()) {
+            hovered = instance;
+            tooltip.setText(dataset.getName(instance));
+            tooltip.show(pane, screenX + 12, screenY + 12);
+        }
+    }
+
+    private void hideTooltip() {
+        hovered = -1;
+        tooltip.hide();
+    }
+
+    /**
+     * @return the drawn instance whose symbol covers a pixel of the image, or
+     *         -1 if there is none; where symbols overlap, the one drawn on top
+     */
+    private int instanceAt(int px, int py) {
+        if (image == null || dataset == null || px < 0 || px >= width || py < 0 || py >= height) {
+            return -1;
+        }
+        if (index == null || index.getDataSet() != dataset) {
+            index = new DataSetIndex(dataset);
+        } else {
+            index.update();
+        }
+        // the data region of every pixel a symbol covering (px, py) could be centred on
+        double minX = xLower + (px - SYMBOL_RADIUS) / xScale;
+        double maxX = xLower + (px + SYMBOL_RADIUS + 1) / xScale;
+        double minY = yUpper - (py + SYMBOL_RADIUS + 1) / yScale;
+        double maxY = yUpper - (py - SYMBOL_RADIUS) / yScale;
+        int[] found = { -1 };
+        index.forEachInRect(minX, minY, maxX, maxY, i -> {
+            if (i <= found[0] || i >= drawnLabels.length || drawnLabels[i] >= colours.length) {
+                return;
+            }
+            int dx = Math.abs((int) Math.floor((dataset.getX(i) - xLower) * xScale) - px);
+            int dy = Math.abs((int) Math.floor((yUpper - dataset.getY(i)) * yScale) - py);
+            // the disc drawn by dilate(): the full radius, less its four corners
+            if (dx <= SYMBOL_RADIUS && dy <= SYMBOL_RADIUS && (dx < SYMBOL_RADIUS || dy < SYMBOL_RADIUS)) {
+                found[0] = i;
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * @return the colour the chart gave a series, read from its default-color style class
+     */
+    private static int colourOf(XYChart.Series<Number, Number> series, int seriesIndex) {
+        if (series.getNode() != null) {
+            for (String styleClass : series.getNode().getStyleClass()) {
+                if (styleClass.startsWith("default-color")) {
+                    try {
+                        return PALETTE[Integer.parseInt(styleClass.substring("default-color".length())) % PALETTE.length];
+                    } catch (NumberFormatException ex) {
+                        break;
+                    }
+                }
+            }
+        }
+        return PALETTE[seriesIndex % PALETTE.length];
+    }
+
+    private void fitToPlotArea() {
+        // reading both properties re-arms their invalidation listeners
+        Bounds plot = plotBackground.getLocalToSceneTransform().transform(plotBackground.getLayoutBounds());
+        if (plotBackground.getScene() == null) {
+            return;
+        }
+        plot = pane.sceneToLocal(plot);
+        view.relocate(Math.round(plot.getMinX()), Math.round(plot.getMinY()));
+        int newWidth  = (int) Math.round(plot.getWidth());
+        int newHeight = (int) Math.round(plot.getHeight());
+        if (newWidth != width || newHeight != height) {
+            width  = newWidth;
+            height = newHeight;
+            image  = width > 0 && height > 0 ? new WritableImage(width, height) : null;
+            int area = Math.max(0, width * height);
+            stride  = width + 2 * SYMBOL_RADIUS;
+            pixels  = new int[area];
+            owners  = new int[Math.max(0, stride * (height + 2 * SYMBOL_RADIUS))];
+            wide    = new int[Math.max(0, width * (height + 2 * SYMBOL_RADIUS))];
+            narrow  = new int[wide.length];
+            visible = new int[area];
+            view.setImage(image);
+            redraw();
+        }
+    }
+
+    /**
+     * Redraws every instance with the current colours.
+     * <p>
+     * Instead of painting a symbol per instance, every instance is first
+     * rasterized to a single pixel, keeping the highest index per pixel. The
+     * symbols are then grown from those pixels by a max-filter shaped like the
+     * symbol, which gives exactly what painting the symbols in index order
+     * would, while touching each instance only once.
+     */
+    private void redraw() {
+        if (image == null) {
+            return;
+        }
+        Arrays.fill(owners, -1);
+        if (dataset != null) {
+            rasterize();
+        }
+        dilate();
+        shadeRegions();
+        for (int p = 0; p < pixels.length; p++) {
+            int instance = visible[p];
+            if (instance >= 0) {
+                int label = drawnLabels[instance];
+                pixels[p] = label < colours.length ? colours[label] : 0;
+            }
+        }
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+    }
+
+    private void rasterize() {
+        xLower = xAxis.getLowerBound();
+        yUpper = yAxis.getUpperBound();
+        xScale = width / (xAxis.getUpperBound() - xLower);
+        yScale = height / (yUpper - yAxis.getLowerBound());
+        for (int i = 0; i < drawnLabels.length; i++) {
+            if (drawnLabels[i] >= colours.length) {
+                // labelled after the latest refresh
+                continue;
+            }
+            double px = Math.floor((dataset.getX(i) - xLower) * xScale);
+            double py = Math.floor((yUpper - dataset.getY(i)) * yScale);
+            if (px >= 0 && px < width && py >= 0 && py < height) {
+                owners[((int) py + SYMBOL_RADIUS) * stride + (int) px + SYMBOL_RADIUS] = i;
+            }
+        }
+    }
+
+    /**
+     * Fills every pixel with the shade of the grid cell under it, or clears
+     * it if there is no grid, no cell or no colour for the label of the cell.
+     */
+    private void shadeRegions() {
+        if (grid == null || dataset == null) {
+            Arrays.fill(pixels, 0);
+            return;
+        }
+        int[] shades = new int[colours.length];
+        for (int label = 0; label < shades.length; label++) {
+            int colour = colours[label];
+            // premultiplied, as the image is written in IntArgbPre
+            shades[label] = REGION_ALPHA << 24
+                            | ((colour >>> 16 & 0xff) * REGION_ALPHA / 255) << 16
+                            | ((colour >>> 8 & 0xff) * REGION_ALPHA / 255) << 8
+                            | (colour & 0xff) * REGION_ALPHA / 255;
+        }
+        int[] cellColumns = new int[width];
+        for (int x = 0; x < width; x++) {
+            cellColumns[x] = grid.columnOf(xLower + (x + 0.5) / xScale);
+        }
+        for (int y = 0; y < height; y++) {
+            int cellRow = grid.rowOf(yUpper - (y + 0.5) / yScale);
+            int row     = y * width;
+            for (int x = 0; x < width; x++) {
+                int label = cellRow < 0 || cellColumns[x] < 0 ? -1
+                            : grid.getLabelId(cellRow * grid.getColumns() + cellColumns[x]);
+                pixels[row + x] = label >= 0 && label < shades.length && colours[label] != 0 ? shades[label] : 0;
+            }
+        }
+    }
+
+    /**
+     * Grows every owned pixel into a disc of {@link #SYMBOL_RADIUS}: rows
+     * within the radius span the full radius on either side, and the top and
+     * bottom rows one pixel less. The owners are padded by the radius on every
+     * side, so the filter needs no bounds checks.
+     */
+    private void dilate() {
+        for (int y = 0; y < height + 2 * SYMBOL_RADIUS; y++) {
+            int in  = y * stride + SYMBOL_RADIUS;
+            int out = y * width;
+            for (int x = 0; x < width; x++) {
+                int o     = in + x;
+                int inner = owners[o];
+                for (int dx = 1; dx < SYMBOL_RADIUS; dx++) {
+                    inner = Math.max(inner, Math.max(owners[o - dx], owners[o + dx]));
+                }
+                narrow[out + x] = inner;
+                wide[out + x]   = Math.max(inner, Math.max(owners[o - SYMBOL_RADIUS], owners[o + SYMBOL_RADIUS]));
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            int center = (y + SYMBOL_RADIUS) * width;
+            int top    = y * width;
+            int bottom = (y + 2 * SYMBOL_RADIUS) * width;
+            int row    = y * width;
+            for (int x = 0; x < width; x++) {
+                int owner = Math.max(narrow[top + x], narrow[bottom + x]);
+                for (int dy = 1 - SYMBOL_RADIUS; dy < SYMBOL_RADIUS; dy++) {
+                    owner = Math.max(owner, wide[center + dy * width + x]);
+                }
+                visible[row + x] = owner;
+            }
+        }
+    }
+}
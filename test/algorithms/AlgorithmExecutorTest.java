@@ -0,0 +1,291 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package algorithms;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class AlgorithmExecutorTest {
+
+    public AlgorithmExecutorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Runs until released, going through a checkpoint every millisecond. A
+     * stubborn one ignores being paused, terminated and interrupted.
+     */
+    private static final class TestAlgorithm implements Algorithm {
+
+        final AlgorithmPauser pauser  = new AlgorithmPauser();
+        final CountDownLatch  started = new CountDownLatch(1);
+        final CountDownLatch  release = new CountDownLatch(1);
+        final boolean         stubborn;
+        volatile boolean      stopped; // returned because of a checkpoint or an interrupt
+
+        TestAlgorithm(boolean stubborn) {
+            this.stubborn = stubborn;
+        }
+
+        @Override
+        public void run() {
+            started.countDown();
+            try {
+                while (release.getCount() > 0) {
+                    if (stubborn) {
+                        Thread.interrupted();
+                        LockSupport.parkNanos(1000000);
+                    } else if (!pauser.checkpoint() || release.await(1, TimeUnit.MILLISECONDS)) {
+                        stopped = release.getCount() > 0;
+                        return;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                stopped = true;
+            }
+        }
+
+        @Override
+        public int getMaxIterations() { return 1; }
+
+        @Override
+        public int getUpdateInterval() { return 1; }
+
+        @Override
+        public boolean tocontinue() { return release.getCount() > 0; }
+    }
+
+    private static AlgorithmRun submit(AlgorithmExecutor executor, TestAlgorithm algorithm) {
+        return executor.submit("test", algorithm, algorithm.pauser);
+    }
+
+    /**
+     * Test of cancel method, of class AlgorithmRun, on a queued run: it never
+     * starts, and is done right away.
+     */
+    @Test
+    public void testCancelQueued() throws InterruptedException {
+        System.out.println("cancelQueued");
+        AlgorithmExecutor executor = new AlgorithmExecutor(1);
+        TestAlgorithm     running  = new TestAlgorithm(false);
+        TestAlgorithm     queued   = new TestAlgorithm(false);
+        AlgorithmRun      first    = submit(executor, running);
+        AlgorithmRun      second   = submit(executor, queued);
+        assertTrue(running.started.await(5, TimeUnit.SECONDS));
+        assertEquals(AlgorithmRun.State.QUEUED, second.getState());
+        assertFalse(second.isDone());
+
+        assertTrue(second.cancel());
+        assertFalse(second.cancel());
+        assertEquals(AlgorithmRun.State.CANCELLED, second.getState());
+        assertTrue(second.isDone());
+        assertTrue(second.awaitTermination(0, TimeUnit.SECONDS));
+        assertEquals(1, executor.getActiveRuns().size());
+
+        // the worker goes through the queue in order, so the second run would
+        // have started before the third one
+        running.release.countDown();
+        TestAlgorithm last = new TestAlgorithm(false);
+        last.release.countDown();
+        AlgorithmRun third = submit(executor, last);
+        assertTrue(third.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(first.isDone());
+        assertEquals(AlgorithmRun.State.FINISHED, first.getState());
+        assertEquals(1, queued.started.getCount());
+        assertTrue(executor.shutdown(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test of cancel method, of class AlgorithmRun, on a running run.
+     */
+    @Test
+    public void testCancelRunning() throws InterruptedException {
+        System.out.println("cancelRunning");
+        AlgorithmExecutor executor  = new AlgorithmExecutor(1);
+        TestAlgorithm     algorithm = new TestAlgorithm(false);
+        AlgorithmRun      run       = submit(executor, algorithm);
+        assertTrue(algorithm.started.await(5, TimeUnit.SECONDS));
+        assertEquals(AlgorithmRun.State.RUNNING, run.getState());
+
+        assertTrue(run.cancel());
+        assertTrue(run.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(run.isDone());
+        assertTrue(algorithm.stopped);
+        assertTrue(algorithm.pauser.isCancelled());
+        assertEquals(AlgorithmRun.State.CANCELLED, run.getState());
+        assertNull(run.getFailure());
+        assertTrue(executor.shutdown(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test of cancel method, of class AlgorithmRun, on a run parked at a
+     * checkpoint.
+     */
+    @Test
+    public void testCancelPaused() throws InterruptedException {
+        System.out.println("cancelPaused");
+        AlgorithmExecutor executor  = new AlgorithmExecutor(1);
+        TestAlgorithm     algorithm = new TestAlgorithm(false);
+        AlgorithmRun      run       = submit(executor, algorithm);
+        assertTrue(algorithm.started.await(5, TimeUnit.SECONDS));
+        run.pause();
+        assertEquals(AlgorithmRun.State.PAUSED, run.getState());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!algorithm.pauser.hasWaiters() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(algorithm.pauser.hasWaiters());
+
+        assertTrue(run.cancel());
+        assertTrue(run.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(algorithm.stopped);
+        assertEquals(AlgorithmRun.State.CANCELLED, run.getState());
+        // pausing a cancelled run has no effect
+        run.pause();
+        assertEquals(AlgorithmRun.State.CANCELLED, run.getState());
+        assertTrue(executor.shutdown(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test of isDone method, of class AlgorithmRun, on a cancelled run whose
+     * algorithm does not return yet: it stays active, and is not forgotten.
+     */
+    @Test
+    public void testCancelledRunStaysActive() throws InterruptedException {
+        System.out.println("cancelledRunStaysActive");
+        AlgorithmExecutor executor = new AlgorithmExecutor(2);
+        TestAlgorithm     stubborn = new TestAlgorithm(true);
+        AlgorithmRun      run      = submit(executor, stubborn);
+        assertTrue(stubborn.started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(run.cancel());
+        assertEquals(AlgorithmRun.State.CANCELLED, run.getState());
+        assertFalse(run.isDone());
+        assertFalse(run.awaitTermination(50, TimeUnit.MILLISECONDS));
+        assertTrue(executor.hasActiveRuns());
+        assertSame(run, executor.getActiveRuns().get(0));
+
+        // more finished runs than the registry keeps
+        for (int i = 0; i < 40; i++) {
+            TestAlgorithm quick = new TestAlgorithm(false);
+            quick.release.countDown();
+            assertTrue(submit(executor, quick).awaitTermination(5, TimeUnit.SECONDS));
+        }
+        submit(executor, new TestAlgorithm(false)).cancel();
+        assertSame(run, executor.getRun(run.getId()));
+
+        stubborn.release.countDown();
+        assertTrue(run.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(run.isDone());
+        assertFalse(executor.hasActiveRuns());
+        assertTrue(executor.shutdown(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test of setFuture method, of class AlgorithmRun, racing cancel: the
+     * future ends up cancelled whichever comes first, and the algorithm
+     * never runs.
+     */
+    @Test
+    public void testSetFutureRacingCancel() throws InterruptedException {
+        System.out.println("setFutureRacingCancel");
+        for (int round = 0; round < 2000; round++) {
+            TestAlgorithm    algorithm = new TestAlgorithm(false);
+            AlgorithmRun     run       = new AlgorithmRun(round, "test", algorithm, algorithm.pauser);
+            FutureTask<Void> future    = new FutureTask<>(run::execute, null);
+            CountDownLatch   go        = new CountDownLatch(1);
+            Thread canceller = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                run.cancel();
+            });
+            canceller.start();
+            go.countDown();
+            if (round % 2 == 0) {
+                Thread.yield();
+            }
+            run.setFuture(future);
+            canceller.join();
+            assertTrue(future.isCancelled());
+            future.run();
+            run.execute();
+            assertEquals(1, algorithm.started.getCount());
+            assertTrue(run.isDone());
+        }
+    }
+
+    /**
+     * Test of submit method, of class AlgorithmExecutor, with a full queue:
+     * the rejected run is not registered.
+     */
+    @Test
+    public void testSubmitQueueFull() throws InterruptedException {
+        System.out.println("submitQueueFull");
+        AlgorithmExecutor executor = new AlgorithmExecutor(1);
+        TestAlgorithm     running  = new TestAlgorithm(false);
+        submit(executor, running);
+        for (int i = 0; i < 16; i++) {
+            submit(executor, new TestAlgorithm(false));
+        }
+        assertEquals(17, executor.getRuns().size());
+        try {
+            submit(executor, new TestAlgorithm(false));
+            fail("a run was queued past the capacity of the queue");
+        } catch (RejectedExecutionException ex) {
+            // expected
+        }
+        assertEquals(17, executor.getRuns().size());
+        assertNull(executor.getRun(18));
+        assertNotNull(executor.getRun(17));
+        assertTrue(executor.shutdown(5, TimeUnit.SECONDS));
+        assertFalse(executor.hasActiveRuns());
+    }
+
+    /**
+     * Test of getRuns method, of class AlgorithmExecutor: the oldest finished
+     * runs are forgotten once 32 newer ones have finished.
+     */
+    @Test
+    public void testForgetOldRuns() throws InterruptedException {
+        System.out.println("forgetOldRuns");
+        AlgorithmExecutor executor = new AlgorithmExecutor(1);
+        for (int i = 0; i < 40; i++) {
+            TestAlgorithm quick = new TestAlgorithm(false);
+            quick.release.countDown();
+            assertTrue(submit(executor, quick).awaitTermination(5, TimeUnit.SECONDS));
+        }
+        TestAlgorithm last = new TestAlgorithm(false);
+        AlgorithmRun  run  = submit(executor, last);
+        assertEquals(32, executor.getRuns().size());
+        assertNull(executor.getRun(9));
+        assertNotNull(executor.getRun(10));
+        assertSame(run, executor.getRun(41));
+        assertEquals(10, executor.getRuns().get(0).getId());
+        assertEquals(1, executor.getActiveRuns().size());
+        assertTrue(executor.shutdown(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package algorithms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class AlgorithmPauserTest {
+
+    public AlgorithmPauserTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * A thread going through one checkpoint, which records what it returned
+     * (1 for true, 0 for false) and whether the thread was left interrupted.
+     */
+    private static final class CheckpointThread extends Thread {
+
+        private final AlgorithmPauser pauser;
+        final AtomicInteger           result      = new AtomicInteger(-1);
+        final AtomicBoolean           interrupted = new AtomicBoolean();
+
+        CheckpointThread(AlgorithmPauser pauser) {
+            this.pauser = pauser;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            result.set(pauser.checkpoint() ? 1 : 0);
+            interrupted.set(Thread.currentThread().isInterrupted());
+        }
+    }
+
+    private static void awaitWaiter(AlgorithmPauser pauser) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!pauser.hasWaiters() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(pauser.hasWaiters());
+    }
+
+    /**
+     * Test of checkpoint method, of class AlgorithmPauser, when neither paused
+     * nor terminated.
+     */
+    @Test
+    public void testCheckpointRunning() {
+        System.out.println("checkpointRunning");
+        AlgorithmPauser pauser = new AlgorithmPauser();
+        assertTrue(pauser.checkpoint());
+        assertFalse(pauser.isPaused());
+        assertFalse(pauser.isCancelled());
+        assertFalse(pauser.hasWaiters());
+    }
+
+    /**
+     * Test of pause and resume methods, of class AlgorithmPauser: resuming
+     * wakes up a thread parked at a checkpoint, which goes on.
+     */
+    @Test
+    public void testPauseResume() throws InterruptedException {
+        System.out.println("pauseResume");
+        AlgorithmPauser pauser = new AlgorithmPauser();
+        pauser.pause();
+        assertTrue(pauser.isPaused());
+        CheckpointThread thread = new CheckpointThread(pauser);
+        thread.start();
+        awaitWaiter(pauser);
+        assertEquals(-1, thread.result.get());
+
+        pauser.resume();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+        assertEquals(1, thread.result.get());
+        assertFalse(thread.interrupted.get());
+        assertFalse(pauser.isPaused());
+        assertFalse(pauser.hasWaiters());
+    }
+
+    /**
+     * Test of terminateRunningAlgThread method, of class AlgorithmPauser: a
+     * thread parked at a checkpoint is woken up and told to return.
+     */
+    @Test
+    public void testTerminateWhileParked() throws InterruptedException {
+        System.out.println("terminateWhileParked");
+        AlgorithmPauser pauser = new AlgorithmPauser();
+        pauser.pause();
+        CheckpointThread thread = new CheckpointThread(pauser);
+        thread.start();
+        awaitWaiter(pauser);
+
+        pauser.terminateRunningAlgThread();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+        assertEquals(0, thread.result.get());
+        assertFalse(thread.interrupted.get());
+        assertTrue(pauser.isCancelled());
+        assertTrue(pauser.terminateIfExitBtnClicked());
+        // a terminated pauser never parks again
+        assertFalse(pauser.checkpoint());
+    }
+
+    /**
+     * Test of checkpoint method, of class AlgorithmPauser, with the parked
+     * thread interrupted: it returns false and keeps its interrupt status.
+     */
+    @Test
+    public void testInterruptWhileParked() throws InterruptedException {
+        System.out.println("interruptWhileParked");
+        AlgorithmPauser pauser = new AlgorithmPauser();
+        pauser.pause();
+        CheckpointThread thread = new CheckpointThread(pauser);
+        thread.start();
+        awaitWaiter(pauser);
+
+        thread.interrupt();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+        assertEquals(0, thread.result.get());
+        assertTrue(thread.interrupted.get());
+        assertFalse(pauser.hasWaiters());
+        assertTrue(pauser.isPaused());
+    }
+
+    /**
+     * Test of shouldIPause method, of class AlgorithmPauser, with the parked
+     * thread interrupted.
+     */
+    @Test
+    public void testShouldIPauseInterrupted() throws InterruptedException {
+        System.out.println("shouldIPauseInterrupted");
+        AlgorithmPauser pauser = new AlgorithmPauser();
+        pauser.pause();
+        AtomicBoolean thrown = new AtomicBoolean();
+        Thread thread = new Thread(() -> {
+            try {
+                pauser.shouldIPause();
+            } catch (InterruptedException ex) {
+                thrown.set(true);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        awaitWaiter(pauser);
+        thread.interrupt();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+        assertTrue(thrown.get());
+    }
+
+    /**
+     * Test of resume method, of class AlgorithmPauser, racing a thread that is
+     * just arriving at a checkpoint: the wakeup is never lost.
+     */
+    @Test
+    public void testResumeRacingCheckpoint() throws InterruptedException {
+        System.out.println("resumeRacingCheckpoint");
+        for (int round = 0; round < 2000; round++) {
+            AlgorithmPauser pauser = new AlgorithmPauser();
+            pauser.pause();
+            CheckpointThread thread = new CheckpointThread(pauser);
+            thread.start();
+            if (round % 2 == 0) {
+                Thread.yield();
+            }
+            pauser.resume();
+            thread.join(5000);
+            assertFalse("round " + round, thread.isAlive());
+            assertEquals(1, thread.result.get());
+            assertFalse(pauser.hasWaiters());
+        }
+    }
+}
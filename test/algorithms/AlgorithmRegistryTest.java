@@ -0,0 +1,119 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package algorithms;
+
+import components.AlgorithmConfiguration;
+import data.DataSet;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class AlgorithmRegistryTest {
+
+    public AlgorithmRegistryTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * A clusterer listed only by a plugin jar.
+     */
+    public static class PluginClusterer extends Clusterer {
+
+        public PluginClusterer(DataSet dataset, AlgorithmConfiguration config, AlgorithmPauser pauser,
+                               ProgressSink sink) {
+            super(config.numOfClusteringLabels);
+        }
+
+        @Override
+        public int getMaxIterations() { return 0; }
+
+        @Override
+        public int getUpdateInterval() { return 0; }
+
+        @Override
+        public boolean tocontinue() { return false; }
+
+        @Override
+        public void run() { }
+
+        public static String getPrettyName() {
+            return "Plugin Clustering";
+        }
+    }
+
+    /**
+     * Test of load method, of class AlgorithmRegistry, with the algorithms
+     * listed on the classpath.
+     */
+    @Test
+    public void testLoad() throws IOException {
+        System.out.println("load");
+        Path empty = Files.createTempDirectory("plugins");
+        AlgorithmRegistry registry = AlgorithmRegistry.load(getClass().getClassLoader(), empty);
+        List<String> names = new ArrayList<>();
+        for (AlgorithmRegistry.Entry entry : registry.getAlgorithms()) {
+            names.add(entry.getPrettyName());
+        }
+        assertEquals(Arrays.asList("Random Classification", "Random Clustering", "K-Means Clustering",
+                                   "Accelerated K-Means Clustering", "Mini-Batch K-Means Clustering",
+                                   "Perceptron Classification", "Logistic Regression Classification",
+                                   "Hogwild SVM Classification", "K-Nearest Neighbours Classification"), names);
+        assertFalse(registry.get("Random Classification").isClustering());
+        assertTrue(registry.get("K-Means Clustering").isClustering());
+        assertEquals(1024, registry.get("Mini-Batch K-Means Clustering").getDefaultConfiguration().batchSize);
+        assertSame(registry.get("K-Means Clustering"), registry.find("KMeansClusterer"));
+        assertSame(registry.get("K-Means Clustering"), registry.find("clustering.KMeansClusterer"));
+        assertNull(registry.find("NoSuchClusterer"));
+        Files.delete(empty);
+    }
+
+    /**
+     * Test of load method, of class AlgorithmRegistry, with a plugin jar.
+     */
+    @Test
+    public void testLoadPlugins() throws Exception {
+        System.out.println("loadPlugins");
+        Path plugins = Files.createTempDirectory("plugins");
+        Path jar     = plugins.resolve("plugin.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new ZipEntry(AlgorithmRegistry.SERVICES_RESOURCE));
+            out.write((PluginClusterer.class.getName() + "\n").getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        AlgorithmRegistry       registry = AlgorithmRegistry.load(getClass().getClassLoader(), plugins);
+        AlgorithmRegistry.Entry entry    = registry.get("Plugin Clustering");
+        assertNotNull(entry);
+        assertEquals(10, registry.getAlgorithms().size());
+
+        Algorithm algorithm = entry.create(new DataSet(), entry.getDefaultConfiguration(), new AlgorithmPauser(),
+                                           ProgressSink.NONE);
+        assertTrue(algorithm instanceof PluginClusterer);
+        assertEquals(4, ((Clusterer) algorithm).getNumberOfClusters());
+        Files.delete(jar);
+        Files.delete(plugins);
+    }
+}
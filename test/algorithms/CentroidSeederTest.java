@@ -0,0 +1,103 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package algorithms;
+
+import data.DataSet;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class CentroidSeederTest {
+
+    public CentroidSeederTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    private static DataSet randomData(int size, long seed) {
+        Random  random  = new Random(seed);
+        DataSet dataset = new DataSet(size);
+        for (int i = 0; i < size; i++) {
+            dataset.addInstance("@i" + i, "null", random.nextDouble() * 100, random.nextDouble() * 100);
+        }
+        return dataset;
+    }
+
+    private static void assertDistinctLocations(DataSet dataset, int[] chosen) {
+        for (int a = 0; a < chosen.length; a++) {
+            for (int b = a + 1; b < chosen.length; b++) {
+                assertFalse(dataset.getX(chosen[a]) == dataset.getX(chosen[b])
+                            && dataset.getY(chosen[a]) == dataset.getY(chosen[b]));
+            }
+        }
+    }
+
+    /**
+     * Test of kMeansParallel method, of class CentroidSeeder, with the same
+     * seed on pools of different parallelism.
+     */
+    @Test
+    public void testKMeansParallelReproducible() {
+        System.out.println("kMeansParallelReproducible");
+        DataSet dataset = randomData(100000, 3);
+        int[]   common  = new CentroidSeeder(dataset, 42).kMeansParallel(10);
+        assertEquals(10, common.length);
+        assertDistinctLocations(dataset, common);
+        for (int parallelism : new int[] { 1, 3, 8 }) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                assertArrayEquals(common, new CentroidSeeder(dataset, 42, pool).kMeansParallel(10));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        assertFalse(Arrays.equals(common, new CentroidSeeder(dataset, 43).kMeansParallel(10)));
+    }
+
+    /**
+     * Test of kMeansPlusPlus method, of class CentroidSeeder.
+     */
+    @Test
+    public void testKMeansPlusPlus() {
+        System.out.println("kMeansPlusPlus");
+        DataSet dataset = randomData(2000, 5);
+        int[]   chosen  = new CentroidSeeder(dataset, 42).kMeansPlusPlus(8);
+        assertEquals(8, chosen.length);
+        assertDistinctLocations(dataset, chosen);
+        assertArrayEquals(chosen, new CentroidSeeder(dataset, 42).kMeansPlusPlus(8));
+    }
+
+    /**
+     * Test of choose method, of class CentroidSeeder, on data with fewer
+     * distinct locations than centroids wanted.
+     */
+    @Test
+    public void testChooseFewLocations() {
+        System.out.println("chooseFewLocations");
+        DataSet dataset = new DataSet();
+        for (int i = 0; i < 30; i++) {
+            dataset.addInstance("@i" + i, "null", i % 3, 0);
+        }
+        int[] chosen = new CentroidSeeder(dataset, 7).choose(5);
+        assertEquals(3, chosen.length);
+        assertDistinctLocations(dataset, chosen);
+        assertEquals(0, new CentroidSeeder(new DataSet(), 7).choose(5).length);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package algorithms;
+
+import data.DataSet;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class HamerlyKMeansKernelTest {
+
+    public HamerlyKMeansKernelTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Test of assign and updateCentroids methods, of class
+     * HamerlyKMeansKernel, seeded like a KMeansKernel: both give the same
+     * labels and exactly the same centroids at every iteration.
+     */
+    @Test
+    public void testMatchesLloyd() {
+        System.out.println("matchesLloyd");
+        int     k       = 7;
+        DataSet plain   = KMeansKernelTest.blobs(50000, 5, 4);
+        DataSet bounded = KMeansKernelTest.blobs(50000, 5, 4);
+        int[]   seeds   = new CentroidSeeder(plain, 99).kMeansPlusPlus(k);
+        assertArrayEquals(seeds, new CentroidSeeder(bounded, 99).kMeansPlusPlus(k));
+
+        KMeansKernel        lloyd   = new KMeansKernel(plain, k);
+        HamerlyKMeansKernel hamerly = new HamerlyKMeansKernel(bounded, k);
+        for (int c = 0; c < k; c++) {
+            lloyd.setCentroid(c, plain.getX(seeds[c]), plain.getY(seeds[c]));
+            hamerly.setCentroid(c, bounded.getX(seeds[c]), bounded.getY(seeds[c]));
+        }
+
+        int iterations = 0;
+        boolean moved = true;
+        while (moved && iterations < 100) {
+            iterations++;
+            assertEquals("iteration " + iterations, lloyd.assign(), hamerly.assign());
+            for (int i = 0; i < plain.size(); i++) {
+                assertEquals(lloyd.getAssignment(i), hamerly.getAssignment(i));
+                assertEquals(plain.getLabelId(i), bounded.getLabelId(i));
+            }
+            moved = lloyd.updateCentroids();
+            assertEquals(moved, hamerly.updateCentroids());
+            for (int c = 0; c < k; c++) {
+                assertEquals(lloyd.getClusterSize(c), hamerly.getClusterSize(c));
+                assertEquals(lloyd.getCentroidX(c), hamerly.getCentroidX(c), 0);
+                assertEquals(lloyd.getCentroidY(c), hamerly.getCentroidY(c), 0);
+            }
+        }
+        assertFalse(moved);
+        assertTrue(iterations > 2);
+        assertEquals((long) iterations * plain.size() * k, hamerly.getDistanceCount());
+        assertTrue(hamerly.getSkippedDistanceCount() > hamerly.getDistanceCount() / 2);
+    }
+}
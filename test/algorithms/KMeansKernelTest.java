@@ -0,0 +1,159 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package algorithms;
+
+import data.DataSet;
+import java.util.Random;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class KMeansKernelTest {
+
+    public KMeansKernelTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Instances around a few centres, in no particular order.
+     */
+    static DataSet blobs(int size, int centres, long seed) {
+        Random  random  = new Random(seed);
+        DataSet dataset = new DataSet(size);
+        for (int i = 0; i < size; i++) {
+            int centre = random.nextInt(centres);
+            dataset.addInstance("@i" + i, "null", centre * 20 + random.nextGaussian() * 4,
+                                (centre % 2) * 15 + random.nextGaussian() * 4);
+        }
+        return dataset;
+    }
+
+    /**
+     * Test of assign and updateCentroids methods, of class KMeansKernel, on
+     * two obvious clusters.
+     */
+    @Test
+    public void testAssignAndUpdate() {
+        System.out.println("assignAndUpdate");
+        DataSet dataset = new DataSet();
+        dataset.addInstance("@a", "null", 0, 0);
+        dataset.addInstance("@b", "null", 10, 10);
+        dataset.addInstance("@c", "null", 1, 0);
+        dataset.addInstance("@d", "null", 11, 10);
+        KMeansKernel kernel = new KMeansKernel(dataset, 2);
+        assertEquals(-1, kernel.getAssignment(0));
+        kernel.setCentroid(0, 0, 0);
+        kernel.setCentroid(1, 10, 10);
+
+        assertEquals(4, kernel.assign());
+        assertEquals("0", dataset.getLabel(0));
+        assertEquals("1", dataset.getLabel(1));
+        assertEquals("0", dataset.getLabel(2));
+        assertEquals("1", dataset.getLabel(3));
+        assertEquals(2, kernel.getClusterSize(0));
+        assertEquals(2, kernel.getClusterSize(1));
+        assertTrue(kernel.updateCentroids());
+        assertEquals(0.5, kernel.getCentroidX(0), 0);
+        assertEquals(0, kernel.getCentroidY(0), 0);
+        assertEquals(10.5, kernel.getCentroidX(1), 0);
+        assertEquals(10, kernel.getCentroidY(1), 0);
+
+        assertEquals(0, kernel.assign());
+        assertFalse(kernel.updateCentroids());
+    }
+
+    /**
+     * Test of assign and updateCentroids methods, of class KMeansKernel, on
+     * enough points to be split into several slices, against a linear scan.
+     */
+    @Test
+    public void testAssignAgainstScan() {
+        System.out.println("assignAgainstScan");
+        DataSet      dataset = blobs(40000, 5, 1);
+        int          k       = 6;
+        KMeansKernel kernel  = new KMeansKernel(dataset, k);
+        Random       random  = new Random(2);
+        for (int c = 0; c < k; c++) {
+            kernel.setCentroid(c, random.nextDouble() * 100, random.nextDouble() * 20);
+        }
+        for (int pass = 0; pass < 3; pass++) {
+            double[] centroidXs = new double[k];
+            double[] centroidYs = new double[k];
+            for (int c = 0; c < k; c++) {
+                centroidXs[c] = kernel.getCentroidX(c);
+                centroidYs[c] = kernel.getCentroidY(c);
+            }
+            int[] previous = new int[dataset.size()];
+            for (int i = 0; i < previous.length; i++) {
+                previous[i] = kernel.getAssignment(i);
+            }
+            int changed = kernel.assign();
+
+            double[] sumXs    = new double[k];
+            double[] sumYs    = new double[k];
+            long[]   counts   = new long[k];
+            int      expected = 0;
+            for (int i = 0; i < dataset.size(); i++) {
+                int    nearest = 0;
+                double best    = Double.MAX_VALUE;
+                for (int c = 0; c < k; c++) {
+                    double dx = dataset.getX(i) - centroidXs[c];
+                    double dy = dataset.getY(i) - centroidYs[c];
+                    if (dx * dx + dy * dy < best) {
+                        best    = dx * dx + dy * dy;
+                        nearest = c;
+                    }
+                }
+                assertEquals(nearest, kernel.getAssignment(i));
+                assertEquals(Integer.toString(nearest), dataset.getLabel(i));
+                expected += previous[i] != nearest ? 1 : 0;
+                sumXs[nearest] += dataset.getX(i);
+                sumYs[nearest] += dataset.getY(i);
+                counts[nearest]++;
+            }
+            assertEquals(expected, changed);
+            kernel.updateCentroids();
+            for (int c = 0; c < k; c++) {
+                assertEquals(counts[c], kernel.getClusterSize(c));
+                if (counts[c] > 0) {
+                    assertEquals(sumXs[c] / counts[c], kernel.getCentroidX(c), 1e-9);
+                    assertEquals(sumYs[c] / counts[c], kernel.getCentroidY(c), 1e-9);
+                } else {
+                    assertEquals(centroidXs[c], kernel.getCentroidX(c), 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test of assign method, of class KMeansKernel, with a cancelled token:
+     * slices are skipped, so points keep their previous cluster.
+     */
+    @Test
+    public void testAssignCancelled() {
+        System.out.println("assignCancelled");
+        DataSet      dataset = blobs(40000, 2, 3);
+        KMeansKernel kernel  = new KMeansKernel(dataset, 2);
+        kernel.setCentroid(0, 0, 0);
+        kernel.setCentroid(1, 20, 15);
+        kernel.setCancellationToken(() -> true);
+        assertEquals(0, kernel.assign());
+        assertEquals(-1, kernel.getAssignment(0));
+        assertEquals("null", dataset.getLabel(0));
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package algorithms;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class LinearModelTest {
+
+    public LinearModelTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Test of set, evaluate and isDegenerate methods, of class LinearModel.
+     */
+    @Test
+    public void testSetAndEvaluate() {
+        System.out.println("setAndEvaluate");
+        LinearModel model = new LinearModel(2);
+        assertTrue(model.isDegenerate());
+        model.set(0.5, -2, 1.25);
+        assertFalse(model.isDegenerate());
+        assertEquals(0.5, model.getWeight(0), 0);
+        assertEquals(-2, model.getWeight(1), 0);
+        assertEquals(1.25, model.getBias(), 0);
+        assertEquals(0.5 * 4 - 2 * 3 + 1.25, model.evaluate(4, 3), 1e-12);
+        assertEquals("0.5\t-2.0\t1.25", model.toString());
+    }
+
+    /**
+     * Test of snapshot and copyTo methods, of class LinearModel.
+     */
+    @Test
+    public void testSnapshot() {
+        System.out.println("snapshot");
+        LinearModel model    = new LinearModel(1, 2, 3);
+        LinearModel snapshot = model.snapshot();
+        assertEquals(model, snapshot);
+        model.set(4, 5, 6);
+        assertEquals(new LinearModel(1, 2, 3), snapshot);
+        model.copyTo(snapshot);
+        assertEquals(model, snapshot);
+        assertNotSame(model, snapshot);
+    }
+}
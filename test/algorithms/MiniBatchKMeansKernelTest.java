@@ -0,0 +1,158 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package algorithms;
+
+import data.DataSet;
+import java.util.Random;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class MiniBatchKMeansKernelTest {
+
+    public MiniBatchKMeansKernelTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Test of step method, of class MiniBatchKMeansKernel, with a single
+     * cluster: the learning rate of 1 / (points seen) keeps the centroid at
+     * the mean of every point sampled so far.
+     */
+    @Test
+    public void testStepRunningMean() {
+        System.out.println("stepRunningMean");
+        DataSet dataset = KMeansKernelTest.blobs(1000, 3, 5);
+        MiniBatchKMeansKernel kernel = new MiniBatchKMeansKernel(dataset, 1, 50);
+        assertEquals(50, kernel.getBatchSize());
+        kernel.setCentroid(0, -500, 500);
+
+        Random random  = new Random(6);
+        Random sampler = new Random(6);
+        double sumX    = 0;
+        double sumY    = 0;
+        long   samples = 0;
+        for (int step = 0; step < 20; step++) {
+            double x = kernel.getCentroidX(0);
+            double y = kernel.getCentroidY(0);
+            double shift = kernel.step(random);
+            for (int b = 0; b < 50; b++) {
+                int i = sampler.nextInt(dataset.size());
+                sumX += dataset.getX(i);
+                sumY += dataset.getY(i);
+                samples++;
+            }
+            assertEquals(sumX / samples, kernel.getCentroidX(0), 1e-9);
+            assertEquals(sumY / samples, kernel.getCentroidY(0), 1e-9);
+            double dx = kernel.getCentroidX(0) - x;
+            double dy = kernel.getCentroidY(0) - y;
+            assertEquals(dx * dx + dy * dy, shift, 1e-9);
+        }
+    }
+
+    /**
+     * Test of step and assign methods, of class MiniBatchKMeansKernel, on well
+     * separated clusters.
+     */
+    @Test
+    public void testConverges() {
+        System.out.println("converges");
+        DataSet    dataset = new DataSet();
+        Random     data    = new Random(7);
+        double[][] centres = { { 0, 0 }, { 100, 0 }, { 0, 100 } };
+        for (int i = 0; i < 30000; i++) {
+            double[] centre = centres[i % 3];
+            dataset.addInstance("@i" + i, "null", centre[0] + data.nextGaussian(), centre[1] + data.nextGaussian());
+        }
+        MiniBatchKMeansKernel kernel = new MiniBatchKMeansKernel(dataset, 3, 100);
+        kernel.setCentroid(0, 10, 10);
+        kernel.setCentroid(1, 90, 10);
+        kernel.setCentroid(2, 10, 90);
+
+        Random random = new Random(8);
+        double shift  = Double.MAX_VALUE;
+        for (int step = 0; step < 200; step++) {
+            shift = kernel.step(random);
+        }
+        assertTrue(shift < 0.01);
+        for (int c = 0; c < 3; c++) {
+            assertEquals(centres[c][0], kernel.getCentroidX(c), 0.5);
+            assertEquals(centres[c][1], kernel.getCentroidY(c), 0.5);
+        }
+
+        assertEquals(dataset.size(), kernel.assign());
+        for (int i = 0; i < dataset.size(); i++) {
+            assertEquals(Integer.toString(i % 3), dataset.getLabel(i));
+        }
+        assertEquals(0, kernel.assign());
+    }
+
+    /**
+     * Test of assign and updateCentroids methods, of class
+     * MiniBatchKMeansKernel: a full Lloyd step, exactly as a KMeansKernel
+     * takes it from the same centroids.
+     */
+    @Test
+    public void testUpdateCentroids() {
+        System.out.println("updateCentroids");
+        DataSet               dataset = KMeansKernelTest.blobs(3000, 3, 12);
+        MiniBatchKMeansKernel kernel  = new MiniBatchKMeansKernel(dataset, 3, 32);
+        KMeansKernel          lloyd   = new KMeansKernel(KMeansKernelTest.blobs(3000, 3, 12), 3);
+        for (int c = 0; c < 3; c++) {
+            kernel.setCentroid(c, c * 20 + 5, 5);
+            lloyd.setCentroid(c, c * 20 + 5, 5);
+        }
+        assertEquals(lloyd.assign(), kernel.assign());
+        assertEquals(lloyd.updateCentroids(), kernel.updateCentroids());
+        for (int c = 0; c < 3; c++) {
+            assertEquals(lloyd.getCentroidX(c), kernel.getCentroidX(c), 0);
+            assertEquals(lloyd.getCentroidY(c), kernel.getCentroidY(c), 0);
+        }
+    }
+
+    /**
+     * Test of step method, of class MiniBatchKMeansKernel: the same seed gives
+     * the same centroids, and an empty DataSet does not move them.
+     */
+    @Test
+    public void testStepReproducible() {
+        System.out.println("stepReproducible");
+        DataSet               dataset = KMeansKernelTest.blobs(5000, 4, 9);
+        MiniBatchKMeansKernel first   = new MiniBatchKMeansKernel(dataset, 4, 64);
+        MiniBatchKMeansKernel second  = new MiniBatchKMeansKernel(dataset, 4, 64);
+        for (int c = 0; c < 4; c++) {
+            first.setCentroid(c, c * 10, c);
+            second.setCentroid(c, c * 10, c);
+        }
+        Random firstRandom  = new Random(10);
+        Random secondRandom = new Random(10);
+        for (int step = 0; step < 30; step++) {
+            assertEquals(first.step(firstRandom), second.step(secondRandom), 0);
+        }
+        for (int c = 0; c < 4; c++) {
+            assertEquals(first.getCentroidX(c), second.getCentroidX(c), 0);
+            assertEquals(first.getCentroidY(c), second.getCentroidY(c), 0);
+        }
+
+        MiniBatchKMeansKernel empty = new MiniBatchKMeansKernel(new DataSet(), 2, 16);
+        empty.setCentroid(1, 3, 4);
+        assertEquals(0, empty.step(new Random(11)), 0);
+        assertEquals(3, empty.getCentroidX(1), 0);
+        assertEquals(0, empty.assign());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package algorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class SlicesTest {
+
+    public SlicesTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Test of count and start methods, of class Slices: the slices cover the
+     * work exactly, in order, and their number depends only on its size.
+     */
+    @Test
+    public void testCountAndStart() {
+        System.out.println("countAndStart");
+        assertEquals(1, Slices.count(0));
+        assertEquals(1, Slices.count(Slices.MIN_SLICE_SIZE * 2 - 1));
+        assertEquals(2, Slices.count(Slices.MIN_SLICE_SIZE * 2));
+        assertEquals(Slices.MAX_SLICE_COUNT, Slices.count(Integer.MAX_VALUE));
+        assertEquals(5, Slices.count(5000, 1000));
+
+        int size  = 100003;
+        int count = Slices.count(size);
+        assertEquals(12, count);
+        assertEquals(0, Slices.start(size, count, 0));
+        assertEquals(size, Slices.start(size, count, count));
+        for (int s = 0; s < count; s++) {
+            int length = Slices.start(size, count, s + 1) - Slices.start(size, count, s);
+            assertTrue(length == size / count || length == size / count + 1);
+        }
+    }
+
+    /**
+     * Test of run method, of class Slices, on pools of different sizes: every
+     * slice runs exactly once.
+     */
+    @Test
+    public void testRun() {
+        System.out.println("run");
+        for (int parallelism : new int[] { 1, 3, 8 }) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                for (int count : new int[] { 1, 2, 7, 64 }) {
+                    AtomicIntegerArray runs = new AtomicIntegerArray(count);
+                    Slices.run(pool, count, CancellationToken.NONE, runs::incrementAndGet);
+                    for (int s = 0; s < count; s++) {
+                        assertEquals(1, runs.get(s));
+                    }
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Test of run method, of class Slices, with a cancelled token: no slice
+     * runs, not even a single one on the calling thread.
+     */
+    @Test
+    public void testRunCancelled() {
+        System.out.println("runCancelled");
+        for (int count : new int[] { 1, 16 }) {
+            AtomicIntegerArray runs = new AtomicIntegerArray(count);
+            Slices.run(count, () -> true, runs::incrementAndGet);
+            for (int s = 0; s < count; s++) {
+                assertEquals(0, runs.get(s));
+            }
+        }
+    }
+}
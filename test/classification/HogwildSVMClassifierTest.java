@@ -0,0 +1,91 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package classification;
+
+import algorithms.AlgorithmPauser;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class HogwildSVMClassifierTest {
+
+    public HogwildSVMClassifierTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Test of run method, of class HogwildSVMClassifier.
+     */
+    @Test
+    public void testRun() {
+        System.out.println("run");
+        DataSet      dataset  = PerceptronClassifierTest.separableData(100000, 8);
+        List<String> messages = new ArrayList<>();
+        ProgressSink sink = new ProgressSink() {
+            @Override
+            public void message(String text) {
+                messages.add(text);
+            }
+        };
+        HogwildSVMClassifier classifier = new HogwildSVMClassifier(
+                dataset, HogwildSVMClassifier.getDefaultConfiguration(), new AlgorithmPauser(), sink);
+        classifier.run();
+
+        assertTrue(PerceptronClassifierTest.misclassified(dataset, classifier.getOutput()) < dataset.size() / 100);
+        assertFalse(messages.isEmpty());
+        assertTrue(messages.get(0), messages.get(0).contains("updates/s"));
+    }
+
+    /**
+     * Test of run method, of class HogwildSVMClassifier, cancelled while
+     * paused.
+     */
+    @Test
+    public void testCancel() throws InterruptedException {
+        System.out.println("cancel");
+        DataSet                dataset = PerceptronClassifierTest.separableData(20000, 9);
+        AlgorithmConfiguration config  = HogwildSVMClassifier.getDefaultConfiguration();
+        config.continuousRun = false;
+        config.tolerance     = 0;
+        AlgorithmPauser pauser = new AlgorithmPauser();
+        List<Boolean>   events = new ArrayList<>();
+        ProgressSink sink = new ProgressSink() {
+            @Override
+            public void paused() {
+                pauser.terminateRunningAlgThread();
+            }
+
+            @Override
+            public void finished() {
+                events.add(true);
+            }
+        };
+        HogwildSVMClassifier classifier = new HogwildSVMClassifier(dataset, config, pauser, sink);
+        Thread thread = new Thread(classifier);
+        thread.start();
+        thread.join(10000);
+        assertFalse(thread.isAlive());
+        assertNotNull(classifier.getOutput());
+        assertTrue(events.isEmpty());
+    }
+}
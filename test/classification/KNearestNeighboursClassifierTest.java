@@ -0,0 +1,180 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package classification;
+
+import algorithms.AlgorithmPauser;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+import data.LabelGrid;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class KNearestNeighboursClassifierTest {
+
+    public KNearestNeighboursClassifierTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Votes of the k nearest labelled instances, found by a linear scan.
+     */
+    private static String scanLabel(DataSet dataset, List<Integer> labelled, double x, double y, int k) {
+        Integer[] nearest = labelled.toArray(new Integer[0]);
+        Arrays.sort(nearest, (i, j) -> Double.compare(distance(dataset, i, x, y), distance(dataset, j, x, y)));
+        int above = 0;
+        for (int n = 0; n < k; n++) {
+            above += dataset.getLabel(nearest[n]).equals("above") ? 1 : 0;
+        }
+        return 2 * above > k ? "above" : "below";
+    }
+
+    private static double distance(DataSet dataset, int i, double x, double y) {
+        double dx = dataset.getX(i) - x;
+        double dy = dataset.getY(i) - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Test of run method, of class KNearestNeighboursClassifier, against a
+     * linear scan.
+     */
+    @Test
+    public void testRun() {
+        System.out.println("run");
+        DataSet       dataset  = PerceptronClassifierTest.separableData(5000, 10);
+        List<Integer> labelled = new ArrayList<>();
+        List<Integer> queries  = new ArrayList<>();
+        for (int i = 0; i < dataset.size(); i++) {
+            (dataset.getLabel(i).equals("null") ? queries : labelled).add(i);
+        }
+        DataSet original = PerceptronClassifierTest.separableData(5000, 10);
+
+        List<LabelGrid> grids    = new ArrayList<>();
+        List<String>    messages = new ArrayList<>();
+        ProgressSink sink = new ProgressSink() {
+            @Override
+            public void message(String text) {
+                messages.add(text);
+            }
+
+            @Override
+            public void gridUpdated(LabelGrid grid) {
+                grids.add(grid);
+            }
+        };
+        AlgorithmConfiguration config = KNearestNeighboursClassifier.getDefaultConfiguration();
+        KNearestNeighboursClassifier classifier = new KNearestNeighboursClassifier(
+                dataset, config, new AlgorithmPauser(), sink);
+        classifier.run();
+
+        assertFalse(queries.isEmpty());
+        for (int i : queries) {
+            assertEquals(scanLabel(original, labelled, dataset.getX(i), dataset.getY(i), config.neighbours),
+                         dataset.getLabel(i));
+        }
+        for (int i : labelled) {
+            assertEquals(original.getLabel(i), dataset.getLabel(i));
+        }
+        assertNull(classifier.getOutput());
+        assertTrue(classifier.isLabelling());
+
+        assertEquals(1, grids.size());
+        LabelGrid grid = grids.get(0);
+        assertSame(grid, classifier.getGrid());
+        for (int cell = 0; cell < grid.size(); cell += 331) {
+            assertEquals(scanLabel(original, labelled, grid.getCellX(cell), grid.getCellY(cell), config.neighbours),
+                         dataset.getLabelDictionary().get(grid.getLabelId(cell)));
+        }
+        assertTrue(messages.get(messages.size() - 1).contains("queries/s"));
+    }
+
+    /**
+     * Test of run method, of class KNearestNeighboursClassifier, on data
+     * without labelled instances.
+     */
+    @Test
+    public void testRunWithoutLabels() {
+        System.out.println("runWithoutLabels");
+        DataSet dataset = new DataSet();
+        dataset.addInstance("@a", "null", 1, 2);
+        dataset.addInstance("@b", "null", 3, 4);
+        List<String> messages = new ArrayList<>();
+        ProgressSink sink = new ProgressSink() {
+            @Override
+            public void message(String text) {
+                messages.add(text);
+            }
+        };
+        KNearestNeighboursClassifier classifier = new KNearestNeighboursClassifier(
+                dataset, KNearestNeighboursClassifier.getDefaultConfiguration(), new AlgorithmPauser(), sink);
+        classifier.run();
+
+        assertEquals("null", dataset.getLabel(0));
+        assertNull(classifier.getGrid());
+        assertEquals(1, messages.size());
+    }
+
+    /**
+     * Test of run method, of class KNearestNeighboursClassifier, cancelled
+     * while paused after the first batch, which leaves the second batch
+     * unlabelled.
+     */
+    @Test
+    public void testCancel() throws InterruptedException {
+        System.out.println("cancel");
+        DataSet dataset = new DataSet();
+        dataset.addInstance("@a", "left", 0, 0);
+        dataset.addInstance("@b", "right", 10, 0);
+        int size = KNearestNeighboursClassifier.BATCH_SIZE * 2;
+        for (int i = 0; i < size; i++) {
+            dataset.addInstance("@u" + i, "null", i % 10, i / 10 % 10);
+        }
+        AlgorithmConfiguration config = KNearestNeighboursClassifier.getDefaultConfiguration();
+        config.continuousRun = false;
+        config.neighbours    = 1;
+        AlgorithmPauser pauser = new AlgorithmPauser();
+        List<Boolean>   events = new ArrayList<>();
+        ProgressSink sink = new ProgressSink() {
+            @Override
+            public void paused() {
+                pauser.terminateRunningAlgThread();
+            }
+
+            @Override
+            public void finished() {
+                events.add(true);
+            }
+        };
+        KNearestNeighboursClassifier classifier = new KNearestNeighboursClassifier(dataset, config, pauser, sink);
+        Thread thread = new Thread(classifier);
+        thread.start();
+        thread.join(10000);
+        assertFalse(thread.isAlive());
+        assertTrue(events.isEmpty());
+        int unlabelled = 0;
+        for (int i = 0; i < dataset.size(); i++) {
+            unlabelled += dataset.getLabel(i).equals("null") ? 1 : 0;
+        }
+        assertEquals(size - KNearestNeighboursClassifier.BATCH_SIZE, unlabelled);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package classification;
+
+import algorithms.AlgorithmPauser;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class LogisticRegressionClassifierTest {
+
+    public LogisticRegressionClassifierTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    private static LogisticRegressionClassifier run(DataSet dataset, int batchSize, long seed) {
+        AlgorithmConfiguration config = LogisticRegressionClassifier.getDefaultConfiguration();
+        config.batchSize = batchSize;
+        config.seed      = seed;
+        LogisticRegressionClassifier classifier
+                = new LogisticRegressionClassifier(dataset, config, new AlgorithmPauser(), ProgressSink.NONE);
+        classifier.run();
+        return classifier;
+    }
+
+    /**
+     * Test of run method, of class LogisticRegressionClassifier, with
+     * mini-batches spread over several slices.
+     */
+    @Test
+    public void testRunMiniBatch() {
+        System.out.println("runMiniBatch");
+        DataSet dataset = PerceptronClassifierTest.separableData(100000, 5);
+        LogisticRegressionClassifier classifier = run(dataset, 40000, 9);
+        assertTrue(PerceptronClassifierTest.misclassified(dataset, classifier.getOutput()) < dataset.size() / 100);
+        assertEquals(classifier.getOutput(), run(dataset, 40000, 9).getOutput());
+    }
+
+    /**
+     * Test of run method, of class LogisticRegressionClassifier, with
+     * full-batch steps.
+     */
+    @Test
+    public void testRunFullBatch() {
+        System.out.println("runFullBatch");
+        DataSet dataset = PerceptronClassifierTest.separableData(20000, 6);
+        LogisticRegressionClassifier classifier = run(dataset, 0, 1);
+        assertTrue(PerceptronClassifierTest.misclassified(dataset, classifier.getOutput()) < dataset.size() / 100);
+    }
+}
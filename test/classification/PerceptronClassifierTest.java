@@ -0,0 +1,118 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package classification;
+
+import algorithms.AlgorithmPauser;
+import algorithms.LinearModel;
+import algorithms.ProgressSink;
+import components.AlgorithmConfiguration;
+import data.DataSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class PerceptronClassifierTest {
+
+    public PerceptronClassifierTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Two labels on either side of the line x + 2y = 150, with unlabelled
+     * instances that must be ignored.
+     */
+    static DataSet separableData(int size, long seed) {
+        Random  random  = new Random(seed);
+        DataSet dataset = new DataSet(size);
+        for (int i = 0; i < size; i++) {
+            double x = random.nextDouble() * 100;
+            double y = random.nextDouble() * 100;
+            double side = x + 2 * y - 150;
+            if (Math.abs(side) < 5) {
+                dataset.addInstance("@u" + i, "null", x, y);
+            } else {
+                dataset.addInstance("@i" + i, side > 0 ? "above" : "below", x, y);
+            }
+        }
+        return dataset;
+    }
+
+    /**
+     * Counts the labelled instances on the wrong side of an output line.
+     */
+    static int misclassified(DataSet dataset, LinearModel output) {
+        String positive = null;
+        int    wrong    = 0;
+        for (int i = 0; i < dataset.size(); i++) {
+            String label = dataset.getLabel(i);
+            if (label.equals("null")) {
+                continue;
+            }
+            positive = positive == null ? label : positive;
+            double value = output.evaluate(dataset.getX(i), dataset.getY(i));
+            if ((value > 0) != label.equals(positive)) {
+                wrong++;
+            }
+        }
+        return wrong;
+    }
+
+    /**
+     * Test of run method, of class PerceptronClassifier.
+     */
+    @Test
+    public void testRun() {
+        System.out.println("run");
+        DataSet dataset = separableData(20000, 3);
+        List<LinearModel> outputs = new ArrayList<>();
+        ProgressSink sink = new ProgressSink() {
+            @Override
+            public void outputUpdated(LinearModel output) {
+                outputs.add(output.snapshot());
+            }
+        };
+        PerceptronClassifier classifier = new PerceptronClassifier(
+                dataset, new AlgorithmConfiguration(1000, 1, true, false, 0), new AlgorithmPauser(), sink);
+        classifier.run();
+
+        assertFalse(outputs.isEmpty());
+        assertEquals(classifier.getOutput(), outputs.get(outputs.size() - 1));
+        assertNotSame(classifier.getOutput(), outputs.get(0));
+        assertFalse(classifier.tocontinue());
+        assertEquals(0, misclassified(dataset, classifier.getOutput()));
+    }
+
+    /**
+     * Test of run method, of class PerceptronClassifier, with a single label.
+     */
+    @Test
+    public void testRunWithOneLabel() {
+        System.out.println("runWithOneLabel");
+        DataSet dataset = new DataSet();
+        dataset.addInstance("@a", "x", 0, 0);
+        dataset.addInstance("@b", "x", 1, 1);
+        PerceptronClassifier classifier = new PerceptronClassifier(
+                dataset, new AlgorithmConfiguration(10, 1, true, false, 0), new AlgorithmPauser(),
+                ProgressSink.NONE);
+        classifier.run();
+        assertNull(classifier.getOutput());
+    }
+}
@@ -6,6 +6,9 @@
 package data;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import javafx.geometry.Point2D;
 import org.junit.AfterClass;
@@ -100,5 +103,60 @@ public class DataSetTest {
         // TODO review the generated test code and remove the default call to fail.
         fail("The test case is a prototype.");
     }
+
+    /**
+     * Test of addInstance method, of class DataSet.
+     */
+    @Test
+    public void testAddInstance() {
+        System.out.println("addInstance");
+        DataSet instance = new DataSet();
+        instance.addInstance("@a", "label1", 1.5, 2.5);
+        instance.addInstance("@b", "label2", -1, 4);
+        instance.addInstance("@a", "label2", 3, 0);
+        assertEquals(2, instance.size());
+        assertEquals(0, instance.indexOf("@a"));
+        assertEquals(-1, instance.indexOf("@c"));
+        assertEquals("label2", instance.getLabels().get("@a"));
+        assertEquals(new Point2D(3, 0), instance.getLocations().get("@a"));
+        assertEquals(-1.0, instance.getBounds("xMin"), 0.0);
+        assertEquals(4.0, instance.getBounds("yMax"), 0.0);
+    }
+
+    /**
+     * Test of the dictionary-encoded label column, of class DataSet.
+     */
+    @Test
+    public void testLabelDictionary() {
+        System.out.println("labelDictionary");
+        DataSet instance = new DataSet();
+        instance.addInstance("@a", "label1", 0, 0);
+        instance.addInstance("@b", "label1", 1, 1);
+        instance.getLabels().put("@b", "label2");
+        assertEquals(instance.getLabelId(0), instance.labelIdOf("label1"));
+        assertEquals("label2", instance.getLabel(1));
+        assertEquals(2, instance.getLabelDictionary().size());
+    }
+
+    /**
+     * Test of drainLabelChanges method, of class DataSet.
+     */
+    @Test
+    public void testDrainLabelChanges() {
+        System.out.println("drainLabelChanges");
+        DataSet instance = new DataSet();
+        for (int i = 0; i < 200; i++) {
+            instance.addInstance("@" + i, "label1", i, i);
+        }
+        int label2 = instance.labelIdOf("label2");
+        instance.setLabelId(3, label2);
+        instance.setLabelId(150, label2);
+        instance.setLabelId(150, label2);
+        instance.setLabelId(7, instance.getLabelId(7));
+        List<Integer> changed = new ArrayList<>();
+        assertEquals(2, instance.drainLabelChanges(changed::add));
+        assertEquals(Arrays.asList(3, 150), changed);
+        assertEquals(0, instance.drainLabelChanges(changed::add));
+    }
     
 }
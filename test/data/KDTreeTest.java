@@ -0,0 +1,216 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class KDTreeTest {
+
+    public KDTreeTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Test of nearest method, of class KDTree, against a linear scan.
+     */
+    @Test
+    public void testNearest() {
+        System.out.println("nearest");
+        DataSet dataset = randomDataSet(5000, 1);
+        KDTree  tree    = new KDTree(dataset);
+        Random  random  = new Random(2);
+        for (int q = 0; q < 100; q++) {
+            double x = random.nextGaussian() * 50;
+            double y = random.nextGaussian() * 50;
+            assertArrayEquals(scanNearest(dataset, x, y, 7), tree.nearest(x, y, 7));
+        }
+        assertEquals(-1, new KDTree(new DataSet()).nearest(0, 0));
+    }
+
+    /**
+     * Test of nearest method, of class KDTree, over a tree of some of the
+     * instances and with one reused buffer, against a linear scan.
+     */
+    @Test
+    public void testNearestInSubset() {
+        System.out.println("nearestInSubset");
+        DataSet    dataset = randomDataSet(5000, 5);
+        KDTree     tree    = new KDTree(dataset, i -> i % 3 == 0);
+        Neighbours found   = new Neighbours(4);
+        Random     random  = new Random(6);
+        assertEquals(1667, tree.size());
+        for (int q = 0; q < 100; q++) {
+            double x = random.nextGaussian() * 50;
+            double y = random.nextGaussian() * 50;
+            tree.nearest(x, y, found, i -> true);
+            assertEquals(4, found.size());
+            assertArrayEquals(scanNearest(dataset, x, y, 4, i -> i % 3 == 0), found.toArray());
+        }
+    }
+
+    /**
+     * Test of forEachWithin method, of class KDTree, against a linear scan.
+     */
+    @Test
+    public void testForEachWithin() {
+        System.out.println("forEachWithin");
+        DataSet dataset = randomDataSet(5000, 3);
+        KDTree  tree    = new KDTree(dataset);
+        List<Integer> result    = new ArrayList<>();
+        List<Integer> expResult = new ArrayList<>();
+        tree.forEachWithin(5, -5, 12, result::add);
+        for (int i = 0; i < dataset.size(); i++) {
+            double dx = dataset.getX(i) - 5;
+            double dy = dataset.getY(i) + 5;
+            if (dx * dx + dy * dy <= 12 * 12) {
+                expResult.add(i);
+            }
+        }
+        result.sort(null);
+        assertEquals(expResult, result);
+    }
+
+    /**
+     * Test of forEachInRect method, of class KDTree, against a linear scan.
+     */
+    @Test
+    public void testForEachInRect() {
+        System.out.println("forEachInRect");
+        DataSet dataset = randomDataSet(5000, 7);
+        KDTree  tree    = new KDTree(dataset);
+        Random  random  = new Random(8);
+        for (int q = 0; q < 50; q++) {
+            double minX = random.nextGaussian() * 50;
+            double minY = random.nextGaussian() * 50;
+            double maxX = minX + random.nextDouble() * 60;
+            double maxY = minY + random.nextDouble() * 60;
+            List<Integer> result = new ArrayList<>();
+            tree.forEachInRect(minX, minY, maxX, maxY, result::add);
+            result.sort(null);
+            assertEquals(scanInRect(dataset, minX, minY, maxX, maxY), result);
+        }
+        // borders are included; x coordinates are whole numbers
+        int index = 17;
+        double x = dataset.getX(index);
+        List<Integer> result = new ArrayList<>();
+        tree.forEachInRect(x, -1000, x, 1000, result::add);
+        result.sort(null);
+        assertTrue(result.contains(index));
+        assertEquals(scanInRect(dataset, x, -1000, x, 1000), result);
+    }
+
+    /**
+     * Test of the KDTree constructor, of class KDTree, on an input large
+     * enough to be built in parallel, against a linear scan.
+     */
+    @Test
+    public void testParallelBuild() {
+        System.out.println("parallelBuild");
+        DataSet dataset = randomDataSet((1 << 15) * 3 + 5, 9);
+        KDTree  tree    = new KDTree(dataset);
+        Random  random  = new Random(10);
+        assertEquals(dataset.size(), tree.size());
+        for (int q = 0; q < 50; q++) {
+            double x = random.nextGaussian() * 50;
+            double y = random.nextGaussian() * 50;
+            assertArrayEquals(scanNearest(dataset, x, y, 5), tree.nearest(x, y, 5));
+        }
+        List<Integer> result = new ArrayList<>();
+        tree.forEachInRect(-20, -30, 25, 10, result::add);
+        result.sort(null);
+        assertEquals(scanInRect(dataset, -20, -30, 25, 10), result);
+        // every instance is found exactly once
+        List<Integer> all = new ArrayList<>();
+        tree.forEachInRect(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                           Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, all::add);
+        all.sort(null);
+        assertEquals(scanInRect(dataset, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY), all);
+    }
+
+    /**
+     * Test of update method, of class DataSetIndex: added and moved instances
+     * are found after an update.
+     */
+    @Test
+    public void testDataSetIndexUpdate() {
+        System.out.println("DataSetIndex.update");
+        DataSet      dataset = randomDataSet(100, 4);
+        DataSetIndex index   = new DataSetIndex(dataset);
+        int added = dataset.addInstance("@added", "b", 1000, 1000);
+        assertTrue(index.update());
+        assertEquals(added, index.nearest(999, 999));
+        dataset.setLocation(0, -1000, -1000);
+        assertTrue(index.update());
+        assertEquals(0, index.nearest(-999, -999));
+        assertFalse(index.update());
+    }
+
+    private static DataSet randomDataSet(int size, long seed) {
+        DataSet dataset = new DataSet();
+        Random  random  = new Random(seed);
+        for (int i = 0; i < size; i++) {
+            // rounded, so that some instances share a location
+            dataset.addInstance("@" + i, "a", Math.rint(random.nextGaussian() * 40), random.nextGaussian() * 40);
+        }
+        return dataset;
+    }
+
+    private static int[] scanNearest(DataSet dataset, double x, double y, int k) {
+        return scanNearest(dataset, x, y, k, i -> true);
+    }
+
+    private static int[] scanNearest(DataSet dataset, double x, double y, int k, IntPredicate filter) {
+        Integer[] order = IntStream.range(0, dataset.size()).filter(filter).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, (a, b) -> {
+            int byDistance = Double.compare(distance(dataset, a, x, y), distance(dataset, b, x, y));
+            return byDistance != 0 ? byDistance : Integer.compare(b, a);
+        });
+        int[] nearest = new int[k];
+        for (int i = 0; i < k; i++) {
+            nearest[i] = order[i];
+        }
+        return nearest;
+    }
+
+    private static List<Integer> scanInRect(DataSet dataset, double minX, double minY, double maxX, double maxY) {
+        List<Integer> inside = new ArrayList<>();
+        for (int i = 0; i < dataset.size(); i++) {
+            double x = dataset.getX(i);
+            double y = dataset.getY(i);
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                inside.add(i);
+            }
+        }
+        return inside;
+    }
+
+    private static double distance(DataSet dataset, int index, double x, double y) {
+        double dx = dataset.getX(index) - x;
+        double dy = dataset.getY(index) - y;
+        return dx * dx + dy * dy;
+    }
+}
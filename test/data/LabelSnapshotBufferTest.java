@@ -0,0 +1,230 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package data;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class LabelSnapshotBufferTest {
+
+    public LabelSnapshotBufferTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Test of publish and acquire methods, of class LabelSnapshotBuffer.
+     */
+    @Test
+    public void testPublishAndAcquire() {
+        System.out.println("publishAndAcquire");
+        DataSet dataset = new DataSet();
+        dataset.addInstance("@a", "x", 0, 0);
+        dataset.addInstance("@b", "x", 1, 1);
+        LabelSnapshotBuffer buffer = new LabelSnapshotBuffer(dataset);
+        assertNull(buffer.acquire());
+
+        buffer.publish();
+        dataset.setLabel(1, "y");
+        LabelSnapshot first = buffer.acquire();
+        assertEquals(1, first.getSequence());
+        assertEquals(0, first.getLabelId(1));
+        assertEquals(Arrays.asList("x"), first.getLabelDictionary());
+        assertSame(first, buffer.acquire());
+
+        // only the latest of several publications is acquired
+        buffer.publish();
+        dataset.setLabel(0, "y");
+        buffer.publish();
+        LabelSnapshot latest = buffer.acquire();
+        assertEquals(3, latest.getSequence());
+        assertEquals(1, latest.getLabelId(0));
+        assertEquals(1, latest.getLabelId(1));
+        assertEquals(Arrays.asList("x", "y"), latest.getLabelDictionary());
+    }
+
+    /**
+     * Test that a reader never sees a snapshot being refilled by the writer.
+     */
+    @Test
+    public void testConcurrentPublish() throws InterruptedException {
+        System.out.println("concurrentPublish");
+        int     size    = 10000;
+        int     rounds  = 2000;
+        DataSet dataset = new DataSet(size);
+        for (int i = 0; i < size; i++) {
+            dataset.addInstance("@" + i, Integer.toString(i % 8), i, i);
+        }
+        LabelSnapshotBuffer buffer = new LabelSnapshotBuffer(dataset);
+        AtomicBoolean       done   = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int round = 1; round <= rounds; round++) {
+                for (int i = 0; i < size; i++) {
+                    dataset.setLabelId(i, round % 8);
+                }
+                buffer.publish();
+            }
+            done.set(true);
+        });
+        writer.start();
+        long previous = 0;
+        while (!done.get() || previous < rounds) {
+            LabelSnapshot snapshot = buffer.acquire();
+            if (snapshot == null) {
+                continue;
+            }
+            long sequence = snapshot.getSequence();
+            assertTrue(sequence >= previous);
+            for (int i = 0; i < size; i++) {
+                assertEquals(sequence % 8, snapshot.getLabelId(i));
+            }
+            assertEquals(sequence, snapshot.getSequence());
+            previous = sequence;
+        }
+        writer.join();
+    }
+
+    /**
+     * Brings a reader's copy of the labels up to date with a newly acquired
+     * snapshot, through its list of changes where it has one.
+     *
+     * @return number of labels visited
+     */
+    private static int catchUp(int[] mirror, LabelSnapshot previous, LabelSnapshot snapshot) {
+        if (snapshot.listsChangesSince(previous)) {
+            for (int n = 0; n < snapshot.getChangeCount(); n++) {
+                int index = snapshot.getChange(n);
+                mirror[index] = snapshot.getLabelId(index);
+            }
+            return snapshot.getChangeCount();
+        }
+        for (int i = 0; i < mirror.length; i++) {
+            mirror[i] = snapshot.getLabelId(i);
+        }
+        return mirror.length;
+    }
+
+    /**
+     * Test of the changes listed by published snapshots, which cover every
+     * label that changed since the previously acquired snapshot, also when
+     * snapshots are skipped.
+     */
+    @Test
+    public void testListedChanges() {
+        System.out.println("listedChanges");
+        int     size    = 10000;
+        DataSet dataset = new DataSet(size);
+        for (int i = 0; i < size; i++) {
+            dataset.addInstance("@" + i, "a", i, i);
+        }
+        dataset.labelIdOf("b");
+        LabelSnapshotBuffer buffer = new LabelSnapshotBuffer(dataset);
+        buffer.publish();
+        LabelSnapshot first = buffer.acquire();
+        assertFalse(first.listsChangesSince(null));
+        int[] mirror = new int[size];
+        catchUp(mirror, null, first);
+
+        Random        random   = new Random(1);
+        LabelSnapshot previous = first;
+        for (int round = 0; round < 200; round++) {
+            for (int change = 0; change < 20; change++) {
+                dataset.setLabelId(random.nextInt(size), random.nextInt(2));
+            }
+            buffer.publish();
+            if (round % 3 == 0) {
+                // the reader skips this publication
+                continue;
+            }
+            LabelSnapshot snapshot = buffer.acquire();
+            assertTrue(snapshot.listsChangesSince(previous));
+            assertTrue(catchUp(mirror, previous, snapshot) <= 3 * 2 * 20);
+            for (int i = 0; i < size; i++) {
+                assertEquals(dataset.getLabelId(i), snapshot.getLabelId(i));
+                assertEquals(snapshot.getLabelId(i), mirror[i]);
+            }
+            previous = snapshot;
+        }
+
+        // too many changes for a list
+        for (int i = 0; i < size; i++) {
+            dataset.setLabelId(i, 1 - dataset.getLabelId(i));
+        }
+        buffer.publish();
+        LabelSnapshot snapshot = buffer.acquire();
+        assertFalse(snapshot.listsChangesSince(previous));
+        catchUp(mirror, previous, snapshot);
+        for (int i = 0; i < size; i++) {
+            assertEquals(dataset.getLabelId(i), mirror[i]);
+        }
+        LabelSnapshotBuffer other = new LabelSnapshotBuffer(dataset);
+        other.publish();
+        assertFalse(snapshot.listsChangesSince(other.acquire()));
+    }
+
+    /**
+     * Test that a reader catching up through the listed changes alone stays
+     * in step with the labels while the writer keeps publishing.
+     */
+    @Test
+    public void testConcurrentListedChanges() throws InterruptedException {
+        System.out.println("concurrentListedChanges");
+        int     size    = 50000;
+        int     rounds  = 3000;
+        DataSet dataset = new DataSet(size);
+        for (int i = 0; i < size; i++) {
+            dataset.addInstance("@" + i, Integer.toString(i % 4), i, i);
+        }
+        LabelSnapshotBuffer buffer = new LabelSnapshotBuffer(dataset);
+        AtomicBoolean       done   = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(2);
+            for (int round = 1; round <= rounds; round++) {
+                for (int change = 0; change < 100; change++) {
+                    dataset.setLabelId(random.nextInt(size), random.nextInt(4));
+                }
+                buffer.publish();
+            }
+            done.set(true);
+        });
+        writer.start();
+        int[]         mirror   = new int[size];
+        LabelSnapshot previous = null;
+        long          visited  = 0;
+        while (!done.get() || previous == null || previous.getSequence() < rounds) {
+            LabelSnapshot snapshot = buffer.acquire();
+            if (snapshot == null || snapshot == previous) {
+                continue;
+            }
+            visited += catchUp(mirror, previous, snapshot);
+            for (int i = 0; i < size; i++) {
+                assertEquals(snapshot.getLabelId(i), mirror[i]);
+            }
+            previous = snapshot;
+        }
+        writer.join();
+        for (int i = 0; i < size; i++) {
+            assertEquals(dataset.getLabelId(i), mirror[i]);
+        }
+        // far fewer than the size of the data per publication
+        assertTrue(visited < (long) rounds * size / 10);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package data;
+
+import data.ParallelTSDParser.ParseError;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class ParallelTSDParserTest {
+
+    /** length of every line of {@link #testChunkBoundaries()}, newline included */
+    private static final int LINE_LENGTH = 32;
+
+    public ParallelTSDParserTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    private static Path write(String content) throws IOException {
+        Path file = Files.createTempFile("parsed", ".tsd");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * @return a name padded to 12 characters
+     */
+    private static String fixedName(String name) {
+        StringBuilder padded = new StringBuilder(name);
+        while (padded.length() < 12) {
+            padded.append('_');
+        }
+        return padded.toString();
+    }
+
+    /**
+     * A line of exactly {@link #LINE_LENGTH} bytes: a padded name, the rest of
+     * the line, and trailing spaces, which a coordinate may be followed by.
+     */
+    private static String fixedLine(String name, String rest) {
+        StringBuilder line = new StringBuilder(fixedName(name)).append(rest);
+        while (line.length() < LINE_LENGTH - 1) {
+            line.append(' ');
+        }
+        line.append('\n');
+        assertEquals(LINE_LENGTH, line.length());
+        return line.toString();
+    }
+
+    private static void assertSameResult(ParallelTSDParser.Result expResult, ParallelTSDParser.Result result) {
+        assertEquals(expResult.getLineCount(), result.getLineCount());
+        DataSet expected = expResult.getDataSet();
+        DataSet actual   = result.getDataSet();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getName(i), actual.getName(i));
+            assertEquals(expected.getLabel(i), actual.getLabel(i));
+            assertEquals(expected.getX(i), actual.getX(i), 0);
+            assertEquals(expected.getY(i), actual.getY(i), 0);
+        }
+        assertEquals(expResult.getErrors().size(), result.getErrors().size());
+        for (int e = 0; e < expResult.getErrors().size(); e++) {
+            ParseError expError = expResult.getErrors().get(e);
+            ParseError error    = result.getErrors().get(e);
+            assertEquals(expError.getLineNumber(), error.getLineNumber());
+            assertEquals(expError.getKind(), error.getKind());
+            assertEquals(expError.getDetail(), error.getDetail());
+        }
+    }
+
+    /**
+     * Test of parse method, of class ParallelTSDParser, with a file split into
+     * several chunks. With lines of 32 bytes and chunks of 100, every chunk
+     * after the first starts on line 4n + 1 (lines 5, 9, 13, ...).
+     */
+    @Test
+    public void testChunkBoundaries() throws IOException {
+        System.out.println("chunkBoundaries");
+        StringBuilder content = new StringBuilder();
+        for (int line = 1; line <= 20; line++) {
+            if (line == 5) {
+                // the name of line 4, at the start of the next chunk
+                content.append(fixedLine("@n4", "\tdup\t5,5"));
+            } else if (line == 9) {
+                content.append(fixedLine("@n9", "\tlabel\t1;2"));
+            } else if (line == 12) {
+                content.append(fixedLine("@n12", "\tlabel"));
+            } else if (line == 13) {
+                content.append(fixedLine("n13", "\tlabel\t1,2"));
+            } else {
+                content.append(fixedLine("@n" + line, "\tl" + line % 3 + "\t" + line + "," + -line));
+            }
+        }
+        Path file = write(content.toString());
+        ParallelTSDParser.Result result = ParallelTSDParser.parse(file, 100);
+
+        assertEquals(20, result.getLineCount());
+        DataSet dataset = result.getDataSet();
+        assertEquals(16, dataset.size());
+        int n4 = dataset.indexOf(fixedName("@n4"));
+        assertEquals(3, n4);
+        assertEquals("l1", dataset.getLabel(n4));
+        assertEquals(4, dataset.getX(n4), 0);
+        // the label of the rejected duplicate is not in the dictionary
+        assertFalse(dataset.getLabelDictionary().contains("dup"));
+        assertEquals(fixedName("@n20"), dataset.getName(15));
+        assertEquals(-20, dataset.getY(15), 0);
+
+        List<ParseError> errors = result.getErrors();
+        assertEquals(4, errors.size());
+        assertEquals(5, errors.get(0).getLineNumber());
+        assertEquals(ParseError.Kind.DUPLICATE_NAME, errors.get(0).getKind());
+        assertEquals(9, errors.get(1).getLineNumber());
+        assertEquals(ParseError.Kind.MALFORMED_LINE, errors.get(1).getKind());
+        assertEquals(12, errors.get(2).getLineNumber());
+        assertEquals(ParseError.Kind.MALFORMED_LINE, errors.get(2).getKind());
+        assertEquals(13, errors.get(3).getLineNumber());
+        assertEquals(ParseError.Kind.INVALID_NAME, errors.get(3).getKind());
+
+        assertSameResult(ParallelTSDParser.parse(file), result);
+        Files.delete(file);
+    }
+
+    /**
+     * Test of parse method, of class ParallelTSDParser, with chunks of many
+     * sizes, against a single chunk.
+     */
+    @Test
+    public void testChunkSizes() throws IOException {
+        System.out.println("chunkSizes");
+        Random        random  = new Random(11);
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 2000; line++) {
+            int kind = random.nextInt(20);
+            if (kind == 0) {
+                content.append("garbage line ").append(line);
+            } else if (kind == 1) {
+                content.append("@i").append(random.nextInt(line + 1)).append("\tdup\t1,1");
+            } else {
+                content.append("@i").append(line).append("\tlabel").append(random.nextInt(4)).append('\t')
+                       .append(random.nextGaussian() * 1000).append(',').append(random.nextInt(100));
+            }
+            content.append(random.nextInt(10) == 0 ? "\r\n" : "\n");
+        }
+        content.append("@last\tend\t3,4");
+        Path file = write(content.toString());
+        ParallelTSDParser.Result expResult = ParallelTSDParser.parse(file, Integer.MAX_VALUE);
+        assertEquals(2001, expResult.getLineCount());
+        assertFalse(expResult.getErrors().isEmpty());
+        for (int chunkSize : new int[] { 1, 17, 256, 4099 }) {
+            assertSameResult(expResult, ParallelTSDParser.parse(file, chunkSize));
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * Test of parse method, of class ParallelTSDParser, with coordinates in
+     * every syntax, against {@link Double#parseDouble(String)}.
+     */
+    @Test
+    public void testParseDouble() throws IOException {
+        System.out.println("parseDouble");
+        String[] numbers = {
+            "0", "-0", "+0", "42", "+42", "-42", "3.25", "-3.25", "+.5", "5.", "-0.000123",
+            "1234567890.12345", "123456789012345678", "0.1234567890123456789", "-98765.432109876543",
+            "9007199254740993", "1e5", "1E5", "-2.5e-3", "+7.0E+2", "6.02214076e23", "1e-320", "1e400",
+            "-1e400", "0e10", "00012.5000", " 12.5 ", "0x1p3", "NaN", "-Infinity"
+        };
+        StringBuilder content = new StringBuilder();
+        for (int n = 0; n < numbers.length; n++) {
+            content.append("@x").append(n).append("\tl\t").append(numbers[n]).append(',')
+                   .append(numbers[numbers.length - 1 - n]).append('\n');
+        }
+        for (String invalid : new String[] { "1e", "--1", "1.2.3", "", "1e+", "abc" }) {
+            content.append("@bad").append(invalid).append("\tl\t").append(invalid).append(",1\n");
+        }
+        Path file = write(content.toString());
+        ParallelTSDParser.Result result = ParallelTSDParser.parse(file);
+        DataSet dataset = result.getDataSet();
+        assertEquals(numbers.length, dataset.size());
+        for (int n = 0; n < numbers.length; n++) {
+            assertEquals(numbers[n], Double.doubleToLongBits(Double.parseDouble(numbers[n])),
+                         Double.doubleToLongBits(dataset.getX(n)));
+            assertEquals(Double.parseDouble(numbers[numbers.length - 1 - n]), dataset.getY(n), 0);
+        }
+        assertEquals(6, result.getErrors().size());
+        for (ParseError error : result.getErrors()) {
+            assertEquals(ParseError.Kind.MALFORMED_LINE, error.getKind());
+        }
+        Files.delete(file);
+    }
+}
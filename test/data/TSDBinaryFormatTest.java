@@ -0,0 +1,273 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class TSDBinaryFormatTest {
+
+    public TSDBinaryFormatTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    private static DataSet sampleData(int size) {
+        Random  random  = new Random(size);
+        DataSet dataset = new DataSet();
+        String[] labels = { "alpha", "b\u00e9ta", "null" };
+        for (int i = 0; i < size; i++) {
+            dataset.addInstance("@inst" + i + (i % 7 == 0 ? "\u00fc" : ""), labels[i % labels.length],
+                                random.nextGaussian() * 100, random.nextDouble() - 0.5);
+        }
+        return dataset;
+    }
+
+    private static Path written(DataSet dataset) throws IOException {
+        Path file = Files.createTempFile("dataset", TSDBinaryFormat.EXTENSION);
+        TSDBinaryFormat.write(dataset, file);
+        return file;
+    }
+
+    /**
+     * Test of write and read methods, of class TSDBinaryFormat.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        System.out.println("roundTrip");
+        DataSet expResult = sampleData(1000);
+        Path    file      = written(expResult);
+        DataSet result    = TSDBinaryFormat.read(file);
+        assertEquals(expResult.size(), result.size());
+        assertEquals(expResult.getLabelDictionary(), result.getLabelDictionary());
+        for (int i = 0; i < expResult.size(); i++) {
+            assertEquals(expResult.getName(i), result.getName(i));
+            assertEquals(expResult.getLabel(i), result.getLabel(i));
+            assertEquals(expResult.getLabelId(i), result.getLabelId(i));
+            assertEquals(expResult.getX(i), result.getX(i), 0);
+            assertEquals(expResult.getY(i), result.getY(i), 0);
+        }
+        for (String bound : new String[] { "xMin", "xMax", "yMin", "yMax" }) {
+            assertEquals(expResult.getBounds(bound), result.getBounds(bound), 0);
+        }
+        // the mapped column, copied onto the heap
+        assertArrayEquals(Arrays.copyOf(expResult.getYs(), expResult.size()),
+                          Arrays.copyOf(result.getYs(), result.size()), 0);
+        assertEquals(expResult.indexOf("@inst7\u00fc"), result.indexOf("@inst7\u00fc"));
+
+        // and back again
+        Path copy = written(result);
+        assertTrue(Arrays.equals(Files.readAllBytes(file), Files.readAllBytes(copy)));
+        Files.delete(file);
+        Files.delete(copy);
+    }
+
+    /**
+     * Test of write and read methods, of class TSDBinaryFormat, with an empty
+     * DataSet.
+     */
+    @Test
+    public void testRoundTripEmpty() throws IOException {
+        System.out.println("roundTripEmpty");
+        Path    file   = written(new DataSet());
+        DataSet result = TSDBinaryFormat.read(file);
+        assertEquals(0, result.size());
+        assertTrue(result.getLabelDictionary().isEmpty());
+        Files.delete(file);
+    }
+
+    /**
+     * Test of addInstance and setLabelId methods, of class DataSet, on a
+     * DataSet read from a binary file, which copies the mapped columns first.
+     */
+    @Test
+    public void testModifyAfterRead() throws IOException {
+        System.out.println("modifyAfterRead");
+        DataSet original = sampleData(100);
+        Path    file     = written(original);
+
+        DataSet relabelled = TSDBinaryFormat.read(file);
+        int     gamma      = relabelled.labelIdOf("gamma");
+        relabelled.setLabelId(5, gamma);
+        assertEquals("gamma", relabelled.getLabel(5));
+        assertEquals(original.getLabel(6), relabelled.getLabel(6));
+        assertEquals(original.getName(5), relabelled.getName(5));
+        int[] changed = new int[2];
+        assertEquals(1, relabelled.drainLabelChanges(index -> changed[0] = index));
+        assertEquals(5, changed[0]);
+
+        DataSet grown = TSDBinaryFormat.read(file);
+        int     added = grown.addInstance("@new", "alpha", 1e6, -1e6);
+        assertEquals(100, added);
+        assertEquals(101, grown.size());
+        assertEquals(1e6, grown.getBounds("xMax"), 0);
+        assertEquals(-1e6, grown.getBounds("yMin"), 0);
+        assertEquals(original.getX(99), grown.getX(99), 0);
+        assertEquals(original.getName(99), grown.getName(99));
+        assertEquals(99, grown.indexOf(original.getName(99)));
+        // an existing name overwrites the instance
+        assertEquals(3, grown.addInstance(original.getName(3), "b\u00e9ta", 0, 0));
+        assertEquals("b\u00e9ta", grown.getLabel(3));
+        assertEquals(101, grown.size());
+
+        // the file itself is untouched
+        DataSet reread = TSDBinaryFormat.read(file);
+        assertEquals(original.getLabel(5), reread.getLabel(5));
+        assertEquals(100, reread.size());
+        Files.delete(file);
+    }
+
+    /**
+     * Test of read method, of class TSDBinaryFormat, with a file of another
+     * format.
+     */
+    @Test(expected = IOException.class)
+    public void testReadBadMagic() throws IOException {
+        System.out.println("readBadMagic");
+        Path file = written(sampleData(10));
+        try {
+            overwriteInt(file, 0, 0x44535400);
+            TSDBinaryFormat.read(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test of read method, of class TSDBinaryFormat, with a file of an unknown
+     * version.
+     */
+    @Test
+    public void testReadBadVersion() throws IOException {
+        System.out.println("readBadVersion");
+        Path file = written(sampleData(10));
+        overwriteInt(file, 4, 2);
+        try {
+            TSDBinaryFormat.read(file);
+            fail("version 2 was accepted");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("version 2"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Test of read method, of class TSDBinaryFormat, with files cut short in
+     * every section.
+     */
+    @Test
+    public void testReadTruncated() throws IOException {
+        System.out.println("readTruncated");
+        Path file = written(sampleData(50));
+        byte[] bytes = Files.readAllBytes(file);
+        // header, x column, label column, label dictionary, name offsets, name bytes
+        for (int length : new int[] { 0, 20, 100, 64 + 50 * 16 + 10, 64 + 50 * 20 + 3, 64 + 50 * 20 + 40,
+                                      bytes.length - 1 }) {
+            Files.write(file, Arrays.copyOf(bytes, length));
+            try {
+                TSDBinaryFormat.read(file);
+                fail("a file of " + length + " of " + bytes.length + " bytes was accepted");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * Test of read method, of class TSDBinaryFormat, with impossible counts
+     * and label lengths in the header and the label dictionary.
+     */
+    @Test
+    public void testReadCorruptHeader() throws IOException {
+        System.out.println("readCorruptHeader");
+        Path   file  = written(sampleData(50));
+        byte[] bytes = Files.readAllBytes(file);
+        int    label = 64 + 50 * 20; // length of the first label
+        int[][] corruptions = { { 8, -1 }, { 8, Integer.MAX_VALUE }, { 12, -1 }, { 12, Integer.MAX_VALUE },
+                                { 48, -1 }, { label, -1 }, { label, Integer.MAX_VALUE }, { label, 1 << 20 } };
+        for (int[] corruption : corruptions) {
+            Files.write(file, bytes);
+            overwriteInt(file, corruption[0], corruption[1]);
+            if (corruption[0] == 48) {
+                overwriteInt(file, 52, -1);
+            }
+            try {
+                TSDBinaryFormat.read(file);
+                fail(corruption[1] + " at " + corruption[0] + " was accepted");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("corrupt"));
+            }
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * Test of getLabelId, copyLabelIds and setLabelId methods, of class
+     * DataSet, on a binary file whose label column refers to a label that is
+     * not in its dictionary.
+     */
+    @Test
+    public void testReadCorruptLabelId() throws IOException {
+        System.out.println("readCorruptLabelId");
+        Path file = written(sampleData(50));
+        overwriteInt(file, 64 + 50 * 16 + 7 * Integer.BYTES, 3);
+        DataSet result = TSDBinaryFormat.read(file);
+        assertEquals(3, result.getLabelDictionary().size());
+        assertEquals(0, result.getLabelId(6));
+        try {
+            result.getLabelId(7);
+            fail("label id 3 of 3 labels was read");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("instance 7"));
+        }
+        try {
+            result.copyLabelIds(new int[50]);
+            fail("label id 3 of 3 labels was copied");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        // a label added since does not make the id valid
+        result.labelIdOf("gamma");
+        try {
+            result.setLabel(0, "alpha");
+            fail("label id 3 of 3 labels was copied onto the heap");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Files.delete(file);
+    }
+
+    private static void overwriteInt(Path file, long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(value).flip();
+            channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package data;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class TSDGeneratorTest {
+
+    public TSDGeneratorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Test of write method, of class TSDGenerator, read back by the parser.
+     */
+    @Test
+    public void testWrite() throws Exception {
+        System.out.println("write");
+        Path file = Files.createTempFile("generated", ".tsd");
+        TSDGenerator generator = new TSDGenerator(TSDGenerator.Distribution.SKEWED, 6, 3, 0.02, 11);
+        long bytes = generator.write(file, 200000);
+        assertEquals(Files.size(file), bytes);
+
+        ParallelTSDParser.Result result = ParallelTSDParser.parse(file);
+        assertEquals(200000, result.getLineCount());
+        assertEquals(200000, result.getDataSet().size() + result.getErrors().size());
+        assertEquals(4000, result.getErrors().size(), 400);
+        assertEquals(6, result.getDataSet().getLabelDictionary().size());
+        for (ParallelTSDParser.ParseError.Kind kind : ParallelTSDParser.ParseError.Kind.values()) {
+            boolean found = false;
+            for (ParallelTSDParser.ParseError error : result.getErrors()) {
+                found |= error.getKind() == kind;
+            }
+            assertTrue(kind.toString(), found);
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * Test of write method, of class TSDGenerator, writing the same file for
+     * the same settings.
+     */
+    @Test
+    public void testWriteIsReproducible() throws Exception {
+        System.out.println("writeIsReproducible");
+        Path first  = Files.createTempFile("generated", ".tsd");
+        Path second = Files.createTempFile("generated", ".tsd");
+        new TSDGenerator(TSDGenerator.Distribution.BLOBS, 3, 2, 0.01, 5).write(first, 150000);
+        new TSDGenerator(TSDGenerator.Distribution.BLOBS, 3, 2, 0.01, 5).write(second, 150000);
+        assertTrue(Arrays.equals(Files.readAllBytes(first), Files.readAllBytes(second)));
+        Files.delete(first);
+        Files.delete(second);
+    }
+}
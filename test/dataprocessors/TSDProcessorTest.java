@@ -0,0 +1,233 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package dataprocessors;
+
+import data.DataSet;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class TSDProcessorTest {
+
+    /** lines 2, 4 and 6 are malformed, line 5 repeats the name of line 1 */
+    private static final String MIXED = "@a\tred\t1,2\n"
+                                      + "@b\tred\n"
+                                      + "@c\tblue\t3,4\n"
+                                      + "d\tblue\t5,6\n"
+                                      + "@a\tgreen\t7,8\n"
+                                      + "@e\tnull\t9;10\n"
+                                      + "@f\tnull\t11,12";
+
+    public TSDProcessorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    private static Path write(String content) throws IOException {
+        Path file = Files.createTempFile("processed", ".tsd");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Test of processLine method, of class TSDProcessor.
+     */
+    @Test
+    public void testProcessLine() throws Exception {
+        System.out.println("processLine");
+        TSDProcessor instance = new TSDProcessor();
+        assertTrue(instance.processLine("@a\tred\t1.5,-2"));
+        assertFalse(instance.processLine("@b\tred\t1,x"));
+        assertTrue(instance.processLine("@c\tnull\t3,4"));
+        assertFalse(instance.processLine("@d"));
+        assertEquals(4, instance.getLineCount());
+        assertEquals(Arrays.asList(2L, 4L), instance.getErrorLineNumbers());
+
+        DataSet dataset = instance.getDataSet();
+        assertEquals(2, dataset.size());
+        assertEquals(1.5, dataset.getX(0), 0);
+        assertEquals(-2, dataset.getY(0), 0);
+        assertEquals("null", dataset.getLabel(1));
+        try {
+            instance.checkForErrors();
+            fail("lines 2 and 4 were accepted");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("Error on line #2: NumberFormatException"));
+            assertTrue(e.getMessage().contains("Error on line #4: IllegalArgumentException"));
+        }
+
+        instance.clear();
+        instance.checkForErrors();
+        assertEquals(0, instance.getLineCount());
+        assertEquals(0, instance.getDataSet().size());
+        assertTrue(instance.getErrorLineNumbers().isEmpty());
+    }
+
+    /**
+     * Test of processString method, of class TSDProcessor: every bad line is
+     * reported with its line number, and the good lines are loaded in the same
+     * pass.
+     */
+    @Test
+    public void testProcessStringErrors() {
+        System.out.println("processStringErrors");
+        TSDProcessor instance = new TSDProcessor();
+        try {
+            instance.processString(MIXED);
+            fail("a string with bad lines was accepted");
+        } catch (Exception e) {
+            String message = e.getMessage();
+            assertTrue(message.contains("Error on line #2: "));
+            assertTrue(message.contains("Error on line #4: InvalidDataNameException: Invalid name 'd'."));
+            assertTrue(message.contains("Error on line #5: DuplicateInstanceNameException: Duplicate instance name '@a'"));
+            assertTrue(message.contains("Error on line #6: "));
+            assertFalse(message.contains("line #1:"));
+            assertFalse(message.contains("more line(s)"));
+        }
+        assertEquals(7, instance.getLineCount());
+        assertEquals(Arrays.asList(2L, 4L, 5L, 6L), instance.getErrorLineNumbers());
+
+        DataSet dataset = instance.getDataSet();
+        assertEquals(3, dataset.size());
+        assertEquals("@a", dataset.getName(0));
+        assertEquals("@c", dataset.getName(1));
+        assertEquals("@f", dataset.getName(2));
+    }
+
+    /**
+     * Test of processString and getErrorLineNumbers methods, of class
+     * TSDProcessor, with more bad lines than the error message spells out.
+     */
+    @Test
+    public void testProcessStringManyErrors() {
+        System.out.println("processStringManyErrors");
+        StringBuilder content  = new StringBuilder();
+        List<Long>    expected = new ArrayList<>();
+        for (int line = 1; line <= 100; line++) {
+            if (line % 4 == 0) {
+                content.append("bad").append(line).append("\tred\t1,2\n");
+                expected.add((long) line);
+            } else {
+                content.append("@i").append(line).append("\tred\t").append(line).append(",0\n");
+            }
+        }
+        TSDProcessor instance = new TSDProcessor();
+        try {
+            instance.processString(content.toString());
+            fail("a string with bad lines was accepted");
+        } catch (Exception e) {
+            String message = e.getMessage();
+            assertTrue(message.contains("Error on line #40: "));
+            assertFalse(message.contains("Error on line #44: "));
+            assertTrue(message.contains("... and 15 more line(s) with errors."));
+        }
+        assertEquals(expected, instance.getErrorLineNumbers());
+        assertEquals(75, instance.getDataSet().size());
+        try {
+            instance.getErrorLineNumbers().add(101L);
+            fail("the error line numbers were modified");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test of processString method, of class TSDProcessor: a duplicate name
+     * leaves the first instance of that name untouched.
+     */
+    @Test
+    public void testProcessStringDuplicateName() {
+        System.out.println("processStringDuplicateName");
+        TSDProcessor instance = new TSDProcessor();
+        try {
+            instance.processString("@a\tred\t1,2\n@b\tblue\t3,4\n@a\tgreen\t5,6\n@a\tblue\t7,8");
+            fail("a duplicate name was accepted");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("Error on line #3: DuplicateInstanceNameException"));
+            assertTrue(e.getMessage().contains("Error on line #4: DuplicateInstanceNameException"));
+        }
+        assertEquals(Arrays.asList(3L, 4L), instance.getErrorLineNumbers());
+        DataSet dataset = instance.getDataSet();
+        assertEquals(2, dataset.size());
+        assertEquals(0, dataset.indexOf("@a"));
+        assertEquals("red", dataset.getLabel(0));
+        assertEquals(1, dataset.getX(0), 0);
+        assertFalse(dataset.getLabelDictionary().contains("green"));
+    }
+
+    /**
+     * Test of getErrorLineNumber method, of class TSDProcessor: valid data is
+     * loaded in a single pass, and its labels are returned without the
+     * <code>null</code> label.
+     */
+    @Test
+    public void testGetErrorLineNumber() throws Exception {
+        System.out.println("getErrorLineNumber");
+        TSDProcessor    instance = new TSDProcessor();
+        HashSet<String> result   = instance.getErrorLineNumber("@a\tred\t1,2\n@b\tblue\t3,4\n@c\tnull\t5,6\n");
+        assertEquals(new HashSet<>(Arrays.asList("red", "blue")), result);
+        assertEquals(3, instance.getLineCount());
+        assertTrue(instance.getErrorLineNumbers().isEmpty());
+
+        DataSet dataset = instance.getDataSet();
+        assertEquals(3, dataset.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(2 * i + 1, dataset.getX(i), 0);
+            assertEquals(2 * i + 2, dataset.getY(i), 0);
+        }
+        assertEquals("blue", dataset.getLabel(dataset.indexOf("@b")));
+    }
+
+    /**
+     * Test of processFile method, of class TSDProcessor: the errors found by
+     * the parallel parser are reported on the same lines as
+     * {@link TSDProcessor#processString(String)} reports them.
+     */
+    @Test
+    public void testProcessFile() throws Exception {
+        System.out.println("processFile");
+        Path file = write(MIXED + "\n");
+        TSDProcessor instance = new TSDProcessor();
+        instance.processLine("@stale\tred\t0,0");
+        instance.processFile(file);
+        assertEquals(7, instance.getLineCount());
+        assertEquals(Arrays.asList(2L, 4L, 5L, 6L), instance.getErrorLineNumbers());
+        try {
+            instance.checkForErrors();
+            fail("a file with bad lines was accepted");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("Error on line #4: InvalidDataNameException: Invalid name 'd'."));
+            assertTrue(e.getMessage().contains("Error on line #5: DuplicateInstanceNameException: Duplicate instance name '@a'"));
+        }
+
+        DataSet dataset = instance.getDataSet();
+        assertEquals(3, dataset.size());
+        assertEquals(-1, dataset.indexOf("@stale"));
+        assertEquals("red", dataset.getLabel(dataset.indexOf("@a")));
+        assertEquals(11, dataset.getX(dataset.indexOf("@f")), 0);
+        assertEquals(new HashSet<>(Arrays.asList("red", "blue")), instance.getUniqueLabels());
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package ui;
+
+import algorithms.LinearModel;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author aaronknoll
+ */
+public class LineClipperTest {
+
+    public LineClipperTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    /**
+     * Clips a line to [0, 100] by [0, 100].
+     */
+    private static double[] clip(double a, double b, double c) {
+        return LineClipper.clip(new LinearModel(a, b, c), 0, 100, 0, 100);
+    }
+
+    /**
+     * Asserts that a segment joins two points, in either order.
+     */
+    private static void assertSegment(double x1, double y1, double x2, double y2, double[] segment) {
+        assertNotNull(segment);
+        assertEquals(4, segment.length);
+        boolean reversed = Math.abs(segment[0] - x1) + Math.abs(segment[1] - y1)
+                           > Math.abs(segment[0] - x2) + Math.abs(segment[1] - y2);
+        assertEquals(reversed ? x2 : x1, segment[0], 1e-9);
+        assertEquals(reversed ? y2 : y1, segment[1], 1e-9);
+        assertEquals(reversed ? x1 : x2, segment[2], 1e-9);
+        assertEquals(reversed ? y1 : y2, segment[3], 1e-9);
+    }
+
+    /**
+     * Test of clip method, of class LineClipper, with lines of positive slope.
+     */
+    @Test
+    public void testClipPositiveSlope() {
+        System.out.println("clipPositiveSlope");
+        // y = x - 50 enters through the bottom side and leaves through the right one
+        assertSegment(50, 0, 100, 50, clip(1, -1, -50));
+        // y = x + 10 enters through the left side and leaves through the top one
+        assertSegment(0, 10, 90, 100, clip(1, -1, 10));
+        // y = x, through two corners
+        assertSegment(0, 0, 100, 100, clip(1, -1, 0));
+        // y = 3x - 30, from the bottom side to the top one
+        assertSegment(10, 0, 130.0 / 3, 100, clip(3, -1, -30));
+    }
+
+    /**
+     * Test of clip method, of class LineClipper, with lines of negative slope.
+     */
+    @Test
+    public void testClipNegativeSlope() {
+        System.out.println("clipNegativeSlope");
+        // y = 60 - x, from the left side to the bottom one
+        assertSegment(0, 60, 60, 0, clip(1, 1, -60));
+        // y = 150 - x, from the top side to the right one
+        assertSegment(50, 100, 100, 50, clip(1, 1, -150));
+        // y = 100 - x, through two corners
+        assertSegment(0, 100, 100, 0, clip(1, 1, -100));
+        // y = 80 - x / 4, from the left side to the right one
+        assertSegment(0, 80, 100, 55, clip(1, 4, -320));
+    }
+
+    /**
+     * Test of clip method, of class LineClipper, with horizontal and vertical
+     * lines.
+     */
+    @Test
+    public void testClipAxisParallel() {
+        System.out.println("clipAxisParallel");
+        assertSegment(0, 30, 100, 30, clip(0, 2, -60));
+        assertSegment(40, 0, 40, 100, clip(-1, 0, 40));
+        // along a side of the rectangle
+        assertSegment(0, 0, 100, 0, clip(0, 1, 0));
+        assertSegment(100, 0, 100, 100, clip(1, 0, -100));
+    }
+
+    /**
+     * Test of clip method, of class LineClipper, with lines outside the
+     * rectangle or touching one of its corners.
+     */
+    @Test
+    public void testClipMiss() {
+        System.out.println("clipMiss");
+        assertNull(clip(1, -1, 200));
+        assertNull(clip(1, -1, -101));
+        assertNull(clip(1, 1, 1));
+        assertNull(clip(1, 1, -201));
+        assertNull(clip(0, 1, -150));
+        assertNull(clip(1, 0, 5));
+        assertSegment(0, 0, 0, 0, clip(1, 1, 0));
+        assertSegment(100, 0, 100, 0, clip(1, -1, -100));
+    }
+}